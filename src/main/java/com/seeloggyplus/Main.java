@@ -1,6 +1,8 @@
 package com.seeloggyplus;
 
 import com.seeloggyplus.service.PreferenceService;
+import com.seeloggyplus.service.impl.CompressedLogFiles;
+import com.seeloggyplus.service.impl.ParserExecutor;
 import com.seeloggyplus.service.impl.PreferenceServiceImpl;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
@@ -54,6 +56,10 @@ public class Main extends Application {
         this.primaryStage = primaryStage;
         this.preferenceService = new PreferenceServiceImpl();
 
+        Thread spillCleanup = new Thread(CompressedLogFiles::deleteStaleSpillFiles, "spill-cleanup");
+        spillCleanup.setDaemon(true);
+        spillCleanup.start();
+
         try {
             // Load main view
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/MainView.fxml"));
@@ -180,7 +186,7 @@ public class Main extends Application {
      */
     private void cleanup() {
         logger.info("Cleaning up application resources");
-        // Add any cleanup tasks here
+        ParserExecutor.shutdown();
     }
 
     /**
@@ -56,7 +56,8 @@ public class DatabaseConfig {
                 + "name TEXT NOT NULL UNIQUE,"
                 + "description TEXT,"
                 + "regex_pattern TEXT NOT NULL,"
-                + "timestamp_format TEXT"
+                + "timestamp_format TEXT,"
+                + "parser_type TEXT"
                 + ");";
 
         String createSshServerTable = "CREATE TABLE IF NOT EXISTS ssh_servers ("
@@ -116,6 +117,7 @@ public class DatabaseConfig {
             
             // Migration: Add timestamp_format column if not exists
             migrateTimestampFormat();
+            migrateParserType();
         } catch (SQLException e) {
             logger.error("Failed to create tables.", e);
         }
@@ -149,4 +151,23 @@ public class DatabaseConfig {
             logger.error("Failed to migrate timestamp_format column", e);
         }
     }
+
+    /**
+     * Migration: Add parser_type column to existing parsing_configs table
+     */
+    private void migrateParserType() {
+        try (Statement stmt = connection.createStatement();
+             var rs = stmt.executeQuery("PRAGMA table_info(parsing_configs)")) {
+            while (rs.next()) {
+                if ("parser_type".equals(rs.getString("name"))) {
+                    logger.debug("parser_type column already exists in parsing_configs table");
+                    return;
+                }
+            }
+            stmt.execute("ALTER TABLE parsing_configs ADD COLUMN parser_type TEXT");
+            logger.info("Migration: Added parser_type column to parsing_configs table");
+        } catch (SQLException e) {
+            logger.error("Failed to migrate parser_type column", e);
+        }
+    }
 }
\ No newline at end of file
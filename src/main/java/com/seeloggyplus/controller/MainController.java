@@ -1,22 +1,29 @@
 package com.seeloggyplus.controller;
 
 import com.seeloggyplus.dto.RecentFilesDto;
+import com.seeloggyplus.exceptions.LogFileChangedException;
 import com.seeloggyplus.model.*;
 import com.seeloggyplus.service.*;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 import com.seeloggyplus.service.impl.*;
+import com.seeloggyplus.util.CancellationToken;
 import com.seeloggyplus.util.JsonPrettify;
 import com.seeloggyplus.util.PasswordPromptDialog;
+import com.seeloggyplus.util.SearchCriteria;
+import com.seeloggyplus.util.SearchQuery;
 import com.seeloggyplus.util.XmlPrettify;
 import de.jensd.fx.glyphs.fontawesome.FontAwesomeIconView;
 import javafx.geometry.Side;
@@ -34,6 +41,7 @@ import javafx.scene.control.Tooltip;
 import javafx.scene.input.*;
 import javafx.scene.layout.*;
 import javafx.scene.text.Text;
+import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import org.fxmisc.richtext.CodeArea;
@@ -49,6 +57,35 @@ public class MainController {
     private TimerTask selectionTask;
     private static final long SELECTION_DELAY = 150; // ms
 
+    // --- Debounce for search as you type ---
+    private final Timer searchTimer = new Timer("Search-Debounce-Timer", true);
+    private TimerTask searchDebounceTask;
+    private static final long SEARCH_DELAY = 250; // ms
+
+    // --- Log detail panel limits; larger entries are shown cut and can be saved in full ---
+    private static final int MAX_DETAIL_CHARS = 2 * 1024 * 1024;
+    private static final int MAX_AUTO_PRETTIFY_CHARS = 256 * 1024;
+
+    private static final List<DateTimeFormatter> DATE_FILTER_FORMATTERS = List.of(
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss.SSS"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm"),
+            DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss.SSS"),
+            DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss"),
+            DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss.SSS"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"),
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    private static final List<DateTimeFormatter> DATE_ONLY_FILTER_FORMATTERS = List.of(
+            DateTimeFormatter.ofPattern("yyyy-MM-dd"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd"),
+            DateTimeFormatter.ofPattern("dd-MM-yyyy"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+
     // FXML Components - MenuBar
     @FXML
     private MenuBar menuBar;
@@ -114,6 +151,8 @@ public class MainController {
     @FXML
     private Label statusLabel;
     @FXML
+    private Label indexStatusLabel;
+    @FXML
     private ProgressBar progressBar;
     @FXML
     public ToggleButton hideUnparsedCheckBox;
@@ -151,11 +190,14 @@ public class MainController {
     private Button copyButton;
     @FXML
     private Button clearDetailButton;
+    @FXML
+    private Button saveDetailButton;
 
     // Services and Data
     private ParsingConfigService parsingConfigService;
     private RecentFileService recentFileService;
     private LogParserService logParserService;
+    private LogIndexStore logIndexStore;
     private PreferenceService preferenceService;
     private LogFileService logFileService;
     private ServerManagementService serverManagementService;
@@ -166,16 +208,22 @@ public class MainController {
     private ObservableList<LogEntry> visibleLogEntries;
     private ParsingConfig currentParsingConfig;
     private File currentFile;
+    // Where the text of currentFile is read from; a decompressed copy for compressed files
+    private File currentContentFile;
     private boolean isLeftPanelPinned = true;
     private boolean isBottomPanelPinned = true;
     private Task<?> currentLoadingTask = null;
+    private long firstRowsMillis = -1;
     private LogFileWatcher logFileWatcher;
     private int windowSize = 5000;
+    private long lazyLoadThresholdBytes = 512L * 1024 * 1024;
+    private long searchIndexBudgetBytes = 256L * 1024 * 1024;
     private int sshDownloadThreads = 4;
     private int currentWindowStartIndex = 0;
     private boolean tailModeEnabled = false;
     private SSHServiceImpl activeTailSshService;
     private long remoteTailLineCounter = 0;
+    private volatile ParsingConfig remoteTailResolvedConfig;
     private String monitoringRemotePath;
     private final List<LogEntry> tailBuffer = Collections.synchronizedList(new ArrayList<>());
 
@@ -184,7 +232,21 @@ public class MainController {
     private boolean tailColumnsAutoResized = false;
     private boolean autoPrettifyJson = false;
     private boolean autoPrettifyXml = false;
+    // Set once the user was told the open file changed under it, so paging doesn't ask again
+    private boolean fileChangedReported = false;
+    // Entry in the detail panel when only its start is shown, and the source to save it from
+    private LogEntry truncatedDetailEntry;
+    private LogEntrySource truncatedDetailSource;
     private Predicate<LogEntry> currentTailFilterPredicate = null;
+    private CancellationToken activeSearch;
+    // Last completed search, refined instead of rescanning when a new search narrows it
+    private SearchCriteria lastSearch;
+    private LogEntrySource lastSearchResult;
+    private LogEntrySource lastSearchBase;
+    private int lastSearchBaseTotal;
+    // Keyword index of the loaded source, built in the background after a load
+    private TokenIndex tokenIndex;
+    private CancellationToken tokenIndexBuild;
 
     @FXML
     public void initialize() {
@@ -194,6 +256,7 @@ public class MainController {
         recentFileService = new RecentConfigServiceImpl();
         preferenceService = new PreferenceServiceImpl();
         logParserService = new LogParserService();
+        logIndexStore = new LogIndexStore();
         logFileService = new LogFileServiceImpl();
         serverManagementService = new ServerManagementServiceImpl();
 
@@ -257,7 +320,7 @@ public class MainController {
         changeParsingConfigMenuItem.setOnAction(actionEvent -> {
             RecentFilesDto selectedRecent = recentFilesListView.getSelectionModel().getSelectedItem();
             if (selectedRecent != null) {
-                ParsingConfig parsingConfig = showParsingConfigSelectionDialog();
+                ParsingConfig parsingConfig = showParsingConfigSelectionDialog(localFileOf(selectedRecent.logFile()));
                 if (parsingConfig != null) {
                     handleRecentFileSelectedWithConfig(selectedRecent, parsingConfig);
                 }
@@ -374,6 +437,7 @@ public class MainController {
         });
 
         searchField.setOnAction(e -> performSearch());
+        searchField.textProperty().addListener((obs, oldVal, newVal) -> scheduleSearch());
         searchField.setOnKeyPressed(event -> {
             if (event.getCode() == KeyCode.ESCAPE) {
                 clearSearch();
@@ -603,6 +667,8 @@ public class MainController {
 
         copyButton.setOnAction(e -> copyDetailToClipboard());
         clearDetailButton.setOnAction(e -> clearDetail());
+        saveDetailButton.setOnAction(e -> saveFullDetail());
+        showSaveDetailButton(false);
         pinBottomPanelButton.setOnAction(e -> handleToggleBottomPanelPin());
         expandBottomPanelButton.setOnAction(e -> handleToggleBottomPanelPin());
         updateBottomPanelDisplay();
@@ -613,6 +679,14 @@ public class MainController {
         if (currentText == null || currentText.isEmpty()) {
             return;
         }
+        if (currentText.length() > MAX_AUTO_PRETTIFY_CHARS) {
+            // Scanning and restyling megabytes on the FX thread freezes the window
+            if (autoPrettifyJson || autoPrettifyXml) {
+                updateStatus(String.format("Auto-prettify skipped: log detail is over %,d chars",
+                        MAX_AUTO_PRETTIFY_CHARS));
+            }
+            return;
+        }
 
         if (autoPrettifyJson) {
             prettifyJson(false);
@@ -945,7 +1019,9 @@ public class MainController {
                 return;
             }
 
-            ParsingConfig selectedConfig = showParsingConfigSelectionDialog();
+            File localFile = selectedFile.getSourceType() == FileInfo.SourceType.LOCAL
+                    ? new File(selectedFile.getPath()) : null;
+            ParsingConfig selectedConfig = showParsingConfigSelectionDialog(localFile);
             if (selectedConfig == null) {
                 logger.info("No parsing configuration selected, operation cancelled.");
                 if (sshService != null) {
@@ -1055,6 +1131,9 @@ public class MainController {
             currentLoadingTask.cancel(true);
             logger.info("Previous task cancellation requested.");
         }
+        // Chunk workers do not belong to the task's thread; stop them too. The next parse
+        // waits for them to finish before it starts its own.
+        logParserService.cancelActiveParse();
 
         if (visibleLogEntries != null && !visibleLogEntries.isEmpty()) {
             int previousSize = visibleLogEntries.size();
@@ -1062,6 +1141,9 @@ public class MainController {
             logger.info("Cleared {} entries from memory", previousSize);
         }
 
+        forgetLastSearch();
+        discardTokenIndex();
+        closeLogEntrySource(originalLogEntrySource);
         currentLogEntrySource = null;
         originalLogEntrySource = null;
         System.gc();
@@ -1082,9 +1164,90 @@ public class MainController {
             return;
         }
 
+        if (CompressedLogFiles.isCompressed(file)) {
+            decompressAndOpen(file, updateRecentFilesList, parsingConfig);
+            return;
+        }
+        openLocalLogFile(file, file, updateRecentFilesList, parsingConfig);
+    }
+
+    /**
+     * Decompresses a compressed log in the background, then opens its decompressed content.
+     */
+    private void decompressAndOpen(File file, boolean updateRecentFilesList, ParsingConfig parsingConfig) {
+        cancelCurrentLoadingTask();
+        progressBar.setVisible(true);
+        progressBar.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+        updateStatus("Decompressing file: " + file.getName());
+
+        Task<File> task = new Task<>() {
+            @Override
+            protected File call() throws IOException {
+                return CompressedLogFiles.decompress(file, new LogParserService.ProgressCallback() {
+                    @Override
+                    public void onProgress(double progress, long bytesProcessed, long totalBytes) {
+                        updateProgress(bytesProcessed, totalBytes);
+                        Platform.runLater(() -> {
+                            progressBar.setProgress(progress);
+                            updateStatus(String.format("Decompressing... %.1f%% (%s / %s)", progress * 100,
+                                    formatBytes(bytesProcessed), formatBytes(totalBytes)));
+                        });
+                    }
+
+                    @Override
+                    public void onComplete(long totalEntries) {
+                    }
+                });
+            }
+        };
+
+        task.setOnSucceeded(e -> {
+            currentLoadingTask = null;
+            openLocalLogFile(file, task.getValue(), updateRecentFilesList, parsingConfig);
+        });
+
+        task.setOnFailed(e -> {
+            progressBar.setVisible(false);
+            Throwable ex = task.getException();
+            logger.error("Failed to decompress file", ex);
+            showError("Failed to load file", "Could not decompress " + file.getName() + ": " + ex.getMessage());
+            updateStatus("Failed to load file");
+            currentLoadingTask = null;
+        });
+
+        task.setOnCancelled(e -> {
+            progressBar.setVisible(false);
+            logger.info("Decompression cancelled by user");
+            updateStatus("Decompression cancelled");
+            currentLoadingTask = null;
+        });
+
+        currentLoadingTask = task;
+
+        new Thread(task).start();
+    }
+
+    /**
+     * @param contentFile where the log text is read from: the file itself, or the decompressed
+     *                    copy of a compressed file
+     */
+    private void openLocalLogFile(File file, File contentFile, boolean updateRecentFilesList,
+            ParsingConfig parsingConfig) {
+        if (parsingConfig.isStructured()) {
+            try {
+                parsingConfig = logParserService.resolveColumns(contentFile, parsingConfig);
+            } catch (IOException e) {
+                logger.error("Failed to sample columns of {}", file, e);
+                progressBar.setVisible(false);
+                showError("File Error", "Could not read the file: " + e.getMessage());
+                return;
+            }
+        }
+
         cancelCurrentLoadingTask();
 
         currentFile = file;
+        fileChangedReported = false;
         currentParsingConfig = parsingConfig;
         updateDateTimeFilterPromptText(parsingConfig);
         logger.info("Updated date filter prompt to match parsing config: {} (format: {})", parsingConfig.getName(),
@@ -1099,40 +1262,184 @@ public class MainController {
 
         this.currentLogDb = logFile;
         this.currentFile = file;
+        this.currentContentFile = contentFile;
 
-        long fileSizeInBytes = file.length();
+        long fileSizeInBytes = contentFile.length();
         logger.info("Starting to parse file: {} ({}) with config: {}",
                 file.getName(),
                 com.seeloggyplus.util.FileUtils.formatFileSize(fileSizeInBytes),
                 parsingConfig.getName());
 
-        logger.info("Using parallel parsing strategy with virtual scrolling for optimal performance");
-        loadFileWithParallelParsing(file, parsingConfig, logFile, updateRecentFilesList);
+        if (fileSizeInBytes >= lazyLoadThresholdBytes) {
+            logger.info("Using file-backed lazy parsing for large file (threshold {})",
+                    com.seeloggyplus.util.FileUtils.formatFileSize(lazyLoadThresholdBytes));
+            loadFileLazily(file, contentFile, parsingConfig, logFile, updateRecentFilesList);
+        } else {
+            logger.info("Using parallel parsing strategy with virtual scrolling for optimal performance");
+            loadFileWithParallelParsing(file, contentFile, parsingConfig, logFile, updateRecentFilesList);
+        }
     }
 
-    private void loadFileWithParallelParsing(File file, ParsingConfig parsingConfig, LogFile logFile,
+    /**
+     * Indexes the file and browses it through a {@link FileBackedLogEntrySourceImpl}, which parses
+     * only the entries of the window being shown.
+     */
+    private void loadFileLazily(File file, File contentFile, ParsingConfig parsingConfig, LogFile logFile,
             boolean updateRecentFilesList) {
         progressBar.setVisible(true);
         progressBar.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
-        updateStatus("Parsing file: " + file.getName());
+        updateStatus("Indexing file: " + file.getName());
+
+        long loadStartNanos = System.nanoTime();
+        long budgetExceededBefore = logParserService.getRegexBudgetExceededCount();
+        Task<FileBackedLogEntrySourceImpl> task = new Task<>() {
+            @Override
+            protected FileBackedLogEntrySourceImpl call() throws IOException {
+                LogCacheKey cacheKey = new LogCacheKey(contentFile.getAbsolutePath(), contentFile.lastModified(),
+                        contentFile.length(), parsingConfig.getId());
+                Optional<LogIndex> storedIndex = logIndexStore.load(cacheKey, parsingConfig);
+                if (storedIndex.isPresent() && storedIndex.get().getLineIndex().getEndOffset() >= cacheKey.fileSize()) {
+                    logger.info("Reusing index sidecar for {}", file.getName());
+                    return new FileBackedLogEntrySourceImpl(contentFile, storedIndex.get(), parsingConfig,
+                            logParserService);
+                }
 
-        Task<List<LogEntry>> task = getListTask(file, parsingConfig);
+                LogParserService.ProgressCallback indexCallback = new LogParserService.ProgressCallback() {
+                            @Override
+                            public void onProgress(double progress, long bytesProcessed, long totalBytes) {
+                                updateProgress(bytesProcessed, totalBytes);
+                                Platform.runLater(() -> {
+                                    progressBar.setProgress(progress);
+                                    updateStatus(String.format(
+                                            "Indexing... %.1f%% (%s / %s)",
+                                            progress * 100,
+                                            formatBytes(bytesProcessed),
+                                            formatBytes(totalBytes)));
+                                });
+                            }
+
+                            @Override
+                            public void onComplete(long totalEntries) {
+                                Platform.runLater(() -> logger.info("Indexed {} entries", totalEntries));
+                            }
+                        };
+
+                // An index of a shorter version of the file only needs its tail indexed
+                LogIndex logIndex;
+                if (storedIndex.isPresent()) {
+                    logIndex = storedIndex.get();
+                    logParserService.extendLogIndex(contentFile, parsingConfig, logIndex, indexCallback);
+                } else {
+                    logIndex = logParserService.buildLogIndex(contentFile, parsingConfig, indexCallback);
+                }
+                logIndexStore.save(cacheKey, parsingConfig, logIndex);
+                return new FileBackedLogEntrySourceImpl(contentFile, logIndex, parsingConfig, logParserService);
+            }
+        };
 
         task.setOnSucceeded(e -> {
-            List<LogEntry> entries = task.getValue();
-            logger.info("Parsing complete! Loaded {} entries", entries.size());
-            originalLogEntrySource = new ListLogEntrySourceImpl(entries);
-            currentLogEntrySource = originalLogEntrySource;
+            FileBackedLogEntrySourceImpl source = task.getValue();
+            originalLogEntrySource = source;
+            currentLogEntrySource = source;
 
             updateTableColumns(currentParsingConfig);
-            logger.info("Updated table columns for config: {}", currentParsingConfig.getName());
+            int totalEntries = source.getTotalEntries();
+            loadWindow(Math.max(0, totalEntries - windowSize), true);
+            autoResizeColumns(logTableView);
 
-            Platform.runLater(() -> {
-                int total = currentLogEntrySource.getTotalEntries();
-                loadWindow(Math.max(0, total - windowSize), true);
+            if (updateRecentFilesList) {
+                RecentFile recentFile = new RecentFile();
+                recentFile.setFileId(logFile.getId());
+                recentFile.setLastOpened(LocalDateTime.now());
+                recentFileService.save(logFile, recentFile);
+                refreshRecentFilesList();
+                logger.info("Added file to recent files: {}", file.getName());
+            }
+
+            long indexMillis = (System.nanoTime() - loadStartNanos) / 1_000_000;
+            updateStatus(String.format("Showing %,d entries from %s (indexed in %,d ms, parsed on demand)%s",
+                    totalEntries, file.getName(), indexMillis, regexBudgetNote(budgetExceededBefore)));
+            progressBar.setVisible(false);
+            startTokenIndex(source);
+
+            updateTailButtonState();
+            currentLoadingTask = null;
+        });
+
+        task.setOnFailed(e -> {
+            progressBar.setVisible(false);
+            Throwable ex = task.getException();
+            logger.error("Failed to index file", ex);
+            showError("Failed to load file", ex.getMessage());
+            updateStatus("Failed to load file");
+            currentLoadingTask = null;
+        });
+
+        task.setOnCancelled(e -> {
+            progressBar.setVisible(false);
+            logger.info("Indexing cancelled by user");
+            updateStatus("Indexing cancelled");
+            currentLoadingTask = null;
+        });
+
+        currentLoadingTask = task;
+
+        new Thread(task).start();
+    }
+
+    private void closeLogEntrySource(LogEntrySource source) {
+        if (source instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close log entry source: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Status suffix for lines the parser gave up on since {@code countBefore}, or an empty string.
+     */
+    private String regexBudgetNote(long countBefore) {
+        long exceeded = logParserService.getRegexBudgetExceededCount() - countBefore;
+        return exceeded > 0 ? String.format(" - %,d lines left unparsed: pattern too slow on them", exceeded) : "";
+    }
+
+    private void loadFileWithParallelParsing(File file, File contentFile, ParsingConfig parsingConfig,
+            LogFile logFile, boolean updateRecentFilesList) {
+        progressBar.setVisible(true);
+        progressBar.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+        updateStatus("Parsing file: " + file.getName());
+
+        // The table is bound to the source right away and fills up while the parser publishes blocks
+        long loadStartNanos = System.nanoTime();
+        long budgetExceededBefore = logParserService.getRegexBudgetExceededCount();
+        StreamingLogEntrySourceImpl source = new StreamingLogEntrySourceImpl();
+        originalLogEntrySource = source;
+        currentLogEntrySource = source;
+        currentWindowStartIndex = 0;
+        firstRowsMillis = -1;
+        updateTableColumns(currentParsingConfig);
+        logger.info("Updated table columns for config: {}", currentParsingConfig.getName());
+
+        Task<Void> task = getStreamingTask(contentFile, parsingConfig, source, loadStartNanos);
+
+        task.setOnSucceeded(e -> {
+            if (originalLogEntrySource != source) {
+                return;
+            }
+            int totalEntries = source.getTotalEntries();
+            long parseMillis = (System.nanoTime() - loadStartNanos) / 1_000_000;
+            logger.info("Parsing complete! Loaded {} entries in {} ms (first rows after {} ms)",
+                    totalEntries, parseMillis, firstRowsMillis);
+
+            // Land on the tail like before, unless the user already started browsing the first rows
+            if (currentLogEntrySource == source && currentWindowStartIndex == 0
+                    && logTableView.getSelectionModel().getSelectedItem() == null) {
+                loadWindow(Math.max(0, totalEntries - windowSize), true);
                 logger.info("Initial window loaded after parse");
-                autoResizeColumns(logTableView);
-            });
+            }
+            autoResizeColumns(logTableView);
 
             if (updateRecentFilesList) {
                 RecentFile recentFile = new RecentFile();
@@ -1143,10 +1450,11 @@ public class MainController {
                 logger.info("Added file to recent files: {}", file.getName());
             }
 
-            int totalEntries = entries.size();
-            updateStatus(String.format("Showing all %,d entries from %s (virtual scrolling ⚡)", totalEntries,
-                    file.getName()));
+            updateStatus(String.format("Showing all %,d entries from %s (first rows in %,d ms, parsed in %,d ms)%s",
+                    totalEntries, file.getName(), Math.max(0, firstRowsMillis), parseMillis,
+                    regexBudgetNote(budgetExceededBefore)));
             progressBar.setVisible(false);
+            startTokenIndex(source);
 
             updateTailButtonState();
             currentLoadingTask = null;
@@ -1173,35 +1481,77 @@ public class MainController {
         new Thread(task).start();
     }
 
-    private Task<List<LogEntry>> getListTask(File file, ParsingConfig parsingConfig) {
+    private Task<Void> getStreamingTask(File file, ParsingConfig parsingConfig, StreamingLogEntrySourceImpl source,
+            long loadStartNanos) {
         final ParsingConfig configToUse = parsingConfig;
 
         return new Task<>() {
             @Override
-            protected List<LogEntry> call() throws IOException {
-                return logParserService.parseFileParallel(file, configToUse, new LogParserService.ProgressCallback() {
+            protected Void call() throws IOException {
+                logParserService.parseFileStreaming(file, configToUse, source, new LogParserService.ProgressCallback() {
                     @Override
                     public void onProgress(double progress, long bytesProcessed, long totalBytes) {
                         updateProgress(bytesProcessed, totalBytes);
                         Platform.runLater(() -> {
                             progressBar.setProgress(progress);
                             updateStatus(String.format(
-                                    "Parsing... %.1f%% (%s / %s)",
+                                    "Parsing... %.1f%% (%s / %s), %,d entries ready%s",
                                     progress * 100,
                                     formatBytes(bytesProcessed),
-                                    formatBytes(totalBytes)));
+                                    formatBytes(totalBytes),
+                                    source.getTotalEntries(),
+                                    firstRowsMillis >= 0 ? String.format(", first rows in %,d ms", firstRowsMillis) : ""));
                         });
                     }
 
+                    @Override
+                    public void onEntriesPublished(int totalEntries) {
+                        Platform.runLater(() -> fillStreamingWindow(source, loadStartNanos));
+                    }
+
                     @Override
                     public void onComplete(long totalEntries) {
                         Platform.runLater(() -> logger.info("Parsed {} entries", totalEntries));
                     }
                 });
+                return null;
             }
         };
     }
 
+    /**
+     * Tops up the visible window with newly published entries while a file is still being parsed.
+     * Entries are appended rather than reset so scroll position and selection survive.
+     */
+    private void fillStreamingWindow(StreamingLogEntrySourceImpl source, long loadStartNanos) {
+        if (originalLogEntrySource != source || currentLogEntrySource != source) {
+            return;
+        }
+
+        int visible = visibleLogEntries.size();
+        if (visible >= windowSize) {
+            return;
+        }
+
+        List<LogEntry> newEntries;
+        try {
+            newEntries = source.getEntries(currentWindowStartIndex + visible, windowSize - visible);
+        } catch (LogFileChangedException e) {
+            reportFileChanged(e);
+            return;
+        }
+        if (newEntries.isEmpty()) {
+            return;
+        }
+        visibleLogEntries.addAll(newEntries);
+
+        if (firstRowsMillis < 0) {
+            firstRowsMillis = (System.nanoTime() - loadStartNanos) / 1_000_000;
+            autoResizeColumns(logTableView);
+            logger.info("First {} rows displayed after {} ms", visibleLogEntries.size(), firstRowsMillis);
+        }
+    }
+
     private LogFile getOrCreateLogFile(File file, ParsingConfig parsingConfig) {
         try {
             LogFile existingLogFile = logFileService.getLogFileByPathAndName(file.getName(), file.getAbsolutePath());
@@ -1241,13 +1591,25 @@ public class MainController {
         }
     }
 
-    private ParsingConfig showParsingConfigSelectionDialog() {
+    /**
+     * The local file behind a recent file entry, or null for remote files.
+     */
+    private static File localFileOf(LogFile logFile) {
+        return logFile == null || logFile.isRemote() || logFile.getFilePath() == null ? null
+                : new File(logFile.getFilePath());
+    }
+
+    /**
+     * @param file the local file the config is for, used to preselect the best matching config; may be null
+     */
+    private ParsingConfig showParsingConfigSelectionDialog(File file) {
         try {
             FXMLLoader loader = new FXMLLoader(
                     getClass().getResource("/fxml/ParsingConfigurationSelectionDialog.fxml"));
             DialogPane dialogPane = loader.load();
 
             ParsingConfigurationSelectionDialogController controller = loader.getController();
+            controller.detectConfigFor(file);
 
             Dialog<ButtonType> dialog = new Dialog<>();
             dialog.setTitle("Select Parsing Configuration");
@@ -1381,6 +1743,26 @@ public class MainController {
             logger.warn("Invalid window size preference: {}", windowSizeStr);
         }
 
+        // Files at or above this size are indexed and parsed on demand instead of fully in memory
+        String lazyThresholdStr = preferenceService.getPreferencesByCode("main_lazy_load_threshold_mb").orElse("512");
+        try {
+            this.lazyLoadThresholdBytes = Long.parseLong(lazyThresholdStr) * 1024 * 1024;
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid lazy load threshold preference: {}", lazyThresholdStr);
+        }
+
+        // Heap the keyword search index may take; 0 turns it off. Applies from the next load
+        String indexBudgetStr = preferenceService.getPreferencesByCode("main_search_index_budget_mb").orElse("256");
+        try {
+            this.searchIndexBudgetBytes = Long.parseLong(indexBudgetStr) * 1024 * 1024;
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid search index budget preference: {}", indexBudgetStr);
+        }
+
+        // Where parsed entries keep their raw text; applies from the next parse
+        logParserService.setRawLogStorage(RawLogStorage.fromPreference(
+                preferenceService.getPreferencesByCode("main_raw_log_storage").orElse("HEAP")));
+
         // SSH Threads
         String threadsStr = preferenceService.getPreferencesByCode("ssh_download_threads").orElse("4");
         try {
@@ -1432,6 +1814,162 @@ public class MainController {
         });
     }
 
+    /**
+     * Re-parses the open file with an edited config without reading it from disk again: the line
+     * index of the current source is kept and only field extraction is re-run, in parallel. The
+     * visible window is re-parsed first so the table switches to the new columns right away; the
+     * window position and selection are kept when the whole file is done.
+     *
+     * @return false if the open file cannot be re-parsed in place and has to be reloaded
+     */
+    private boolean reparseCurrentFile(ParsingConfig updatedConfig) {
+        LogEntrySource source = originalLogEntrySource;
+        File contentFile = currentContentFile;
+        LineIndex lineIndex = null;
+        if (source instanceof FileBackedLogEntrySourceImpl fileBacked) {
+            lineIndex = fileBacked.getLogIndex().getLineIndex();
+        } else if (source instanceof StreamingLogEntrySourceImpl streaming) {
+            lineIndex = streaming.getLineIndex();
+        }
+        // A file that changed since it was indexed, or is still loading, is simply reloaded
+        if (lineIndex == null || contentFile == null || currentLoadingTask != null
+                || contentFile.length() != lineIndex.getEndOffset()) {
+            return false;
+        }
+
+        ParsingConfig config = updatedConfig;
+        if (config.isStructured()) {
+            try {
+                config = logParserService.resolveColumns(contentFile, config);
+            } catch (IOException e) {
+                logger.warn("Failed to sample columns of {}, reloading it: {}", contentFile, e.getMessage());
+                return false;
+            }
+        }
+
+        final ParsingConfig newConfig = config;
+        final LineIndex lines = lineIndex;
+        boolean filtered = currentLogEntrySource != originalLogEntrySource;
+        List<LogEntry> window = new ArrayList<>(visibleLogEntries);
+        LogEntry selected = logTableView.getSelectionModel().getSelectedItem();
+        long selectedLine = selected != null ? selected.getLineNumber() : -1;
+        long firstLine = window.isEmpty() ? 1 : window.get(0).getLineNumber();
+        long lastLine = window.isEmpty() ? 0 : window.get(window.size() - 1).getEndLineNumber();
+        boolean atTail = !filtered && currentWindowStartIndex + window.size() >= source.getTotalEntries();
+
+        progressBar.setVisible(true);
+        progressBar.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+        updateStatus("Configuration updated. Re-parsing " + currentFile.getName() + " in place");
+
+        long startNanos = System.nanoTime();
+        Task<LogEntrySource> task = new Task<>() {
+            @Override
+            protected LogEntrySource call() throws IOException {
+                if (!filtered && !window.isEmpty()) {
+                    List<LogEntry> preview = logParserService.parseLineRange(contentFile, lines,
+                            (int) firstLine - 1, (int) lastLine, newConfig);
+                    Platform.runLater(() -> {
+                        if (!isCancelled() && originalLogEntrySource == source) {
+                            updateTableColumns(newConfig);
+                            visibleLogEntries.setAll(preview);
+                            restoreSelection(selectedLine);
+                        }
+                    });
+                }
+
+                LogParserService.ProgressCallback callback = new LogParserService.ProgressCallback() {
+                    @Override
+                    public void onProgress(double progress, long bytesProcessed, long totalBytes) {
+                        updateProgress(bytesProcessed, totalBytes);
+                        Platform.runLater(() -> {
+                            progressBar.setProgress(progress);
+                            updateStatus(String.format("Re-parsing with '%s'... %.1f%%", newConfig.getName(),
+                                    progress * 100));
+                        });
+                    }
+
+                    @Override
+                    public void onComplete(long totalEntries) {
+                    }
+                };
+
+                if (source instanceof FileBackedLogEntrySourceImpl) {
+                    LogIndex logIndex = logParserService.reindex(contentFile, lines, newConfig, callback);
+                    logIndexStore.save(new LogCacheKey(contentFile.getAbsolutePath(), contentFile.lastModified(),
+                            contentFile.length(), newConfig.getId()), newConfig, logIndex);
+                    return new FileBackedLogEntrySourceImpl(contentFile, logIndex, newConfig, logParserService);
+                }
+                StreamingLogEntrySourceImpl reparsed = new StreamingLogEntrySourceImpl();
+                logParserService.reparseStreaming(contentFile, lines, newConfig, reparsed, callback);
+                return reparsed;
+            }
+        };
+
+        task.setOnSucceeded(e -> {
+            currentLoadingTask = null;
+            progressBar.setVisible(false);
+            LogEntrySource reparsed = task.getValue();
+            if (originalLogEntrySource != source) {
+                closeLogEntrySource(reparsed);
+                return;
+            }
+            forgetLastSearch();
+            closeLogEntrySource(source);
+            originalLogEntrySource = reparsed;
+            currentLogEntrySource = reparsed;
+            startTokenIndex(reparsed);
+            currentParsingConfig = newConfig;
+            updateDateTimeFilterPromptText(newConfig);
+            updateTableColumns(newConfig);
+
+            if (filtered) {
+                performSearch();
+            } else {
+                int total = reparsed.getTotalEntries();
+                int start = atTail ? total - windowSize : reparsed.indexOfLine(firstLine);
+                loadWindow(Math.max(0, start), atTail);
+                restoreSelection(selectedLine);
+            }
+            logger.info("Re-parsed {} in place in {} ms", currentFile.getName(),
+                    (System.nanoTime() - startNanos) / 1_000_000);
+            updateStatus(String.format("Re-parsed %,d entries of %s with '%s' in %,d ms", reparsed.getTotalEntries(),
+                    currentFile.getName(), newConfig.getName(), (System.nanoTime() - startNanos) / 1_000_000));
+        });
+
+        task.setOnFailed(e -> {
+            currentLoadingTask = null;
+            progressBar.setVisible(false);
+            logger.error("In-place re-parse failed, reloading the file", task.getException());
+            openLocalLogFile(currentFile, false, updatedConfig);
+        });
+
+        task.setOnCancelled(e -> {
+            progressBar.setVisible(false);
+            updateStatus("Re-parse cancelled");
+            currentLoadingTask = null;
+        });
+
+        currentLoadingTask = task;
+        new Thread(task).start();
+        return true;
+    }
+
+    /**
+     * Selects the visible entry containing a 1-based line number, if there is one.
+     */
+    private void restoreSelection(long lineNumber) {
+        if (lineNumber < 0) {
+            return;
+        }
+        for (int i = visibleLogEntries.size() - 1; i >= 0; i--) {
+            if (visibleLogEntries.get(i).getLineNumber() <= lineNumber) {
+                logTableView.getSelectionModel().clearAndSelect(i);
+                logTableView.scrollTo(Math.max(0, i - 5));
+                return;
+            }
+        }
+    }
+
     private void handleParsingConfigChanged() {
         logger.info("Parsing configuration changed, checking if current file or tail session needs re-parsing.");
 
@@ -1461,8 +1999,10 @@ public class MainController {
         if (currentFile != null) {
             logger.info("Local file is active. Re-parsing '{}' with updated configuration '{}'.", currentFile.getName(),
                     updatedConfig.getName());
-            openLocalLogFile(currentFile, false, updatedConfig);
-            updateStatus("Configuration updated. Re-parsing file: " + currentFile.getName());
+            if (!reparseCurrentFile(updatedConfig)) {
+                openLocalLogFile(currentFile, false, updatedConfig);
+                updateStatus("Configuration updated. Re-parsing file: " + currentFile.getName());
+            }
         }
         // Case 2: Remote tail is active
         else if (tailModeEnabled && monitoringRemotePath != null && activeTailSshService != null) {
@@ -1498,7 +2038,8 @@ public class MainController {
         return Objects.equals(config1.getName(), config2.getName()) &&
                 Objects.equals(config1.getRegexPattern(), config2.getRegexPattern()) &&
                 Objects.equals(config1.getDescription(), config2.getDescription()) &&
-                Objects.equals(config1.getTimestampFormat(), config2.getTimestampFormat());
+                Objects.equals(config1.getTimestampFormat(), config2.getTimestampFormat()) &&
+                config1.getParserType() == config2.getParserType();
     }
 
     private void handleRecentFileSelected(RecentFilesDto recentFile) {
@@ -1624,7 +2165,7 @@ public class MainController {
         }
 
         logger.warn("No parsing config associated with file: {}, showing selection dialog", logFile.getName());
-        ParsingConfig selectedConfig = showParsingConfigSelectionDialog();
+        ParsingConfig selectedConfig = showParsingConfigSelectionDialog(localFileOf(logFile));
         if (selectedConfig == null) {
             logger.info("No parsing configuration selected, operation cancelled");
             return null;
@@ -1674,81 +2215,68 @@ public class MainController {
         }
 
         String trimmed = input.trim();
-
-        List<DateTimeFormatter> formatters = Arrays.asList(
-                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS"),
-                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
-                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"),
-                DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-                DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss.SSS"),
-                DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"),
-                DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm"),
-                DateTimeFormatter.ofPattern("yyyy/MM/dd"),
-                DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss.SSS"),
-                DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss"),
-                DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm"),
-                DateTimeFormatter.ofPattern("dd-MM-yyyy"),
-                DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss.SSS"),
-                DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"),
-                DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"),
-                DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-                DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-
-        for (DateTimeFormatter formatter : formatters) {
+        for (DateTimeFormatter formatter : DATE_FILTER_FORMATTERS) {
             try {
                 return LocalDateTime.parse(trimmed, formatter);
             } catch (DateTimeParseException e) {
-                logger.warn("Could not parse date/time string: {}", trimmed);
+                // try the next layout
             }
         }
 
-        try {
-            java.time.LocalDate date = java.time.LocalDate.parse(trimmed, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-            return date.atStartOfDay();
-        } catch (DateTimeParseException e) {
-            logger.warn(e.getMessage());
+        for (DateTimeFormatter formatter : DATE_ONLY_FILTER_FORMATTERS) {
+            try {
+                return java.time.LocalDate.parse(trimmed, formatter).atStartOfDay();
+            } catch (DateTimeParseException e) {
+                // try the next layout
+            }
         }
 
         logger.warn("Could not parse date/time: {}", trimmed);
         return null;
     }
 
-    private LocalDateTime parseEntryTimestamp(LogEntry entry) {
-        if (entry.isParsed()) {
-            LocalDateTime timestamp = entry.getTimestamp();
-            if (timestamp != null) {
-                return timestamp;
-            }
+    /**
+     * Converts a date filter bound once, so entries are compared by their epoch timestamp.
+     */
+    private static long toEpochMillis(LocalDateTime dateTime, long missing) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : missing;
+    }
 
-            if (currentParsingConfig != null && currentParsingConfig.getTimestampFormat() != null) {
-                String timestampStr = entry.getField("timestamp");
-                if (timestampStr != null && !timestampStr.isEmpty()) {
-                    try {
-                        DateTimeFormatter configFormatter = DateTimeFormatter
-                                .ofPattern(currentParsingConfig.getTimestampFormat());
-                        return LocalDateTime.parse(timestampStr, configFormatter);
-                    } catch (Exception e) {
-                        logger.debug("Failed to parse timestamp with config format: {}", e.getMessage());
+    /**
+     * Runs the search once typing has paused for {@link #SEARCH_DELAY} ms.
+     */
+    private void scheduleSearch() {
+        if (searchDebounceTask != null) {
+            searchDebounceTask.cancel();
+        }
+        searchDebounceTask = new TimerTask() {
+            @Override
+            public void run() {
+                Platform.runLater(() -> {
+                    if (searchDebounceTask != this) {
+                        return;
                     }
-                }
-            }
-
-            String timestampStr = entry.getField("timestamp");
-            if (timestampStr != null && !timestampStr.isEmpty()) {
-                return parseDateTimeFilter(timestampStr);
+                    if (regexCheckBox.isSelected()) {
+                        // A regex being typed is often incomplete; wait for one that compiles
+                        try {
+                            Pattern.compile(searchField.getText());
+                        } catch (Exception e) {
+                            updateStatus("Incomplete regex pattern");
+                            return;
+                        }
+                    }
+                    performSearch();
+                });
             }
-        }
-
-        String rawLog = entry.getRawLog();
-        if (rawLog != null && rawLog.length() > 19) {
-            String possibleTimestamp = rawLog.substring(0, Math.min(23, rawLog.length())); // 23 for milliseconds
-            return parseDateTimeFilter(possibleTimestamp);
-        }
-
-        return null;
+        };
+        searchTimer.schedule(searchDebounceTask, SEARCH_DELAY);
     }
 
     private void performSearch() {
+        if (searchDebounceTask != null) {
+            searchDebounceTask.cancel();
+            searchDebounceTask = null;
+        }
         final String searchText = searchField.getText();
         final boolean isRegex = regexCheckBox.isSelected();
         final boolean caseSensitive = caseSensitiveCheckBox.isSelected();
@@ -1793,22 +2321,90 @@ public class MainController {
             return;
         }
 
+        // A newer search supersedes the one still running
+        if (activeSearch != null) {
+            activeSearch.cancel();
+        }
+
+        final SearchCriteria criteria = new SearchCriteria(searchText, isRegex, caseSensitive, hideUnparsed,
+                selectedLevel, toEpochMillis(parseDateTimeFilter(dateTimeFrom), Long.MIN_VALUE),
+                toEpochMillis(parseDateTimeFilter(dateTimeTo), Long.MAX_VALUE));
+
+        // Nothing to filter: show the source itself rather than a view of every row
+        if (criteria.isEmpty()) {
+            progressBar.setVisible(false);
+            if (currentLogEntrySource != originalLogEntrySource) {
+                currentLogEntrySource = originalLogEntrySource;
+                currentTailFilterPredicate = null;
+                loadWindow(Math.max(0, originalLogEntrySource.getTotalEntries() - windowSize), true);
+                updateStatus(String.format("Showing all %,d entries", originalLogEntrySource.getTotalEntries()));
+            }
+            return;
+        }
+        final CancellationToken searchToken = new CancellationToken();
+        activeSearch = searchToken;
+        final LogEntrySource searchSource = originalLogEntrySource;
+        final int searchSourceTotal = searchSource.getTotalEntries();
+
+        // A search that only tightens the last one scans the last result, not the whole source.
+        // A source still loading has grown since, so it is scanned in full.
+        final LogEntrySource scanSource;
+        if (lastSearch != null && lastSearchBase == searchSource && lastSearchBaseTotal == searchSourceTotal
+                && criteria.narrows(lastSearch)) {
+            scanSource = lastSearchResult;
+            logger.debug("Refining the previous {} results", scanSource.getTotalEntries());
+        } else {
+            scanSource = searchSource;
+        }
+        // Keywords of a full scan are first looked up in the index, when it is built for this source
+        final TokenIndex index = scanSource == searchSource && !isRegex && criteria.hasText() && tokenIndex != null
+                && tokenIndex.getSource() == searchSource ? tokenIndex : null;
+
         updateStatus("Searching...");
+        progressBar.setVisible(true);
+        progressBar.setProgress(0);
 
         Task<Void> task = new Task<>() {
             @Override
             protected Void call() {
-                final Predicate<LogEntry> searchPredicate = buildSearchPredicate(
-                        searchText, isRegex, caseSensitive,
-                        hideUnparsed, selectedLevel,
-                        dateTimeFrom, dateTimeTo);
+                final Predicate<LogEntry> searchPredicate = criteria.toPredicate();
+
+                LogEntrySource candidates = scanSource;
+                if (index != null) {
+                    int[] rows = index.candidates(SearchQuery.compile(searchText, caseSensitive), searchSourceTotal);
+                    if (rows != null) {
+                        logger.debug("Search index narrowed '{}' to {} of {} rows", searchText, rows.length,
+                                searchSourceTotal);
+                        candidates = searchSource.select(rows);
+                    }
+                }
 
-                LogEntrySource filteredSource = originalLogEntrySource.filter(searchPredicate);
+                LogEntrySource filteredSource;
+                try {
+                    filteredSource = candidates.filter(searchPredicate, searchToken,
+                            progress -> Platform.runLater(() -> {
+                                if (!searchToken.isCancelled()) {
+                                    progressBar.setProgress(progress);
+                                    updateStatus(String.format("Searching... %.0f%%", progress * 100));
+                                }
+                            }));
+                } catch (CancellationException e) {
+                    logger.debug("Search for '{}' superseded", searchText);
+                    return null;
+                }
                 int totalFiltered = filteredSource.getTotalEntries();
 
                 Platform.runLater(() -> {
+                    if (searchToken.isCancelled() || searchSource != originalLogEntrySource) {
+                        return;
+                    }
+                    progressBar.setVisible(false);
                     currentLogEntrySource = filteredSource;
                     currentTailFilterPredicate = searchPredicate;
+                    lastSearch = criteria;
+                    lastSearchResult = filteredSource;
+                    lastSearchBase = searchSource;
+                    lastSearchBaseTotal = searchSourceTotal;
 
                     if (totalFiltered == 0) {
                         visibleLogEntries.clear();
@@ -1827,6 +2423,10 @@ public class MainController {
 
         task.setOnFailed(e -> {
             Throwable ex = task.getException();
+            if (searchToken.isCancelled()) {
+                return;
+            }
+            progressBar.setVisible(false);
             logger.error("Search failed", ex);
             showError("Search Failed", ex.getMessage());
             updateStatus("Search failed");
@@ -1835,6 +2435,82 @@ public class MainController {
         new Thread(task).start();
     }
 
+    /**
+     * Stops the running search and drops the last result, which refers to a source being replaced.
+     */
+    private void forgetLastSearch() {
+        if (activeSearch != null) {
+            activeSearch.cancel();
+            activeSearch = null;
+        }
+        lastSearch = null;
+        lastSearchResult = null;
+        lastSearchBase = null;
+    }
+
+    /**
+     * Builds the keyword index of a loaded source in the background; searches use it once it is
+     * ready and scan as before until then.
+     */
+    private void startTokenIndex(LogEntrySource source) {
+        discardTokenIndex();
+        if (searchIndexBudgetBytes <= 0 || source.getTotalEntries() == 0) {
+            return;
+        }
+        final CancellationToken buildToken = new CancellationToken();
+        tokenIndexBuild = buildToken;
+        indexStatusLabel.setText("Indexing...");
+
+        Task<TokenIndex> task = new Task<>() {
+            @Override
+            protected TokenIndex call() {
+                return TokenIndex.build(source, searchIndexBudgetBytes, buildToken,
+                        progress -> Platform.runLater(() -> {
+                            if (tokenIndexBuild == buildToken) {
+                                indexStatusLabel.setText(String.format("Indexing %.0f%%", progress * 100));
+                            }
+                        }));
+            }
+        };
+
+        task.setOnSucceeded(e -> {
+            if (tokenIndexBuild != buildToken || originalLogEntrySource != source) {
+                return;
+            }
+            tokenIndexBuild = null;
+            tokenIndex = task.getValue();
+            if (tokenIndex.isComplete()) {
+                indexStatusLabel.setText(String.format("Indexed %,d words", tokenIndex.getWordCount()));
+            } else {
+                indexStatusLabel.setText(String.format("Indexed %,d of %,d rows (memory budget)",
+                        tokenIndex.getIndexedRows(), source.getTotalEntries()));
+            }
+        });
+
+        task.setOnFailed(e -> {
+            if (tokenIndexBuild != buildToken) {
+                return;
+            }
+            tokenIndexBuild = null;
+            logger.warn("Failed to build the search index", task.getException());
+            indexStatusLabel.setText("");
+        });
+
+        Thread thread = new Thread(task, "Search-Index-Builder");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    private void discardTokenIndex() {
+        if (tokenIndexBuild != null) {
+            tokenIndexBuild.cancel();
+            tokenIndexBuild = null;
+        }
+        tokenIndex = null;
+        indexStatusLabel.setText("");
+    }
+
     private void clearSearch() {
         searchField.clear();
         logLevelFilterComboBox.getSelectionModel().select("ALL");
@@ -1855,10 +2531,10 @@ public class MainController {
     }
 
     private boolean isFilterActive() {
-        if (currentLogEntrySource != originalLogEntrySource) {
-            return true;
-        }
+        return currentLogEntrySource != originalLogEntrySource || hasSearchCriteria();
+    }
 
+    private boolean hasSearchCriteria() {
         String searchText = searchField.getText();
         boolean hasSearchText = searchText != null && !searchText.trim().isEmpty();
 
@@ -1899,29 +2575,22 @@ public class MainController {
 
                     currentLogEntrySource = originalLogEntrySource;
 
+                    // Locate the entry through the source instead of loading every entry into the table
                     int totalEntries = originalLogEntrySource.getTotalEntries();
-                    List<LogEntry> allEntries = originalLogEntrySource.getEntries(0, totalEntries);
-                    visibleLogEntries.clear();
-                    visibleLogEntries.addAll(allEntries);
-
-                    int targetIndex = -1;
-                    for (int i = 0; i < allEntries.size(); i++) {
-                        if (allEntries.get(i).getLineNumber() == targetLineNumber) {
-                            targetIndex = i;
-                            break;
-                        }
-                    }
+                    int targetIndex = originalLogEntrySource.indexOfLine(targetLineNumber);
 
                     if (targetIndex >= 0) {
-                        final int indexToSelect = targetIndex;
+                        int windowStart = Math.max(0, Math.min(targetIndex - windowSize / 2, totalEntries - windowSize));
+                        loadWindow(windowStart, false);
+                        final int indexToSelect = targetIndex - currentWindowStartIndex;
                         Platform.runLater(() -> {
                             logTableView.scrollTo(Math.max(0, indexToSelect - 5)); // Scroll with context
                             logTableView.getSelectionModel().select(indexToSelect);
 
                             updateStatus(String.format("Jumped to line %,d (row %,d of %,d)", targetLineNumber,
-                                    indexToSelect + 1, totalEntries));
+                                    targetIndex + 1, totalEntries));
 
-                            logger.info("Successfully jumped to line {} at index {}", targetLineNumber, indexToSelect);
+                            logger.info("Successfully jumped to line {} at index {}", targetLineNumber, targetIndex);
                         });
                     } else {
                         updateStatus(String.format("Line %,d not found in original data", targetLineNumber));
@@ -1979,6 +2648,7 @@ public class MainController {
     }
 
     private void displayLogDetail(LogEntry entry) {
+        setTruncatedDetail(null, null);
         if (entry == null) {
             detailTextArea.clear();
             detailLabel.setText("Log Detail");
@@ -1990,6 +2660,55 @@ public class MainController {
         detailTextArea.replaceText(entry.getRawLog());
 
         applyAutoPrettify();
+        if (entry.getEndLineNumber() > entry.getLineNumber()) {
+            loadFullDetail(entry);
+        }
+    }
+
+    /**
+     * Replaces the detail text of a long multi-line entry with its full text, read back from the
+     * file in the background; the table rows only keep the first lines of such an entry. Text past
+     * {@link #MAX_DETAIL_CHARS} is not put into the text area but can be saved to a file.
+     */
+    private void loadFullDetail(LogEntry entry) {
+        LogEntrySource source = originalLogEntrySource;
+        if (source == null) {
+            return;
+        }
+        Task<String> task = new Task<>() {
+            @Override
+            protected String call() throws IOException {
+                return source.loadFullText(entry);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            String fullText = task.getValue();
+            boolean stillSelected = logTableView.getSelectionModel().getSelectedItem() == entry;
+            if (!stillSelected || fullText == null || fullText.length() <= entry.getRawLog().length()) {
+                return;
+            }
+            if (fullText.length() > MAX_DETAIL_CHARS) {
+                int end = MAX_DETAIL_CHARS;
+                if (Character.isHighSurrogate(fullText.charAt(end - 1))) {
+                    end--;
+                }
+                detailLabel.setText(String.format("Log Detail - Lines %d-%d (first %,d of %,d chars)",
+                        entry.getLineNumber(), entry.getEndLineNumber(), end, fullText.length()));
+                detailTextArea.replaceText(fullText.substring(0, end)
+                        + "\n\n[... truncated, use Save Full Text for the rest]");
+                setTruncatedDetail(entry, source);
+                return;
+            }
+            detailLabel.setText(String.format("Log Detail - Lines %d-%d (%,d chars)", entry.getLineNumber(),
+                    entry.getEndLineNumber(), fullText.length()));
+            detailTextArea.replaceText(fullText);
+            applyAutoPrettify();
+        });
+        task.setOnFailed(e -> logger.warn("Failed to load the full text of line {}", entry.getLineNumber(),
+                task.getException()));
+        Thread thread = new Thread(task, "log-detail-loader");
+        thread.setDaemon(true);
+        thread.start();
     }
 
     private void prettifyJson(boolean showInfoWhenNotFound) {
@@ -2076,10 +2795,58 @@ public class MainController {
     }
 
     private void clearDetail() {
+        setTruncatedDetail(null, null);
         detailTextArea.clear();
         detailLabel.setText("Log Detail");
     }
 
+    private void setTruncatedDetail(LogEntry entry, LogEntrySource source) {
+        truncatedDetailEntry = entry;
+        truncatedDetailSource = source;
+        showSaveDetailButton(entry != null);
+    }
+
+    private void showSaveDetailButton(boolean show) {
+        saveDetailButton.setVisible(show);
+        saveDetailButton.setManaged(show);
+    }
+
+    /**
+     * Writes the complete entry of a log detail that is too long for the text area to a file,
+     * copied from the log file byte for byte rather than from the text shown.
+     */
+    private void saveFullDetail() {
+        LogEntry entry = truncatedDetailEntry;
+        LogEntrySource source = truncatedDetailSource;
+        if (entry == null || source == null) {
+            return;
+        }
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save Full Log Detail");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Log Files", "*.log", "*.txt"));
+        fileChooser.setInitialFileName("log-detail-line-" + entry.getLineNumber() + ".log");
+        File file = fileChooser.showSaveDialog(saveDetailButton.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        Task<Void> task = new Task<>() {
+            @Override
+            protected Void call() throws IOException {
+                source.saveFullText(entry, file.toPath());
+                return null;
+            }
+        };
+        task.setOnSucceeded(e -> updateStatus("Saved full log detail to " + file.getAbsolutePath()));
+        task.setOnFailed(e -> {
+            logger.error("Failed to save the full log detail to {}", file, task.getException());
+            showError("Save Error", "Failed to save the log detail: " + task.getException().getMessage());
+        });
+        Thread thread = new Thread(task, "log-detail-saver");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     private void toggleLeftPanel() {
         isLeftPanelPinned = !isLeftPanelPinned;
         updateLeftPanelDisplay();
@@ -2232,7 +2999,13 @@ public class MainController {
 
         currentWindowStartIndex = from;
 
-        List<LogEntry> windowEntries = currentLogEntrySource.getEntries(from, limit);
+        List<LogEntry> windowEntries;
+        try {
+            windowEntries = currentLogEntrySource.getEntries(from, limit);
+        } catch (LogFileChangedException e) {
+            reportFileChanged(e);
+            return;
+        }
         visibleLogEntries.setAll(windowEntries);
 
         if (!visibleLogEntries.isEmpty()) {
@@ -2393,8 +3166,12 @@ public class MainController {
 
         this.activeTailSshService = sshService;
         this.remoteTailLineCounter = 0;
+        this.remoteTailResolvedConfig = null;
         this.currentParsingConfig = parsingConfig;
         this.currentFile = null;
+        this.currentContentFile = null;
+        forgetLastSearch();
+        discardTokenIndex();
         this.originalLogEntrySource = null;
         this.currentLogEntrySource = null;
         this.tailColumnsAutoResized = false;
@@ -2496,7 +3273,7 @@ public class MainController {
     private void handleTailLineBackground(String line, ParsingConfig parsingConfig) {
         long lineNumber = ++remoteTailLineCounter;
 
-        LogEntry entry = logParserService.parseLine(line, lineNumber, parsingConfig);
+        LogEntry entry = logParserService.parseLine(line, lineNumber, tailColumns(line, parsingConfig));
 
         synchronized (tailBuffer) {
             tailBuffer.add(entry);
@@ -2505,6 +3282,29 @@ public class MainController {
         scheduleTailFlush();
     }
 
+    /**
+     * A structured config gets its columns from the first tailed line that has any.
+     */
+    private ParsingConfig tailColumns(String line, ParsingConfig parsingConfig) {
+        if (!parsingConfig.isStructured() || parsingConfig.getFieldKeys() != null) {
+            return parsingConfig;
+        }
+        ParsingConfig resolved = remoteTailResolvedConfig;
+        if (resolved == null) {
+            resolved = logParserService.discoverColumns(List.of(line), parsingConfig);
+            if (resolved.getGroupNames().isEmpty()) {
+                return parsingConfig;
+            }
+            remoteTailResolvedConfig = resolved;
+            ParsingConfig columns = resolved;
+            Platform.runLater(() -> {
+                currentParsingConfig = columns;
+                updateTableColumns(columns);
+            });
+        }
+        return resolved;
+    }
+
     private Predicate<LogEntry> buildSearchPredicate(
             String searchText,
             boolean isRegex,
@@ -2513,140 +3313,9 @@ public class MainController {
             String selectedLevel,
             String dateTimeFrom,
             String dateTimeTo) {
-        final LocalDateTime filterFrom = parseDateTimeFilter(dateTimeFrom);
-        final LocalDateTime filterTo = parseDateTimeFilter(dateTimeTo);
-        final boolean hasDateFilter = filterFrom != null || filterTo != null;
-
-        final boolean hasTextSearch = searchText != null && !searchText.trim().isEmpty();
-
-        final Pattern compiledPattern;
-        if (isRegex && hasTextSearch) {
-            int flags = caseSensitive ? 0 : Pattern.CASE_INSENSITIVE;
-            try {
-                compiledPattern = Pattern.compile(searchText, flags);
-            } catch (Exception e) {
-                throw new IllegalArgumentException("Invalid regex pattern: " + e.getMessage(), e);
-            }
-        } else {
-            compiledPattern = null;
-        }
-
-        final String searchTextLower = (!isRegex && hasTextSearch && !caseSensitive)
-                ? searchText.toLowerCase()
-                : searchText;
-
-        final boolean hasLevelFilter = selectedLevel != null && !selectedLevel.equals("ALL");
-        final boolean filterUnparsedOnly = "UNPARSED".equals(selectedLevel);
-
-        return entry -> {
-            // 1. Hide unparsed
-            if (hideUnparsed && !entry.isParsed()) {
-                return false;
-            }
-
-            // 2. Level filter
-            if (hasLevelFilter) {
-                if (filterUnparsedOnly) {
-                    return !entry.isParsed();
-                }
-                if (!entry.isParsed()) {
-                    return false;
-                }
-                String entryLevel = entry.getLevel();
-                if (entryLevel == null || !entryLevel.equalsIgnoreCase(selectedLevel)) {
-                    return false;
-                }
-            }
-
-            // 3. Date filter
-            if (hasDateFilter) {
-                LocalDateTime entryTime = parseEntryTimestamp(entry);
-                if (entryTime == null) {
-                    return false;
-                }
-                if (filterFrom != null && entryTime.isBefore(filterFrom)) {
-                    return false;
-                }
-                if (filterTo != null && entryTime.isAfter(filterTo)) {
-                    return false;
-                }
-            }
-
-            // 4. Text / regex filter
-            if (hasTextSearch) {
-                String raw = entry.getRawLog();
-                if (raw == null) {
-                    return false;
-                }
-
-                if (isRegex) {
-                    return compiledPattern != null && compiledPattern.matcher(raw).find();
-                } else {
-                    // Use boolean search predicate (AND, OR, NOT)
-                    return createBooleanSearchPredicate(searchText, caseSensitive).test(raw);
-                }
-            }
-            return true;
-        };
-    }
-
-    private Predicate<String> createBooleanSearchPredicate(String query, boolean caseSensitive) {
-        if (query == null || query.trim().isEmpty()) {
-            return s -> true;
-        }
-
-        // Split by OR first (lowest precedence)
-        String[] orParts = query.split("\\s+OR\\s+");
-        Predicate<String> orPredicate = null;
-
-        for (String orPart : orParts) {
-            // Split by AND (higher precedence)
-            String[] andParts = orPart.split("\\s+AND\\s+");
-            Predicate<String> andPredicate = null;
-
-            for (String andPart : andParts) {
-                String term = andPart.trim();
-                boolean isNot = false;
-
-                if (term.startsWith("NOT ")) {
-                    isNot = true;
-                    term = term.substring(4).trim();
-                }
-
-                // Handle implicit AND for space-separated terms if needed,
-                // but for now let's treat the remaining string as the term to search.
-                // If the user wants multiple terms they should use AND.
-                // However, to be robust, we might want to trim quotes if we supported them.
-
-                final String finalTerm = caseSensitive ? term : term.toLowerCase();
-                Predicate<String> termPredicate = raw -> {
-                    if (raw == null)
-                        return false;
-                    String content = caseSensitive ? raw : raw.toLowerCase();
-                    return content.contains(finalTerm);
-                };
-
-                if (isNot) {
-                    termPredicate = termPredicate.negate();
-                }
-
-                if (andPredicate == null) {
-                    andPredicate = termPredicate;
-                } else {
-                    andPredicate = andPredicate.and(termPredicate);
-                }
-            }
-
-            if (andPredicate != null) {
-                if (orPredicate == null) {
-                    orPredicate = andPredicate;
-                } else {
-                    orPredicate = orPredicate.or(andPredicate);
-                }
-            }
-        }
-
-        return orPredicate != null ? orPredicate : s -> false;
+        return new SearchCriteria(searchText, isRegex, caseSensitive, hideUnparsed, selectedLevel,
+                toEpochMillis(parseDateTimeFilter(dateTimeFrom), Long.MIN_VALUE),
+                toEpochMillis(parseDateTimeFilter(dateTimeTo), Long.MAX_VALUE)).toPredicate();
     }
 
     private void setupSearchFieldAutoCompletion() {
@@ -2827,6 +3496,29 @@ public class MainController {
         });
     }
 
+    /**
+     * Keeps the table on the rows it already shows when the open file was truncated or replaced,
+     * and offers to reload it. Asked once per opened file; later page loads only update the status.
+     */
+    private void reportFileChanged(LogFileChangedException e) {
+        logger.warn("Cannot read further entries: {}", e.getMessage());
+        updateStatus("⚠ " + e.getMessage());
+        if (fileChangedReported) {
+            return;
+        }
+        fileChangedReported = true;
+        Platform.runLater(() -> {
+            Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+            alert.setTitle("File Changed");
+            alert.setHeaderText("The log file changed on disk");
+            alert.setContentText(e.getMessage() + "\n\nReload it now?");
+            Optional<ButtonType> result = showAndWaitAndRestore(alert);
+            if (result.isPresent() && result.get() == ButtonType.OK) {
+                handleReload();
+            }
+        });
+    }
+
     private void showInfo(String title, String message) {
         Platform.runLater(() -> {
             Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -2,6 +2,7 @@ package com.seeloggyplus.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.seeloggyplus.model.ParserType;
 import com.seeloggyplus.model.ParsingConfig;
 import com.seeloggyplus.service.impl.LogParserService;
 
@@ -53,6 +54,8 @@ public class ParsingConfigController {
     @FXML
     private TextField timestampFormatField;
     @FXML
+    private ComboBox<ParserType> parserTypeComboBox;
+    @FXML
     private Button autoDetectFormatButton;
     @FXML
     private TextArea regexPatternArea;
@@ -173,6 +176,14 @@ public class ParsingConfigController {
         nameField.textProperty().addListener((obs, o, n) -> updateButtonStates());
         descriptionArea.textProperty().addListener((obs, o, n) -> updateButtonStates());
         timestampFormatField.textProperty().addListener((obs, o, n) -> updateButtonStates());
+        parserTypeComboBox.setItems(FXCollections.observableArrayList(ParserType.values()));
+        parserTypeComboBox.valueProperty().addListener((obs, o, n) -> {
+            boolean structured = n != null && n != ParserType.REGEX;
+            regexPatternArea.setDisable(structured || nameField.isDisabled());
+            autoDetectFormatButton.setDisable(structured || nameField.isDisabled());
+            validatePattern();
+            updateButtonStates();
+        });
         regexPatternArea.textProperty().addListener((obs, o, n) -> {
             validatePattern();
             updateButtonStates();
@@ -226,6 +237,7 @@ public class ParsingConfigController {
             timestampFormatField.setText(config.getTimestampFormat() != null ? config.getTimestampFormat() : "");
 
             setEditorDisabled(false);
+            parserTypeComboBox.setValue(config.getParserType());
             validatePattern();
         } else {
             this.configSnapshot = null;
@@ -240,6 +252,7 @@ public class ParsingConfigController {
         descriptionArea.clear();
         regexPatternArea.clear();
         timestampFormatField.clear();
+        parserTypeComboBox.setValue(ParserType.REGEX);
         groupNamesListView.getItems().clear();
         validationLabel.setText("");
         previewTableView.getItems().clear();
@@ -247,6 +260,13 @@ public class ParsingConfigController {
     }
 
     private void validatePattern() {
+        if (selectedParserType() != ParserType.REGEX) {
+            validationLabel.setText("Columns are discovered from the keys in each file");
+            validationLabel.getStyleClass().setAll("validation-success");
+            groupNamesListView.getItems().clear();
+            return;
+        }
+
         String pattern = regexPatternArea.getText();
 
         if (pattern == null || pattern.trim().isEmpty()) {
@@ -290,16 +310,19 @@ public class ParsingConfigController {
             return;
         }
 
-        if (pattern == null || pattern.trim().isEmpty()) {
+        if (selectedParserType() == ParserType.REGEX && (pattern == null || pattern.trim().isEmpty())) {
             testResultLabel.setText("Please enter a regex pattern");
             testResultLabel.getStyleClass().setAll("validation-warning");
             return;
         }
 
-        ParsingConfig testConfig = new ParsingConfig("Test", pattern);
+        ParsingConfig testConfig = editedConfig("Test");
         LogParserService.TestResult result = logParserService.testParsing(sampleLog, testConfig);
         if (result.isSuccess()) {
-            testResultLabel.setText("Pattern matched successfully!");
+            testResultLabel.setText(testConfig.isStructured() ? result.getMessage() : "Pattern matched successfully!");
+            if (testConfig.isStructured()) {
+                groupNamesListView.setItems(FXCollections.observableArrayList(result.getGroupNames()));
+            }
             testResultLabel.getStyleClass().setAll("validation-success");
 
             ObservableList<ParsedField> fields = FXCollections.observableArrayList();
@@ -428,6 +451,9 @@ public class ParsingConfigController {
     private void handleSave() {
         // Save the currently edited config if it's dirty
         if (isDirty() && selectedConfig != null) {
+            if (!confirmBacktrackingRisk()) {
+                return;
+            }
             saveCurrentConfig();
             if (selectedConfig.getId() == null) {
                 parsingConfigService.save(selectedConfig);
@@ -451,6 +477,9 @@ public class ParsingConfigController {
 
     private void handleApply() {
         if (isDirty() && selectedConfig != null) {
+            if (!confirmBacktrackingRisk()) {
+                return;
+            }
             saveCurrentConfig(); // This updates the in-memory object
 
             if (selectedConfig.getId() == null) {
@@ -466,6 +495,28 @@ public class ParsingConfigController {
         logger.info("Configuration changes applied and parent notified.");
     }
 
+    /**
+     * Runs the edited pattern against the test sample and asks before saving a pattern that
+     * backtracks exponentially.
+     *
+     * @return true to go on saving
+     */
+    private boolean confirmBacktrackingRisk() {
+        ParsingConfig candidate = editedConfig("Check");
+        Optional<String> warning = logParserService.checkBacktracking(sampleLogArea.getText(), candidate);
+        if (warning.isEmpty()) {
+            return true;
+        }
+        logger.warn("Pattern of '{}' backtracks on the test sample: {}", nameField.getText(), warning.get());
+
+        Alert alert = new Alert(Alert.AlertType.WARNING, warning.get() + "\n\nSave the pattern anyway?",
+                ButtonType.OK, ButtonType.CANCEL);
+        addAppIcon(alert);
+        alert.setTitle("Slow Pattern");
+        alert.setHeaderText("This pattern may be very slow on some lines");
+        return alert.showAndWait().filter(ButtonType.OK::equals).isPresent();
+    }
+
     private void handleCancel() {
         if (isDirty()) {
             Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
@@ -578,6 +629,8 @@ public class ParsingConfigController {
         selectedConfig.setRegexPattern(regexPatternArea.getText());
         selectedConfig.setTimestampFormat(
                 timestampFormatField.getText().trim().isEmpty() ? null : timestampFormatField.getText().trim());
+        selectedConfig.setParserType(selectedParserType());
+        selectedConfig.validatePattern();
 
         configSnapshot = selectedConfig.copy();
 
@@ -611,12 +664,29 @@ public class ParsingConfigController {
         String currentTimestamp = Optional.ofNullable(timestampFormatField.getText()).orElse("").trim();
 
         // Compare the normalized, trimmed strings.
-        return !Objects.equals(snapshotName, currentName) ||
+        return configSnapshot.getParserType() != selectedParserType() ||
+                !Objects.equals(snapshotName, currentName) ||
                 !Objects.equals(snapshotDesc, currentDesc) ||
                 !Objects.equals(snapshotPattern, currentPattern) ||
                 !Objects.equals(snapshotTimestamp, currentTimestamp);
     }
 
+    private ParserType selectedParserType() {
+        return parserTypeComboBox.getValue() != null ? parserTypeComboBox.getValue() : ParserType.REGEX;
+    }
+
+    /**
+     * Config built from the editor fields, for testing and checks before saving.
+     */
+    private ParsingConfig editedConfig(String name) {
+        ParsingConfig config = new ParsingConfig();
+        config.setName(name);
+        config.setRegexPattern(regexPatternArea.getText());
+        config.setParserType(selectedParserType());
+        config.validatePattern();
+        return config;
+    }
+
     private void updateButtonStates() {
         boolean hasSelection = selectedConfig != null;
         boolean hasChanges = isDirty();
@@ -632,9 +702,11 @@ public class ParsingConfigController {
     private void setEditorDisabled(boolean disabled) {
         nameField.setDisable(disabled);
         descriptionArea.setDisable(disabled);
-        regexPatternArea.setDisable(disabled);
+        boolean structured = selectedParserType() != ParserType.REGEX;
+        regexPatternArea.setDisable(disabled || structured);
         timestampFormatField.setDisable(disabled);
-        autoDetectFormatButton.setDisable(disabled);
+        parserTypeComboBox.setDisable(disabled);
+        autoDetectFormatButton.setDisable(disabled || structured);
         testParsingButton.setDisable(disabled);
         sampleLogArea.setDisable(disabled);
     }
@@ -692,7 +764,10 @@ public class ParsingConfigController {
                 descLabel.setText(item.getDescription());
 
                 statusLabel.getStyleClass().removeAll("validation-success", "validation-error");
-                if (item.isValid()) {
+                if (item.isStructured()) {
+                    statusLabel.setText("✓ " + item.getParserType());
+                    statusLabel.getStyleClass().add("validation-success");
+                } else if (item.isValid()) {
                     statusLabel.setText(
                             "✓ " + item.getGroupNames().size() + " groups");
                     statusLabel.getStyleClass().add("validation-success");
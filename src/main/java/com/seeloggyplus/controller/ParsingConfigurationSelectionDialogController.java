@@ -2,27 +2,39 @@ package com.seeloggyplus.controller;
 
 import com.seeloggyplus.model.ParsingConfig;
 import com.seeloggyplus.service.ParsingConfigService;
+import com.seeloggyplus.service.impl.LogParserService;
+import com.seeloggyplus.service.impl.ParsingConfigDetector;
+import com.seeloggyplus.service.impl.ParsingConfigDetector.ConfigMatch;
 import com.seeloggyplus.service.impl.ParsingConfigServiceImpl;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.net.URL;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 
 public class ParsingConfigurationSelectionDialogController implements Initializable {
 
     private static final Logger logger = LoggerFactory.getLogger(ParsingConfigurationSelectionDialogController.class);
+    // Below this score the best config is shown but not preselected
+    private static final double MIN_DETECTED_SCORE = 0.25;
 
     @FXML
     private TextField searchField;
@@ -42,6 +54,12 @@ public class ParsingConfigurationSelectionDialogController implements Initializa
     @FXML
     private TableColumn<ParsingConfig, String> statusColumn;
 
+    @FXML
+    private TableColumn<ParsingConfig, String> matchColumn;
+
+    @FXML
+    private Label detectionLabel;
+
     @FXML
     private Label detailNameLabel;
 
@@ -55,6 +73,9 @@ public class ParsingConfigurationSelectionDialogController implements Initializa
     private ParsingConfigService parsingConfigService;
     private ObservableList<ParsingConfig> configList;
     private FilteredList<ParsingConfig> filteredList;
+    private final Map<String, ConfigMatch> matchesById = new HashMap<>();
+    // Set once the user picks a row, so a late detection result does not override the choice
+    private boolean selectionTouched;
     /**
      * -- GETTER --
      *  Get selected parsing configuration
@@ -99,6 +120,12 @@ public class ParsingConfigurationSelectionDialogController implements Initializa
             return new SimpleStringProperty(status);
         });
 
+        // Kolom Match - skor auto-detect untuk file yang akan dibuka
+        matchColumn.setCellValueFactory(cellData -> {
+            ConfigMatch match = matchesById.get(cellData.getValue().getId());
+            return new SimpleStringProperty(match != null ? String.format("%.0f%%", match.matchRate() * 100) : "");
+        });
+
         // Styling untuk status column
         statusColumn.setCellFactory(column -> new TableCell<ParsingConfig, String>() {
             @Override
@@ -160,12 +187,68 @@ public class ParsingConfigurationSelectionDialogController implements Initializa
             }
         });
 
+        configTableView.addEventFilter(MouseEvent.MOUSE_PRESSED, event -> selectionTouched = true);
+        configTableView.addEventFilter(KeyEvent.KEY_PRESSED, event -> selectionTouched = true);
+
         // Select first row by default if available
         if (!configTableView.getItems().isEmpty()) {
             configTableView.getSelectionModel().selectFirst();
         }
     }
 
+    /**
+     * Scores every configuration against a sample of the file in the background and preselects
+     * the best one, unless the user already picked a row. Configurations are listed best first.
+     */
+    public void detectConfigFor(File file) {
+        if (file == null || !file.isFile() || configList == null || configList.isEmpty()) {
+            return;
+        }
+        List<ParsingConfig> configs = List.copyOf(configList);
+        detectionLabel.setText("Detecting configuration...");
+        Task<List<ConfigMatch>> task = new Task<>() {
+            @Override
+            protected List<ConfigMatch> call() throws Exception {
+                return new ParsingConfigDetector(new LogParserService()).detect(file, configs);
+            }
+        };
+
+        task.setOnSucceeded(e -> {
+            List<ConfigMatch> matches = task.getValue();
+            matchesById.clear();
+            for (ConfigMatch match : matches) {
+                matchesById.put(match.config().getId(), match);
+            }
+            ParsingConfig selected = configTableView.getSelectionModel().getSelectedItem();
+            configList.sort(Comparator.comparingDouble((ParsingConfig config) -> {
+                ConfigMatch match = matchesById.get(config.getId());
+                return match != null ? match.score() : 0;
+            }).reversed());
+            configTableView.refresh();
+
+            ConfigMatch best = matches.isEmpty() ? null : matches.get(0);
+            if (best == null || best.score() < MIN_DETECTED_SCORE) {
+                detectionLabel.setText("No configuration clearly matches " + file.getName());
+                configTableView.getSelectionModel().select(selected);
+                return;
+            }
+            detectionLabel.setText(String.format("Detected: %s (%.0f%% of sampled lines)", best.config().getName(),
+                    best.matchRate() * 100));
+            ParsingConfig toSelect = selectionTouched ? selected : best.config();
+            configTableView.getSelectionModel().select(toSelect);
+            configTableView.scrollTo(toSelect);
+        });
+
+        task.setOnFailed(e -> {
+            logger.warn("Failed to detect parsing configuration for {}", file, task.getException());
+            detectionLabel.setText("");
+        });
+
+        Thread thread = new Thread(task, "parsing-config-detector");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     /**
      * Setup search/filter functionality
      */
@@ -1,6 +1,7 @@
 package com.seeloggyplus.controller;
 
 import com.seeloggyplus.model.Preference;
+import com.seeloggyplus.model.RawLogStorage;
 import com.seeloggyplus.service.PreferenceService;
 import com.seeloggyplus.service.impl.PreferenceServiceImpl;
 import javafx.collections.FXCollections;
@@ -14,6 +15,7 @@ import org.slf4j.LoggerFactory;
 import javafx.util.StringConverter;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Optional;
 
 public class PreferencesDialogController {
@@ -27,8 +29,14 @@ public class PreferencesDialogController {
     @FXML
     private Spinner<Integer> mainWindowSizeSpinner;
     @FXML
+    private Spinner<Integer> mainLazyLoadThresholdSpinner;
+    @FXML
     private ComboBox<String> mainDefaultLogLevelComboBox;
     @FXML
+    private ComboBox<String> mainRawLogStorageComboBox;
+    @FXML
+    private Spinner<Integer> mainSearchIndexBudgetSpinner;
+    @FXML
     private CheckBox mainAutoRefreshCheckBox;
     @FXML
     private CheckBox mainAutoPrettifyJsonCheckBox;
@@ -62,6 +70,7 @@ public class PreferencesDialogController {
         setupSpinners();
         setupFontFamilyComboBox();
         setupLogLevelComboBox();
+        setupRawLogStorageComboBox();
         setupButtons();
         loadPreferences();
     }
@@ -72,6 +81,10 @@ public class PreferencesDialogController {
         appFontSizeSpinner.setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(8, 30, 12));
         mainWindowSizeSpinner
                 .setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(100, 50000, 5000, 100));
+        mainLazyLoadThresholdSpinner
+                .setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(1, 1048576, 512, 64));
+        mainSearchIndexBudgetSpinner
+                .setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(0, 65536, 256, 64));
         lpLineLimitSpinner.setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(1, 10000, 500, 50));
 
         // Max threads = available logical processors provided by the OS
@@ -96,6 +109,11 @@ public class PreferencesDialogController {
                 "ALL", "TRACE", "DEBUG", "INFO", "WARN", "ERROR", "FATAL"));
     }
 
+    private void setupRawLogStorageComboBox() {
+        mainRawLogStorageComboBox.setItems(FXCollections.observableArrayList(
+                Arrays.stream(RawLogStorage.values()).map(Enum::name).toList()));
+    }
+
     private void setupButtons() {
         saveButton.setOnAction(e -> handleSave());
         cancelButton.setOnAction(e -> closeDialog());
@@ -107,7 +125,13 @@ public class PreferencesDialogController {
         appFontFamilyComboBox.getSelectionModel().select(getPreference("app_font_family", "Consolas"));
 
         mainWindowSizeSpinner.getValueFactory().setValue(Integer.parseInt(getPreference("main_window_size", "5000")));
+        mainLazyLoadThresholdSpinner.getValueFactory()
+                .setValue(Integer.parseInt(getPreference("main_lazy_load_threshold_mb", "512")));
+        mainSearchIndexBudgetSpinner.getValueFactory()
+                .setValue(Integer.parseInt(getPreference("main_search_index_budget_mb", "256")));
         mainDefaultLogLevelComboBox.getSelectionModel().select(getPreference("main_default_log_level", "ALL"));
+        mainRawLogStorageComboBox.getSelectionModel()
+                .select(RawLogStorage.fromPreference(getPreference("main_raw_log_storage", "HEAP")).name());
         mainAutoRefreshCheckBox.setSelected(Boolean.parseBoolean(getPreference("main_auto_refresh_enabled", "true")));
         mainAutoPrettifyJsonCheckBox
                 .setSelected(Boolean.parseBoolean(getPreference("main_auto_prettify_json", "false")));
@@ -135,6 +159,8 @@ public class PreferencesDialogController {
         // Commit spinners to ensure latest typed value is captured
         commitEditorText(appFontSizeSpinner);
         commitEditorText(mainWindowSizeSpinner);
+        commitEditorText(mainLazyLoadThresholdSpinner);
+        commitEditorText(mainSearchIndexBudgetSpinner);
         commitEditorText(lpLineLimitSpinner);
         commitEditorText(sshThreadsSpinner);
         commitEditorText(sshTimeoutSpinner);
@@ -143,7 +169,10 @@ public class PreferencesDialogController {
         savePreference("app_font_family", appFontFamilyComboBox.getValue());
 
         savePreference("main_window_size", String.valueOf(mainWindowSizeSpinner.getValue()));
+        savePreference("main_lazy_load_threshold_mb", String.valueOf(mainLazyLoadThresholdSpinner.getValue()));
+        savePreference("main_search_index_budget_mb", String.valueOf(mainSearchIndexBudgetSpinner.getValue()));
         savePreference("main_default_log_level", mainDefaultLogLevelComboBox.getValue());
+        savePreference("main_raw_log_storage", mainRawLogStorageComboBox.getValue());
         savePreference("main_auto_refresh_enabled", String.valueOf(mainAutoRefreshCheckBox.isSelected()));
         savePreference("main_auto_prettify_json", String.valueOf(mainAutoPrettifyJsonCheckBox.isSelected()));
         savePreference("main_auto_prettify_xml", String.valueOf(mainAutoPrettifyXmlCheckBox.isSelected()));
@@ -0,0 +1,14 @@
+package com.seeloggyplus.exceptions;
+
+import java.io.File;
+
+/**
+ * Thrown when a memory-mapped log file was truncated or replaced while open, e.g. by a
+ * logrotate copytruncate, so the mapping no longer covers the lines that were indexed.
+ * The file has to be reloaded.
+ */
+public class LogFileChangedException extends RuntimeException {
+    public LogFileChangedException(File file, Throwable cause) {
+        super(file.getName() + " was truncated or replaced while open; reload it", cause);
+    }
+}
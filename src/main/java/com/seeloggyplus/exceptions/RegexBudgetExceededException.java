@@ -0,0 +1,11 @@
+package com.seeloggyplus.exceptions;
+
+/**
+ * Thrown from inside a regex match that read more characters than its budget allows.
+ * Thrown once per runaway line, so it carries no stack trace.
+ */
+public class RegexBudgetExceededException extends RuntimeException {
+    public RegexBudgetExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,452 @@
+package com.seeloggyplus.model;
+
+import com.seeloggyplus.util.TimestampParser;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.UnaryOperator;
+
+/**
+ * Column-oriented storage for a block of consecutive log entries.
+ * <p>
+ * Instead of one {@link LogEntry} with its own HashMap per row, every named group of the
+ * parsing config gets one column. Columns start dictionary-encoded (one 16-bit code per row,
+ * 8-bit once sealed if the dictionary is small enough), which collapses low-cardinality values
+ * such as level, thread and logger to a handful of shared strings. A column whose values turn
+ * out to be mostly distinct (message, timestamp) keeps only offsets into the raw line and
+ * builds the value when it is read.
+ * <p>
+ * The block is a read-only {@code List<LogEntry>}; {@link #get(int)} returns a lightweight
+ * view over the row, so LogEntry objects only exist while something is looking at them.
+ * <p>
+ * A block created with a {@link RawLogArena} does not keep the raw text of parsed rows on the
+ * heap at all: it records where the line lives in the arena and decodes it when a row is read.
+ * <p>
+ * Timestamps are kept as epoch milliseconds converted once by the parser, so date filters
+ * compare primitives instead of parsing the timestamp column again.
+ */
+public class ColumnarLogBlock extends AbstractList<LogEntry> implements RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final List<String> groupNames;
+    private final Map<String, Integer> columnIndex;
+    private final Column[] columns;
+    private long[] lineNumbers;
+    private int[] lineSpans;
+    private long[] timestamps;
+    private String[] rawLogs;
+    private final RawLogArena arena;
+    private final UnaryOperator<String> valueDecoder;
+    private long[] rawOffsets;
+    private int[] rawLengths;
+    private final BitSet unparsedRows = new BitSet();
+    private int size;
+
+    public ColumnarLogBlock(List<String> groupNames) {
+        this(groupNames, DEFAULT_CAPACITY);
+    }
+
+    public ColumnarLogBlock(List<String> groupNames, int initialCapacity) {
+        this(groupNames, initialCapacity, null);
+    }
+
+    /**
+     * @param arena where the raw text of parsed rows is kept, or null to keep it on the heap
+     */
+    public ColumnarLogBlock(List<String> groupNames, int initialCapacity, RawLogArena arena) {
+        this(groupNames, initialCapacity, arena, null);
+    }
+
+    /**
+     * @param valueDecoder turns field text into the value returned to readers (e.g. unescapes
+     *                     JSON strings), or null if field text is returned as it is in the line
+     */
+    public ColumnarLogBlock(List<String> groupNames, int initialCapacity, RawLogArena arena,
+                            UnaryOperator<String> valueDecoder) {
+        this.groupNames = List.copyOf(groupNames);
+        int capacity = Math.max(16, initialCapacity);
+        this.columnIndex = new HashMap<>();
+        this.columns = new Column[this.groupNames.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columnIndex.put(this.groupNames.get(i), i);
+            columns[i] = new Column(capacity);
+        }
+        this.lineNumbers = new long[capacity];
+        this.lineSpans = new int[capacity];
+        this.timestamps = new long[capacity];
+        this.rawLogs = new String[capacity];
+        this.arena = arena;
+        this.valueDecoder = valueDecoder;
+        if (arena != null) {
+            this.rawOffsets = new long[capacity];
+            this.rawLengths = new int[capacity];
+        }
+    }
+
+    /**
+     * Appends a parsed row.
+     *
+     * @param endLineNumber last line of the entry, after any continuation lines
+     * @param rawLog        the entry text, starting with the parsed line
+     * @param fieldBounds   {@code start, end} offsets into {@code rawLog} for each group name,
+     *                      in {@link #getGroupNames()} order; -1 for a group that did not match
+     * @param epochMillis   the converted timestamp, or {@link TimestampParser#NO_TIMESTAMP}
+     */
+    public void addParsed(long lineNumber, long endLineNumber, String rawLog, int[] fieldBounds, long epochMillis) {
+        ensureCapacity();
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].set(size, rawLog, fieldBounds[i * 2], fieldBounds[i * 2 + 1]);
+        }
+        lineNumbers[size] = lineNumber;
+        lineSpans[size] = (int) (endLineNumber - lineNumber);
+        timestamps[size] = epochMillis;
+        rawLogs[size] = rawLog;
+        size++;
+    }
+
+    /**
+     * Appends a parsed row whose raw text lives in the block's arena. {@code rawLog} is only
+     * used while the row is added and is not retained; it may be just the parsed line.
+     *
+     * @param rawOffset arena offset of the entry text
+     * @param rawLength length of the entry text in the arena, in bytes
+     */
+    public void addParsed(long lineNumber, long endLineNumber, String rawLog, long rawOffset, int rawLength,
+                          int[] fieldBounds, long epochMillis) {
+        if (arena == null) {
+            throw new IllegalStateException("Block has no raw log arena");
+        }
+        addParsed(lineNumber, endLineNumber, rawLog, fieldBounds, epochMillis);
+        rawLogs[size - 1] = null;
+        rawOffsets[size - 1] = rawOffset;
+        rawLengths[size - 1] = rawLength;
+    }
+
+    /**
+     * Lets the last row take continuation lines that were only found after it was added,
+     * e.g. at the start of the next chunk.
+     *
+     * @param rawLog the whole entry text, replacing the previous one
+     */
+    public void extendLastRow(long endLineNumber, String rawLog) {
+        int row = lastParsedRow();
+        lineSpans[row] = (int) (endLineNumber - lineNumbers[row]);
+        rawLogs[row] = rawLog;
+    }
+
+    /**
+     * Arena counterpart of {@link #extendLastRow(long, String)}.
+     */
+    public void extendLastRow(long endLineNumber, long rawOffset, int rawLength) {
+        int row = lastParsedRow();
+        lineSpans[row] = (int) (endLineNumber - lineNumbers[row]);
+        rawOffsets[row] = rawOffset;
+        rawLengths[row] = rawLength;
+    }
+
+    private int lastParsedRow() {
+        if (size == 0 || unparsedRows.get(size - 1)) {
+            throw new IllegalStateException("Last row is not a parsed entry");
+        }
+        return size - 1;
+    }
+
+    /**
+     * Appends a run of unparsed lines combined into one row.
+     */
+    public void addUnparsed(long startLineNumber, long endLineNumber, String rawLog) {
+        ensureCapacity();
+        for (Column column : columns) {
+            column.set(size, rawLog, -1, -1);
+        }
+        lineNumbers[size] = startLineNumber;
+        lineSpans[size] = (int) (endLineNumber - startLineNumber);
+        timestamps[size] = TimestampParser.NO_TIMESTAMP;
+        rawLogs[size] = rawLog;
+        unparsedRows.set(size);
+        size++;
+    }
+
+    /**
+     * Shifts the line numbers of all rows, for blocks parsed with chunk-relative numbering.
+     */
+    public void offsetLineNumbers(long delta) {
+        for (int i = 0; i < size; i++) {
+            lineNumbers[i] += delta;
+        }
+    }
+
+    /**
+     * Releases spare capacity and narrows small dictionaries to one byte per row.
+     * Call once the block is complete.
+     */
+    public void seal() {
+        lineNumbers = Arrays.copyOf(lineNumbers, size);
+        lineSpans = Arrays.copyOf(lineSpans, size);
+        timestamps = Arrays.copyOf(timestamps, size);
+        rawLogs = Arrays.copyOf(rawLogs, size);
+        if (arena != null) {
+            rawOffsets = Arrays.copyOf(rawOffsets, size);
+            rawLengths = Arrays.copyOf(rawLengths, size);
+        }
+        for (Column column : columns) {
+            column.seal(size);
+        }
+    }
+
+    public List<String> getGroupNames() {
+        return groupNames;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public LogEntry get(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of range [0, " + size + ")");
+        }
+        return new Row(row);
+    }
+
+    private void ensureCapacity() {
+        if (size == lineNumbers.length) {
+            int newCapacity = size + (size >> 1) + 1;
+            lineNumbers = Arrays.copyOf(lineNumbers, newCapacity);
+            lineSpans = Arrays.copyOf(lineSpans, newCapacity);
+            timestamps = Arrays.copyOf(timestamps, newCapacity);
+            rawLogs = Arrays.copyOf(rawLogs, newCapacity);
+            if (arena != null) {
+                rawOffsets = Arrays.copyOf(rawOffsets, newCapacity);
+                rawLengths = Arrays.copyOf(rawLengths, newCapacity);
+            }
+            for (Column column : columns) {
+                column.grow(newCapacity);
+            }
+        }
+    }
+
+    /**
+     * LogEntry view over one row of the block.
+     */
+    private final class Row extends LogEntry {
+        private final int row;
+        private String rawLog;
+
+        private Row(int row) {
+            super(lineNumbers[row], lineNumbers[row] + lineSpans[row], !unparsedRows.get(row));
+            this.row = row;
+            this.rawLog = rawLogs[row];
+        }
+
+        @Override
+        public String getRawLog() {
+            if (rawLog == null) {
+                rawLog = arena.decode(rawOffsets[row], rawLengths[row]);
+            }
+            return rawLog;
+        }
+
+        @Override
+        public String getField(String fieldName) {
+            if (!isParsed()) {
+                return "unparsed".equals(fieldName) ? getRawLog() : null;
+            }
+            Integer column = columnIndex.get(fieldName);
+            return column != null ? value(column) : null;
+        }
+
+        @Override
+        public Map<String, String> getParsedFields() {
+            if (!isParsed()) {
+                return Map.of("unparsed", getRawLog());
+            }
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (int i = 0; i < columns.length; i++) {
+                fields.put(groupNames.get(i), value(i));
+            }
+            return Collections.unmodifiableMap(fields);
+        }
+
+        private String value(int column) {
+            String value = columns[column].get(row, this);
+            return valueDecoder != null ? valueDecoder.apply(value) : value;
+        }
+
+        @Override
+        public long getEpochMillis() {
+            return timestamps[row];
+        }
+    }
+
+    /**
+     * One column of field values. Every row records the field as {@code [start, end)} offsets
+     * into its raw line, so parsing never has to copy the field text. While the column's
+     * cardinality stays low, values are also dictionary-encoded: the dictionary is probed with
+     * the raw line region, so only the first occurrence of a value allocates a String. Once
+     * sealed, a column keeps either its dictionary codes or its offsets, whichever applies.
+     * Code 0 and offset -1 stand for a group that did not take part in the match.
+     */
+    private static final class Column {
+        private static final int MAX_DICTIONARY_SIZE = Character.MAX_VALUE;
+        private static final int CARDINALITY_SAMPLE_ROWS = 4096;
+        private static final char NO_OFFSET = Character.MAX_VALUE;
+
+        private ArrayList<String> dictionary = new ArrayList<>();
+        private int[] dictionaryTable = new int[64];
+        private char[] codes;
+        private byte[] byteCodes;
+        private int[] bounds;
+        private char[] charBounds;
+
+        private Column(int capacity) {
+            dictionary.add("");
+            codes = new char[capacity];
+            bounds = new int[capacity * 2];
+        }
+
+        private void set(int row, String rawLog, int start, int end) {
+            bounds[row * 2] = start;
+            bounds[row * 2 + 1] = end;
+            if (codes == null) {
+                return;
+            }
+            if (start < 0) {
+                codes[row] = 0;
+                return;
+            }
+            int code = lookup(rawLog, start, end);
+            if (code < 0 || (row >= CARDINALITY_SAMPLE_ROWS && dictionary.size() > row / 2)) {
+                // Too many distinct values to be worth a dictionary; keep offsets only
+                codes = null;
+                dictionary = null;
+                dictionaryTable = null;
+                return;
+            }
+            codes[row] = (char) code;
+        }
+
+        /**
+         * Reads a value; the raw line is only decoded for columns that keep offsets.
+         */
+        private String get(int row, LogEntry entry) {
+            if (byteCodes != null) {
+                return dictionary.get(byteCodes[row] & 0xFF);
+            }
+            if (codes != null) {
+                return dictionary.get(codes[row]);
+            }
+            int start;
+            int end;
+            if (charBounds != null) {
+                start = charBounds[row * 2] == NO_OFFSET ? -1 : charBounds[row * 2];
+                end = charBounds[row * 2 + 1];
+            } else {
+                start = bounds[row * 2];
+                end = bounds[row * 2 + 1];
+            }
+            return start < 0 ? "" : entry.getRawLog().substring(start, end);
+        }
+
+        /**
+         * Finds or adds the dictionary code of {@code rawLog[start, end)}.
+         *
+         * @return the code, or -1 if the dictionary is full
+         */
+        private int lookup(String rawLog, int start, int end) {
+            int length = end - start;
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + rawLog.charAt(i);
+            }
+            int mask = dictionaryTable.length - 1;
+            int slot = mix(hash) & mask;
+            while (dictionaryTable[slot] != 0) {
+                String value = dictionary.get(dictionaryTable[slot]);
+                if (value.length() == length && rawLog.regionMatches(start, value, 0, length)) {
+                    return dictionaryTable[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            if (dictionary.size() > MAX_DICTIONARY_SIZE) {
+                return -1;
+            }
+            int code = dictionary.size();
+            dictionary.add(rawLog.substring(start, end));
+            dictionaryTable[slot] = code;
+            if (dictionary.size() * 2 > dictionaryTable.length) {
+                rehash();
+            }
+            return code;
+        }
+
+        private void rehash() {
+            int[] table = new int[dictionaryTable.length * 2];
+            int mask = table.length - 1;
+            for (int code = 1; code < dictionary.size(); code++) {
+                int slot = mix(dictionary.get(code).hashCode()) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = code;
+            }
+            dictionaryTable = table;
+        }
+
+        private static int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+        private void grow(int capacity) {
+            bounds = Arrays.copyOf(bounds, capacity * 2);
+            if (codes != null) {
+                codes = Arrays.copyOf(codes, capacity);
+            }
+        }
+
+        private void seal(int size) {
+            dictionaryTable = null;
+            if (codes != null) {
+                bounds = null;
+                dictionary.trimToSize();
+                if (dictionary.size() <= 256) {
+                    byteCodes = new byte[size];
+                    for (int i = 0; i < size; i++) {
+                        byteCodes[i] = (byte) codes[i];
+                    }
+                    codes = null;
+                } else {
+                    codes = Arrays.copyOf(codes, size);
+                }
+                return;
+            }
+
+            // Offsets of lines shorter than 64K fit in a char
+            int maxEnd = 0;
+            for (int i = 0; i < size * 2; i++) {
+                maxEnd = Math.max(maxEnd, bounds[i]);
+            }
+            if (maxEnd < NO_OFFSET) {
+                charBounds = new char[size * 2];
+                for (int i = 0; i < size * 2; i++) {
+                    charBounds[i] = bounds[i] < 0 ? NO_OFFSET : (char) bounds[i];
+                }
+                bounds = null;
+            } else {
+                bounds = Arrays.copyOf(bounds, size * 2);
+            }
+        }
+    }
+}
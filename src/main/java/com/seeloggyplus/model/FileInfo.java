@@ -118,7 +118,10 @@ public class FileInfo implements Comparable<FileInfo> {
         String lowerName = name != null ? name.toLowerCase() : "";
         return lowerName.endsWith(".log") ||
                 lowerName.endsWith(".txt") ||
-                lowerName.contains(".log.");
+                lowerName.contains(".log.") ||
+                lowerName.endsWith(".gz") ||
+                lowerName.endsWith(".zst") ||
+                lowerName.endsWith(".bz2");
     }
 
     public String getTypeDescription() {
@@ -0,0 +1,134 @@
+package com.seeloggyplus.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Arrays;
+
+/**
+ * Primitive index of line start offsets for a log file.
+ * Offsets are kept in a growable long[] instead of boxed map entries so a file with
+ * tens of millions of lines costs 8 bytes per line. Line {@code i} (0-based) covers the
+ * byte range {@code [getLineStart(i), getLineEnd(i))}, terminator included.
+ */
+public class LineIndex {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private long[] lineStarts;
+    private int size;
+
+    /**
+     * Offset just past the last indexed line (its terminator included).
+     */
+    @Getter
+    @Setter
+    private long endOffset;
+
+    public LineIndex() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LineIndex(int initialCapacity) {
+        this.lineStarts = new long[Math.max(16, initialCapacity)];
+    }
+
+    /**
+     * Wraps already computed offsets, e.g. read back from a persisted index.
+     */
+    public LineIndex(long[] lineStarts, int size, long endOffset) {
+        this.lineStarts = lineStarts;
+        this.size = size;
+        this.endOffset = endOffset;
+    }
+
+    public void add(long lineStart) {
+        if (size == lineStarts.length) {
+            grow(size + 1);
+        }
+        lineStarts[size++] = lineStart;
+    }
+
+    /**
+     * Appends all lines of another index, which must start where this one ends.
+     */
+    public void append(LineIndex other) {
+        if (other.size == 0) {
+            endOffset = Math.max(endOffset, other.endOffset);
+            return;
+        }
+        if (size + other.size > lineStarts.length) {
+            grow(size + other.size);
+        }
+        System.arraycopy(other.lineStarts, 0, lineStarts, size, other.size);
+        size += other.size;
+        endOffset = other.endOffset;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getLineStart(int line) {
+        if (line < 0 || line >= size) {
+            throw new IndexOutOfBoundsException("Line " + line + " out of range [0, " + size + ")");
+        }
+        return lineStarts[line];
+    }
+
+    /**
+     * Exclusive end of a line, i.e. the start of the next line or {@link #getEndOffset()} for the last one.
+     */
+    public long getLineEnd(int line) {
+        if (line < 0 || line >= size) {
+            throw new IndexOutOfBoundsException("Line " + line + " out of range [0, " + size + ")");
+        }
+        return line + 1 < size ? lineStarts[line + 1] : endOffset;
+    }
+
+    /**
+     * Finds the line containing the given byte offset.
+     *
+     * @return the 0-based line, or -1 if the offset lies before the first indexed line
+     */
+    public int findLine(long offset) {
+        int pos = Arrays.binarySearch(lineStarts, 0, size, offset);
+        return pos >= 0 ? pos : -pos - 2;
+    }
+
+    /**
+     * Copies lines {@code [from, to)} into an index of their own, still with file offsets.
+     */
+    public LineIndex slice(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Lines [" + from + ", " + to + ") out of range [0, " + size + ")");
+        }
+        long end = to < size ? lineStarts[to] : endOffset;
+        return new LineIndex(Arrays.copyOfRange(lineStarts, from, Math.max(to, from + 16)), to - from, end);
+    }
+
+    /**
+     * Drops every line from {@code newSize} on; the index then ends where the first dropped line started.
+     */
+    public void truncate(int newSize) {
+        if (newSize < size) {
+            endOffset = lineStarts[Math.max(0, newSize)];
+            size = Math.max(0, newSize);
+        }
+    }
+
+    public void trimToSize() {
+        if (lineStarts.length > size) {
+            lineStarts = Arrays.copyOf(lineStarts, Math.max(16, size));
+        }
+    }
+
+    private void grow(int minCapacity) {
+        int newCapacity = Math.max(minCapacity, lineStarts.length + (lineStarts.length >> 1));
+        lineStarts = Arrays.copyOf(lineStarts, newCapacity);
+    }
+}
@@ -1,9 +1,12 @@
 package com.seeloggyplus.model;
 
+import com.seeloggyplus.util.TimestampParser;
 import lombok.Getter;
-import lombok.Setter;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,27 +14,24 @@ import java.util.regex.Matcher;
 
 /**
  * Model class representing a single log entry
- * Designed for performance with lazy loading and efficient memory usage
+ * Designed for performance with lazy loading and efficient memory usage.
+ * Entries stored in a {@link ColumnarLogBlock} are read-only views that override the field accessors.
  */
 public class LogEntry {
 
+    private static final TimestampParser ISO_TIMESTAMPS = TimestampParser.forFormat(null);
+
     // Getters
     @Getter
-    private final long lineNumber;
-    @Getter
-    private final long endLineNumber;
+    private long lineNumber;
     @Getter
+    private long endLineNumber;
     private final String rawLog;
     private final Map<String, String> parsedFields;
+    private long epochMillis;
+    private boolean timestampResolved;
     @Getter
-    private LocalDateTime timestamp;
-    private String level;
-    private String message;
-    private String thread;
-    private String logger;
-    @Setter
-    @Getter
-    private boolean isParsed;
+    private final boolean isParsed;
 
     // Constructor for unparsed single lines
     public LogEntry(long lineNumber, String rawLog) {
@@ -50,95 +50,87 @@ public class LogEntry {
 
     // Constructor for parsed lines with pre-existing map
     public LogEntry(long lineNumber, String rawLog, Map<String, String> parsedFields) {
-        this(lineNumber, lineNumber, rawLog, parsedFields, true);
+        this(lineNumber, lineNumber, rawLog, new HashMap<>(parsedFields), true);
+    }
+
+    // Constructor for parsed lines whose timestamp was already converted by the parser
+    public LogEntry(long lineNumber, String rawLog, Map<String, String> parsedFields, long epochMillis) {
+        this(lineNumber, rawLog, parsedFields);
+        this.epochMillis = epochMillis;
+        this.timestampResolved = true;
+    }
+
+    // Constructor for views that supply raw text and fields through overridden accessors
+    protected LogEntry(long lineNumber, long endLineNumber, boolean isParsed) {
+        this(lineNumber, endLineNumber, null, Map.of(), isParsed);
     }
 
-    // Private common constructor
+    // Private common constructor, takes ownership of the field map
     private LogEntry(long lineNumber, long endLineNumber, String rawLog, Map<String, String> parsedFields, boolean isParsed) {
         this.lineNumber = lineNumber;
         this.endLineNumber = endLineNumber;
         this.rawLog = rawLog;
-        this.parsedFields = new HashMap<>(parsedFields);
+        this.parsedFields = parsedFields;
         this.isParsed = isParsed;
+    }
 
-        if (isParsed) {
-            // Extract common fields
-            this.level = parsedFields.getOrDefault("level", "");
-            this.message = parsedFields.getOrDefault("message", "");
-            this.thread = parsedFields.getOrDefault("thread", "");
-            this.logger = parsedFields.getOrDefault("logger", "");
-
-            // Parse timestamp if available
-            String timestampStr = parsedFields.get("timestamp");
-            if (timestampStr != null) {
-                try {
-                    this.timestamp = LocalDateTime.parse(timestampStr);
-                } catch (Exception e) {
-                    this.timestamp = null;
-                }
-            }
-        } else {
-            this.message = rawLog;
-        }
+    /**
+     * Shifts the line numbers of an entry that was parsed with chunk-relative numbering.
+     */
+    public void offsetLineNumbers(long delta) {
+        this.lineNumber += delta;
+        this.endLineNumber += delta;
+    }
+
+    public String getRawLog() {
+        return rawLog;
     }
 
     public Map<String, String> getParsedFields() {
-        return new HashMap<>(parsedFields);
+        return Collections.unmodifiableMap(parsedFields);
     }
 
     public String getField(String fieldName) {
         return parsedFields.get(fieldName);
     }
 
-    public void setTimestamp(LocalDateTime timestamp) {
-        this.timestamp = timestamp;
-        if (timestamp != null) {
-            parsedFields.put("timestamp", timestamp.toString());
+    /**
+     * Timestamp of a parsed entry in epoch milliseconds, or {@link TimestampParser#NO_TIMESTAMP}.
+     * Entries built by the parser carry the value converted with the config's timestamp format;
+     * otherwise an ISO-like timestamp field is converted on first access.
+     */
+    public long getEpochMillis() {
+        if (!timestampResolved) {
+            epochMillis = isParsed ? ISO_TIMESTAMPS.parse(getField("timestamp")) : TimestampParser.NO_TIMESTAMP;
+            timestampResolved = true;
         }
+        return epochMillis;
     }
 
-    public String getLevel() {
-        return level != null ? level : "";
+    public LocalDateTime getTimestamp() {
+        long millis = getEpochMillis();
+        return millis == TimestampParser.NO_TIMESTAMP ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
     }
 
-    public void setLevel(String level) {
-        this.level = level;
-        parsedFields.put("level", level);
+    public String getLevel() {
+        return isParsed ? valueOrEmpty(getField("level")) : "";
     }
 
     public String getMessage() {
-        return message != null ? message : "";
-    }
-
-    public void setMessage(String message) {
-        this.message = message;
-        parsedFields.put("message", message);
+        return isParsed ? valueOrEmpty(getField("message")) : valueOrEmpty(getRawLog());
     }
 
     public String getThread() {
-        return thread != null ? thread : "";
-    }
-
-    public void setThread(String thread) {
-        this.thread = thread;
-        parsedFields.put("thread", thread);
+        return isParsed ? valueOrEmpty(getField("thread")) : "";
     }
 
     public String getLogger() {
-        return logger != null ? logger : "";
-    }
-
-    public void setLogger(String logger) {
-        this.logger = logger;
-        parsedFields.put("logger", logger);
+        return isParsed ? valueOrEmpty(getField("logger")) : "";
     }
 
-    public void addField(String key, String value) {
-        parsedFields.put(key, value);
-    }
-
-    public void addFields(Map<String, String> fields) {
-        parsedFields.putAll(fields);
+    private static String valueOrEmpty(String value) {
+        return value != null ? value : "";
     }
 
     private static Map<String, String> createMapFromMatcher(Matcher matcher, List<String> groupNames) {
@@ -163,6 +155,7 @@ public class LogEntry {
             return true;
         }
 
+        String rawLog = getRawLog();
         String searchIn = caseSensitive ? rawLog : rawLog.toLowerCase();
         String searchFor = caseSensitive ? searchText : searchText.toLowerCase();
 
@@ -178,7 +171,7 @@ public class LogEntry {
         }
 
         try {
-            return rawLog.matches(regex);
+            return getRawLog().matches(regex);
         } catch (Exception e) {
             return false;
         }
@@ -186,7 +179,7 @@ public class LogEntry {
 
     @Override
     public String toString() {
-        return rawLog;
+        return getRawLog();
     }
 
     @Override
@@ -194,6 +187,7 @@ public class LogEntry {
         final int prime = 31;
         int result = 1;
         result = prime * result + Long.hashCode(lineNumber);
+        String rawLog = getRawLog();
         result = prime * result + ((rawLog == null) ? 0 : rawLog.hashCode());
         return result;
     }
@@ -204,15 +198,16 @@ public class LogEntry {
             return true;
         if (obj == null)
             return false;
-        if (getClass() != obj.getClass())
+        if (!(obj instanceof LogEntry other))
             return false;
-        LogEntry other = (LogEntry) obj;
         if (lineNumber != other.lineNumber)
             return false;
+        String rawLog = getRawLog();
+        String otherRawLog = other.getRawLog();
         if (rawLog == null) {
-            if (other.rawLog != null)
+            if (otherRawLog != null)
                 return false;
-        } else if (!rawLog.equals(other.rawLog))
+        } else if (!rawLog.equals(otherRawLog))
             return false;
         return true;
     }
@@ -0,0 +1,168 @@
+package com.seeloggyplus.model;
+
+import com.seeloggyplus.util.TimestampParser;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+
+/**
+ * Entry boundaries of a parsed log file on top of its {@link LineIndex}.
+ * Every matching line starts a parsed entry that also takes the non-matching lines after it;
+ * only non-matching lines before the first match form an unparsed entry, exactly as the eager
+ * parser combines them. Only primitives are stored
+ * (first line, level code and epoch timestamp per entry), so the entries themselves can be
+ * re-parsed on demand from the file and the index can be persisted as is.
+ */
+public class LogIndex {
+
+    public static final byte LEVEL_NONE = 0;
+    public static final long NO_TIMESTAMP = TimestampParser.NO_TIMESTAMP;
+
+    private static final String[] LEVEL_NAMES = {null, "TRACE", "DEBUG", "INFO", "WARN", "ERROR", "FATAL"};
+
+    @Getter
+    private final LineIndex lineIndex;
+    private int[] entryFirstLines;
+    private byte[] levels;
+    private long[] timestamps;
+    private int entryCount;
+    private final BitSet unparsedEntries;
+
+    public LogIndex(LineIndex lineIndex) {
+        this.lineIndex = lineIndex;
+        int capacity = Math.max(16, lineIndex.size());
+        this.entryFirstLines = new int[capacity];
+        this.levels = new byte[capacity];
+        this.timestamps = new long[capacity];
+        this.unparsedEntries = new BitSet();
+    }
+
+    /**
+     * Wraps already computed entry data, e.g. read back from a persisted index.
+     */
+    public LogIndex(LineIndex lineIndex, int[] entryFirstLines, byte[] levels, long[] timestamps,
+                    BitSet unparsedEntries, int entryCount) {
+        this.lineIndex = lineIndex;
+        this.entryFirstLines = entryFirstLines;
+        this.levels = levels;
+        this.timestamps = timestamps;
+        this.unparsedEntries = unparsedEntries;
+        this.entryCount = entryCount;
+    }
+
+    public void addEntry(int firstLine, boolean parsed, byte level, long timestamp) {
+        if (entryCount == entryFirstLines.length) {
+            int newCapacity = entryCount + (entryCount >> 1) + 1;
+            entryFirstLines = Arrays.copyOf(entryFirstLines, newCapacity);
+            levels = Arrays.copyOf(levels, newCapacity);
+            timestamps = Arrays.copyOf(timestamps, newCapacity);
+        }
+        if (!parsed) {
+            unparsedEntries.set(entryCount);
+        }
+        entryFirstLines[entryCount] = firstLine;
+        levels[entryCount] = level;
+        timestamps[entryCount] = timestamp;
+        entryCount++;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * 0-based index of the first line of an entry.
+     */
+    public int getFirstLine(int entry) {
+        checkEntry(entry);
+        return entryFirstLines[entry];
+    }
+
+    /**
+     * 0-based index of the last line of an entry (inclusive).
+     */
+    public int getLastLine(int entry) {
+        checkEntry(entry);
+        return (entry + 1 < entryCount ? entryFirstLines[entry + 1] : lineIndex.size()) - 1;
+    }
+
+    public boolean isParsed(int entry) {
+        checkEntry(entry);
+        return !unparsedEntries.get(entry);
+    }
+
+    public byte getLevel(int entry) {
+        checkEntry(entry);
+        return levels[entry];
+    }
+
+    /**
+     * Epoch milliseconds of the entry timestamp, or {@link #NO_TIMESTAMP}.
+     */
+    public long getTimestamp(int entry) {
+        checkEntry(entry);
+        return timestamps[entry];
+    }
+
+    /**
+     * Finds the entry containing the given 0-based line.
+     *
+     * @return the entry index, or -1 if the line lies before the first entry
+     */
+    public int findEntry(int line) {
+        int pos = Arrays.binarySearch(entryFirstLines, 0, entryCount, line);
+        return pos >= 0 ? pos : -pos - 2;
+    }
+
+    /**
+     * Drops every entry from {@code newCount} on, together with its lines.
+     */
+    public void truncate(int newCount) {
+        if (newCount >= 0 && newCount < entryCount) {
+            lineIndex.truncate(entryFirstLines[newCount]);
+            unparsedEntries.clear(newCount, entryCount);
+            entryCount = newCount;
+        }
+    }
+
+    public void trimToSize() {
+        if (entryFirstLines.length > entryCount) {
+            int capacity = Math.max(16, entryCount);
+            entryFirstLines = Arrays.copyOf(entryFirstLines, capacity);
+            levels = Arrays.copyOf(levels, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+        }
+        lineIndex.trimToSize();
+    }
+
+    public static byte levelCode(String level) {
+        if (level == null || level.isEmpty()) {
+            return LEVEL_NONE;
+        }
+        String upper = level.trim().toUpperCase(Locale.ROOT);
+        if (upper.equals("WARNING")) {
+            upper = "WARN";
+        }
+        for (int i = 1; i < LEVEL_NAMES.length; i++) {
+            if (LEVEL_NAMES[i].equals(upper)) {
+                return (byte) i;
+            }
+        }
+        return LEVEL_NONE;
+    }
+
+    /**
+     * Level name for a code, or null for {@link #LEVEL_NONE}.
+     */
+    public static String levelName(byte level) {
+        return level > 0 && level < LEVEL_NAMES.length ? LEVEL_NAMES[level] : null;
+    }
+
+    private void checkEntry(int entry) {
+        if (entry < 0 || entry >= entryCount) {
+            throw new IndexOutOfBoundsException("Entry " + entry + " out of range [0, " + entryCount + ")");
+        }
+    }
+}
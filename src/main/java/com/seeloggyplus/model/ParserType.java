@@ -0,0 +1,38 @@
+package com.seeloggyplus.model;
+
+/**
+ * How a {@link ParsingConfig} splits a log line into fields.
+ */
+public enum ParserType {
+    /**
+     * Named groups of the config's regex pattern.
+     */
+    REGEX("Regex"),
+    /**
+     * Top-level keys of one JSON object per line; columns are discovered from the file.
+     */
+    JSON_LINES("JSON lines"),
+    /**
+     * {@code key=value} pairs with optional quoted values; columns are discovered from the file.
+     */
+    LOGFMT("logfmt");
+
+    private final String displayName;
+
+    ParserType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public static ParserType fromValue(String value) {
+        try {
+            return value != null ? valueOf(value) : REGEX;
+        } catch (IllegalArgumentException e) {
+            return REGEX;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -16,6 +16,8 @@ import java.util.regex.PatternSyntaxException;
 /**
  * Model class for log parsing configuration using regex patterns with named groups
  * The named groups in the regex pattern will be used as column headers in the log table viewer
+ * Structured parser types (see {@link ParserType}) have no pattern; their columns are discovered
+ * from the file and set with {@link #withColumns}.
  */
 
 @Setter
@@ -33,6 +35,8 @@ public class ParsingConfig {
     private String validationError;
     private boolean isDefault;
     private String timestampFormat; // Format for timestamp parsing (e.g., "yyyy-MM-dd HH:mm:ss.SSS")
+    private ParserType parserType;
+    private transient List<String> fieldKeys; // Source key of each column for structured parser types
 
     public ParsingConfig(String name, String regexPattern) {
         this.name = name;
@@ -52,6 +56,14 @@ public class ParsingConfig {
             this.groupNames = new ArrayList<>();
         }
 
+        if (isStructured()) {
+            // Nothing to validate; columns come from the file
+            this.isValid = true;
+            this.validationError = null;
+            this.compiledPattern = null;
+            return;
+        }
+
         if (regexPattern == null || regexPattern.trim().isEmpty()) {
             this.isValid = false;
             this.validationError = "Regex pattern cannot be empty";
@@ -101,6 +113,32 @@ public class ParsingConfig {
         return names;
     }
 
+    public ParserType getParserType() {
+        return parserType != null ? parserType : ParserType.REGEX;
+    }
+
+    /**
+     * True for parser types that read keys from the line instead of matching a pattern.
+     */
+    public boolean isStructured() {
+        return getParserType() != ParserType.REGEX;
+    }
+
+    /**
+     * Copy of a structured config with the columns discovered for one file.
+     *
+     * @param columnNames the column (group) names
+     * @param keys        the key each column is read from, in the same order
+     */
+    public ParsingConfig withColumns(List<String> columnNames, List<String> keys) {
+        ParsingConfig resolved = copy();
+        resolved.id = this.id;
+        resolved.isDefault = this.isDefault;
+        resolved.groupNames = new ArrayList<>(columnNames);
+        resolved.fieldKeys = List.copyOf(keys);
+        return resolved;
+    }
+
     /**
      * Get compiled pattern, compiling if necessary
      */
@@ -169,6 +207,7 @@ public class ParsingConfig {
         copy.description = this.description;
         copy.regexPattern = this.regexPattern;
         copy.timestampFormat = this.timestampFormat;
+        copy.parserType = this.parserType;
         copy.isDefault = false;
         copy.validatePattern();
         return copy;
@@ -185,11 +224,12 @@ public class ParsingConfig {
         if (o == null || getClass() != o.getClass()) return false;
         ParsingConfig that = (ParsingConfig) o;
         return Objects.equals(name, that.name) &&
-               Objects.equals(regexPattern, that.regexPattern);
+               Objects.equals(regexPattern, that.regexPattern) &&
+               getParserType() == that.getParserType();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, regexPattern);
+        return Objects.hash(name, regexPattern, getParserType());
     }
 }
@@ -0,0 +1,13 @@
+package com.seeloggyplus.model;
+
+/**
+ * Byte storage that holds raw log lines outside the Java heap.
+ * Lines are referenced by {@code (offset, length)} and only decoded when they are read.
+ */
+public interface RawLogArena {
+
+    /**
+     * Decodes the bytes in {@code [offset, offset + length)} with the charset detected for the file.
+     */
+    String decode(long offset, int length);
+}
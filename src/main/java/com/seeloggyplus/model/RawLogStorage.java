@@ -0,0 +1,29 @@
+package com.seeloggyplus.model;
+
+/**
+ * Where the raw text of parsed lines is kept while a file is open.
+ */
+public enum RawLogStorage {
+    /**
+     * One String per line on the Java heap.
+     */
+    HEAP,
+    /**
+     * Offsets into the memory-mapped source file. If the file is truncated while open, reading
+     * a line throws {@code LogFileChangedException} and the file has to be reloaded.
+     */
+    MAPPED_FILE,
+    /**
+     * Copies in direct ByteBuffer slabs, independent of later changes to the file. A file that
+     * does not fit under {@code -XX:MaxDirectMemorySize} is kept as {@link #MAPPED_FILE} instead.
+     */
+    DIRECT_BUFFER;
+
+    public static RawLogStorage fromPreference(String value) {
+        try {
+            return value != null ? valueOf(value) : HEAP;
+        } catch (IllegalArgumentException e) {
+            return HEAP;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.seeloggyplus.repository.impl;
 
+import com.seeloggyplus.model.ParserType;
 import com.seeloggyplus.model.ParsingConfig;
 import com.seeloggyplus.repository.ParsingConfigRepository;
 import com.seeloggyplus.config.DatabaseConfig;
@@ -51,13 +52,14 @@ public class ParsingConfigRepositoryImpl implements ParsingConfigRepository {
 
     @Override
     public void save(ParsingConfig config) {
-        String sql = "INSERT INTO parsing_configs(id, name, description, regex_pattern, timestamp_format) VALUES(?,?,?,?,?)";
+        String sql = "INSERT INTO parsing_configs(id, name, description, regex_pattern, timestamp_format, parser_type) VALUES(?,?,?,?,?,?)";
         try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
             preparedStatement.setString(1, config.getId());
             preparedStatement.setString(2, config.getName());
             preparedStatement.setString(3, config.getDescription());
             preparedStatement.setString(4, config.getRegexPattern());
             preparedStatement.setString(5, config.getTimestampFormat());
+            preparedStatement.setString(6, config.getParserType().name());
             preparedStatement.executeUpdate();
         } catch (SQLException e) {
             logger.error("Error saving parsing config: {}", config.getName(), e);
@@ -66,13 +68,14 @@ public class ParsingConfigRepositoryImpl implements ParsingConfigRepository {
 
     @Override
     public void update(ParsingConfig config) {
-        String sql = "UPDATE parsing_configs SET name = ?, description = ?, regex_pattern = ?, timestamp_format = ? WHERE id = ?";
+        String sql = "UPDATE parsing_configs SET name = ?, description = ?, regex_pattern = ?, timestamp_format = ?, parser_type = ? WHERE id = ?";
         try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
             preparedStatement.setString(1, config.getName());
             preparedStatement.setString(2, config.getDescription());
             preparedStatement.setString(3, config.getRegexPattern());
             preparedStatement.setString(4, config.getTimestampFormat());
-            preparedStatement.setString(5, config.getId());
+            preparedStatement.setString(5, config.getParserType().name());
+            preparedStatement.setString(6, config.getId());
             preparedStatement.executeUpdate();
         } catch (SQLException e) {
             logger.error("Error updating parsing config: {}", config.getName(), e);
@@ -105,6 +108,7 @@ public class ParsingConfigRepositoryImpl implements ParsingConfigRepository {
         config.setDescription(rs.getString("description"));
         config.setRegexPattern(rs.getString("regex_pattern"));
         config.setTimestampFormat(rs.getString("timestamp_format"));
+        config.setParserType(ParserType.fromValue(rs.getString("parser_type")));
 
         // IMPORTANT: Validate pattern to extract group names and set isValid flag
         config.validatePattern();
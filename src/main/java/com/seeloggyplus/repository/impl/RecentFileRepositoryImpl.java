@@ -2,6 +2,7 @@ package com.seeloggyplus.repository.impl;
 
 import com.seeloggyplus.dto.RecentFilesDto;
 import com.seeloggyplus.model.LogFile;
+import com.seeloggyplus.model.ParserType;
 import com.seeloggyplus.model.ParsingConfig;
 import com.seeloggyplus.model.RecentFile;
 import com.seeloggyplus.repository.RecentFileRepository;
@@ -48,7 +49,8 @@ public class RecentFileRepositoryImpl implements RecentFileRepository {
                 "pc.name AS config_name, " +
                 "pc.description AS config_description, " +
                 "pc.regex_pattern, " +
-                "pc.timestamp_format " +
+                "pc.timestamp_format, " +
+                "pc.parser_type " +
                 "FROM recent_files rf " +
                 "JOIN log_files lf ON rf.file_id = lf.id " +
                 "LEFT JOIN parsing_configs pc ON lf.parsing_configuration_id = pc.id " +
@@ -116,7 +118,8 @@ public class RecentFileRepositoryImpl implements RecentFileRepository {
                 "pc.name AS config_name, " +
                 "pc.description AS config_description, " +
                 "pc.regex_pattern, " +
-                "pc.timestamp_format " +
+                "pc.timestamp_format, " +
+                "pc.parser_type " +
                 "FROM recent_files rf " +
                 "JOIN log_files lf ON rf.file_id = lf.id " +
                 "LEFT JOIN parsing_configs pc ON lf.parsing_configuration_id = pc.id " +
@@ -222,6 +225,7 @@ public class RecentFileRepositoryImpl implements RecentFileRepository {
             parsingConfig.setDescription(rs.getString("config_description"));
             parsingConfig.setRegexPattern(rs.getString("regex_pattern"));
             parsingConfig.setTimestampFormat(rs.getString("timestamp_format"));
+            parsingConfig.setParserType(ParserType.fromValue(rs.getString("parser_type")));
 
             // IMPORTANT: Validate pattern to extract group names and compile regex
             parsingConfig.validatePattern();
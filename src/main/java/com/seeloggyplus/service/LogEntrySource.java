@@ -1,8 +1,15 @@
 package com.seeloggyplus.service;
 
 import com.seeloggyplus.model.LogEntry;
+import com.seeloggyplus.util.CancellationToken;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.function.DoubleConsumer;
+import java.util.function.Predicate;
 
 /**
  * Interface for a source of LogEntry objects, supporting lazy loading.
@@ -27,5 +34,71 @@ public interface LogEntrySource {
      * @param predicate The predicate to apply for filtering.
      * @return A new LogEntrySource containing only the filtered entries.
      */
-    LogEntrySource filter(java.util.function.Predicate<LogEntry> predicate);
+    LogEntrySource filter(Predicate<LogEntry> predicate);
+
+    /**
+     * Returns a view of the entries at the given indices, without copying them.
+     * @param rows Indices into this source, ascending.
+     * @return A LogEntrySource whose entry {@code i} is entry {@code rows[i]} of this source.
+     */
+    LogEntrySource select(int[] rows);
+
+    /**
+     * Filters the log entries in parallel, keeping their order. The predicate is called from
+     * several threads at once.
+     * @param predicate The predicate to apply for filtering.
+     * @param token Cancels the filter, e.g. when the user has typed a new query.
+     * @param progress Receives the fraction of entries tested so far, from worker threads; may be null.
+     * @return A new LogEntrySource containing only the filtered entries.
+     * @throws java.util.concurrent.CancellationException if the token was cancelled.
+     */
+    default LogEntrySource filter(Predicate<LogEntry> predicate, CancellationToken token, DoubleConsumer progress) {
+        token.throwIfCancelled();
+        return filter(predicate);
+    }
+
+    /**
+     * Finds the index of the entry that contains the given 1-based line number.
+     * Entries are ordered by line number, so the default implementation binary-searches
+     * with single-entry lookups instead of loading the whole source.
+     * @param lineNumber The 1-based line number in the original file.
+     * @return The index of the entry starting at or before the line, or -1 if the source is empty.
+     */
+    default int indexOfLine(long lineNumber) {
+        int low = 0;
+        int high = getTotalEntries() - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (getEntries(mid, 1).get(0).getLineNumber() <= lineNumber) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Loads the text of an entry for display. Entries keep only the first lines of a long run of
+     * continuation or unparsed lines in memory; sources backed by a file read the run back from
+     * it, up to a display cap of 64 MB, past which a note says how much is not shown. Use
+     * {@link #saveFullText} to get the whole entry.
+     * @param entry An entry of this source, or of a view filtered from it.
+     * @return The text of the entry; its raw log by default.
+     */
+    default String loadFullText(LogEntry entry) throws IOException {
+        return entry.getRawLog();
+    }
+
+    /**
+     * Writes the complete text of an entry to a file, however long it is. Sources backed by a
+     * file copy the entry's bytes from it unchanged, in the file's encoding, without decoding them.
+     * @param entry An entry of this source, or of a view filtered from it.
+     * @param target The file to write, replaced if it exists.
+     */
+    default void saveFullText(LogEntry entry, Path target) throws IOException {
+        Files.writeString(target, entry.getRawLog(), StandardCharsets.UTF_8);
+    }
 }
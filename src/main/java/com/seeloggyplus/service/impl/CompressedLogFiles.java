@@ -0,0 +1,319 @@
+package com.seeloggyplus.service.impl;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Opens gzip, zstd and bzip2 compressed logs (e.g. rotated {@code app.log.3.gz}).
+ * <p>
+ * The parser, the line index and the file-backed source all need random access to the log, so
+ * a compressed file is stream-decompressed once into a spill file in the temp directory and
+ * every later read (windowing, re-filtering, re-parsing with another config) goes to that file
+ * at memory-mapped speed. Spill files are named after the source path, size and modification
+ * time, so reopening an unchanged file in the same session skips the decompression, and they
+ * are removed when the application exits. Spill files left behind by a run that did not exit
+ * cleanly are removed by {@link #deleteStaleSpillFiles()} at the next start.
+ * <p>
+ * Before spilling, the usable space of the temp directory is checked against an estimate of the
+ * decompressed size, and the decompression stops if the free space runs low anyway.
+ */
+public final class CompressedLogFiles {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompressedLogFiles.class);
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int PROGRESS_STEP_BYTES = 8 * 1024 * 1024;
+    private static final String SPILL_PREFIX = "seeloggyplus-";
+    private static final String SPILL_SUFFIX = ".log";
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    // Assumed size ratio when the format does not record the decompressed size; logs often do better
+    private static final int ASSUMED_EXPANSION = 10;
+    // Free space left in the temp directory below which a running decompression stops
+    private static final long MIN_FREE_BYTES = 64L * 1024 * 1024;
+    // Spill files untouched for this long are not in use by another running instance
+    private static final long STALE_SPILL_MILLIS = 60L * 60 * 1000;
+
+    /**
+     * Compression formats recognized by their magic bytes.
+     */
+    public enum Format {
+        GZIP, ZSTD, BZIP2
+    }
+
+    private CompressedLogFiles() {
+    }
+
+    /**
+     * Detects the compression of a file from its first bytes, whatever its extension.
+     */
+    public static Optional<Format> detect(File file) {
+        byte[] magic = new byte[4];
+        try (InputStream in = new FileInputStream(file)) {
+            if (in.readNBytes(magic, 0, magic.length) < magic.length) {
+                return Optional.empty();
+            }
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+        if ((magic[0] & 0xFF) == 0x1F && (magic[1] & 0xFF) == 0x8B) {
+            return Optional.of(Format.GZIP);
+        }
+        if ((magic[0] & 0xFF) == 0x28 && (magic[1] & 0xFF) == 0xB5 && (magic[2] & 0xFF) == 0x2F
+                && (magic[3] & 0xFF) == 0xFD) {
+            return Optional.of(Format.ZSTD);
+        }
+        if (magic[0] == 'B' && magic[1] == 'Z' && magic[2] == 'h') {
+            return Optional.of(Format.BZIP2);
+        }
+        return Optional.empty();
+    }
+
+    public static boolean isCompressed(File file) {
+        return detect(file).isPresent();
+    }
+
+    /**
+     * Returns the decompressed content of a compressed file, decompressing it if no spill file
+     * exists yet for this version of it. Uncompressed files are returned as they are.
+     * Interrupting the calling thread stops the decompression.
+     *
+     * @param callback progress in compressed bytes read, or null
+     */
+    public static File decompress(File file, LogParserService.ProgressCallback callback) throws IOException {
+        Optional<Format> format = detect(file);
+        if (format.isEmpty()) {
+            return file;
+        }
+
+        Path spill = spillPath(file);
+        if (Files.isRegularFile(spill)) {
+            logger.info("Reusing decompressed copy of {}: {}", file.getName(), spill);
+            return spill.toFile();
+        }
+
+        long totalBytes = file.length();
+        long estimatedBytes = estimateDecompressedSize(file, format.get());
+        long usableBytes = Files.getFileStore(spill.getParent()).getUsableSpace();
+        if (usableBytes - estimatedBytes < MIN_FREE_BYTES) {
+            throw new IOException(String.format("Not enough space in %s to decompress %s: about %,d MB needed, "
+                            + "%,d MB free", spill.getParent(), file.getName(), estimatedBytes / (1024 * 1024),
+                    usableBytes / (1024 * 1024)));
+        }
+
+        long startNanos = System.nanoTime();
+        Path partial = Files.createTempFile(spill.getParent(), spill.getFileName().toString(), PARTIAL_SUFFIX);
+        partial.toFile().deleteOnExit();
+        try (FileInputStream source = new FileInputStream(file);
+             InputStream in = open(format.get(), new BufferedInputStream(source, BUFFER_SIZE));
+             OutputStream out = Files.newOutputStream(partial)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long written = 0;
+            long nextProgress = PROGRESS_STEP_BYTES;
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Decompression of " + file.getName() + " cancelled");
+                }
+                out.write(buffer, 0, read);
+                written += read;
+                if (written >= nextProgress) {
+                    // The estimate can be far off for formats that do not record the size
+                    if (Files.getFileStore(partial).getUsableSpace() < MIN_FREE_BYTES) {
+                        throw new IOException(String.format("Ran out of space in %s after decompressing %,d MB of %s",
+                                spill.getParent(), written / (1024 * 1024), file.getName()));
+                    }
+                    if (callback != null) {
+                        long compressedRead = source.getChannel().position();
+                        callback.onProgress(totalBytes > 0 ? (double) compressedRead / totalBytes : 1.0,
+                                compressedRead, totalBytes);
+                    }
+                    nextProgress = written + PROGRESS_STEP_BYTES;
+                }
+            }
+            logger.info("Decompressed {} ({}, {} -> {} bytes) in {} ms", file.getName(), format.get(),
+                    totalBytes, written, (System.nanoTime() - startNanos) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+
+        Files.move(partial, spill, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        spill.toFile().deleteOnExit();
+        return spill.toFile();
+    }
+
+    /**
+     * Deletes spill files and partial spills in the temp directory that a previous run left behind,
+     * e.g. after a crash, when {@code deleteOnExit} never ran. Files modified recently are kept,
+     * since another instance of the application may be using them.
+     */
+    public static void deleteStaleSpillFiles() {
+        deleteStaleSpillFiles(Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    static void deleteStaleSpillFiles(Path directory) {
+        long staleBefore = System.currentTimeMillis() - STALE_SPILL_MILLIS;
+        int deleted = 0;
+        long freedBytes = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SPILL_PREFIX + "*")) {
+            for (Path path : files) {
+                String name = path.getFileName().toString();
+                if (!name.endsWith(SPILL_SUFFIX) && !name.endsWith(PARTIAL_SUFFIX)) {
+                    continue;
+                }
+                try {
+                    if (!Files.isRegularFile(path) || Files.getLastModifiedTime(path).toMillis() > staleBefore) {
+                        continue;
+                    }
+                    long size = Files.size(path);
+                    Files.delete(path);
+                    deleted++;
+                    freedBytes += size;
+                } catch (IOException e) {
+                    logger.debug("Could not delete stale spill file {}: {}", path, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not clean up stale spill files in {}: {}", directory, e.getMessage());
+            return;
+        }
+        if (deleted > 0) {
+            logger.info("Deleted {} stale spill files ({} bytes) from {}", deleted, freedBytes, directory);
+        }
+    }
+
+    /**
+     * Estimated decompressed size: the size a gzip file records for its last member, or the
+     * content size a zstd frame header may carry, when plausible; otherwise an assumed ratio.
+     */
+    static long estimateDecompressedSize(File file, Format format) {
+        long compressed = file.length();
+        long assumed = compressed * ASSUMED_EXPANSION;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long recorded = switch (format) {
+                case GZIP -> gzipRecordedSize(raf);
+                case ZSTD -> zstdRecordedSize(raf);
+                case BZIP2 -> -1;
+            };
+            // ISIZE is modulo 4 GB and only covers the last member, so a value below the input means nothing
+            return recorded >= compressed ? recorded : assumed;
+        } catch (IOException e) {
+            return assumed;
+        }
+    }
+
+    private static long gzipRecordedSize(RandomAccessFile raf) throws IOException {
+        if (raf.length() < 18) {
+            return -1;
+        }
+        byte[] trailer = new byte[4];
+        raf.seek(raf.length() - 4);
+        raf.readFully(trailer);
+        return ByteBuffer.wrap(trailer).order(ByteOrder.LITTLE_ENDIAN).getInt() & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Frame content size of the first zstd frame, -1 if the header leaves it out.
+     */
+    private static long zstdRecordedSize(RandomAccessFile raf) throws IOException {
+        byte[] header = new byte[18];
+        raf.seek(0);
+        int length = raf.read(header);
+        if (length < 6) {
+            return -1;
+        }
+        int descriptor = header[4] & 0xFF;
+        int sizeFlag = descriptor >>> 6;
+        boolean singleSegment = (descriptor & 0x20) != 0;
+        int dictionaryIdBytes = new int[]{0, 1, 2, 4}[descriptor & 0x03];
+        int sizeBytes = sizeFlag == 0 ? (singleSegment ? 1 : 0) : 1 << sizeFlag;
+        int offset = 5 + (singleSegment ? 0 : 1) + dictionaryIdBytes;
+        if (sizeBytes == 0 || offset + sizeBytes > length) {
+            return -1;
+        }
+        long size = 0;
+        for (int i = sizeBytes - 1; i >= 0; i--) {
+            size = (size << 8) | (header[offset + i] & 0xFF);
+        }
+        return sizeBytes == 2 ? size + 256 : size;
+    }
+
+    /**
+     * Whether the file is a decompressed spill file, which is removed when the application exits.
+     */
+    public static boolean isSpillFile(File file) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        String name = file.getName();
+        return parent != null && parent.toPath().equals(Path.of(System.getProperty("java.io.tmpdir")).toAbsolutePath())
+                && name.startsWith(SPILL_PREFIX) && name.endsWith(SPILL_SUFFIX);
+    }
+
+    /**
+     * Streams the decompressed content of a compressed file, e.g. to sample its first lines
+     * without spilling it to disk.
+     */
+    public static InputStream openDecompressed(File file) throws IOException {
+        Format format = detect(file).orElseThrow(() -> new IOException(file.getName() + " is not compressed"));
+        InputStream source = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+        try {
+            return open(format, source);
+        } catch (IOException e) {
+            source.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Concatenated members and frames are read as one stream, as {@code zcat} does.
+     */
+    private static InputStream open(Format format, InputStream in) throws IOException {
+        return switch (format) {
+            case GZIP -> new GzipCompressorInputStream(in, true);
+            case ZSTD -> new ZstdCompressorInputStream(in);
+            case BZIP2 -> new BZip2CompressorInputStream(in, true);
+        };
+    }
+
+    private static Path spillPath(File file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String version = file.getAbsolutePath() + '\0' + file.length() + '\0' + file.lastModified();
+            byte[] hash = digest.digest(version.getBytes(StandardCharsets.UTF_8));
+            Path directory = Path.of(System.getProperty("java.io.tmpdir"));
+            Files.createDirectories(directory);
+            return directory.resolve(SPILL_PREFIX + stripExtension(file.getName()) + "-"
+                    + HexFormat.of().formatHex(hash, 0, 8) + SPILL_SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String stripExtension(String name) {
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return base.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
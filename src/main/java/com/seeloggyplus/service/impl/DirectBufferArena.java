@@ -0,0 +1,116 @@
+package com.seeloggyplus.service.impl;
+
+import com.seeloggyplus.model.RawLogArena;
+import com.sun.management.HotSpotDiagnosticMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only arena of raw line bytes in direct ByteBuffer slabs.
+ * Space is reserved under a short lock and copied without it, so parser threads can fill the
+ * arena concurrently. A line never straddles two slabs; a line larger than a slab gets a slab
+ * of its own. The memory is released when the arena becomes unreachable.
+ * <p>
+ * Slabs count against {@code -XX:MaxDirectMemorySize}, which defaults to the maximum heap size;
+ * check {@link #fitsInDirectMemory(long)} before choosing this storage for a file.
+ */
+public class DirectBufferArena implements RawLogArena {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectBufferArena.class);
+
+    private static final int SLAB_SHIFT = 26;
+    private static final int SLAB_SIZE = 1 << SLAB_SHIFT;
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final Charset charset;
+    private int slabPosition = SLAB_SIZE;
+
+    /**
+     * @param charset encoding of the bytes copied in, used to decode them
+     */
+    public DirectBufferArena(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * Copies {@code [start, end)} of the source file into the arena.
+     *
+     * @return the arena offset of the copy
+     */
+    public long append(MappedLogFile source, long start, long end) {
+        int length = (int) (end - start);
+        long offset = reserve(length);
+        ByteBuffer slab = slab(offset);
+        int position = (int) (offset & (SLAB_SIZE - 1));
+
+        byte[] scratch = MappedLogFile.scratch(length);
+        source.read(start, scratch, 0, length);
+        slab.put(position, scratch, 0, length);
+        return offset;
+    }
+
+    /**
+     * Whether a file of {@code fileSize} bytes can be copied into a new arena without exceeding
+     * the JVM's direct memory limit, next to the direct buffers already allocated. Allows one
+     * extra slab for the last, partly filled one.
+     */
+    public static boolean fitsInDirectMemory(long fileSize) {
+        long needed = fileSize + SLAB_SIZE;
+        return directMemoryUsed() + needed <= maxDirectMemory();
+    }
+
+    private static long maxDirectMemory() {
+        try {
+            HotSpotDiagnosticMXBean diagnostics = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            long max = Long.parseLong(diagnostics.getVMOption("MaxDirectMemorySize").getValue());
+            if (max > 0) {
+                return max;
+            }
+        } catch (RuntimeException e) {
+            logger.debug("MaxDirectMemorySize is not available, assuming the maximum heap size", e);
+        }
+        return Runtime.getRuntime().maxMemory();
+    }
+
+    private static long directMemoryUsed() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool.getTotalCapacity();
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String decode(long offset, int length) {
+        if (length <= 0) {
+            return "";
+        }
+        byte[] scratch = MappedLogFile.scratch(length);
+        slab(offset).get((int) (offset & (SLAB_SIZE - 1)), scratch, 0, length);
+        return new String(scratch, 0, length, charset);
+    }
+
+    private synchronized long reserve(int length) {
+        if (length > SLAB_SIZE - slabPosition) {
+            slabs.add(ByteBuffer.allocateDirect(Math.max(SLAB_SIZE, length)));
+            slabPosition = 0;
+        }
+        long offset = ((long) (slabs.size() - 1) << SLAB_SHIFT) | slabPosition;
+        slabPosition += length;
+        return offset;
+    }
+
+    private ByteBuffer slab(long offset) {
+        synchronized (this) {
+            return slabs.get((int) (offset >>> SLAB_SHIFT));
+        }
+    }
+}
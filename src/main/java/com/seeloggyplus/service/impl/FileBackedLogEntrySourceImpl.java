@@ -0,0 +1,202 @@
+package com.seeloggyplus.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.seeloggyplus.model.ColumnarLogBlock;
+import com.seeloggyplus.model.LineIndex;
+import com.seeloggyplus.model.LogEntry;
+import com.seeloggyplus.model.LogIndex;
+import com.seeloggyplus.model.ParsingConfig;
+import com.seeloggyplus.service.LogEntrySource;
+import com.seeloggyplus.util.CancellationToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+import java.util.function.Predicate;
+
+/**
+ * LogEntrySource that keeps only a {@link LogIndex} in memory and parses entries from the
+ * memory-mapped file when they are requested. Parsed entries are cached in fixed-size pages
+ * with a bounded LRU, so heap usage depends on the window being viewed, not on the file size.
+ */
+public class FileBackedLogEntrySourceImpl implements LogEntrySource, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileBackedLogEntrySourceImpl.class);
+    private static final int PAGE_SIZE = 1024;
+    private static final int MAX_CACHED_PAGES = 64;
+
+    private final MappedLogFile mappedFile;
+    private final LogIndex logIndex;
+    private final ParsingConfig config;
+    private final LogParserService parser;
+    private final Cache<Integer, List<LogEntry>> pages;
+
+    public FileBackedLogEntrySourceImpl(File file, LogIndex logIndex, ParsingConfig config, LogParserService parser)
+            throws IOException {
+        this.mappedFile = MappedLogFile.open(file);
+        this.logIndex = logIndex;
+        this.config = config;
+        this.parser = parser;
+        this.pages = Caffeine.newBuilder().maximumSize(MAX_CACHED_PAGES).build();
+    }
+
+    public LogIndex getLogIndex() {
+        return logIndex;
+    }
+
+    @Override
+    public int getTotalEntries() {
+        return logIndex.getEntryCount();
+    }
+
+    @Override
+    public List<LogEntry> getEntries(int offset, int limit) {
+        int fromIndex = Math.max(0, Math.min(offset, getTotalEntries()));
+        int toIndex = Math.min(offset + limit, getTotalEntries());
+        if (fromIndex >= toIndex) {
+            return List.of();
+        }
+
+        List<LogEntry> result = new ArrayList<>(toIndex - fromIndex);
+        int index = fromIndex;
+        while (index < toIndex) {
+            int page = index / PAGE_SIZE;
+            int pageStart = page * PAGE_SIZE;
+            List<LogEntry> entries = pages.get(page, this::loadPage);
+            int end = Math.min(toIndex, pageStart + entries.size());
+            result.addAll(entries.subList(index - pageStart, end - pageStart));
+            index = end;
+        }
+        return result;
+    }
+
+    @Override
+    public LogEntrySource filter(Predicate<LogEntry> predicate) {
+        return filter(predicate, new CancellationToken(), null);
+    }
+
+    /**
+     * Scans the whole file page by page, blocks of pages in parallel. Pages parsed for the scan
+     * bypass the LRU so a filter does not evict the pages of the window being viewed.
+     */
+    @Override
+    public LogEntrySource filter(Predicate<LogEntry> predicate, CancellationToken token, DoubleConsumer progress) {
+        return select(ParallelFilter.filter(getTotalEntries(), this::scanEntries, predicate, token, progress));
+    }
+
+    @Override
+    public LogEntrySource select(int[] rows) {
+        return new IndexViewLogEntrySourceImpl(this, this::scanEntries, rows);
+    }
+
+    /**
+     * Reads entries for a full scan: cached pages are used, missing ones are parsed without being cached.
+     */
+    List<LogEntry> scanEntries(int from, int to) {
+        List<LogEntry> entries = new ArrayList<>(to - from);
+        for (int index = from; index < to; ) {
+            int page = index / PAGE_SIZE;
+            int pageStart = page * PAGE_SIZE;
+            List<LogEntry> pageEntries = pages.getIfPresent(page);
+            if (pageEntries == null) {
+                pageEntries = loadPage(page);
+            }
+            int end = Math.min(to, pageStart + pageEntries.size());
+            entries.addAll(pageEntries.subList(index - pageStart, end - pageStart));
+            index = end;
+        }
+        return entries;
+    }
+
+    @Override
+    public int indexOfLine(long lineNumber) {
+        if (getTotalEntries() == 0) {
+            return -1;
+        }
+        int line = (int) Math.min(Integer.MAX_VALUE, lineNumber - 1);
+        return Math.max(0, logIndex.findEntry(Math.min(line, logIndex.getLineIndex().size() - 1)));
+    }
+
+    /**
+     * @throws com.seeloggyplus.exceptions.LogFileChangedException if the file was truncated since it was indexed
+     */
+    private List<LogEntry> loadPage(int page) {
+        mappedFile.checkNotTruncated();
+        int from = page * PAGE_SIZE;
+        int to = Math.min(from + PAGE_SIZE, getTotalEntries());
+        // Parsed rows decode their raw line from the mapping instead of holding it
+        ColumnarLogBlock block = new ColumnarLogBlock(config.getGroupNames(), to - from, mappedFile,
+                parser.valueDecoder(config));
+        LineIndex lineIndex = logIndex.getLineIndex();
+        for (int entry = from; entry < to; entry++) {
+            int firstLine = logIndex.getFirstLine(entry);
+            int lastLine = logIndex.getLastLine(entry);
+            if (logIndex.isParsed(entry)) {
+                long start = lineIndex.getLineStart(firstLine);
+                long firstLineEnd = mappedFile.contentEnd(start, lineIndex.getLineEnd(firstLine));
+                String text = mappedFile.decode(start, firstLineEnd, mappedFile.getCharset());
+                int[] fieldBounds = parser.parseFieldBounds(text, firstLine + 1L, config);
+                if (fieldBounds != null) {
+                    // Same entry text as the eager parser: the parsed line and its continuation lines
+                    long end = LogParserService.entryContentEnd(mappedFile, lineIndex, start, firstLineEnd,
+                            firstLine + 1, lastLine);
+                    block.addParsed(firstLine + 1L, lastLine + 1L, text, start, (int) (end - start), fieldBounds,
+                            logIndex.getTimestamp(entry));
+                    continue;
+                }
+            }
+
+            // Same text as the eager parser builds for a run of unparsed lines; lines past the
+            // kept text are not decoded, the entry still ends at the run's last line
+            LogParserService.UnparsedRun run = new LogParserService.UnparsedRun(firstLine + 1L);
+            for (int line = firstLine; line <= lastLine && !run.isFull(); line++) {
+                run.add(line + 1L, readLine(line));
+            }
+            block.addUnparsed(firstLine + 1L, lastLine + 1L, run.text());
+        }
+        block.seal();
+        return block;
+    }
+
+    @Override
+    public String loadFullText(LogEntry entry) {
+        if (entry.getEndLineNumber() == entry.getLineNumber()) {
+            return entry.getRawLog();
+        }
+        String text = LogParserService.readFullEntryText(mappedFile, logIndex.getLineIndex(), entry.getLineNumber(),
+                entry.getEndLineNumber());
+        return text != null ? text : entry.getRawLog();
+    }
+
+    @Override
+    public void saveFullText(LogEntry entry, Path target) throws IOException {
+        if (!LogParserService.copyEntryBytes(mappedFile, logIndex.getLineIndex(), entry.getLineNumber(),
+                entry.getEndLineNumber(), target)) {
+            LogEntrySource.super.saveFullText(entry, target);
+        }
+    }
+
+    private String readLine(int line) {
+        LineIndex lineIndex = logIndex.getLineIndex();
+        long start = lineIndex.getLineStart(line);
+        long end = mappedFile.contentEnd(start, lineIndex.getLineEnd(line));
+        return mappedFile.decode(start, end, mappedFile.getCharset());
+    }
+
+    @Override
+    public void close() {
+        pages.invalidateAll();
+        try {
+            mappedFile.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close mapped file: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.seeloggyplus.service.impl;
+
+import com.seeloggyplus.model.LogEntry;
+import com.seeloggyplus.service.LogEntrySource;
+import com.seeloggyplus.util.CancellationToken;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Filter result that holds the sorted row ids of the matching entries instead of the entries
+ * themselves, 4 bytes per match, and reads the entries from the source it was filtered from.
+ * <p>
+ * Filtering a view filters its rows and maps the matches back to rows of the same base source,
+ * so chained filters stay one level deep and never copy entries. Reads go through the base, so
+ * a file-backed base still parses only the pages being viewed.
+ */
+public class IndexViewLogEntrySourceImpl implements LogEntrySource {
+
+    private final LogEntrySource base;
+    private final ParallelFilter.BlockReader scanner;
+    private final int[] rows;
+
+    /**
+     * @param scanner reads base entries for a filter scan; a base may read differently than for display
+     * @param rows    indices into the base, ascending
+     */
+    IndexViewLogEntrySourceImpl(LogEntrySource base, ParallelFilter.BlockReader scanner, int[] rows) {
+        this.base = base;
+        this.scanner = scanner;
+        this.rows = rows;
+    }
+
+    public LogEntrySource getBase() {
+        return base;
+    }
+
+    /**
+     * Index in the base source of the entry at the given index of this view.
+     */
+    public int getBaseIndex(int index) {
+        return rows[index];
+    }
+
+    @Override
+    public int getTotalEntries() {
+        return rows.length;
+    }
+
+    @Override
+    public List<LogEntry> getEntries(int offset, int limit) {
+        int fromIndex = Math.max(0, Math.min(offset, rows.length));
+        int toIndex = Math.min(offset + limit, rows.length);
+        if (fromIndex >= toIndex) {
+            return List.of();
+        }
+        return readRows(fromIndex, toIndex, (from, to) -> base.getEntries(from, to - from));
+    }
+
+    @Override
+    public LogEntrySource filter(Predicate<LogEntry> predicate) {
+        return filter(predicate, new CancellationToken(), null);
+    }
+
+    @Override
+    public LogEntrySource filter(Predicate<LogEntry> predicate, CancellationToken token, DoubleConsumer progress) {
+        return select(ParallelFilter.filter(rows.length, (from, to) -> readRows(from, to, scanner), predicate,
+                token, progress));
+    }
+
+    /**
+     * Maps the rows to rows of the base, so a view of a view is still one level deep.
+     */
+    @Override
+    public LogEntrySource select(int[] rows) {
+        int[] baseRows = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            baseRows[i] = this.rows[rows[i]];
+        }
+        return new IndexViewLogEntrySourceImpl(base, scanner, baseRows);
+    }
+
+    @Override
+    public int indexOfLine(long lineNumber) {
+        int baseIndex = base.indexOfLine(lineNumber);
+        if (baseIndex < 0) {
+            return -1;
+        }
+        // The last row at or before the base entry, or -1 if the view is empty or starts after it
+        int pos = Arrays.binarySearch(rows, baseIndex);
+        return pos >= 0 ? pos : -pos - 2;
+    }
+
+    @Override
+    public String loadFullText(LogEntry entry) throws IOException {
+        return base.loadFullText(entry);
+    }
+
+    @Override
+    public void saveFullText(LogEntry entry, Path target) throws IOException {
+        base.saveFullText(entry, target);
+    }
+
+    /**
+     * Reads the entries of rows {@code [from, to)}, one base read per run of consecutive row ids.
+     */
+    private List<LogEntry> readRows(int from, int to, ParallelFilter.BlockReader reader) {
+        List<LogEntry> entries = new ArrayList<>(to - from);
+        int runStart = from;
+        while (runStart < to) {
+            int runEnd = runStart + 1;
+            while (runEnd < to && rows[runEnd] == rows[runEnd - 1] + 1) {
+                runEnd++;
+            }
+            entries.addAll(reader.read(rows[runStart], rows[runEnd - 1] + 1));
+            runStart = runEnd;
+        }
+        return entries;
+    }
+}
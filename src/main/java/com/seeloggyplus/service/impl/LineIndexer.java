@@ -0,0 +1,45 @@
+package com.seeloggyplus.service.impl;
+
+import com.seeloggyplus.model.LineIndex;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Builds a {@link LineIndex} by scanning the raw bytes of a memory-mapped file.
+ * Only {@code \n} terminates a line, so LF and CRLF files (or a mix of both) produce the
+ * same offsets; the optional {@code \r} stays part of the line and is stripped on decode.
+ * Line feeds are found in the file's code units (see {@link MappedLogFile#nextLineStart}),
+ * so nothing is decoded while indexing.
+ */
+public final class LineIndexer {
+
+    private static final int AVERAGE_LINE_LENGTH_ESTIMATE = 128;
+
+    private LineIndexer() {
+    }
+
+    public static LineIndex index(File file) throws IOException {
+        try (MappedLogFile mappedFile = MappedLogFile.open(file)) {
+            return index(mappedFile, mappedFile.dataStart(), mappedFile.size());
+        }
+    }
+
+    /**
+     * Indexes every line that starts in {@code [from, to)}. {@code from} must be a line start;
+     * the last line is followed past {@code to} until its terminator.
+     */
+    public static LineIndex index(MappedLogFile file, long from, long to) {
+        long fileSize = file.size();
+        long estimate = Math.max(16, (Math.min(to, fileSize) - from) / AVERAGE_LINE_LENGTH_ESTIMATE);
+        LineIndex index = new LineIndex((int) Math.min(estimate, Integer.MAX_VALUE - 8));
+
+        long position = from;
+        while (position < to && position < fileSize) {
+            index.add(position);
+            position = file.nextLineStart(position);
+        }
+        index.setEndOffset(Math.max(from, position));
+        return index;
+    }
+}
@@ -2,10 +2,11 @@ package com.seeloggyplus.service.impl;
 
 import com.seeloggyplus.model.LogEntry;
 import com.seeloggyplus.service.LogEntrySource;
+import com.seeloggyplus.util.CancellationToken;
 
 import java.util.List;
+import java.util.function.DoubleConsumer;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 public record ListLogEntrySourceImpl(List<LogEntry> allEntries) implements LogEntrySource {
     @Override
@@ -25,7 +26,16 @@ public record ListLogEntrySourceImpl(List<LogEntry> allEntries) implements LogEn
 
     @Override
     public LogEntrySource filter(Predicate<LogEntry> predicate) {
-        List<LogEntry> filteredList = allEntries.stream().filter(predicate).collect(Collectors.toList());
-        return new ListLogEntrySourceImpl(filteredList);
+        return filter(predicate, new CancellationToken(), null);
+    }
+
+    @Override
+    public LogEntrySource filter(Predicate<LogEntry> predicate, CancellationToken token, DoubleConsumer progress) {
+        return select(ParallelFilter.filter(allEntries.size(), allEntries::subList, predicate, token, progress));
+    }
+
+    @Override
+    public LogEntrySource select(int[] rows) {
+        return new IndexViewLogEntrySourceImpl(this, allEntries::subList, rows);
     }
 }
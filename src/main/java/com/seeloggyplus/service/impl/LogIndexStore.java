@@ -0,0 +1,356 @@
+package com.seeloggyplus.service.impl;
+
+import com.seeloggyplus.model.LineIndex;
+import com.seeloggyplus.model.LogCacheKey;
+import com.seeloggyplus.model.LogIndex;
+import com.seeloggyplus.model.ParsingConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Persists {@link LogIndex} sidecars under {@code ~/.seeloggyplus/index/} so a large file
+ * can be reopened without re-reading it.
+ * <p>
+ * One sidecar exists per file path and parsing config. The header records the size and
+ * modification time of the file it was built from, a fingerprint of the parsing config and
+ * CRCs of the first and last indexed bytes. A sidecar is reused as is when the file is
+ * unchanged, and reported for tail re-indexing when the file has only grown.
+ * <p>
+ * Layout (big-endian): header, then {@code long[lines]} line starts, {@code int[entries]}
+ * first lines, {@code byte[entries]} flags (level code, high bit set for unparsed) and
+ * {@code long[entries]} epoch timestamps.
+ * <p>
+ * Sidecars take 8 bytes per line, so the directory is kept within a size budget: every save
+ * deletes sidecars unused for {@link #DEFAULT_MAX_AGE} and then the least recently used ones
+ * until the rest fit in {@link #DEFAULT_MAX_TOTAL_BYTES}. Loading a sidecar marks it as used.
+ * Decompressed spill files of compressed logs are deleted on exit, so they get no sidecar.
+ */
+public class LogIndexStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogIndexStore.class);
+    private static final long MAGIC = 0x534C50494458_0003L; // "SLPIDX" + format version
+    private static final int HEADER_SIZE = 8 * 8 + 4 * 2;
+    private static final int CHECK_BYTES = 4096;
+    private static final byte UNPARSED_FLAG = (byte) 0x80;
+    private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+    static final long DEFAULT_MAX_TOTAL_BYTES = 1024L * 1024 * 1024;
+    static final Duration DEFAULT_MAX_AGE = Duration.ofDays(30);
+    // A temp file this old is left over from a crashed save, not one in progress
+    private static final Duration ABANDONED_TEMP_AGE = Duration.ofHours(1);
+
+    private final Path indexDirectory;
+    private final long maxTotalBytes;
+    private final Duration maxAge;
+
+    public LogIndexStore() {
+        this(Path.of(System.getProperty("user.home"), ".seeloggyplus", "index"));
+    }
+
+    public LogIndexStore(Path indexDirectory) {
+        this(indexDirectory, DEFAULT_MAX_TOTAL_BYTES, DEFAULT_MAX_AGE);
+    }
+
+    public LogIndexStore(Path indexDirectory, long maxTotalBytes, Duration maxAge) {
+        this.indexDirectory = indexDirectory;
+        this.maxTotalBytes = maxTotalBytes;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Loads the sidecar for the key if it still describes the file.
+     * The returned index may cover only a prefix of the file when the file was appended to;
+     * its line index then ends before {@link LogCacheKey#fileSize()}.
+     */
+    public Optional<LogIndex> load(LogCacheKey key, ParsingConfig config) {
+        if (CompressedLogFiles.isSpillFile(new File(key.filePath()))) {
+            return Optional.empty();
+        }
+        Path path = sidecarPath(key);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getLong() != MAGIC) {
+                logger.info("Ignoring index sidecar with unknown format: {}", path);
+                return Optional.empty();
+            }
+            long indexedSize = header.getLong();
+            long indexedModified = header.getLong();
+            long configFingerprint = header.getLong();
+            long headCrc = header.getLong();
+            long tailCrc = header.getLong();
+            long endOffset = header.getLong();
+            header.getLong(); // reserved
+            int lineCount = header.getInt();
+            int entryCount = header.getInt();
+
+            if (configFingerprint != fingerprint(config)) {
+                logger.info("Index sidecar built with a different parsing config: {}", path);
+                return Optional.empty();
+            }
+            boolean unchanged = indexedSize == key.fileSize() && indexedModified == key.lastModified();
+            boolean appended = key.fileSize() > indexedSize;
+            if (!unchanged && !appended) {
+                return Optional.empty();
+            }
+            if (appended && (headCrc != crc(key.filePath(), 0, indexedSize)
+                    || tailCrc != crc(key.filePath(), indexedSize - CHECK_BYTES, indexedSize))) {
+                logger.info("File was rewritten since it was indexed, rebuilding: {}", key.filePath());
+                return Optional.empty();
+            }
+
+            long position = HEADER_SIZE;
+            long[] lineStarts = new long[Math.max(16, lineCount)];
+            map(channel, position, (long) lineCount * Long.BYTES).asLongBuffer().get(lineStarts, 0, lineCount);
+            position += (long) lineCount * Long.BYTES;
+
+            int[] entryFirstLines = new int[Math.max(16, entryCount)];
+            map(channel, position, (long) entryCount * Integer.BYTES).asIntBuffer().get(entryFirstLines, 0, entryCount);
+            position += (long) entryCount * Integer.BYTES;
+
+            byte[] levels = new byte[Math.max(16, entryCount)];
+            map(channel, position, entryCount).get(levels, 0, entryCount);
+            position += entryCount;
+
+            long[] timestamps = new long[Math.max(16, entryCount)];
+            map(channel, position, (long) entryCount * Long.BYTES).asLongBuffer().get(timestamps, 0, entryCount);
+
+            BitSet unparsedEntries = new BitSet(entryCount);
+            for (int i = 0; i < entryCount; i++) {
+                if ((levels[i] & UNPARSED_FLAG) != 0) {
+                    unparsedEntries.set(i);
+                    levels[i] &= ~UNPARSED_FLAG;
+                }
+            }
+
+            markUsed(path);
+            LineIndex lineIndex = new LineIndex(lineStarts, lineCount, endOffset);
+            return Optional.of(new LogIndex(lineIndex, entryFirstLines, levels, timestamps, unparsedEntries, entryCount));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to read index sidecar {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the sidecar for the key, replacing any previous one atomically, then prunes the
+     * directory to its budget.
+     */
+    public void save(LogCacheKey key, ParsingConfig config, LogIndex logIndex) {
+        if (CompressedLogFiles.isSpillFile(new File(key.filePath()))) {
+            logger.debug("Not saving an index sidecar for the temporary file {}", key.filePath());
+            return;
+        }
+        Path path = sidecarPath(key);
+        LineIndex lineIndex = logIndex.getLineIndex();
+        int entryCount = logIndex.getEntryCount();
+
+        try {
+            Files.createDirectories(indexDirectory);
+            Path tempFile = Files.createTempFile(indexDirectory, "index-", ".tmp");
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+                buffer.putLong(MAGIC);
+                buffer.putLong(key.fileSize());
+                buffer.putLong(key.lastModified());
+                buffer.putLong(fingerprint(config));
+                buffer.putLong(crc(key.filePath(), 0, key.fileSize()));
+                buffer.putLong(crc(key.filePath(), key.fileSize() - CHECK_BYTES, key.fileSize()));
+                buffer.putLong(lineIndex.getEndOffset());
+                buffer.putLong(0); // reserved
+                buffer.putInt(lineIndex.size());
+                buffer.putInt(entryCount);
+
+                for (int i = 0; i < lineIndex.size(); i++) {
+                    ensureRemaining(channel, buffer, Long.BYTES);
+                    buffer.putLong(lineIndex.getLineStart(i));
+                }
+                for (int i = 0; i < entryCount; i++) {
+                    ensureRemaining(channel, buffer, Integer.BYTES);
+                    buffer.putInt(logIndex.getFirstLine(i));
+                }
+                for (int i = 0; i < entryCount; i++) {
+                    ensureRemaining(channel, buffer, 1);
+                    byte flags = logIndex.getLevel(i);
+                    buffer.put(logIndex.isParsed(i) ? flags : (byte) (flags | UNPARSED_FLAG));
+                }
+                for (int i = 0; i < entryCount; i++) {
+                    ensureRemaining(channel, buffer, Long.BYTES);
+                    buffer.putLong(logIndex.getTimestamp(i));
+                }
+                flush(channel, buffer);
+            }
+            Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Saved index sidecar for {} ({} lines, {} entries)", key.filePath(), lineIndex.size(), entryCount);
+        } catch (IOException e) {
+            logger.warn("Failed to write index sidecar {}: {}", path, e.getMessage());
+        }
+        prune(path);
+    }
+
+    /**
+     * Deletes expired sidecars, then the least recently used ones beyond the size budget, and
+     * temp files abandoned by crashed saves. The sidecar just written is always kept.
+     */
+    void prune(Path keep) {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(indexDirectory)) {
+            files = list.filter(Files::isRegularFile).toList();
+        } catch (IOException e) {
+            logger.warn("Failed to list index sidecars in {}: {}", indexDirectory, e.getMessage());
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<Sidecar> sidecars = new ArrayList<>();
+        for (Path file : files) {
+            try {
+                long lastUsed = Files.getLastModifiedTime(file).toMillis();
+                String name = file.getFileName().toString();
+                if (name.endsWith(".idx")) {
+                    sidecars.add(new Sidecar(file, Files.size(file), lastUsed));
+                } else if (name.startsWith("index-") && name.endsWith(".tmp")
+                        && now - lastUsed > ABANDONED_TEMP_AGE.toMillis()) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                // Deleted or replaced meanwhile, e.g. by another instance
+            }
+        }
+
+        sidecars.sort(Comparator.comparingLong(Sidecar::lastUsed).reversed());
+        long totalBytes = sidecars.stream().filter(sidecar -> sidecar.path().equals(keep))
+                .mapToLong(Sidecar::size).sum();
+        int deleted = 0;
+        long freedBytes = 0;
+        for (Sidecar sidecar : sidecars) {
+            if (sidecar.path().equals(keep)) {
+                continue;
+            }
+            if (now - sidecar.lastUsed() > maxAge.toMillis() || totalBytes + sidecar.size() > maxTotalBytes) {
+                try {
+                    Files.deleteIfExists(sidecar.path());
+                    deleted++;
+                    freedBytes += sidecar.size();
+                } catch (IOException e) {
+                    logger.debug("Failed to delete index sidecar {}: {}", sidecar.path(), e.getMessage());
+                }
+                continue;
+            }
+            totalBytes += sidecar.size();
+        }
+        if (deleted > 0) {
+            logger.info("Pruned {} index sidecars ({} MB), {} MB left", deleted, freedBytes / (1024 * 1024),
+                    totalBytes / (1024 * 1024));
+        }
+    }
+
+    private record Sidecar(Path path, long size, long lastUsed) {
+    }
+
+    /**
+     * Sidecars are pruned by modification time, so using one counts as modifying it.
+     */
+    private static void markUsed(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.debug("Failed to mark index sidecar {} as used: {}", path, e.getMessage());
+        }
+    }
+
+    private Path sidecarPath(LogCacheKey key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((key.filePath() + '\0' + key.configId()).getBytes(StandardCharsets.UTF_8));
+            return indexDirectory.resolve(HexFormat.of().formatHex(hash, 0, 16) + ".idx");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Changes to the pattern, timestamp format or the columns read by a structured parser change
+     * entry boundaries, levels and timestamps.
+     */
+    private static long fingerprint(ParsingConfig config) {
+        CRC32 crc = new CRC32();
+        crc.update(String.valueOf(config.getRegexPattern()).getBytes(StandardCharsets.UTF_8));
+        crc.update(0);
+        crc.update(String.valueOf(config.getTimestampFormat()).getBytes(StandardCharsets.UTF_8));
+        if (config.isStructured()) {
+            crc.update(0);
+            crc.update(config.getParserType().name().getBytes(StandardCharsets.UTF_8));
+            crc.update(String.valueOf(config.getFieldKeys()).getBytes(StandardCharsets.UTF_8));
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * CRC of up to {@link #CHECK_BYTES} bytes of the file, starting at {@code from} (clamped to the file start).
+     */
+    private static long crc(String filePath, long from, long to) throws IOException {
+        long start = Math.max(0, from);
+        int length = (int) Math.min(CHECK_BYTES, to - start);
+        CRC32 crc = new CRC32();
+        if (length <= 0) {
+            return crc.getValue();
+        }
+        try (FileChannel channel = FileChannel.open(new File(filePath).toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) > 0) {
+                // keep reading until the range is complete
+            }
+            buffer.flip();
+            crc.update(buffer);
+        }
+        return crc.getValue();
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Index section too large to map: " + length + " bytes");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+
+    private static void ensureRemaining(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
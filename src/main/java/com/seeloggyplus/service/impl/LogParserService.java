@@ -1,20 +1,38 @@
 package com.seeloggyplus.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.seeloggyplus.exceptions.RegexBudgetExceededException;
+import com.seeloggyplus.model.ColumnarLogBlock;
+import com.seeloggyplus.model.LineIndex;
+import com.seeloggyplus.model.LogIndex;
 import com.seeloggyplus.model.LogEntry;
 import com.seeloggyplus.model.ParsingConfig;
+import com.seeloggyplus.model.RawLogArena;
+import com.seeloggyplus.model.RawLogStorage;
+import com.seeloggyplus.util.BudgetedCharSequence;
+import com.seeloggyplus.util.CancellationToken;
+import com.seeloggyplus.util.ColumnDiscovery;
+import com.seeloggyplus.util.FastPathParser;
+import com.seeloggyplus.util.JsonLinesParser;
+import com.seeloggyplus.util.LogEncoding;
+import com.seeloggyplus.util.LogfmtParser;
+import com.seeloggyplus.util.TimestampParser;
 import lombok.Getter;
 import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -26,220 +44,1194 @@ public class LogParserService {
 
     private static final Logger logger = LoggerFactory.getLogger(LogParserService.class);
     private static final int MAX_THREADS = Runtime.getRuntime().availableProcessors();
-    private static final int maxEntryUnparsed = 10000;
+    static final int maxEntryUnparsed = 10000;
+    // Largest entry text read back for display; a dump longer than this stays in the file
+    private static final int MAX_FULL_TEXT_BYTES = 64 * 1024 * 1024;
+    private static final int CHUNKS_PER_THREAD = 8;
+    // Lines between two checks of the cancellation token in the chunk loops
+    private static final int CANCEL_CHECK_LINES = 256;
+    private static final long MIN_CHUNK_BYTES = 1024 * 1024;
+    private static final long MAX_CHUNK_BYTES = 8 * 1024 * 1024;
+    // A regex match may read each character of a line this many times before the line is given up on
+    private static final long REGEX_READS_PER_CHAR = 200;
+    private static final long REGEX_MIN_READS = 1_000_000;
+    private static final int BACKTRACKING_CHECK_LINES = 20;
+    private static final double EXPONENTIAL_GROWTH = 16;
 
-    private final ExecutorService executorService;
+    private static final int COLUMN_SAMPLE_LINES = 1000;
+    private static final int COLUMN_SAMPLE_CHARS = 1024 * 1024;
+    private static final int COLUMN_SAMPLE_WINDOWS = 8;
+    // Compiled parsers kept per kind; a config edited over and over would otherwise leave one per version
+    private static final int MAX_CACHED_PARSERS = 32;
 
-    public LogParserService() {
-        this.executorService = Executors.newFixedThreadPool(MAX_THREADS);
+    /**
+     * Where parsed entries keep their raw line. Read once at the start of each parse.
+     */
+    @Getter
+    @Setter
+    private volatile RawLogStorage rawLogStorage = RawLogStorage.HEAP;
+
+    /**
+     * Fast-path parsers by regex; empty for patterns that need the regex engine.
+     */
+    private final Cache<String, Optional<FastPathParser>> fastPathParsers =
+            Caffeine.newBuilder().maximumSize(MAX_CACHED_PARSERS).build();
+
+    private final Map<String, TimestampParser> timestampParsers = new ConcurrentHashMap<>();
+
+    private final Cache<List<String>, JsonLinesParser> jsonLinesParsers =
+            Caffeine.newBuilder().maximumSize(MAX_CACHED_PARSERS).build();
+
+    private final Cache<List<String>, LogfmtParser> logfmtParsers =
+            Caffeine.newBuilder().maximumSize(MAX_CACHED_PARSERS).build();
+
+    private final AtomicLong regexBudgetExceeded = new AtomicLong();
+
+    // Size of every chunk when set, so tests can put chunk boundaries anywhere; 0 sizes chunks by file and threads
+    private long fixedChunkBytes;
+
+    // Whether a line over the regex budget was logged since the current parse began; the rest go to debug
+    private final AtomicBoolean regexBudgetWarned = new AtomicBoolean();
+
+    /**
+     * The parse or index build in progress, if any. Only one runs at a time per service.
+     */
+    private final AtomicReference<ParseJob> activeJob = new AtomicReference<>();
+
+    /**
+     * Stops the chunk workers of the parse or index build in progress, if any. Chunks already
+     * queued are skipped and running ones stop at their next check, without waiting for them.
+     */
+    public void cancelActiveParse() {
+        ParseJob job = activeJob.get();
+        if (job != null) {
+            job.cancel();
+        }
+    }
+
+    /**
+     * Registers a new parse, cancelling the previous one and waiting until none of its chunk
+     * workers is still running, so the new file does not compete with the old one for cores
+     * and the old chunk results become unreachable before new ones are built.
+     */
+    private ParseJob beginParse() throws InterruptedIOException {
+        ParseJob job = new ParseJob(timestampMissCount());
+        regexBudgetWarned.set(false);
+        timestampParsers.values().forEach(TimestampParser::resetMissWarning);
+        ParseJob previous = activeJob.getAndSet(job);
+        if (previous != null) {
+            previous.cancel();
+            try {
+                long startNanos = System.nanoTime();
+                previous.awaitReleased();
+                logger.info("Previous parse released its workers after {} ms", (System.nanoTime() - startNanos) / 1_000_000);
+            } catch (InterruptedException e) {
+                activeJob.compareAndSet(job, null);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the previous parse to stop");
+            }
+        }
+        return job;
+    }
+
+    private void endParse(ParseJob job) {
+        activeJob.compareAndSet(job, null);
+        long misses = timestampMissCount() - job.timestampMissesAtStart;
+        if (misses > 0) {
+            logger.warn("{} timestamps did not match the configured timestamp format", misses);
+        }
+    }
+
+    private long timestampMissCount() {
+        long misses = 0;
+        for (TimestampParser parser : timestampParsers.values()) {
+            misses += parser.getMissCount();
+        }
+        return misses;
     }
 
     /**
      * Parse file in parallel for better performance with large files
      */
     public List<LogEntry> parseFileParallel(File file, ParsingConfig config, ProgressCallback callback) throws IOException {
+        StreamingLogEntrySourceImpl target = new StreamingLogEntrySourceImpl();
+        parseFileStreaming(file, config, target, callback);
+        return target.snapshot();
+    }
+
+    /**
+     * Parses the file in parallel and appends the results to {@code target} block by block, in file order,
+     * as soon as every earlier block is done. Returns when the whole file has been published or the
+     * calling thread is interrupted.
+     */
+    public void parseFileStreaming(File file, ParsingConfig config, StreamingLogEntrySourceImpl target,
+                                   ProgressCallback callback) throws IOException {
         if (!file.exists() || !file.canRead()) {
             throw new IOException("File does not exist or cannot be read: " + file.getAbsolutePath());
         }
 
         long fileSize = file.length();
 
-        Map<Long, Long> lineStartOffsets = preCalculateLineOffsets(file);
-        List<ChunkInfo> chunkInfos = new ArrayList<>();
+        ParseJob job = beginParse();
+        try (MappedLogFile mappedFile = MappedLogFile.open(file)) {
+            List<ChunkInfo> chunkInfos = splitIntoByteRanges(0, mappedFile.size());
+            RawLogArena arena = arenaFor(mappedFile);
 
-        long totalLines = lineStartOffsets.size();
-        long linesPerChunk = totalLines / MAX_THREADS;
+            List<Future<ChunkResult>> futures = new ArrayList<>();
+            AtomicLong bytesProcessed = new AtomicLong(0);
 
-        long currentLine = 1;
-        for (int i = 0; i < MAX_THREADS; i++) {
-            long chunkStartLine = currentLine;
-            long chunkEndLine = (i == MAX_THREADS - 1) ? totalLines : Math.min(totalLines, currentLine + linesPerChunk - 1);
+            for (ChunkInfo chunk : chunkInfos) {
+                futures.add(job.submit(() -> {
+                    ChunkResult result = processChunk(mappedFile, chunk, config, arena, job.token);
+                    long processed = bytesProcessed.addAndGet(chunk.endByte() - chunk.startByte());
+                    if (callback != null) {
+                        callback.onProgress((double) processed / fileSize, processed, fileSize);
+                    }
+                    return result;
+                }));
+            }
 
-            long startByte = lineStartOffsets.get(chunkStartLine);
-            long endByte = (chunkEndLine == totalLines) ? fileSize : lineStartOffsets.get(chunkEndLine + 1) - 1; // End byte is just before the next line starts
+            LineIndex lineIndex = new LineIndex();
+            publishInOrder(futures, job, file, mappedFile, arena, target, lineIndex, callback);
+            lineIndex.trimToSize();
+            target.setLineIndex(file, lineIndex);
+        } finally {
+            endParse(job);
+        }
+    }
+
+    /**
+     * Parses a file again with another config into {@code target}, reusing the line index of the
+     * previous parse: the file is not scanned for line breaks again, only field extraction is
+     * re-run, in parallel over ranges of lines.
+     */
+    public void reparseStreaming(File file, LineIndex lineIndex, ParsingConfig config,
+                                 StreamingLogEntrySourceImpl target, ProgressCallback callback) throws IOException {
+        ParseJob job = beginParse();
+        try (MappedLogFile mappedFile = MappedLogFile.open(file)) {
+            long totalBytes = Math.max(1, lineIndex.getEndOffset());
+            RawLogArena arena = arenaFor(mappedFile);
+            List<Future<ChunkResult>> futures = new ArrayList<>();
+            AtomicLong bytesProcessed = new AtomicLong(0);
 
-            chunkInfos.add(new ChunkInfo(startByte, endByte, chunkStartLine));
-            currentLine = chunkEndLine + 1;
+            for (int[] range : splitIntoLineRanges(lineIndex)) {
+                futures.add(job.submit(() -> {
+                    LineIndex lines = lineIndex.slice(range[0], range[1]);
+                    ChunkResult result = processLines(mappedFile, lines, config, arena, job.token);
+                    long processed = bytesProcessed.addAndGet(lines.getEndOffset() - lines.getLineStart(0));
+                    if (callback != null) {
+                        callback.onProgress((double) processed / totalBytes, processed, totalBytes);
+                    }
+                    return result;
+                }));
+            }
+
+            publishInOrder(futures, job, file, mappedFile, arena, target, null, callback);
+            target.setLineIndex(file, lineIndex);
+        } finally {
+            endParse(job);
         }
+    }
 
-        List<Future<List<LogEntry>>> futures = new ArrayList<>();
-        AtomicLong bytesProcessed = new AtomicLong(0);
+    /**
+     * Parses lines {@code [fromLine, toLine)} of a file on the calling thread, e.g. to show the
+     * visible window with a new config before the whole file is re-parsed. Unparsed lines at
+     * the start of the range form an entry of their own.
+     */
+    public List<LogEntry> parseLineRange(File file, LineIndex lineIndex, int fromLine, int toLine,
+                                         ParsingConfig config) throws IOException {
+        if (fromLine >= toLine) {
+            return List.of();
+        }
+        try (MappedLogFile mappedFile = MappedLogFile.open(file)) {
+            ChunkResult result = processLines(mappedFile, lineIndex.slice(fromLine, toLine), config, null,
+                    new CancellationToken());
+            result.offsetLineNumbers(fromLine);
+            List<LogEntry> entries = new ArrayList<>(result.block().size() + 1);
+            if (result.leadingUnparsed() != null) {
+                entries.add(result.leadingUnparsed().toLogEntry());
+            }
+            entries.addAll(result.block());
+            return entries;
+        }
+    }
 
-        for (ChunkInfo chunk : chunkInfos) {
-            futures.add(executorService.submit(() -> {
-                List<LogEntry> chunkEntries = processChunk(file, chunk, config);
-                bytesProcessed.addAndGet(chunk.endByte() - chunk.startByte());
-                if (callback != null) {
-                    double progress = (double) bytesProcessed.get() / fileSize;
-                    callback.onProgress(progress, bytesProcessed.get(), fileSize);
+    private RawLogArena arenaFor(MappedLogFile mappedFile) {
+        return switch (rawLogStorage) {
+            // The mapping outlives close(), so entries can keep decoding from it
+            case MAPPED_FILE -> mappedFile;
+            case DIRECT_BUFFER -> {
+                if (DirectBufferArena.fitsInDirectMemory(mappedFile.size())) {
+                    yield new DirectBufferArena(mappedFile.getCharset());
                 }
-                return chunkEntries;
-            }));
+                // Slabs past -XX:MaxDirectMemorySize would fail the parse with an OutOfMemoryError
+                logger.warn("{} does not fit in the direct memory left, keeping its lines in the mapped file",
+                        mappedFile.getFile().getName());
+                yield mappedFile;
+            }
+            case HEAP -> null;
+        };
+    }
+
+    /**
+     * Builds the line and entry index of a file without keeping any LogEntry objects.
+     * Lines are only matched against the pattern to find entry boundaries, level and timestamp;
+     * the entries themselves are parsed later, page by page, by {@link FileBackedLogEntrySourceImpl}.
+     */
+    public LogIndex buildLogIndex(File file, ParsingConfig config, ProgressCallback callback) throws IOException {
+        LogIndex logIndex = new LogIndex(new LineIndex());
+        extendLogIndex(file, config, logIndex, callback);
+        return logIndex;
+    }
+
+    /**
+     * Brings an index of an earlier, shorter version of the file up to date after an append.
+     * The last indexed entry is dropped and re-indexed together with the new tail, because
+     * the appended bytes may complete its last line or add continuation lines to it.
+     */
+    public void extendLogIndex(File file, ParsingConfig config, LogIndex logIndex, ProgressCallback callback)
+            throws IOException {
+        if (!file.exists() || !file.canRead()) {
+            throw new IOException("File does not exist or cannot be read: " + file.getAbsolutePath());
         }
 
-        List<LogEntry> allEntries = new ArrayList<>();
-        for (Future<List<LogEntry>> future : futures) {
+        ParseJob job = beginParse();
+        logIndex.truncate(logIndex.getEntryCount() - 1);
+        LineIndex lineIndex = logIndex.getLineIndex();
+        long resumeOffset = lineIndex.isEmpty() ? 0 : lineIndex.getEndOffset();
+
+        try (MappedLogFile mappedFile = MappedLogFile.open(file)) {
+            long fileSize = mappedFile.size();
+            long bytesToIndex = Math.max(1, fileSize - resumeOffset);
+            List<Future<IndexChunk>> futures = new ArrayList<>();
+            AtomicLong bytesProcessed = new AtomicLong(0);
+
+            for (ChunkInfo chunk : splitIntoByteRanges(resumeOffset, fileSize)) {
+                futures.add(job.submit(() -> {
+                    IndexChunk result = indexChunk(mappedFile, chunk, config, job.token);
+                    long processed = bytesProcessed.addAndGet(chunk.endByte() - chunk.startByte());
+                    if (callback != null) {
+                        callback.onProgress((double) processed / bytesToIndex, processed, bytesToIndex);
+                    }
+                    return result;
+                }));
+            }
+
+            int lineBase = lineIndex.size();
+            for (Future<IndexChunk> future : futures) {
+                IndexChunk chunk = getInterruptibly(future, job);
+                lineIndex.append(chunk.lines());
+                addEntries(logIndex, chunk, lineBase);
+                lineBase += chunk.lines().size();
+            }
+            lineIndex.setEndOffset(Math.max(lineIndex.getEndOffset(), resumeOffset));
+            logIndex.trimToSize();
+
+            if (callback != null) {
+                callback.onComplete(logIndex.getEntryCount());
+            }
+            logger.info("Indexed {} lines / {} entries from file: {} (resumed at byte {})",
+                    lineIndex.size(), logIndex.getEntryCount(), file.getName(), resumeOffset);
+        } finally {
+            endParse(job);
+        }
+    }
+
+    /**
+     * Builds the entry index of a file for another parsing config from its existing line index,
+     * e.g. after the config was edited. The file is not scanned for line breaks again; only the
+     * pattern is re-run, in parallel over ranges of lines. The returned index shares {@code lineIndex}.
+     */
+    public LogIndex reindex(File file, LineIndex lineIndex, ParsingConfig config, ProgressCallback callback)
+            throws IOException {
+        ParseJob job = beginParse();
+        try (MappedLogFile mappedFile = MappedLogFile.open(file)) {
+            long totalBytes = Math.max(1, lineIndex.getEndOffset());
+            List<Future<IndexChunk>> futures = new ArrayList<>();
+            List<int[]> ranges = splitIntoLineRanges(lineIndex);
+            AtomicLong bytesProcessed = new AtomicLong(0);
+
+            for (int[] range : ranges) {
+                futures.add(job.submit(() -> {
+                    IndexChunk result = indexLines(mappedFile, lineIndex.slice(range[0], range[1]), config, job.token);
+                    long processed = bytesProcessed.addAndGet(result.lines().getEndOffset()
+                            - result.lines().getLineStart(0));
+                    if (callback != null) {
+                        callback.onProgress((double) processed / totalBytes, processed, totalBytes);
+                    }
+                    return result;
+                }));
+            }
+
+            LogIndex logIndex = new LogIndex(lineIndex);
+            for (int i = 0; i < futures.size(); i++) {
+                addEntries(logIndex, getInterruptibly(futures.get(i), job), ranges.get(i)[0]);
+            }
+            logIndex.trimToSize();
+
+            if (callback != null) {
+                callback.onComplete(logIndex.getEntryCount());
+            }
+            logger.info("Re-indexed {} lines / {} entries of {} with config '{}'",
+                    lineIndex.size(), logIndex.getEntryCount(), file.getName(), config.getName());
+            return logIndex;
+        } finally {
+            endParse(job);
+        }
+    }
+
+    /**
+     * Unparsed lines continue the previous entry; only those before the first parsed line form their own.
+     */
+    private static void addEntries(LogIndex logIndex, IndexChunk chunk, int lineBase) {
+        for (int line = 0; line < chunk.lines().size(); line++) {
+            boolean parsed = chunk.parsedLines().get(line);
+            if (parsed || logIndex.getEntryCount() == 0) {
+                logIndex.addEntry(lineBase + line, parsed, chunk.levels()[line], chunk.timestamps()[line]);
+            }
+        }
+    }
+
+    private IndexChunk indexChunk(MappedLogFile mappedFile, ChunkInfo chunkInfo, ParsingConfig config,
+                                  CancellationToken token) {
+        long start = findLineStart(mappedFile, chunkInfo.startByte());
+        return indexLines(mappedFile, LineIndexer.index(mappedFile, start, chunkInfo.endByte()), config, token);
+    }
+
+    /**
+     * Matches already indexed lines against the pattern, keeping only entry boundaries, level and timestamp.
+     */
+    private IndexChunk indexLines(MappedLogFile mappedFile, LineIndex lines, ParsingConfig config,
+                                  CancellationToken token) {
+        BitSet parsedLines = new BitSet(lines.size());
+        byte[] levels = new byte[lines.size()];
+        long[] timestamps = new long[lines.size()];
+        Arrays.fill(timestamps, LogIndex.NO_TIMESTAMP);
+
+        boolean valid = config != null && config.isValid();
+        int levelGroup = valid ? config.getGroupNames().indexOf("level") : -1;
+        int timestampGroup = valid ? config.getGroupNames().indexOf("timestamp") : -1;
+        TimestampParser timestampParser = timestampGroup >= 0 ? timestampParser(config) : null;
+
+        for (int line = 0; line < lines.size(); line++) {
+            if (line % CANCEL_CHECK_LINES == 0) {
+                token.throwIfCancelled();
+            }
+            long lineStart = lines.getLineStart(line);
+            long lineEnd = mappedFile.contentEnd(lineStart, lines.getLineEnd(line));
+            if (!valid || lineEnd == lineStart || !mayStartRecord(mappedFile, lineStart, lineEnd, config)) {
+                continue;
+            }
+            String text = mappedFile.decode(lineStart, lineEnd, mappedFile.getCharset());
+            int[] bounds = parseFieldBounds(text, line + 1L, config);
+            if (bounds == null) {
+                continue;
+            }
+            parsedLines.set(line);
+            if (levelGroup >= 0 && bounds[levelGroup * 2] >= 0) {
+                levels[line] = LogIndex.levelCode(text.substring(bounds[levelGroup * 2], bounds[levelGroup * 2 + 1]));
+            }
+            timestamps[line] = timestamp(text, bounds, timestampGroup, timestampParser);
+        }
+        return new IndexChunk(lines, parsedLines, levels, timestamps);
+    }
+
+    /**
+     * Converts the timestamp group of a parsed line.
+     *
+     * @param timestampGroup index of the timestamp group, or -1 if the config has none
+     */
+    private static long timestamp(String text, int[] fieldBounds, int timestampGroup, TimestampParser parser) {
+        if (timestampGroup < 0 || fieldBounds[timestampGroup * 2] < 0) {
+            return LogIndex.NO_TIMESTAMP;
+        }
+        return parser.parse(text, fieldBounds[timestampGroup * 2], fieldBounds[timestampGroup * 2 + 1]);
+    }
+
+    private static <T> T getInterruptibly(Future<T> future, ParseJob job) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            job.cancel();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Indexing interrupted");
+        } catch (ExecutionException e) {
+            if (job.token.isCancelled()) {
+                throw new InterruptedIOException("Indexing cancelled");
+            }
+            throw new IOException("Error indexing a file chunk", e.getCause());
+        }
+    }
+
+    /**
+     * Cuts every following parse and index build into chunks of exactly {@code bytes}, or sizes
+     * them by file and thread count again for 0.
+     */
+    void setFixedChunkBytes(long bytes) {
+        fixedChunkBytes = bytes;
+    }
+
+    /**
+     * Cuts the file into byte ranges without reading it. Workers resynchronise on the
+     * next newline themselves, so no line-counting pre-pass is needed.
+     * The first range is kept small so the first block can be published almost immediately.
+     */
+    private List<ChunkInfo> splitIntoByteRanges(long from, long to) {
+        List<ChunkInfo> chunks = new ArrayList<>();
+        if (from >= to) {
+            return chunks;
+        }
+        if (fixedChunkBytes > 0) {
+            for (long start = from; start < to; start += fixedChunkBytes) {
+                chunks.add(new ChunkInfo(start, Math.min(to, start + fixedChunkBytes)));
+            }
+            return chunks;
+        }
+
+        long firstChunkEnd = Math.min(to, from + MIN_CHUNK_BYTES);
+        chunks.add(new ChunkInfo(from, firstChunkEnd));
+
+        long remaining = to - firstChunkEnd;
+        if (remaining == 0) {
+            return chunks;
+        }
+        long chunkCount = Math.max(
+                (remaining + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES,
+                Math.min((long) MAX_THREADS * CHUNKS_PER_THREAD, (remaining + MIN_CHUNK_BYTES - 1) / MIN_CHUNK_BYTES));
+        long chunkSize = (remaining + chunkCount - 1) / chunkCount;
+
+        for (long start = firstChunkEnd; start < to; start += chunkSize) {
+            chunks.add(new ChunkInfo(start, Math.min(to, start + chunkSize)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Cuts an existing line index into {@code [fromLine, toLine)} ranges of about the same size
+     * in bytes as {@link #splitIntoByteRanges} would.
+     */
+    private List<int[]> splitIntoLineRanges(LineIndex lineIndex) {
+        List<int[]> ranges = new ArrayList<>();
+        if (lineIndex.isEmpty()) {
+            return ranges;
+        }
+        int fromLine = 0;
+        for (ChunkInfo chunk : splitIntoByteRanges(lineIndex.getLineStart(0), lineIndex.getEndOffset())) {
+            int toLine = chunk.endByte() >= lineIndex.getEndOffset() ? lineIndex.size()
+                    : lineIndex.findLine(chunk.endByte()) + 1;
+            if (toLine > fromLine) {
+                ranges.add(new int[]{fromLine, toLine});
+                fromLine = toLine;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Waits for the chunks in file order and publishes each one to the target.
+     * The unparsed lines at the start of a chunk continue the last entry of the previous
+     * chunk, so every block is held back until the next chunk with an entry arrives and the
+     * lines in between have been attached to its last row. Unparsed lines before the first
+     * entry of the file become an entry of their own.
+     *
+     * @throws IOException if a chunk failed; the target is then left incomplete
+     */
+    private void publishInOrder(List<Future<ChunkResult>> futures, ParseJob job, File file, MappedLogFile mappedFile,
+                                RawLogArena arena, StreamingLogEntrySourceImpl target, LineIndex lineIndex,
+                                ProgressCallback callback) throws IOException {
+        UnparsedRun headUnparsed = null;
+        ChunkResult held = null;
+        long heldEntryEnd = 0;
+        long lineBase = 0;
+        for (Future<ChunkResult> future : futures) {
             try {
-                allEntries.addAll(future.get());
+                // Chunks number their lines from 1; shift them by the lines of all previous chunks
+                ChunkResult result = future.get();
+                result.offsetLineNumbers(lineBase);
+                lineBase += result.lines().size();
+                if (lineIndex != null) {
+                    lineIndex.append(result.lines());
+                }
+
+                UnparsedRun leading = result.leadingUnparsed();
+                if (leading != null && held == null) {
+                    headUnparsed = UnparsedRun.merge(headUnparsed, leading);
+                } else if (leading != null) {
+                    int leadingLines = (int) (leading.endLine - leading.startLine + 1);
+                    heldEntryEnd = entryContentEnd(mappedFile, result.lines(), held.lastEntryStart(), heldEntryEnd,
+                            0, leadingLines - 1);
+                    extendLastRow(held, leading.endLine, mappedFile, arena, heldEntryEnd);
+                }
+
+                if (!result.block().isEmpty()) {
+                    if (held != null) {
+                        target.append(held.block());
+                    } else if (headUnparsed != null) {
+                        target.append(List.of(headUnparsed.toLogEntry()));
+                    }
+                    held = result;
+                    heldEntryEnd = result.lastEntryEnd();
+                }
+
+                if (callback != null) {
+                    callback.onEntriesPublished(target.getTotalEntries());
+                }
             } catch (InterruptedException e) {
                 logger.info("Parsing interrupted (task cancelled by user)");
+                job.cancel();
                 Thread.currentThread().interrupt();
-                break;
+                return;
             } catch (ExecutionException e) {
-                logger.error("Error processing a file chunk", e);
+                if (job.token.isCancelled()) {
+                    logger.info("Parsing of {} cancelled", file.getName());
+                    return;
+                }
+                // A lost chunk would shift the line numbers of every later entry and leave a
+                // line index that looks complete; fail the whole parse instead
+                job.cancel();
+                throw new IOException("Error parsing a file chunk of " + file.getName(), e.getCause());
             }
         }
 
-        List<LogEntry> combinedEntries = combineUnparsedEntries(allEntries);
+        if (held != null) {
+            target.append(held.block());
+        } else if (headUnparsed != null) {
+            target.append(List.of(headUnparsed.toLogEntry()));
+        }
+        target.markComplete();
 
         if (callback != null) {
-            callback.onComplete(combinedEntries.size());
+            callback.onEntriesPublished(target.getTotalEntries());
+            callback.onComplete(target.getTotalEntries());
         }
 
-        logger.info("Parsed {} entries in parallel from file: {}", combinedEntries.size(), file.getName());
-        return combinedEntries;
+        logger.info("Parsed {} entries in parallel from file: {}", target.getTotalEntries(), file.getName());
     }
 
-    private List<LogEntry> combineUnparsedEntries(List<LogEntry> rawEntries) {
-        if (rawEntries.isEmpty()) {
-            return Collections.emptyList();
+    private void extendLastRow(ChunkResult held, long endLineNumber, MappedLogFile mappedFile, RawLogArena arena,
+                               long entryEnd) {
+        long entryStart = held.lastEntryStart();
+        int length = (int) (entryEnd - entryStart);
+        if (arena instanceof DirectBufferArena directArena) {
+            held.block().extendLastRow(endLineNumber, directArena.append(mappedFile, entryStart, entryEnd), length);
+        } else if (arena != null) {
+            held.block().extendLastRow(endLineNumber, entryStart, length);
+        } else {
+            held.block().extendLastRow(endLineNumber, mappedFile.decode(entryStart, entryEnd, mappedFile.getCharset()));
         }
+    }
 
-        List<LogEntry> combined = new ArrayList<>();
-        StringBuilder unparsedBuffer = new StringBuilder(1000);
-        Map<String, String> unparsedMap = new HashMap<>();
-        long unparsedStartLine = -1;
-        long unparsedEndLine = -1;
+    /**
+     * Parses the lines of one chunk straight into a columnar block. Every parsed line starts an
+     * entry and the unparsed lines after it (a stack trace, say) are attached to it as
+     * continuation lines. The unparsed lines before the first parsed line of the chunk are
+     * returned separately, since they continue the last entry of an earlier chunk.
+     * With an arena, parsed rows reference their raw text there instead of keeping the String.
+     */
+    private ChunkResult processChunk(MappedLogFile mappedFile, ChunkInfo chunkInfo, ParsingConfig config,
+                                     RawLogArena arena, CancellationToken token) {
+        long start = findLineStart(mappedFile, chunkInfo.startByte());
+        return processLines(mappedFile, LineIndexer.index(mappedFile, start, chunkInfo.endByte()), config, arena,
+                token);
+    }
 
-        for (LogEntry entry : rawEntries) {
-            if (entry.isParsed()) {
-                if (!unparsedBuffer.isEmpty()) {
-                    combined.add(new LogEntry(unparsedStartLine, unparsedEndLine, unparsedBuffer.toString()));
-                    unparsedBuffer.setLength(0);
-                }
-                combined.add(entry);
-                unparsedStartLine = -1;
-                unparsedEndLine = -1;
-            } else {
-                if (unparsedStartLine == -1) {
-                    unparsedStartLine = entry.getLineNumber();
-                }
-                unparsedEndLine = entry.getLineNumber();
-                if (unparsedBuffer.length() < maxEntryUnparsed){
-                    if (!unparsedBuffer.isEmpty()) {
-                        unparsedBuffer.append(System.lineSeparator());
+    /**
+     * Parses already indexed lines into a columnar block, as {@link #processChunk} does.
+     */
+    private ChunkResult processLines(MappedLogFile mappedFile, LineIndex lines, ParsingConfig config,
+                                     RawLogArena arena, CancellationToken token) {
+        List<String> groupNames = config != null && config.getGroupNames() != null ? config.getGroupNames() : List.of();
+        int timestampGroup = groupNames.indexOf("timestamp");
+        TimestampParser timestampParser = timestampGroup >= 0 ? timestampParser(config) : null;
+
+        ColumnarLogBlock block = new ColumnarLogBlock(groupNames, lines.size(), arena, valueDecoder(config));
+        UnparsedRun leadingUnparsed = null;
+        int entryLine = -1;
+        String entryText = null;
+        int[] entryBounds = null;
+        long entryTimestamp = LogIndex.NO_TIMESTAMP;
+        long entryEnd = 0;
+
+        for (int line = 0; line < lines.size(); line++) {
+            if (line % CANCEL_CHECK_LINES == 0) {
+                token.throwIfCancelled();
+            }
+            long lineStart = lines.getLineStart(line);
+            long lineEnd = mappedFile.contentEnd(lineStart, lines.getLineEnd(line));
+            long lineNumber = line + 1L;
+            // A continuation line is only decoded if the parser has to look at it or no entry holds it yet;
+            // entries take their raw text from the file range, not from the decoded lines
+            boolean candidate = mayStartRecord(mappedFile, lineStart, lineEnd, config);
+            if (!candidate && entryLine >= 0) {
+                continue;
+            }
+            String text = mappedFile.decode(lineStart, lineEnd, mappedFile.getCharset());
+            int[] fieldBounds = candidate ? parseFieldBounds(text, lineNumber, config) : null;
+
+            if (fieldBounds == null) {
+                if (entryLine < 0) {
+                    if (leadingUnparsed == null) {
+                        leadingUnparsed = new UnparsedRun(lineNumber);
                     }
-                    unparsedBuffer.append(entry.getRawLog());
+                    leadingUnparsed.add(lineNumber, text);
                 }
+                continue;
+            }
+
+            if (entryLine >= 0) {
+                entryEnd = addEntry(block, mappedFile, lines, entryLine, line - 1, entryText, entryBounds,
+                        entryTimestamp, arena);
             }
+            entryLine = line;
+            entryText = text;
+            entryBounds = fieldBounds;
+            entryTimestamp = timestamp(text, fieldBounds, timestampGroup, timestampParser);
+        }
+        if (entryLine >= 0) {
+            entryEnd = addEntry(block, mappedFile, lines, entryLine, lines.size() - 1, entryText, entryBounds,
+                    entryTimestamp, arena);
         }
+        block.seal();
 
-        if (!unparsedBuffer.isEmpty()) {
-            combined.add(new LogEntry(unparsedStartLine, unparsedEndLine, unparsedBuffer.toString()));
+        long lastEntryStart = entryLine >= 0 ? lines.getLineStart(entryLine) : 0;
+        return new ChunkResult(leadingUnparsed, block, lines, lastEntryStart, entryEnd);
+    }
+
+    /**
+     * Adds the entry made of parsed line {@code firstLine} and continuation lines up to {@code lastLine}.
+     *
+     * @return the file offset where the entry text ends
+     */
+    private static long addEntry(ColumnarLogBlock block, MappedLogFile mappedFile, LineIndex lines, int firstLine,
+                                 int lastLine, String firstLineText, int[] fieldBounds, long epochMillis,
+                                 RawLogArena arena) {
+        long entryStart = lines.getLineStart(firstLine);
+        long firstLineEnd = mappedFile.contentEnd(entryStart, lines.getLineEnd(firstLine));
+        long entryEnd = entryContentEnd(mappedFile, lines, entryStart, firstLineEnd, firstLine + 1, lastLine);
+        long lineNumber = firstLine + 1L;
+        long endLineNumber = lastLine + 1L;
+        int length = (int) (entryEnd - entryStart);
+
+        if (arena instanceof DirectBufferArena directArena) {
+            long rawOffset = directArena.append(mappedFile, entryStart, entryEnd);
+            block.addParsed(lineNumber, endLineNumber, firstLineText, rawOffset, length, fieldBounds, epochMillis);
+        } else if (arena != null) {
+            block.addParsed(lineNumber, endLineNumber, firstLineText, entryStart, length, fieldBounds, epochMillis);
+        } else {
+            String rawLog = entryEnd == firstLineEnd ? firstLineText
+                    : mappedFile.decode(entryStart, entryEnd, mappedFile.getCharset());
+            block.addParsed(lineNumber, endLineNumber, rawLog, fieldBounds, epochMillis);
         }
-        return combined;
+        return entryEnd;
     }
 
-    private List<LogEntry> processChunk(File file, ChunkInfo chunkInfo, ParsingConfig config) {
-        List<LogEntry> entries = new ArrayList<>();
-        long currentLineNumber = chunkInfo.startLineNumber();
-        int countUnparsedLine = 0;
-        try (FileInputStream fis = new FileInputStream(file); FileChannel channel = fis.getChannel()) {
-            channel.position(chunkInfo.startByte());
-            BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+    /**
+     * Extends an entry ending at {@code entryEnd} by the continuation lines {@code [fromLine, toLine]}.
+     * Lines are taken whole while the entry is shorter than {@code maxEntryUnparsed} bytes,
+     * so a huge trace stays bounded in memory; the rest still belongs to the entry but is not shown.
+     *
+     * @return the file offset where the entry text now ends
+     */
+    static long entryContentEnd(MappedLogFile mappedFile, LineIndex lines, long entryStart, long entryEnd,
+                                int fromLine, int toLine) {
+        for (int line = fromLine; line <= toLine; line++) {
+            long lineStart = lines.getLineStart(line);
+            if (lineStart - entryStart >= maxEntryUnparsed) {
+                break;
+            }
+            entryEnd = mappedFile.contentEnd(lineStart, lines.getLineEnd(line));
+        }
+        return entryEnd;
+    }
 
-            String line;
-            while ((line = reader.readLine()) != null && channel.position() <= chunkInfo.endByte()) {
-                LogEntry logEntry = parseLine(line, currentLineNumber, config);
+    /**
+     * Cheap check on the raw bytes of a line: false only if the config's parser would certainly
+     * reject it, so the line need not be decoded to find out. Regex configs check every line.
+     */
+    private static boolean mayStartRecord(MappedLogFile mappedFile, long lineStart, long lineEnd,
+                                          ParsingConfig config) {
+        if (config == null) {
+            return true;
+        }
+        return switch (config.getParserType()) {
+            case JSON_LINES -> {
+                int first = mappedFile.firstNonBlankUnit(lineStart, lineEnd);
+                yield first == '{' || first >= 0x80;
+            }
+            case LOGFMT -> {
+                int first = mappedFile.firstUnit(lineStart, lineEnd);
+                yield first > ' ' && first != '=' && first != '"';
+            }
+            default -> true;
+        };
+    }
 
-                if (!logEntry.isParsed()){
-                    countUnparsedLine++;
-                } else {
-                    countUnparsedLine = 0;
-                }
+    /**
+     * Reads the text of the entry spanning the 1-based lines {@code [firstLine, lastLine]} straight
+     * from the file for display, including the continuation lines past {@code maxEntryUnparsed}
+     * that the entry itself does not keep. Only the first {@link #MAX_FULL_TEXT_BYTES} are decoded;
+     * {@link #copyEntryBytes} saves the whole entry.
+     *
+     * @return the text, or null if the entry is short enough to be complete already
+     */
+    static String readFullEntryText(MappedLogFile mappedFile, LineIndex lineIndex, long firstLine, long lastLine) {
+        if (firstLine < 1 || lastLine < firstLine || lastLine > lineIndex.size()) {
+            return null;
+        }
+        long start = lineIndex.getLineStart((int) firstLine - 1);
+        if (lineIndex.getLineStart((int) lastLine - 1) - start < maxEntryUnparsed) {
+            return null;
+        }
+        long end = mappedFile.contentEnd(start, lineIndex.getLineEnd((int) lastLine - 1));
+        if (end > mappedFile.size()) {
+            return null;
+        }
+        int length = (int) Math.min(end - start, MAX_FULL_TEXT_BYTES);
+        length -= length % mappedFile.getEncoding().unitSize();
+        String text = mappedFile.decode(start, start + length, mappedFile.getCharset());
+        if (length < end - start) {
+            text += String.format("%n... %,d more bytes of lines %d-%d not shown", end - start - length, firstLine,
+                    lastLine);
+        }
+        return text;
+    }
 
-                if (countUnparsedLine > maxEntryUnparsed){
-                    break;
-                }
+    /**
+     * Copies the bytes of the entry spanning the 1-based lines {@code [firstLine, lastLine]} from
+     * the file to {@code target} with {@link FileChannel#transferTo}, preceded by the file's byte
+     * order mark if it has one, so an entry of any length is saved whole and in its own encoding.
+     *
+     * @return false if the lines are not in the index, leaving {@code target} untouched
+     */
+    static boolean copyEntryBytes(MappedLogFile mappedFile, LineIndex lineIndex, long firstLine, long lastLine,
+                                  Path target) throws IOException {
+        if (firstLine < 1 || lastLine < firstLine || lastLine > lineIndex.size()) {
+            return false;
+        }
+        long start = lineIndex.getLineStart((int) firstLine - 1);
+        long end = mappedFile.contentEnd(start, lineIndex.getLineEnd((int) lastLine - 1));
+        if (end > mappedFile.size()) {
+            return false;
+        }
+        try (FileChannel in = FileChannel.open(mappedFile.getFile().toPath(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            transfer(in, 0, mappedFile.getEncoding().bomLength(), out);
+            transfer(in, start, end, out);
+        }
+        return true;
+    }
 
-                entries.add(logEntry);
-                currentLineNumber++;
+    private static void transfer(FileChannel in, long from, long to, FileChannel out) throws IOException {
+        long position = from;
+        while (position < to) {
+            long copied = in.transferTo(position, to - position, out);
+            if (copied <= 0) {
+                throw new EOFException("File ended at " + position + " while copying up to " + to);
             }
-
-        } catch (IOException e) {
-            logger.error("Error processing file chunk", e);
+            position += copied;
         }
-        return entries;
     }
 
     /**
-     * Pre-calculates the starting byte offset for each line in the file.
-     * This is used to accurately determine chunk boundaries and starting line numbers for parallel processing.
+     * Moves a chunk start to the first line beginning at or after the offset.
+     * A line that straddles the offset belongs to the previous chunk, which reads past its end to finish it.
      */
-    private Map<Long, Long> preCalculateLineOffsets(File file) throws IOException {
-        Map<Long, Long> lineStartOffsets = new TreeMap<>(); // TreeMap to keep keys sorted
-        long currentByteOffset = 0;
-        long currentLineNumber = 1;
+    private long findLineStart(MappedLogFile mappedFile, long offset) {
+        return mappedFile.lineStartAtOrAfter(offset);
+    }
+
+    /**
+     * The chunk workers of one parse or index build. Workers are counted from submission until
+     * they return, so {@link #awaitReleased()} knows when none of them is still holding a core
+     * or building a block. Queued workers of a cancelled job return as soon as they start.
+     */
+    private static final class ParseJob {
+        private final CancellationToken token = new CancellationToken();
+        private final long timestampMissesAtStart;
+        private int running;
+
+        ParseJob(long timestampMissesAtStart) {
+            this.timestampMissesAtStart = timestampMissesAtStart;
+        }
 
-        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
-            String line;
-            lineStartOffsets.put(currentLineNumber, currentByteOffset); // Offset for line 1
+        <T> Future<T> submit(Callable<T> work) {
+            synchronized (this) {
+                running++;
+            }
+            try {
+                return ParserExecutor.get().submit(() -> {
+                    try {
+                        token.throwIfCancelled();
+                        return work.call();
+                    } finally {
+                        finished();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                finished();
+                throw e;
+            }
+        }
+
+        void cancel() {
+            token.cancel();
+        }
+
+        private synchronized void finished() {
+            if (--running == 0) {
+                notifyAll();
+            }
+        }
 
-            while ((line = reader.readLine()) != null) {
-                currentByteOffset += (line.getBytes(StandardCharsets.UTF_8).length + System.lineSeparator().getBytes(StandardCharsets.UTF_8).length);
-                currentLineNumber++;
-                lineStartOffsets.put(currentLineNumber, currentByteOffset);
+        synchronized void awaitReleased() throws InterruptedException {
+            while (running > 0) {
+                wait();
             }
         }
-        return lineStartOffsets;
     }
 
-    // Helper record for parallel chunk processing
+    // Helper record for parallel chunk processing: a byte range [startByte, endByte) of the file
     private record ChunkInfo(
             long startByte,
-            long endByte,
-            long startLineNumber
+            long endByte
     ) {}
 
+    private record IndexChunk(
+            LineIndex lines,
+            BitSet parsedLines,
+            byte[] levels,
+            long[] timestamps
+    ) {}
+
+    /**
+     * @param lines          the lines of the chunk, with file offsets
+     * @param lastEntryStart file offset of the last entry in the block
+     * @param lastEntryEnd   file offset where the text of that entry currently ends
+     */
+    private record ChunkResult(
+            UnparsedRun leadingUnparsed,
+            ColumnarLogBlock block,
+            LineIndex lines,
+            long lastEntryStart,
+            long lastEntryEnd
+    ) {
+        void offsetLineNumbers(long delta) {
+            if (leadingUnparsed != null) {
+                leadingUnparsed.offsetLineNumbers(delta);
+            }
+            block.offsetLineNumbers(delta);
+        }
+    }
+
+    /**
+     * A run of consecutive unparsed lines that are not continuation lines of any entry, i.e. the
+     * lines before the first parsed line of a file, or a whole file no line of which parses.
+     * Lines are joined with the platform line separator and only appended while the text
+     * is shorter than {@code maxEntryUnparsed}, so a huge run stays bounded in memory.
+     */
+    static final class UnparsedRun {
+        private long startLine;
+        private long endLine;
+        private final List<String> lines = new ArrayList<>();
+        private int length;
+
+        UnparsedRun(long startLine) {
+            this.startLine = startLine;
+            this.endLine = startLine;
+        }
+
+        void add(long lineNumber, String line) {
+            endLine = lineNumber;
+            if (!isFull()) {
+                if (!lines.isEmpty()) {
+                    length += System.lineSeparator().length();
+                }
+                lines.add(line);
+                length += line.length();
+            }
+        }
+
+        /**
+         * Whether the text reached {@code maxEntryUnparsed}, so further lines only move the end line.
+         */
+        boolean isFull() {
+            return length >= maxEntryUnparsed;
+        }
+
+        static UnparsedRun merge(UnparsedRun first, UnparsedRun second) {
+            if (first == null) {
+                return second;
+            }
+            if (second != null) {
+                long lineNumber = second.startLine;
+                for (String line : second.lines) {
+                    first.add(lineNumber++, line);
+                }
+                first.endLine = second.endLine;
+            }
+            return first;
+        }
+
+        void offsetLineNumbers(long delta) {
+            startLine += delta;
+            endLine += delta;
+        }
+
+        String text() {
+            return String.join(System.lineSeparator(), lines);
+        }
+
+        LogEntry toLogEntry() {
+            return new LogEntry(startLine, endLine, text());
+        }
+    }
+
     /**
      * Parse a single line with the given configuration
      */
     public LogEntry parseLine(String line, long lineNumber, ParsingConfig config) {
-        if (line == null || line.isEmpty()) {
+        String[] values = parseFields(line, lineNumber, config);
+        if (values == null) {
             return new LogEntry(lineNumber, line);
         }
 
+        Map<String, String> fields = new HashMap<>();
+        List<String> groupNames = config.getGroupNames();
+        for (int i = 0; i < groupNames.size(); i++) {
+            fields.put(groupNames.get(i), values[i]);
+        }
+        int timestampGroup = groupNames.indexOf("timestamp");
+        long epochMillis = timestampGroup >= 0 ? timestampParser(config).parse(values[timestampGroup]) : LogIndex.NO_TIMESTAMP;
+        return new LogEntry(lineNumber, line, fields, epochMillis);
+    }
+
+    /**
+     * Matches a line against the configuration.
+     *
+     * @return one value per group name (empty string for groups that did not participate),
+     * or null if the line does not match
+     */
+    String[] parseFields(String line, long lineNumber, ParsingConfig config) {
+        int[] bounds = parseFieldBounds(line, lineNumber, config);
+        if (bounds == null) {
+            return null;
+        }
+        UnaryOperator<String> decoder = valueDecoder(config);
+        String[] values = new String[bounds.length / 2];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = bounds[i * 2] < 0 ? "" : line.substring(bounds[i * 2], bounds[i * 2 + 1]);
+            if (decoder != null) {
+                values[i] = decoder.apply(values[i]);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Matches a line against the configuration without copying any field text.
+     *
+     * @return {@code start, end} offsets into the line for each group name (-1 for groups that
+     * did not participate), or null if the line does not match
+     */
+    int[] parseFieldBounds(String line, long lineNumber, ParsingConfig config) {
+        if (line == null || line.isEmpty()) {
+            return null;
+        }
+
         if (config == null || !config.isValid()) {
-            return new LogEntry(lineNumber, line);
+            return null;
+        }
+
+        if (config.isStructured()) {
+            return structuredFieldBounds(line, config);
         }
 
         try {
+            FastPathParser fastPath = fastPathParser(config);
+            if (fastPath != null) {
+                int[] bounds = fastPath.parse(line);
+                if (bounds != FastPathParser.FALLBACK) {
+                    return bounds;
+                }
+            }
+
             Pattern pattern = config.getCompiledPattern();
             if (pattern == null) {
-                return new LogEntry(lineNumber, line);
+                return null;
             }
 
-            Matcher matcher = pattern.matcher(line);
-            if (matcher.find()) {
-                Map<String, String> fields = new HashMap<>();
+            Matcher matcher = pattern.matcher(new BudgetedCharSequence(line, regexBudget(line.length())));
+            if (!matcher.find()) {
+                return null;
+            }
 
-                for (String groupName : config.getGroupNames()) {
-                    try {
-                        String value = matcher.group(groupName);
-                        fields.put(groupName, value != null ? value : "");
-                    } catch (IllegalArgumentException e) {
-                        fields.put(groupName, "");
-                    }
+            List<String> groupNames = config.getGroupNames();
+            int[] bounds = new int[groupNames.size() * 2];
+            for (int i = 0; i < groupNames.size(); i++) {
+                try {
+                    bounds[i * 2] = matcher.start(groupNames.get(i));
+                    bounds[i * 2 + 1] = matcher.end(groupNames.get(i));
+                } catch (IllegalArgumentException e) {
+                    bounds[i * 2] = -1;
+                    bounds[i * 2 + 1] = -1;
                 }
-
-                return new LogEntry(lineNumber, line, fields);
+            }
+            return bounds;
+        } catch (RegexBudgetExceededException e) {
+            regexBudgetExceeded.incrementAndGet();
+            if (regexBudgetWarned.compareAndSet(false, true)) {
+                logger.warn("Line {} ({} chars) exceeded the regex budget, keeping it unparsed; "
+                        + "further such lines in this parse are only logged at debug level", lineNumber, line.length());
             } else {
-                return new LogEntry(lineNumber, line);
+                logger.debug("Line {} ({} chars) exceeded the regex budget, keeping it unparsed", lineNumber,
+                        line.length());
             }
+            return null;
         } catch (Exception e) {
             logger.warn("Error parsing line {}: {}", lineNumber, e.getMessage());
-            return new LogEntry(lineNumber, line);
+            return null;
+        }
+    }
+
+    /**
+     * Number of lines left unparsed because matching them exceeded the regex budget,
+     * since this service was created.
+     */
+    public long getRegexBudgetExceededCount() {
+        return regexBudgetExceeded.get();
+    }
+
+    private static long regexBudget(int lineLength) {
+        return REGEX_MIN_READS + REGEX_READS_PER_CHAR * lineLength;
+    }
+
+    private FastPathParser fastPathParser(ParsingConfig config) {
+        String regex = config.getRegexPattern();
+        if (regex == null) {
+            return null;
+        }
+        return fastPathParsers.get(regex, key -> {
+            FastPathParser parser = FastPathParser.compile(key, config.getGroupNames());
+            logger.info("Parsing config '{}' uses the {} parser", config.getName(), parser != null ? "fast-path" : "regex");
+            return Optional.ofNullable(parser);
+        }).orElse(null);
+    }
+
+    private int[] structuredFieldBounds(String line, ParsingConfig config) {
+        return switch (config.getParserType()) {
+            case JSON_LINES -> jsonLinesParsers.get(fieldKeys(config), JsonLinesParser::new).parse(line);
+            case LOGFMT -> logfmtParsers.get(fieldKeys(config), LogfmtParser::new).parse(line);
+            default -> null;
+        };
+    }
+
+    private static List<String> fieldKeys(ParsingConfig config) {
+        return config.getFieldKeys() != null ? config.getFieldKeys() : config.getGroupNames();
+    }
+
+    /**
+     * Turns the field text the config's parser reports into the displayed value, or null when
+     * field text is shown as it is in the line.
+     */
+    public UnaryOperator<String> valueDecoder(ParsingConfig config) {
+        if (config == null) {
+            return null;
+        }
+        return switch (config.getParserType()) {
+            case JSON_LINES -> JsonLinesParser::decode;
+            case LOGFMT -> LogfmtParser::decode;
+            default -> null;
+        };
+    }
+
+    /**
+     * Discovers the columns of a structured config from windows spread over the whole file, so
+     * keys that only appear later (errors, request ids) get a column from the start and the
+     * table keeps the same columns while the file loads. Regex configs are returned as they are.
+     */
+    public ParsingConfig resolveColumns(File file, ParsingConfig config) throws IOException {
+        if (config == null || !config.isStructured()) {
+            return config;
+        }
+        return discoverColumns(sampleLines(file), config);
+    }
+
+    /**
+     * Reads up to about a thousand whole lines from windows spread over the file, or the whole
+     * file when it is small, without reading more than about 1 MB whatever the file size.
+     * Compressed files are sampled from their start only, since seeking needs the whole stream.
+     * Lines are decoded with the encoding detected from the start of the file.
+     */
+    public List<String> sampleLines(File file) throws IOException {
+        List<String> sample = new ArrayList<>();
+        if (CompressedLogFiles.isCompressed(file)) {
+            try (InputStream in = CompressedLogFiles.openDecompressed(file)) {
+                byte[] bytes = in.readNBytes(COLUMN_SAMPLE_CHARS);
+                String[] lines = LogEncoding.detect(bytes, bytes.length).decode(bytes, bytes.length).split("\\R", -1);
+                int to = bytes.length < COLUMN_SAMPLE_CHARS ? lines.length : lines.length - 1;
+                for (int i = 0; i < to && i < COLUMN_SAMPLE_LINES; i++) {
+                    sample.add(lines[i]);
+                }
+            }
+            return sample;
+        }
+
+        LogEncoding encoding = LogEncoding.detect(file);
+        long base = encoding.bomLength();
+        int unit = encoding.unitSize();
+        long length = file.length();
+        int windowBytes = COLUMN_SAMPLE_CHARS / COLUMN_SAMPLE_WINDOWS;
+        int windowLines = COLUMN_SAMPLE_LINES / COLUMN_SAMPLE_WINDOWS;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            int windows = length <= COLUMN_SAMPLE_CHARS ? 1 : COLUMN_SAMPLE_WINDOWS;
+            for (int window = 0; window < windows; window++) {
+                long start = windows == 1 ? 0 : (length - windowBytes) / (windows - 1) * window;
+                // Windows start on a code unit boundary past the byte order mark
+                start = Math.max(base, start - (start - base) % unit);
+                int count = (int) Math.min(windows == 1 ? length : windowBytes, length - start);
+                byte[] bytes = new byte[count - count % unit];
+                raf.seek(start);
+                raf.readFully(bytes);
+                String[] lines = new String(bytes, encoding.charset()).split("\\R", -1);
+                // Drop the lines cut by the window edges, except at the file boundaries
+                int from = start == base ? 0 : 1;
+                int to = start + bytes.length == length ? lines.length : lines.length - 1;
+                for (int i = from; i < to && i - from < (windows == 1 ? COLUMN_SAMPLE_LINES : windowLines); i++) {
+                    sample.add(lines[i]);
+                }
+            }
         }
+        return sample;
+    }
+
+    /**
+     * Discovers the columns of a structured config from sample lines.
+     */
+    public ParsingConfig discoverColumns(List<String> sampleLines, ParsingConfig config) {
+        ColumnDiscovery discovery = new ColumnDiscovery();
+        for (String line : sampleLines) {
+            List<String> keys = switch (config.getParserType()) {
+                case JSON_LINES -> JsonLinesParser.keys(line);
+                case LOGFMT -> LogfmtParser.keys(line);
+                default -> null;
+            };
+            if (keys != null) {
+                discovery.addLine(keys);
+            }
+        }
+        ColumnDiscovery.Columns columns = discovery.result();
+        logger.info("Discovered {} columns from {} of {} sample lines for '{}': {}", columns.names().size(),
+                discovery.getLineCount(), sampleLines.size(), config.getName(), columns.keys());
+        return config.withColumns(columns.names(), columns.keys());
+    }
+
+    /**
+     * Timestamp converter for the config's format, compiled once per format.
+     */
+    public TimestampParser timestampParser(ParsingConfig config) {
+        String format = config.getTimestampFormat() != null ? config.getTimestampFormat() : "";
+        return timestampParsers.computeIfAbsent(format, TimestampParser::forFormat);
     }
 
     /**
@@ -261,9 +1253,13 @@ public class LogParserService {
             return result;
         }
 
+        if (config.isStructured()) {
+            return testStructuredParsing(sampleLog, config);
+        }
+
         try {
             Pattern pattern = config.getCompiledPattern();
-            Matcher matcher = pattern.matcher(sampleLog);
+            Matcher matcher = pattern.matcher(new BudgetedCharSequence(sampleLog, regexBudget(sampleLog.length())));
 
             if (matcher.find()) {
                 Map<String, String> fields = new HashMap<>();
@@ -287,6 +1283,9 @@ public class LogParserService {
                 result.setMessage("Pattern did not match the sample log");
                 result.setGroupNames(config.getGroupNames());
             }
+        } catch (RegexBudgetExceededException e) {
+            result.setSuccess(false);
+            result.setMessage("Pattern backtracks too much on the sample log and would leave such lines unparsed");
         } catch (Exception e) {
             result.setSuccess(false);
             result.setMessage("Error testing pattern: " + e.getMessage());
@@ -295,6 +1294,75 @@ public class LogParserService {
         return result;
     }
 
+    /**
+     * Discovers columns from the sample lines and parses the first one.
+     */
+    private TestResult testStructuredParsing(String sampleLog, ParsingConfig config) {
+        TestResult result = new TestResult();
+        List<String> lines = List.of(sampleLog.split("\\R"));
+        ParsingConfig resolved = discoverColumns(lines, config);
+        String[] values = parseFields(lines.get(0), 1, resolved);
+        result.setGroupNames(resolved.getGroupNames());
+        if (values == null) {
+            result.setSuccess(false);
+            result.setMessage("The first sample line is not a " + config.getParserType() + " record");
+            return result;
+        }
+
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            fields.put(resolved.getGroupNames().get(i), values[i]);
+        }
+        result.setSuccess(true);
+        result.setMessage("Parsed " + fields.size() + " columns");
+        result.setParsedFields(fields);
+        return result;
+    }
+
+    /**
+     * Looks for catastrophic backtracking by matching each sample line at half, full and double
+     * length, each followed by a character that makes the match fail late. A linear pattern reads
+     * about twice as many characters per doubling; an exponential one reads far more, or runs
+     * out of budget.
+     *
+     * @return a warning to show the user, or empty if the pattern looks safe on this sample
+     */
+    public Optional<String> checkBacktracking(String sampleLog, ParsingConfig config) {
+        if (sampleLog == null || sampleLog.isBlank() || config == null || !config.isValid() || config.isStructured()) {
+            return Optional.empty();
+        }
+        Pattern pattern = config.getCompiledPattern();
+        String[] lines = sampleLog.split("\\R");
+        for (int i = 0; i < lines.length && i < BACKTRACKING_CHECK_LINES; i++) {
+            String line = lines[i];
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] probes = {line.substring(0, (line.length() + 1) / 2), line, line + line};
+            long previousReads = 0;
+            for (String probe : probes) {
+                String input = probe + '\u0001';
+                BudgetedCharSequence sequence = new BudgetedCharSequence(input, regexBudget(input.length()));
+                try {
+                    pattern.matcher(sequence).find();
+                } catch (RegexBudgetExceededException e) {
+                    return Optional.of(String.format(
+                            "Matching a %d-character line took more than %,d character reads. " +
+                                    "Lines like this will be left unparsed.", input.length(), sequence.getReads() - 1));
+                }
+                long reads = sequence.getReads();
+                if (previousReads > 0 && reads > 10_000 && reads > previousReads * EXPONENTIAL_GROWTH) {
+                    return Optional.of(String.format(
+                            "Doubling a sample line from %d to %d characters raised the work from %,d to %,d " +
+                                    "character reads. The pattern backtracks exponentially; long lines may be left unparsed.",
+                            (probe.length() + 1) / 2, probe.length(), previousReads, reads));
+                }
+                previousReads = reads;
+            }
+        }
+        return Optional.empty();
+    }
+
     /**
      * High-performance search with optimized pattern compilation and string matching.
      * Pre-compiles regex once and caches lowercase strings for case-insensitive search.
@@ -364,6 +1432,12 @@ public class LogParserService {
         void onProgress(double progress, long bytesProcessed, long totalBytes);
 
         void onComplete(long totalEntries);
+
+        /**
+         * Called from the publishing thread each time a new block of entries becomes visible.
+         */
+        default void onEntriesPublished(int totalEntries) {
+        }
     }
 
     /**
@@ -0,0 +1,320 @@
+package com.seeloggyplus.service.impl;
+
+import com.seeloggyplus.exceptions.LogFileChangedException;
+import com.seeloggyplus.model.RawLogArena;
+import com.seeloggyplus.util.LogEncoding;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only memory mapping of a log file.
+ * A single MappedByteBuffer is limited to 2 GB, so the file is mapped as a series of
+ * 1 GB segments and every accessor works on absolute long offsets. Only absolute reads
+ * are used, which makes one instance safe to share between parser threads.
+ * The mapping stays valid after {@link #close()} until the instance is garbage-collected,
+ * so it can also serve as the {@link RawLogArena} of the entries parsed from it.
+ * <p>
+ * If the file is truncated while mapped (logrotate's copytruncate), touching a page past its new
+ * end faults. Reads check the file length every so often and turn such a fault into a
+ * {@link LogFileChangedException}, so callers can ask for a reload instead of failing with an
+ * {@code InternalError}.
+ * <p>
+ * The text encoding is detected when the file is opened. Line scanning works on raw code units
+ * (see {@link #nextLineStart}), so UTF-16 files are split correctly without decoding them, and
+ * the first line starts after the byte order mark, if any.
+ */
+public class MappedLogFile implements Closeable, RawLogArena {
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = (int) (SEGMENT_SIZE - 1);
+
+    private static final long SIZE_CHECK_INTERVAL_NANOS = 50_000_000;
+
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[8192]);
+    // Longer lines are decoded from an array of their own, so one huge line does not stay cached per thread
+    static final int MAX_SCRATCH_BYTES = 1024 * 1024;
+
+    private final File file;
+    private final FileChannel channel;
+    private final long size;
+    private final MappedByteBuffer[] segments;
+    private final LogEncoding encoding;
+    private volatile long lastSizeCheckNanos = System.nanoTime();
+
+    private MappedLogFile(File file, FileChannel channel) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.size = channel.size();
+
+        int segmentCount = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+        this.segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long position = (long) i << SEGMENT_SHIFT;
+            long length = Math.min(SEGMENT_SIZE, size - position);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+
+        this.encoding = LogEncoding.detect((position, dst, length) -> read(position, dst, 0, length), size);
+    }
+
+    public static MappedLogFile open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            return new MappedLogFile(file, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public LogEncoding getEncoding() {
+        return encoding;
+    }
+
+    public Charset getCharset() {
+        return encoding.charset();
+    }
+
+    /**
+     * Offset of the first line, just past the byte order mark.
+     */
+    public long dataStart() {
+        return Math.min(encoding.bomLength(), size);
+    }
+
+    public byte get(long position) {
+        try {
+            return segments[(int) (position >>> SEGMENT_SHIFT)].get((int) position & SEGMENT_MASK);
+        } catch (InternalError e) {
+            throw changed(e);
+        }
+    }
+
+    /**
+     * Throws {@link LogFileChangedException} if the file is now shorter than its mapping, so
+     * reading the mapping past the new end would fault instead of returning the old lines.
+     * Callers check before touching a batch of lines, e.g. a page of entries.
+     */
+    public void checkNotTruncated() {
+        lastSizeCheckNanos = System.nanoTime();
+        if (file.length() < size) {
+            throw changed(null);
+        }
+    }
+
+    /**
+     * {@link #checkNotTruncated()} at most every {@link #SIZE_CHECK_INTERVAL_NANOS}, for reads that
+     * are too frequent to stat the file each time.
+     */
+    private void checkNotTruncatedRecently() {
+        if (System.nanoTime() - lastSizeCheckNanos > SIZE_CHECK_INTERVAL_NANOS) {
+            checkNotTruncated();
+        }
+    }
+
+    // A fault on a page past the end of a truncated file surfaces as an InternalError
+    private LogFileChangedException changed(InternalError fault) {
+        return new LogFileChangedException(file, fault);
+    }
+
+    /**
+     * Returns the offset of the first occurrence of {@code value} in {@code [from, to)}, or -1.
+     */
+    public long indexOf(byte value, long from, long to) {
+        try {
+            return indexOfInMapping(value, from, to);
+        } catch (InternalError e) {
+            throw changed(e);
+        }
+    }
+
+    private long indexOfInMapping(byte value, long from, long to) {
+        long limit = Math.min(to, size);
+        long position = Math.max(0, from);
+        while (position < limit) {
+            int segmentIndex = (int) (position >>> SEGMENT_SHIFT);
+            MappedByteBuffer segment = segments[segmentIndex];
+            long segmentStart = (long) segmentIndex << SEGMENT_SHIFT;
+            int i = (int) (position - segmentStart);
+            int end = (int) Math.min(segment.limit(), limit - segmentStart);
+            for (; i < end; i++) {
+                if (segment.get(i) == value) {
+                    return segmentStart + i;
+                }
+            }
+            position = segmentStart + end;
+        }
+        return -1;
+    }
+
+    /**
+     * Copies {@code length} bytes starting at {@code position}, crossing segment boundaries if needed.
+     */
+    public void read(long position, byte[] dst, int offset, int length) {
+        checkNotTruncatedRecently();
+        try {
+            while (length > 0) {
+                int segmentIndex = (int) (position >>> SEGMENT_SHIFT);
+                int inSegment = (int) position & SEGMENT_MASK;
+                int count = Math.min(length, segments[segmentIndex].limit() - inSegment);
+                segments[segmentIndex].get(inSegment, dst, offset, count);
+                position += count;
+                offset += count;
+                length -= count;
+            }
+        } catch (InternalError e) {
+            throw changed(e);
+        }
+    }
+
+    /**
+     * Returns the offset just past the first line feed at or after {@code from}, or the file size
+     * if there is none. For UTF-16 only a whole {@code 0x000A} code unit counts, never a
+     * {@code 0x0A} byte inside another character.
+     */
+    public long nextLineStart(long from) {
+        int unit = encoding.unitSize();
+        if (unit == 1) {
+            long newline = indexOf((byte) '\n', from, size);
+            return newline < 0 ? size : newline + 1;
+        }
+        long base = dataStart();
+        // Offset of the 0x0A byte within a line feed code unit
+        int low = encoding.isBigEndian() ? 1 : 0;
+        long position = Math.max(from, base);
+        while (true) {
+            long newline = indexOf((byte) '\n', position, size);
+            if (newline < 0) {
+                return size;
+            }
+            long unitStart = newline - low;
+            if (unitStart >= base && ((unitStart - base) & 1) == 0 && unitStart + 1 < size
+                    && get(unitStart + 1 - low) == 0) {
+                return unitStart + 2;
+            }
+            position = newline + 1;
+        }
+    }
+
+    /**
+     * Returns {@code offset} if a line starts there, else the start of the next line.
+     */
+    public long lineStartAtOrAfter(long offset) {
+        long base = dataStart();
+        if (offset <= base) {
+            return base;
+        }
+        if (offset >= size) {
+            return size;
+        }
+        int unit = encoding.unitSize();
+        if (((offset - base) % unit) == 0 && unitAt(offset - unit) == '\n') {
+            return offset;
+        }
+        return nextLineStart(offset);
+    }
+
+    /**
+     * Strips a trailing {@code \n} or {@code \r\n} from the byte range of a line.
+     *
+     * @return the exclusive end of the line content
+     */
+    public long contentEnd(long start, long end) {
+        int unit = encoding.unitSize();
+        if (end - start >= unit && unitAt(end - unit) == '\n') {
+            end -= unit;
+            if (end - start >= unit && unitAt(end - unit) == '\r') {
+                end -= unit;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * The first code unit of {@code [start, end)} that is not a space or control character,
+     * or -1 for a blank range. Multi-byte UTF-8 sequences are reported as their lead byte.
+     */
+    public int firstNonBlankUnit(long start, long end) {
+        int unit = encoding.unitSize();
+        for (long position = start; position + unit <= end; position += unit) {
+            int value = unitAt(position);
+            if (value > ' ') {
+                return value;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The code unit at the start of a line, or -1 for an empty line.
+     */
+    public int firstUnit(long start, long end) {
+        return end - start >= encoding.unitSize() ? unitAt(start) : -1;
+    }
+
+    /**
+     * The code unit starting at {@code position}: a byte, or a UTF-16 char.
+     */
+    private int unitAt(long position) {
+        if (encoding.unitSize() == 1) {
+            return get(position) & 0xFF;
+        }
+        int first = get(position) & 0xFF;
+        int second = get(position + 1) & 0xFF;
+        return encoding.isBigEndian() ? first << 8 | second : second << 8 | first;
+    }
+
+    /**
+     * Decodes the bytes in {@code [start, end)} using the given charset, normally {@link #getCharset()}.
+     */
+    public String decode(long start, long end, Charset charset) {
+        int length = (int) (end - start);
+        if (length <= 0) {
+            return "";
+        }
+        byte[] scratch = scratch(length);
+        read(start, scratch, 0, length);
+        return new String(scratch, 0, length, charset);
+    }
+
+    @Override
+    public String decode(long offset, int length) {
+        return decode(offset, offset + length, encoding.charset());
+    }
+
+    /**
+     * A buffer of at least {@code length} bytes: the calling thread's cached one, grown up to
+     * {@link #MAX_SCRATCH_BYTES}, or a new one for longer lengths.
+     */
+    static byte[] scratch(int length) {
+        if (length > MAX_SCRATCH_BYTES) {
+            return new byte[length];
+        }
+        byte[] scratch = SCRATCH.get();
+        if (scratch.length < length) {
+            scratch = new byte[Math.min(Math.max(length, scratch.length * 2), MAX_SCRATCH_BYTES)];
+            SCRATCH.set(scratch);
+        }
+        return scratch;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,114 @@
+package com.seeloggyplus.service.impl;
+
+import com.seeloggyplus.model.LogEntry;
+import com.seeloggyplus.util.CancellationToken;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Runs a filter predicate over the entries of a source on the shared parser pool.
+ * <p>
+ * The entries are cut into fixed-size blocks; each block task reads its entries, tests them and
+ * returns the indices of those that match, and the blocks are concatenated in order, so the
+ * result is the same sorted list of row ids a sequential scan gives. Block tasks poll a {@link CancellationToken}, so a
+ * filter the user has already replaced stops within a few hundred entries.
+ */
+final class ParallelFilter {
+
+    static final int BLOCK_SIZE = 16 * 1024;
+    private static final int CANCEL_CHECK_ENTRIES = 256;
+
+    /**
+     * Reads the entries {@code [from, to)} of the source being filtered; called from pool threads.
+     */
+    @FunctionalInterface
+    interface BlockReader {
+        List<LogEntry> read(int from, int to);
+    }
+
+    private ParallelFilter() {
+    }
+
+    /**
+     * @param progress receives the fraction of entries tested so far, from pool threads; may be null
+     * @return the indices of the matching entries, ascending
+     * @throws CancellationException if the token is cancelled before the filter completes
+     */
+    static int[] filter(int totalEntries, BlockReader reader, Predicate<LogEntry> predicate,
+                        CancellationToken token, DoubleConsumer progress) {
+        int blockCount = (totalEntries + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        AtomicInteger tested = new AtomicInteger();
+        List<Future<int[]>> futures = new ArrayList<>(blockCount);
+        for (int block = 0; block < blockCount; block++) {
+            int from = block * BLOCK_SIZE;
+            int to = Math.min(totalEntries, from + BLOCK_SIZE);
+            futures.add(ParserExecutor.get().submit(() -> {
+                int[] matches = filterBlock(reader.read(from, to), from, predicate, token);
+                int done = tested.addAndGet(to - from);
+                if (progress != null) {
+                    progress.accept((double) done / totalEntries);
+                }
+                return matches;
+            }));
+        }
+
+        List<int[]> results = new ArrayList<>(blockCount);
+        int matches = 0;
+        try {
+            for (Future<int[]> future : futures) {
+                int[] result = future.get();
+                results.add(result);
+                matches += result.length;
+            }
+        } catch (InterruptedException e) {
+            token.cancel();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Filter interrupted");
+        } catch (ExecutionException e) {
+            token.cancel();
+            if (e.getCause() instanceof CancellationException cancelled) {
+                throw cancelled;
+            }
+            throw new IllegalStateException("Filter failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            if (token.isCancelled()) {
+                futures.forEach(future -> future.cancel(false));
+            }
+        }
+
+        int[] indices = new int[matches];
+        int position = 0;
+        for (int[] result : results) {
+            System.arraycopy(result, 0, indices, position, result.length);
+            position += result.length;
+        }
+        return indices;
+    }
+
+    private static int[] filterBlock(List<LogEntry> block, int base, Predicate<LogEntry> predicate,
+                                     CancellationToken token) {
+        int[] indices = new int[Math.min(block.size(), 1024)];
+        int count = 0;
+        for (int i = 0; i < block.size(); i++) {
+            if (i % CANCEL_CHECK_ENTRIES == 0) {
+                token.throwIfCancelled();
+            }
+            LogEntry entry = block.get(i);
+            if (predicate.test(entry)) {
+                if (count == indices.length) {
+                    indices = Arrays.copyOf(indices, Math.min(block.size(), indices.length * 2));
+                }
+                indices[count++] = base + i;
+            }
+        }
+        return Arrays.copyOf(indices, count);
+    }
+}
@@ -0,0 +1,64 @@
+package com.seeloggyplus.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The one worker pool shared by every parser in the application, so opening several files or
+ * dialogs never multiplies the number of parsing threads beyond the number of cores.
+ * <p>
+ * Work-stealing pool: chunks are much smaller than a thread's share of the file, so an idle
+ * worker keeps pulling ranges while another is stuck on huge lines. Workers are daemon threads;
+ * {@link #shutdown()} stops them when the application exits, and a later {@link #get()}
+ * starts a fresh pool.
+ */
+public final class ParserExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParserExecutor.class);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 2;
+
+    private static ForkJoinPool pool;
+
+    private ParserExecutor() {
+    }
+
+    public static synchronized ExecutorService get() {
+        if (pool == null || pool.isShutdown()) {
+            int threads = Runtime.getRuntime().availableProcessors();
+            pool = new ForkJoinPool(threads, ParserExecutor::newWorker, null, true);
+            logger.info("Started parser pool with {} threads", threads);
+        }
+        return pool;
+    }
+
+    /**
+     * Stops the workers, interrupting tasks that are still running.
+     */
+    public static synchronized void shutdown() {
+        if (pool == null) {
+            return;
+        }
+        pool.shutdownNow();
+        try {
+            if (!pool.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Parser pool did not stop within {} s", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool = null;
+        logger.info("Parser pool stopped");
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool forkJoinPool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+        thread.setName("log-parser-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,189 @@
+package com.seeloggyplus.service.impl;
+
+import com.seeloggyplus.model.ParsingConfig;
+import com.seeloggyplus.util.CancellationToken;
+import com.seeloggyplus.util.TimestampParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Guesses which saved parsing config fits a log file, so the selection dialog can preselect it
+ * instead of the user finding out after a full parse that the pick was wrong.
+ * <p>
+ * About a thousand lines are sampled from windows spread over the file (see
+ * {@link LogParserService#sampleLines}), so the cost does not depend on the file size. Every
+ * config is then matched against the sample on a small pool of its own, with the same code path
+ * the real parse uses (fast-path parser, regex budget, structured parsers). On the shared parser
+ * pool the scoring tasks would queue behind the chunks of a parse still running and use up the
+ * time budget before they start. A config scores
+ * {@code matchRate * fieldCoverage * specificity}:
+ * <ul>
+ *     <li>match rate - share of the non-blank sample lines it parses;</li>
+ *     <li>field coverage - share of its fields that are non-empty in the matched lines, a
+ *     timestamp that does not convert counting as empty;</li>
+ *     <li>specificity - {@code fields / (fields + 1)}, so a catch-all {@code (?<message>.*)}
+ *     does not beat a config that splits the same lines into timestamp, level and message.</li>
+ * </ul>
+ * Configs still running when the time budget runs out are cancelled and score 0.
+ */
+public class ParsingConfigDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParsingConfigDetector.class);
+    private static final long DETECT_TIMEOUT_MS = 500;
+    private static final int CANCEL_CHECK_LINES = 64;
+    private static final int DETECT_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final long IDLE_THREAD_SECONDS = 30;
+
+    private static final ExecutorService DETECT_POOL = newDetectPool();
+
+    private final LogParserService logParserService;
+
+    /**
+     * Score of one config against the sample, best first when sorted with {@link #BEST_FIRST}.
+     */
+    public record ConfigMatch(ParsingConfig config, double score, double matchRate, double fieldCoverage) {
+
+        public static final Comparator<ConfigMatch> BEST_FIRST = Comparator.comparingDouble(ConfigMatch::score)
+                .reversed();
+    }
+
+    public ParsingConfigDetector(LogParserService logParserService) {
+        this.logParserService = logParserService;
+    }
+
+    /**
+     * Scores every config against a sample of the file.
+     *
+     * @return one match per config, best first
+     */
+    public List<ConfigMatch> detect(File file, List<ParsingConfig> configs) throws IOException {
+        long startNanos = System.nanoTime();
+        List<String> sample = new ArrayList<>();
+        for (String line : logParserService.sampleLines(file)) {
+            if (!line.isBlank()) {
+                sample.add(line);
+            }
+        }
+
+        CancellationToken token = new CancellationToken();
+        List<Callable<ConfigMatch>> tasks = new ArrayList<>(configs.size());
+        for (ParsingConfig config : configs) {
+            tasks.add(() -> score(config, sample, token));
+        }
+
+        List<ConfigMatch> matches = new ArrayList<>(configs.size());
+        try {
+            List<Future<ConfigMatch>> futures = DETECT_POOL.invokeAll(tasks, DETECT_TIMEOUT_MS,
+                    TimeUnit.MILLISECONDS);
+            token.cancel();
+            for (int i = 0; i < futures.size(); i++) {
+                matches.add(resultOf(futures.get(i), configs.get(i)));
+            }
+        } catch (InterruptedException e) {
+            token.cancel();
+            Thread.currentThread().interrupt();
+            throw new IOException("Parsing config detection interrupted", e);
+        }
+
+        matches.sort(ConfigMatch.BEST_FIRST);
+        if (!matches.isEmpty()) {
+            ConfigMatch best = matches.get(0);
+            logger.info("Scored {} parsing configs on {} sample lines of {} in {} ms, best '{}' ({})", configs.size(),
+                    sample.size(), file.getName(), (System.nanoTime() - startNanos) / 1_000_000,
+                    best.config().getName(), String.format("%.3f", best.score()));
+        }
+        return matches;
+    }
+
+    /**
+     * Daemon threads that exit after a while idle, since detection only runs when a file is opened.
+     */
+    private static ExecutorService newDetectPool() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(DETECT_THREADS, DETECT_THREADS, IDLE_THREAD_SECONDS,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "config-detector-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private ConfigMatch resultOf(Future<ConfigMatch> future, ParsingConfig config) {
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            logger.warn("Parsing config '{}' took longer than {} ms to score, skipping it", config.getName(),
+                    DETECT_TIMEOUT_MS);
+        } catch (ExecutionException e) {
+            logger.warn("Failed to score parsing config '{}': {}", config.getName(), e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new ConfigMatch(config, 0, 0, 0);
+    }
+
+    private ConfigMatch score(ParsingConfig config, List<String> sample, CancellationToken token) {
+        if (config == null || !config.isValid() || sample.isEmpty()) {
+            return new ConfigMatch(config, 0, 0, 0);
+        }
+        // Structured configs usually leave their columns to discovery; score the columns they would get
+        ParsingConfig resolved = config.isStructured() ? logParserService.discoverColumns(sample, config) : config;
+        List<String> fields = resolved.getGroupNames();
+        int timestampField = fields.indexOf("timestamp");
+        TimestampParser timestampParser = timestampField >= 0 ? logParserService.timestampParser(resolved) : null;
+
+        int matched = 0;
+        double coverageSum = 0;
+        for (int i = 0; i < sample.size(); i++) {
+            if (i % CANCEL_CHECK_LINES == 0) {
+                token.throwIfCancelled();
+            }
+            String line = sample.get(i);
+            int[] bounds = logParserService.parseFieldBounds(line, i + 1, resolved);
+            if (bounds == null) {
+                continue;
+            }
+            matched++;
+            if (fields.isEmpty()) {
+                coverageSum += 1;
+                continue;
+            }
+            int covered = 0;
+            for (int field = 0; field < fields.size(); field++) {
+                int start = bounds[field * 2];
+                int end = bounds[field * 2 + 1];
+                if (start < 0 || end <= start) {
+                    continue;
+                }
+                if (field == timestampField
+                        && timestampParser.parse(line, start, end) == TimestampParser.NO_TIMESTAMP) {
+                    continue;
+                }
+                covered++;
+            }
+            coverageSum += (double) covered / fields.size();
+        }
+
+        double matchRate = (double) matched / sample.size();
+        double fieldCoverage = matched > 0 ? coverageSum / matched : 0;
+        double specificity = fields.isEmpty() ? 0.5 : (double) fields.size() / (fields.size() + 1);
+        return new ConfigMatch(config, matchRate * fieldCoverage * specificity, matchRate, fieldCoverage);
+    }
+}
@@ -0,0 +1,155 @@
+package com.seeloggyplus.service.impl;
+
+import com.seeloggyplus.model.LineIndex;
+import com.seeloggyplus.model.LogEntry;
+import com.seeloggyplus.service.LogEntrySource;
+import com.seeloggyplus.util.CancellationToken;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+import java.util.function.Predicate;
+
+/**
+ * LogEntrySource that grows while the file is still being parsed.
+ * The parser appends blocks in file order; readers always see a consistent prefix of the file.
+ */
+public class StreamingLogEntrySourceImpl implements LogEntrySource {
+
+    private final List<List<LogEntry>> blocks = new ArrayList<>();
+    private int[] blockStarts = new int[64];
+    private volatile int totalEntries;
+    private volatile boolean complete;
+    private volatile LineIndex lineIndex;
+    private volatile File file;
+
+    /**
+     * Publishes the next block of entries. Blocks must arrive in file order.
+     */
+    public synchronized void append(List<LogEntry> block) {
+        if (block.isEmpty()) {
+            return;
+        }
+        if (blocks.size() == blockStarts.length) {
+            blockStarts = Arrays.copyOf(blockStarts, blockStarts.length * 2);
+        }
+        blockStarts[blocks.size()] = totalEntries;
+        blocks.add(block);
+        totalEntries += block.size();
+    }
+
+    public void markComplete() {
+        complete = true;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Line offsets of the parsed file, kept so the file can be parsed again with another config
+     * without scanning it for line breaks. Null until the parse has completed.
+     */
+    public LineIndex getLineIndex() {
+        return complete ? lineIndex : null;
+    }
+
+    /**
+     * @param file the parsed file, which long entries read their full text back from
+     */
+    public void setLineIndex(File file, LineIndex lineIndex) {
+        this.file = file;
+        this.lineIndex = lineIndex;
+    }
+
+    @Override
+    public String loadFullText(LogEntry entry) throws IOException {
+        LineIndex lines = getLineIndex();
+        File source = file;
+        if (lines == null || source == null || entry.getEndLineNumber() == entry.getLineNumber()) {
+            return entry.getRawLog();
+        }
+        try (MappedLogFile mappedFile = MappedLogFile.open(source)) {
+            String text = LogParserService.readFullEntryText(mappedFile, lines, entry.getLineNumber(),
+                    entry.getEndLineNumber());
+            return text != null ? text : entry.getRawLog();
+        }
+    }
+
+    @Override
+    public void saveFullText(LogEntry entry, Path target) throws IOException {
+        LineIndex lines = getLineIndex();
+        File source = file;
+        if (lines == null || source == null) {
+            LogEntrySource.super.saveFullText(entry, target);
+            return;
+        }
+        try (MappedLogFile mappedFile = MappedLogFile.open(source)) {
+            if (!LogParserService.copyEntryBytes(mappedFile, lines, entry.getLineNumber(), entry.getEndLineNumber(),
+                    target)) {
+                LogEntrySource.super.saveFullText(entry, target);
+            }
+        }
+    }
+
+    @Override
+    public int getTotalEntries() {
+        return totalEntries;
+    }
+
+    @Override
+    public synchronized List<LogEntry> getEntries(int offset, int limit) {
+        int fromIndex = Math.max(0, Math.min(offset, totalEntries));
+        int toIndex = Math.min(offset + limit, totalEntries);
+        if (fromIndex >= toIndex) {
+            return List.of();
+        }
+
+        List<LogEntry> result = new ArrayList<>(toIndex - fromIndex);
+        int pos = Arrays.binarySearch(blockStarts, 0, blocks.size(), fromIndex);
+        int block = pos >= 0 ? pos : -pos - 2;
+        int index = fromIndex;
+        while (index < toIndex) {
+            List<LogEntry> entries = blocks.get(block);
+            int start = blockStarts[block];
+            int end = Math.min(toIndex, start + entries.size());
+            result.addAll(entries.subList(index - start, end - start));
+            index = end;
+            block++;
+        }
+        return result;
+    }
+
+    /**
+     * Filters the entries published so far; blocks appended later are not part of the result.
+     */
+    @Override
+    public LogEntrySource filter(Predicate<LogEntry> predicate) {
+        return filter(predicate, new CancellationToken(), null);
+    }
+
+    @Override
+    public LogEntrySource filter(Predicate<LogEntry> predicate, CancellationToken token, DoubleConsumer progress) {
+        return select(ParallelFilter.filter(totalEntries, this::readBlock, predicate, token, progress));
+    }
+
+    @Override
+    public LogEntrySource select(int[] rows) {
+        return new IndexViewLogEntrySourceImpl(this, this::readBlock, rows);
+    }
+
+    private List<LogEntry> readBlock(int from, int to) {
+        return getEntries(from, to - from);
+    }
+
+    /**
+     * Returns all entries published so far as one list.
+     */
+    public List<LogEntry> snapshot() {
+        return getEntries(0, totalEntries);
+    }
+}
@@ -0,0 +1,502 @@
+package com.seeloggyplus.service.impl;
+
+import com.seeloggyplus.model.LogEntry;
+import com.seeloggyplus.service.LogEntrySource;
+import com.seeloggyplus.util.CancellationToken;
+import com.seeloggyplus.util.SearchQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.DoubleConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index from the words of a source's raw lines to the rows that contain them, so a
+ * keyword search looks at the rows that can match instead of every row.
+ * <p>
+ * A word is a run of letters, digits and underscores of the lowercased text. Each word keeps its
+ * rows ascending, delta-encoded as variable-length integers, mostly one byte per row. The index
+ * stops growing once its estimated heap use reaches the budget; it then covers only the first
+ * {@link #getIndexedRows()} rows and every later row is a candidate.
+ * <p>
+ * {@link #candidates(SearchQuery, int)} gives a superset of the matching rows, never fewer: a
+ * search term matches inside words ({@code time} finds {@code timeout}), so each term selects
+ * every word that contains it, and the rows still need to be checked with the real predicate.
+ * Negations and unselective terms are answered with "all rows".
+ */
+public class TokenIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenIndex.class);
+    private static final int BLOCK_SIZE = 16 * 1024;
+    private static final int CANCEL_CHECK_ROWS = 256;
+    // Rough heap cost of a word besides its characters and rows: map node, string, postings object
+    private static final int WORD_OVERHEAD_BYTES = 112;
+    // A term whose words cover more rows than this share of the index is not worth looking up
+    private static final double MAX_CANDIDATE_RATIO = 0.5;
+
+    private final LogEntrySource source;
+    private final Map<String, Postings> words;
+    private final int indexedRows;
+    private final long memoryBytes;
+
+    private TokenIndex(LogEntrySource source, Map<String, Postings> words, int indexedRows, long memoryBytes) {
+        this.source = source;
+        this.words = words;
+        this.indexedRows = indexedRows;
+        this.memoryBytes = memoryBytes;
+    }
+
+    /**
+     * Indexes the source from its first row until the end or the memory budget. Blocks of rows
+     * are indexed in parallel on the parser pool and merged in row order on the calling thread.
+     * Rows are read the way a filter reads them, so a file-backed source does not push the file
+     * through the page cache of the window being viewed.
+     *
+     * @param progress receives the fraction of rows indexed so far; may be null
+     * @throws java.util.concurrent.CancellationException if the token was cancelled
+     */
+    public static TokenIndex build(LogEntrySource source, long memoryBudgetBytes, CancellationToken token,
+                                   DoubleConsumer progress) {
+        long startNanos = System.nanoTime();
+        int totalRows = source.getTotalEntries();
+        ParallelFilter.BlockReader reader = scanReader(source);
+        int maxPending = 2 * Runtime.getRuntime().availableProcessors();
+        Deque<Future<Map<String, Postings>>> pending = new ArrayDeque<>();
+        Map<String, Postings> words = new HashMap<>();
+        long memoryBytes = 0;
+        int indexedRows = 0;
+        int nextBlock = 0;
+        try {
+            while (indexedRows < totalRows && memoryBytes < memoryBudgetBytes) {
+                // Only a few blocks ahead of the merge, so a budget stop wastes little work
+                while (pending.size() < maxPending && nextBlock < totalRows) {
+                    int from = nextBlock;
+                    int to = Math.min(totalRows, from + BLOCK_SIZE);
+                    pending.add(ParserExecutor.get().submit(() -> indexBlock(reader.read(from, to), from, token)));
+                    nextBlock = to;
+                }
+                Map<String, Postings> block = await(pending.poll(), token);
+                memoryBytes += merge(words, block);
+                indexedRows = Math.min(totalRows, indexedRows + BLOCK_SIZE);
+                if (progress != null) {
+                    progress.accept((double) indexedRows / totalRows);
+                }
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(false));
+        }
+
+        long trimmedBytes = 0;
+        for (Map.Entry<String, Postings> word : words.entrySet()) {
+            word.getValue().trim();
+            trimmedBytes += WORD_OVERHEAD_BYTES + 2L * word.getKey().length() + word.getValue().data.length;
+        }
+        logger.info("Indexed {} words of {} of {} rows in {} ms, about {} KB", words.size(), indexedRows, totalRows,
+                (System.nanoTime() - startNanos) / 1_000_000, trimmedBytes / 1024);
+        return new TokenIndex(source, words, indexedRows, trimmedBytes);
+    }
+
+    /**
+     * Reads rows as the source's filter does; a file-backed source parses pages for the scan
+     * without caching them.
+     */
+    private static ParallelFilter.BlockReader scanReader(LogEntrySource source) {
+        if (source instanceof FileBackedLogEntrySourceImpl fileBacked) {
+            return fileBacked::scanEntries;
+        }
+        return (from, to) -> source.getEntries(from, to - from);
+    }
+
+    private static Map<String, Postings> indexBlock(List<LogEntry> entries, int base, CancellationToken token) {
+        Map<String, Postings> words = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (i % CANCEL_CHECK_ROWS == 0) {
+                token.throwIfCancelled();
+            }
+            addWords(words, entries.get(i).getRawLog(), base + i);
+        }
+        return words;
+    }
+
+    private static <T> T await(Future<T> future, CancellationToken token) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            token.cancel();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Indexing interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CancellationException cancelled) {
+                throw cancelled;
+            }
+            throw new IllegalStateException("Indexing failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Appends the postings of a block that follows every row indexed so far and returns the
+     * bytes the index grew by.
+     */
+    private static long merge(Map<String, Postings> words, Map<String, Postings> block) {
+        long grown = 0;
+        for (Map.Entry<String, Postings> word : block.entrySet()) {
+            Postings postings = words.get(word.getKey());
+            if (postings == null) {
+                word.getValue().trim();
+                words.put(word.getKey(), word.getValue());
+                grown += WORD_OVERHEAD_BYTES + 2L * word.getKey().length() + word.getValue().size;
+            } else {
+                grown += postings.append(word.getValue());
+            }
+        }
+        return grown;
+    }
+
+    /**
+     * Adds the words of one row.
+     */
+    private static void addWords(Map<String, Postings> words, String text, int row) {
+        if (text == null) {
+            return;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int length = lower.length();
+        int pos = 0;
+        while (pos < length) {
+            while (pos < length && !isWordChar(lower.charAt(pos))) {
+                pos++;
+            }
+            int start = pos;
+            while (pos < length && isWordChar(lower.charAt(pos))) {
+                pos++;
+            }
+            if (pos > start) {
+                words.computeIfAbsent(lower.substring(start, pos), word -> new Postings()).add(row);
+            }
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    public LogEntrySource getSource() {
+        return source;
+    }
+
+    public int getIndexedRows() {
+        return indexedRows;
+    }
+
+    public int getWordCount() {
+        return words.size();
+    }
+
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    /**
+     * Whether the whole source was indexed, rather than stopping at the memory budget.
+     */
+    public boolean isComplete() {
+        return indexedRows == source.getTotalEntries();
+    }
+
+    /**
+     * Rows of the source that may match the query, ascending; rows past the indexed ones are
+     * always included.
+     *
+     * @param totalRows rows of the source being searched
+     * @return the candidate rows, or null if the index cannot narrow the search
+     */
+    public int[] candidates(SearchQuery query, int totalRows) {
+        if (query.isMatchAll()) {
+            return null;
+        }
+        int[] rows = query.fold(new CandidateAlgebra());
+        if (rows == null) {
+            return null;
+        }
+        int unindexed = Math.max(0, totalRows - indexedRows);
+        if (unindexed == 0) {
+            return rows;
+        }
+        int[] all = Arrays.copyOf(rows, rows.length + unindexed);
+        for (int i = 0; i < unindexed; i++) {
+            all[rows.length + i] = indexedRows + i;
+        }
+        return all;
+    }
+
+    /**
+     * Row sets of the indexed rows; null stands for all of them.
+     */
+    private final class CandidateAlgebra implements SearchQuery.Algebra<int[]> {
+
+        @Override
+        public int[] term(String needle) {
+            List<String> parts = splitWords(needle.toLowerCase(Locale.ROOT));
+            if (parts.isEmpty()) {
+                return null;
+            }
+            // "ab cd" can only be in a row with a word ending in ab next to one starting with cd
+            int[] rows = null;
+            for (int i = 0; i < parts.size(); i++) {
+                String part = parts.get(i);
+                int[] partRows;
+                if (parts.size() == 1) {
+                    partRows = matching(word -> word.contains(part));
+                } else if (i == 0) {
+                    partRows = matching(word -> word.endsWith(part));
+                } else if (i == parts.size() - 1) {
+                    partRows = matching(word -> word.startsWith(part));
+                } else {
+                    partRows = exact(part);
+                }
+                if (partRows == null) {
+                    continue;
+                }
+                rows = rows == null ? partRows : intersect(rows, partRows);
+                if (rows.length == 0) {
+                    break;
+                }
+            }
+            return rows;
+        }
+
+        @Override
+        public int[] not(int[] operand) {
+            return null;
+        }
+
+        @Override
+        public int[] and(List<int[]> operands) {
+            int[] rows = null;
+            for (int[] operand : operands) {
+                if (operand != null) {
+                    rows = rows == null ? operand : intersect(rows, operand);
+                }
+            }
+            return rows;
+        }
+
+        @Override
+        public int[] or(List<int[]> operands) {
+            int[] rows = new int[0];
+            for (int[] operand : operands) {
+                if (operand == null) {
+                    return null;
+                }
+                rows = union(rows, operand);
+            }
+            return rows;
+        }
+
+        private int[] exact(String word) {
+            Postings postings = words.get(word);
+            return postings == null ? new int[0] : postings.decode();
+        }
+
+        private int[] matching(Predicate<String> matcher) {
+            List<Postings> matched = new ArrayList<>();
+            long rowCount = 0;
+            for (Map.Entry<String, Postings> word : words.entrySet()) {
+                if (matcher.test(word.getKey())) {
+                    matched.add(word.getValue());
+                    rowCount += word.getValue().count;
+                    if (rowCount > indexedRows * MAX_CANDIDATE_RATIO) {
+                        return null;
+                    }
+                }
+            }
+            // One sort instead of a merge per word: a term can match thousands of rare words
+            int[] rows = new int[(int) rowCount];
+            int size = 0;
+            for (Postings postings : matched) {
+                size = postings.decodeInto(rows, size);
+            }
+            Arrays.sort(rows);
+            return distinct(rows);
+        }
+    }
+
+    private static List<String> splitWords(String text) {
+        List<String> parts = new ArrayList<>();
+        int pos = 0;
+        while (pos < text.length()) {
+            while (pos < text.length() && !isWordChar(text.charAt(pos))) {
+                pos++;
+            }
+            int start = pos;
+            while (pos < text.length() && isWordChar(text.charAt(pos))) {
+                pos++;
+            }
+            if (pos > start) {
+                parts.add(text.substring(start, pos));
+            }
+        }
+        return parts;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int[] distinct(int[] sorted) {
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (n == 0 || sorted[i] != sorted[n - 1]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        int[] out = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < b.length) {
+            int next;
+            if (j >= b.length || (i < a.length && a[i] < b[j])) {
+                next = a[i++];
+            } else if (i >= a.length || b[j] < a[i]) {
+                next = b[j++];
+            } else {
+                next = a[i++];
+                j++;
+            }
+            out[n++] = next;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Ascending rows of one word as varint-encoded gaps.
+     */
+    private static final class Postings {
+        private byte[] data = new byte[4];
+        private int size;
+        private int count;
+        private int lastRow = -1;
+
+        /**
+         * Adds a row not below the last one.
+         */
+        void add(int row) {
+            if (row == lastRow) {
+                return;
+            }
+            ensureCapacity(5);
+            writeGap(row - lastRow);
+            lastRow = row;
+            count++;
+        }
+
+        /**
+         * Appends the rows of postings that all follow the last row of these, and returns the
+         * bytes of encoded rows added. Only the first gap changes; the rest is copied as is.
+         */
+        int append(Postings other) {
+            int sizeBefore = size;
+            int pos = 0;
+            int firstGap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = other.data[pos++];
+                firstGap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            ensureCapacity(5 + other.size - pos);
+            // The other postings count their first gap from row -1
+            writeGap(firstGap - 1 - lastRow);
+            System.arraycopy(other.data, pos, data, size, other.size - pos);
+            size += other.size - pos;
+            count += other.count;
+            lastRow = other.lastRow;
+            return size - sizeBefore;
+        }
+
+        private void ensureCapacity(int bytes) {
+            if (data.length - size < bytes) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + bytes));
+            }
+        }
+
+        private void writeGap(int gap) {
+            while ((gap & ~0x7F) != 0) {
+                data[size++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            data[size++] = (byte) gap;
+        }
+
+        void trim() {
+            if (data.length != size) {
+                data = Arrays.copyOf(data, size);
+            }
+        }
+
+        int[] decode() {
+            int[] rows = new int[count];
+            decodeInto(rows, 0);
+            return rows;
+        }
+
+        /**
+         * Writes the rows to {@code rows} from {@code offset} and returns the offset after them.
+         */
+        int decodeInto(int[] rows, int offset) {
+            int row = -1;
+            int pos = 0;
+            for (int i = 0; i < count; i++) {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[pos++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                row += gap;
+                rows[offset + i] = row;
+            }
+            return offset + count;
+        }
+    }
+}
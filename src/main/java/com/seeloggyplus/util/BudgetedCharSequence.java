@@ -0,0 +1,58 @@
+package com.seeloggyplus.util;
+
+import com.seeloggyplus.exceptions.RegexBudgetExceededException;
+
+/**
+ * CharSequence over a String that aborts a regex match after a fixed number of character reads.
+ * {@code java.util.regex} reads its input only through {@link #charAt(int)}, so the count is a
+ * machine-independent measure of the work a match does, and throwing from it is the only way to
+ * stop a match that backtracks out of control.
+ */
+public final class BudgetedCharSequence implements CharSequence {
+
+    private final String text;
+    private final long budget;
+    private long reads;
+
+    /**
+     * @param budget maximum number of {@link #charAt(int)} calls before
+     *               {@link RegexBudgetExceededException} is thrown
+     */
+    public BudgetedCharSequence(String text, long budget) {
+        this.text = text;
+        this.budget = budget;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (++reads > budget) {
+            throw new RegexBudgetExceededException("Regex read more than " + budget + " characters");
+        }
+        return text.charAt(index);
+    }
+
+    @Override
+    public int length() {
+        return text.length();
+    }
+
+    /**
+     * Group text is copied from the underlying String and does not count against the budget.
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return text.subSequence(start, end);
+    }
+
+    /**
+     * Number of characters read so far.
+     */
+    public long getReads() {
+        return reads;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
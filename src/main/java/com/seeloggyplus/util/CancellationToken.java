@@ -0,0 +1,32 @@
+package com.seeloggyplus.util;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Cooperative cancellation flag shared by the tasks of one operation.
+ * <p>
+ * Interrupting a worker thread is not enough to stop a parse: pool threads are not owned by
+ * the operation, and most of the work never blocks. Workers instead poll the token at safe
+ * points (every few hundred lines) and give up with a {@link CancellationException}.
+ */
+public final class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @throws CancellationException if the operation was cancelled
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Operation cancelled");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.seeloggyplus.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Picks the table columns of a structured log from the keys seen in a sample of its lines.
+ * <p>
+ * Well-known keys are mapped to the column names the rest of the viewer relies on
+ * ({@code timestamp}, {@code level}, {@code thread}, {@code logger}, {@code message}), so level
+ * badges, level filters and date filters work without configuration. Those columns come first,
+ * the other keys follow in the order they were first seen, and {@code message} is always last.
+ */
+public final class ColumnDiscovery {
+
+    public static final int MAX_COLUMNS = 16;
+
+    private static final Map<String, List<String>> ALIASES = new LinkedHashMap<>();
+
+    static {
+        ALIASES.put("timestamp", List.of("timestamp", "@timestamp", "time", "ts", "datetime", "date"));
+        ALIASES.put("level", List.of("level", "lvl", "severity", "loglevel", "log.level", "levelname"));
+        ALIASES.put("thread", List.of("thread", "thread_name", "threadname", "process.thread.name"));
+        ALIASES.put("logger", List.of("logger", "logger_name", "loggername", "log.logger", "name"));
+        ALIASES.put("message", List.of("message", "msg", "@message", "log"));
+    }
+
+    private final Map<String, Integer> keyCounts = new LinkedHashMap<>();
+    private int lineCount;
+
+    /**
+     * Discovered columns: the names shown in the table and the key each is read from.
+     */
+    public record Columns(List<String> names, List<String> keys) {
+    }
+
+    /**
+     * Records the keys of one sampled line.
+     */
+    public void addLine(List<String> keys) {
+        lineCount++;
+        for (String key : keys) {
+            keyCounts.merge(key, 1, Integer::sum);
+        }
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public Columns result() {
+        List<String> names = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        List<String> remaining = new ArrayList<>(keyCounts.keySet());
+
+        String messageKey = null;
+        for (Map.Entry<String, List<String>> alias : ALIASES.entrySet()) {
+            String key = findAlias(remaining, alias.getValue());
+            if (key == null) {
+                continue;
+            }
+            remaining.remove(key);
+            if ("message".equals(alias.getKey())) {
+                messageKey = key;
+            } else {
+                names.add(alias.getKey());
+                keys.add(key);
+            }
+        }
+
+        int limit = MAX_COLUMNS - (messageKey != null ? 1 : 0);
+        for (String key : remaining) {
+            if (names.size() >= limit) {
+                break;
+            }
+            names.add(key);
+            keys.add(key);
+        }
+        if (messageKey != null) {
+            names.add("message");
+            keys.add(messageKey);
+        }
+        return new Columns(names, keys);
+    }
+
+    /**
+     * First alias, in alias order, that is among the keys (ignoring case).
+     */
+    private static String findAlias(List<String> keys, List<String> aliases) {
+        for (String alias : aliases) {
+            for (String key : keys) {
+                if (key.toLowerCase(Locale.ROOT).equals(alias)) {
+                    return key;
+                }
+            }
+        }
+        return null;
+    }
+}
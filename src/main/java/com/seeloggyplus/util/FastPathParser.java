@@ -0,0 +1,501 @@
+package com.seeloggyplus.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Single-pass, regex-free matcher for the common shape of parsing patterns: a sequence of
+ * literal separators and simple character classes ({@code \d \w \s \S .} and {@code [...]})
+ * with greedy quantifiers, some of them wrapped in named groups, e.g. a log4j/logback layout
+ * {@code (?<timestamp>\d{4}-\d{2}-\d{2} \S+) \[(?<thread>[^\]]+)\] (?<level>\w+) (?<message>.*)}.
+ * <p>
+ * {@link #compile} only accepts patterns whose greedy quantifiers can never give characters
+ * back, i.e. every variable-length element is followed by something that cannot start with a
+ * character it consumes. For those patterns a greedy scan yields exactly the groups
+ * {@code Matcher.find()} would, without backtracking or Matcher allocation. Anything else
+ * (alternation, lookaround, backreferences, flags, nested or unnamed groups, ambiguous
+ * quantifiers) is rejected and stays with {@code java.util.regex}.
+ */
+public final class FastPathParser {
+
+    /**
+     * Returned by {@link #parse} for the rare line the fast path cannot decide on its own;
+     * the caller should match it with the regex instead.
+     */
+    public static final int[] FALLBACK = new int[0];
+
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private final Element[] elements;
+    private final boolean anchoredStart;
+    private final boolean anchoredEnd;
+    private final int[] groupFirstElement;
+    private final int[] groupEndElement;
+
+    private FastPathParser(Element[] elements, boolean anchoredStart, boolean anchoredEnd,
+                           int[] groupFirstElement, int[] groupEndElement) {
+        this.elements = elements;
+        this.anchoredStart = anchoredStart;
+        this.anchoredEnd = anchoredEnd;
+        this.groupFirstElement = groupFirstElement;
+        this.groupEndElement = groupEndElement;
+    }
+
+    /**
+     * Compiles the pattern if it fits the fast path.
+     *
+     * @param groupNames the named groups to report, in the order {@link #parse} returns them
+     * @return the parser, or null if the pattern needs the regex engine
+     */
+    public static FastPathParser compile(String regex, List<String> groupNames) {
+        if (regex == null || regex.isEmpty() || groupNames == null) {
+            return null;
+        }
+        return new PatternReader(regex, groupNames).read();
+    }
+
+    /**
+     * Matches the line like {@code Matcher.find()} would.
+     *
+     * @return {@code start, end} offsets for each group name, null if the line does not match,
+     * or {@link #FALLBACK}
+     */
+    public int[] parse(String line) {
+        int[] positions = new int[elements.length + 1];
+        int lastStart = anchoredStart ? 0 : line.length();
+        for (int start = 0; start <= lastStart; start++) {
+            int result = matchAt(line, start, positions);
+            if (result > 0) {
+                int[] bounds = new int[groupFirstElement.length * 2];
+                for (int g = 0; g < groupFirstElement.length; g++) {
+                    bounds[g * 2] = positions[groupFirstElement[g]];
+                    bounds[g * 2 + 1] = positions[groupEndElement[g]];
+                }
+                return bounds;
+            }
+            if (result < 0) {
+                return FALLBACK;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 1 on a match, 0 if there is none at this start, -1 if the regex has to decide
+     */
+    private int matchAt(String line, int start, int[] positions) {
+        int length = line.length();
+        int pos = start;
+        for (int i = 0; i < elements.length; i++) {
+            positions[i] = pos;
+            Element element = elements[i];
+            int count = 0;
+            while (count < element.max && pos < length) {
+                char c = line.charAt(pos);
+                if (!element.charClass.matches(c)) {
+                    break;
+                }
+                if (element.countsCodePoints && Character.isSurrogate(c)) {
+                    // The regex counts a surrogate pair as one character
+                    return -1;
+                }
+                pos++;
+                count++;
+            }
+            if (count < element.min) {
+                return 0;
+            }
+        }
+        positions[elements.length] = pos;
+        if (anchoredEnd && pos != length) {
+            // '$' also matches before a final line terminator
+            return length - pos <= 2 ? -1 : 0;
+        }
+        return 1;
+    }
+
+    private record Element(CharClass charClass, int min, int max, boolean countsCodePoints) {
+    }
+
+    /**
+     * Character set as a 128-bit ASCII mask plus a coarse rule for everything above ASCII.
+     */
+    private static final class CharClass {
+        private static final int NON_ASCII_NONE = 0;
+        private static final int NON_ASCII_ALL = 1;
+        private static final int NON_ASCII_DOT = 2;
+        private static final int NON_ASCII_LITERAL = 3;
+
+        private long low;
+        private long high;
+        private int nonAscii;
+        private char literal;
+
+        private static CharClass of(char c) {
+            CharClass charClass = new CharClass();
+            if (c < 128) {
+                charClass.add(c);
+            } else {
+                charClass.nonAscii = NON_ASCII_LITERAL;
+                charClass.literal = c;
+            }
+            return charClass;
+        }
+
+        private static CharClass range(char from, char to) {
+            CharClass charClass = new CharClass();
+            for (char c = from; c <= to; c++) {
+                charClass.add(c);
+            }
+            return charClass;
+        }
+
+        private static CharClass dot() {
+            CharClass charClass = range((char) 0, (char) 127);
+            charClass.remove('\n');
+            charClass.remove('\r');
+            charClass.nonAscii = NON_ASCII_DOT;
+            return charClass;
+        }
+
+        /**
+         * Predefined classes as Java defines them without UNICODE_CHARACTER_CLASS.
+         */
+        private static CharClass predefined(char name) {
+            CharClass charClass = switch (Character.toLowerCase(name)) {
+                case 'd' -> range('0', '9');
+                case 'w' -> range('a', 'z').union(range('A', 'Z')).union(range('0', '9')).union(of('_'));
+                case 's' -> of(' ').union(of('\t')).union(of('\n')).union(of('\u000B')).union(of('\f')).union(of('\r'));
+                default -> null;
+            };
+            return charClass != null && Character.isUpperCase(name) ? charClass.negate() : charClass;
+        }
+
+        private void add(char c) {
+            if (c < 64) {
+                low |= 1L << c;
+            } else {
+                high |= 1L << (c - 64);
+            }
+        }
+
+        private void remove(char c) {
+            if (c < 64) {
+                low &= ~(1L << c);
+            } else {
+                high &= ~(1L << (c - 64));
+            }
+        }
+
+        private CharClass union(CharClass other) {
+            CharClass result = new CharClass();
+            result.low = low | other.low;
+            result.high = high | other.high;
+            result.nonAscii = Math.max(nonAscii, other.nonAscii) == NON_ASCII_NONE ? NON_ASCII_NONE : NON_ASCII_ALL;
+            return result;
+        }
+
+        private CharClass negate() {
+            CharClass result = new CharClass();
+            result.low = ~low;
+            result.high = ~high;
+            result.nonAscii = nonAscii == NON_ASCII_NONE ? NON_ASCII_ALL : NON_ASCII_NONE;
+            return result;
+        }
+
+        private boolean matches(char c) {
+            if (c < 64) {
+                return (low & (1L << c)) != 0;
+            }
+            if (c < 128) {
+                return (high & (1L << (c - 64))) != 0;
+            }
+            return switch (nonAscii) {
+                case NON_ASCII_ALL -> true;
+                case NON_ASCII_DOT -> c != 0x85 && c != 0x2028 && c != 0x2029;
+                case NON_ASCII_LITERAL -> c == literal;
+                default -> false;
+            };
+        }
+
+        /**
+         * Conservative: two classes that both accept some non-ASCII character count as overlapping.
+         */
+        private boolean overlaps(CharClass other) {
+            return (low & other.low) != 0 || (high & other.high) != 0
+                    || (nonAscii != NON_ASCII_NONE && other.nonAscii != NON_ASCII_NONE);
+        }
+
+        private boolean acceptsNonAscii() {
+            return nonAscii != NON_ASCII_NONE;
+        }
+    }
+
+    /**
+     * Reads a pattern into elements, giving up (returning null) on the first unsupported construct.
+     */
+    private static final class PatternReader {
+        private final String regex;
+        private final List<String> groupNames;
+        private final List<Element> elements = new ArrayList<>();
+        private final int[] groupFirstElement;
+        private final int[] groupEndElement;
+        private int pos;
+
+        private PatternReader(String regex, List<String> groupNames) {
+            this.regex = regex;
+            this.groupNames = groupNames;
+            this.groupFirstElement = new int[groupNames.size()];
+            this.groupEndElement = new int[groupNames.size()];
+            Arrays.fill(groupFirstElement, -1);
+        }
+
+        private FastPathParser read() {
+            boolean anchoredStart = regex.charAt(0) == '^';
+            boolean anchoredEnd = false;
+            pos = anchoredStart ? 1 : 0;
+            int openGroup = -1;
+
+            while (pos < regex.length()) {
+                char c = regex.charAt(pos);
+                if (c == '(') {
+                    if (openGroup >= 0 || (openGroup = readGroupStart()) < 0) {
+                        return null;
+                    }
+                    groupFirstElement[openGroup] = elements.size();
+                } else if (c == ')') {
+                    if (openGroup < 0 || isQuantifier(pos + 1)) {
+                        return null;
+                    }
+                    groupEndElement[openGroup] = elements.size();
+                    openGroup = -1;
+                    pos++;
+                } else if (c == '$' && pos == regex.length() - 1) {
+                    anchoredEnd = true;
+                    pos++;
+                } else if (!readElement()) {
+                    return null;
+                }
+            }
+
+            if (openGroup >= 0) {
+                return null;
+            }
+            for (int first : groupFirstElement) {
+                if (first < 0) {
+                    return null;
+                }
+            }
+            if (!isDeterministic(anchoredEnd)) {
+                return null;
+            }
+            return new FastPathParser(elements.toArray(new Element[0]), anchoredStart, anchoredEnd,
+                    groupFirstElement, groupEndElement);
+        }
+
+        /**
+         * Reads {@code (?<name>}.
+         *
+         * @return the index of the name in the reported group names, or -1
+         */
+        private int readGroupStart() {
+            if (!regex.startsWith("(?<", pos)) {
+                return -1;
+            }
+            int close = regex.indexOf('>', pos + 3);
+            if (close < 0) {
+                return -1;
+            }
+            String name = regex.substring(pos + 3, close);
+            if (name.isEmpty() || !Character.isLetter(name.charAt(0)) || !name.chars().allMatch(Character::isLetterOrDigit)) {
+                return -1;
+            }
+            pos = close + 1;
+            return groupNames.indexOf(name);
+        }
+
+        private boolean readElement() {
+            CharClass charClass = readAtom();
+            if (charClass == null) {
+                return false;
+            }
+            int min = 1;
+            int max = 1;
+            if (pos < regex.length()) {
+                char q = regex.charAt(pos);
+                if (q == '*' || q == '+' || q == '?') {
+                    min = q == '+' ? 1 : 0;
+                    max = q == '?' ? 1 : UNBOUNDED;
+                    pos++;
+                } else if (q == '{') {
+                    int close = regex.indexOf('}', pos);
+                    if (close < 0) {
+                        return false;
+                    }
+                    String[] counts = regex.substring(pos + 1, close).split(",", -1);
+                    try {
+                        min = Integer.parseInt(counts[0]);
+                        max = counts.length == 1 ? min : counts[1].isEmpty() ? UNBOUNDED : Integer.parseInt(counts[1]);
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                    if (counts.length > 2 || min > max) {
+                        return false;
+                    }
+                    pos = close + 1;
+                }
+                // Lazy and possessive quantifiers are left to the regex
+                if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')
+                        && !(min == 1 && max == 1)) {
+                    return false;
+                }
+            }
+            boolean countsCodePoints = charClass.acceptsNonAscii() && (max != UNBOUNDED || min > 1);
+            elements.add(new Element(charClass, min, max, countsCodePoints));
+            return true;
+        }
+
+        private CharClass readAtom() {
+            char c = regex.charAt(pos);
+            switch (c) {
+                case '\\':
+                    return readEscape(false);
+                case '[':
+                    return readClass();
+                case '.':
+                    pos++;
+                    return CharClass.dot();
+                case '*', '+', '?', '{', '}', '|', '^', '$', ']':
+                    return null;
+                default:
+                    pos++;
+                    return CharClass.of(c);
+            }
+        }
+
+        private CharClass readEscape(boolean inClass) {
+            if (pos + 1 >= regex.length()) {
+                return null;
+            }
+            char c = regex.charAt(pos + 1);
+            pos += 2;
+            CharClass predefined = CharClass.predefined(c);
+            if (predefined != null) {
+                return predefined;
+            }
+            return switch (c) {
+                case 't' -> CharClass.of('\t');
+                case 'n' -> CharClass.of('\n');
+                case 'r' -> CharClass.of('\r');
+                case 'f' -> CharClass.of('\f');
+                default -> Character.isLetterOrDigit(c) || (inClass && c >= 128) ? null : CharClass.of(c);
+            };
+        }
+
+        private CharClass readClass() {
+            pos++;
+            boolean negated = pos < regex.length() && regex.charAt(pos) == '^';
+            if (negated) {
+                pos++;
+            }
+            CharClass result = new CharClass();
+            boolean empty = true;
+            while (pos < regex.length() && (regex.charAt(pos) != ']' || empty)) {
+                char c = regex.charAt(pos);
+                if (c == '[' || c == ']' || regex.startsWith("&&", pos)) {
+                    return null;
+                }
+                CharClass item;
+                if (c == '\\') {
+                    boolean predefined = pos + 1 < regex.length() && CharClass.predefined(regex.charAt(pos + 1)) != null;
+                    item = readEscape(true);
+                    if (item == null) {
+                        return null;
+                    }
+                    if (!predefined && item.acceptsNonAscii()) {
+                        return null;
+                    }
+                    if (!predefined) {
+                        item = readRange(singleChar(item), item);
+                    }
+                } else {
+                    if (c >= 128) {
+                        return null;
+                    }
+                    pos++;
+                    item = readRange(c, CharClass.of(c));
+                }
+                if (item == null) {
+                    return null;
+                }
+                result = result.union(item);
+                empty = false;
+            }
+            if (pos >= regex.length()) {
+                return null;
+            }
+            pos++;
+            return negated ? result.negate() : result;
+        }
+
+        /**
+         * Extends a single class character to a range when followed by {@code -x}.
+         */
+        private CharClass readRange(char from, CharClass single) {
+            if (pos + 1 >= regex.length() || regex.charAt(pos) != '-' || regex.charAt(pos + 1) == ']') {
+                return single;
+            }
+            char to = regex.charAt(pos + 1);
+            if (to == '\\' || to == '[' || to >= 128 || to < from) {
+                return null;
+            }
+            pos += 2;
+            return CharClass.range(from, to);
+        }
+
+        private static char singleChar(CharClass charClass) {
+            for (char c = 0; c < 128; c++) {
+                if (charClass.matches(c)) {
+                    return c;
+                }
+            }
+            return 0;
+        }
+
+        private boolean isQuantifier(int index) {
+            if (index >= regex.length()) {
+                return false;
+            }
+            char c = regex.charAt(index);
+            return c == '*' || c == '+' || c == '?' || c == '{';
+        }
+
+        /**
+         * A greedy element never has to give characters back if nothing that can follow it
+         * starts with a character it accepts, or if whatever follows matches any text anyway
+         * (only optional elements, ending in {@code .*} when anchored at the end).
+         */
+        private boolean isDeterministic(boolean anchoredEnd) {
+            Element last = elements.isEmpty() ? null : elements.get(elements.size() - 1);
+            boolean acceptsAnyTail = !anchoredEnd
+                    || (last != null && last.max() == UNBOUNDED && last.charClass().nonAscii == CharClass.NON_ASCII_DOT);
+            for (int i = elements.size() - 1; i >= 0; i--) {
+                Element element = elements.get(i);
+                if (element.min() != element.max() && !acceptsAnyTail) {
+                    for (int j = i + 1; j < elements.size(); j++) {
+                        Element next = elements.get(j);
+                        if (element.charClass().overlaps(next.charClass())) {
+                            return false;
+                        }
+                        if (next.min() > 0) {
+                            break;
+                        }
+                    }
+                }
+                acceptsAnyTail &= element.min() == 0;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.seeloggyplus.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the top-level keys of a line holding one JSON object, with Jackson's streaming parser
+ * and no tree building.
+ * <p>
+ * Only the keys shown as columns are looked at: other values are skipped without being
+ * decoded. Like the regex path, {@link #parse} reports each column as {@code start, end}
+ * offsets into the line, so values are not copied while parsing. A string value is reported
+ * without its quotes and still escaped; {@link #decode} turns it into the displayed text when
+ * it is read. Objects and arrays are reported as their raw JSON.
+ */
+public final class JsonLinesParser {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final int columnCount;
+
+    /**
+     * @param keys the keys to extract, in column order
+     */
+    public JsonLinesParser(List<String> keys) {
+        for (int i = 0; i < keys.size(); i++) {
+            columns.putIfAbsent(keys.get(i), i);
+        }
+        this.columnCount = keys.size();
+    }
+
+    /**
+     * @return {@code start, end} offsets for each column (-1 for a missing or null key),
+     * or null if the line is not a JSON object
+     */
+    public int[] parse(String line) {
+        if (!startsWithObject(line)) {
+            return null;
+        }
+        int[] bounds = new int[columnCount * 2];
+        Arrays.fill(bounds, -1);
+        try (JsonParser parser = FACTORY.createParser(line)) {
+            parser.nextToken();
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                Integer column = columns.get(parser.currentName());
+                JsonToken value = parser.nextToken();
+                if (column == null) {
+                    parser.skipChildren();
+                } else {
+                    valueBounds(parser, value, bounds, column);
+                }
+            }
+            return token == JsonToken.END_OBJECT ? bounds : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The top-level keys of a line, for column discovery.
+     *
+     * @return the keys in line order, or null if the line is not a JSON object
+     */
+    public static List<String> keys(String line) {
+        if (!startsWithObject(line)) {
+            return null;
+        }
+        List<String> keys = new ArrayList<>();
+        try (JsonParser parser = FACTORY.createParser(line)) {
+            parser.nextToken();
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                keys.add(parser.currentName());
+                parser.nextToken();
+                parser.skipChildren();
+            }
+            return token == JsonToken.END_OBJECT ? keys : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Unescapes a value reported by {@link #parse}. Raw objects and arrays are returned as they
+     * are: unlike string contents, they contain quotes that are not escaped.
+     */
+    public static String decode(String value) {
+        if (value == null || value.indexOf('\\') < 0 || hasUnescapedQuote(value)) {
+            return value;
+        }
+        StringBuilder decoded = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 >= value.length()) {
+                decoded.append(c);
+                continue;
+            }
+            char escaped = value.charAt(++i);
+            switch (escaped) {
+                case 'n' -> decoded.append('\n');
+                case 't' -> decoded.append('\t');
+                case 'r' -> decoded.append('\r');
+                case 'b' -> decoded.append('\b');
+                case 'f' -> decoded.append('\f');
+                case 'u' -> {
+                    if (i + 4 < value.length()) {
+                        try {
+                            decoded.append((char) Integer.parseInt(value.substring(i + 1, i + 5), 16));
+                            i += 4;
+                            break;
+                        } catch (NumberFormatException e) {
+                            // keep the sequence as it is
+                        }
+                    }
+                    decoded.append('\\').append('u');
+                }
+                default -> decoded.append(escaped);
+            }
+        }
+        return decoded.toString();
+    }
+
+    private static void valueBounds(JsonParser parser, JsonToken value, int[] bounds, int column)
+            throws IOException {
+        int start = (int) parser.currentTokenLocation().getCharOffset();
+        int end;
+        switch (value) {
+            case START_OBJECT, START_ARRAY -> {
+                parser.skipChildren();
+                end = (int) parser.currentLocation().getCharOffset();
+            }
+            case VALUE_STRING -> {
+                // Finishing the token moves the location past the closing quote
+                parser.getTextCharacters();
+                start++;
+                end = (int) parser.currentLocation().getCharOffset() - 1;
+            }
+            case VALUE_NULL -> {
+                return;
+            }
+            default -> end = start + parser.getTextLength();
+        }
+        bounds[column * 2] = start;
+        bounds[column * 2 + 1] = end;
+    }
+
+    private static boolean startsWithObject(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '{') {
+                return true;
+            }
+            if (!Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasUnescapedQuote(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
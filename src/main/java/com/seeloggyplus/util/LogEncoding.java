@@ -0,0 +1,204 @@
+package com.seeloggyplus.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Text encoding of a log file, detected once when the file is opened.
+ * <p>
+ * A byte order mark decides outright. Without one, UTF-16 is recognized by its NUL bytes, which
+ * ASCII-range text puts on every other byte (odd offsets for little endian, even ones for big
+ * endian). Anything else that is valid UTF-8 (plain ASCII included) is UTF-8, and text that is
+ * not is taken as Windows-1252, the usual encoding of logs written by Windows services.
+ * A start that is plain ASCII (a startup banner) says nothing about the rest, so before settling
+ * on UTF-8 windows spread over the whole file are checked too, as column sampling does.
+ * <p>
+ * Scanners only need {@link #unitSize()} and {@link #isBigEndian()}: in all of these encodings
+ * a line feed is the code unit {@code 0x0A}, so lines are found without decoding, and only the
+ * lines that are kept are decoded with {@link #charset()}.
+ */
+public final class LogEncoding {
+
+    public static final LogEncoding UTF_8 = new LogEncoding(StandardCharsets.UTF_8, 0);
+
+    /**
+     * Bytes read from the start of a file to detect its encoding.
+     */
+    public static final int SAMPLE_BYTES = 64 * 1024;
+
+    // Further windows checked for invalid UTF-8 past the start, about 1 MB in all
+    private static final int SAMPLE_WINDOWS = 32;
+    private static final int WINDOW_BYTES = 32 * 1024;
+
+    // Share of the sampled code units that must have a NUL high byte to call a file UTF-16
+    private static final double UTF16_NUL_RATIO = 0.3;
+
+    private static final Charset WINDOWS_1252 = Charset.isSupported("windows-1252")
+            ? Charset.forName("windows-1252") : StandardCharsets.ISO_8859_1;
+
+    private final Charset charset;
+    private final int bomLength;
+
+    private LogEncoding(Charset charset, int bomLength) {
+        this.charset = charset;
+        this.bomLength = bomLength;
+    }
+
+    public Charset charset() {
+        return charset;
+    }
+
+    /**
+     * Length of the byte order mark the file starts with, 0 if it has none.
+     */
+    public int bomLength() {
+        return bomLength;
+    }
+
+    /**
+     * Bytes per code unit: 2 for UTF-16, 1 otherwise.
+     */
+    public int unitSize() {
+        return isUtf16() ? 2 : 1;
+    }
+
+    public boolean isBigEndian() {
+        return charset.equals(StandardCharsets.UTF_16BE);
+    }
+
+    private boolean isUtf16() {
+        return charset.equals(StandardCharsets.UTF_16LE) || charset.equals(StandardCharsets.UTF_16BE);
+    }
+
+    /**
+     * Reads {@code length} bytes of a file starting at {@code position}.
+     */
+    @FunctionalInterface
+    public interface ByteRangeReader {
+        void read(long position, byte[] dst, int length) throws IOException;
+    }
+
+    public static LogEncoding detect(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            return detect((position, dst, length) -> {
+                raf.seek(position);
+                raf.readFully(dst, 0, length);
+            }, raf.length());
+        }
+    }
+
+    /**
+     * Detects the encoding of a file of {@code size} bytes from its start and, if that looks like
+     * UTF-8 without a byte order mark, from windows spread over the rest: a single window that
+     * is not valid UTF-8 makes it Windows-1252.
+     */
+    public static LogEncoding detect(ByteRangeReader reader, long size) throws IOException {
+        byte[] head = new byte[(int) Math.min(size, SAMPLE_BYTES)];
+        reader.read(0, head, head.length);
+        LogEncoding encoding = detect(head, head.length);
+        if (encoding != UTF_8 || size <= SAMPLE_BYTES) {
+            return encoding;
+        }
+
+        long rest = size - SAMPLE_BYTES;
+        int windows = (int) Math.min(SAMPLE_WINDOWS, (rest + WINDOW_BYTES - 1) / WINDOW_BYTES);
+        byte[] window = new byte[(int) Math.min(WINDOW_BYTES, rest)];
+        for (int i = 0; i < windows; i++) {
+            long start = windows == 1 ? SAMPLE_BYTES
+                    : SAMPLE_BYTES + (rest - window.length) * i / (windows - 1);
+            reader.read(start, window, window.length);
+            if (!isUtf8(window, continuationBytes(window), window.length)) {
+                return new LogEncoding(WINDOWS_1252, 0);
+            }
+        }
+        return encoding;
+    }
+
+    /**
+     * Number of UTF-8 continuation bytes a window starts with, i.e. the tail of a sequence
+     * begun before it; at most 3, since longer runs cannot be UTF-8 at all.
+     */
+    private static int continuationBytes(byte[] window) {
+        int skip = 0;
+        while (skip < 3 && skip < window.length && (window[skip] & 0xC0) == 0x80) {
+            skip++;
+        }
+        return skip;
+    }
+
+    /**
+     * Detects the encoding of a file from its first {@code length} bytes.
+     */
+    public static LogEncoding detect(byte[] sample, int length) {
+        if (length >= 3 && (sample[0] & 0xFF) == 0xEF && (sample[1] & 0xFF) == 0xBB && (sample[2] & 0xFF) == 0xBF) {
+            return new LogEncoding(StandardCharsets.UTF_8, 3);
+        }
+        if (length >= 2 && (sample[0] & 0xFF) == 0xFF && (sample[1] & 0xFF) == 0xFE) {
+            return new LogEncoding(StandardCharsets.UTF_16LE, 2);
+        }
+        if (length >= 2 && (sample[0] & 0xFF) == 0xFE && (sample[1] & 0xFF) == 0xFF) {
+            return new LogEncoding(StandardCharsets.UTF_16BE, 2);
+        }
+
+        int units = length / 2;
+        if (units > 0) {
+            int evenNuls = 0;
+            int oddNuls = 0;
+            for (int i = 0; i + 1 < length; i += 2) {
+                if (sample[i] == 0) {
+                    evenNuls++;
+                }
+                if (sample[i + 1] == 0) {
+                    oddNuls++;
+                }
+            }
+            if (oddNuls >= units * UTF16_NUL_RATIO && evenNuls < units * UTF16_NUL_RATIO / 10) {
+                return new LogEncoding(StandardCharsets.UTF_16LE, 0);
+            }
+            if (evenNuls >= units * UTF16_NUL_RATIO && oddNuls < units * UTF16_NUL_RATIO / 10) {
+                return new LogEncoding(StandardCharsets.UTF_16BE, 0);
+            }
+        }
+
+        return isUtf8(sample, 0, length) ? UTF_8 : new LogEncoding(WINDOWS_1252, 0);
+    }
+
+    /**
+     * Whether the bytes {@code [from, length)} are valid UTF-8, allowing a sequence cut at the end of the sample.
+     */
+    private static boolean isUtf8(byte[] sample, int from, int length) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        ByteBuffer in = ByteBuffer.wrap(sample, from, length - from);
+        CharBuffer out = CharBuffer.allocate(Math.max(16, length));
+        CoderResult result = decoder.decode(in, out, false);
+        if (result.isError()) {
+            return false;
+        }
+        // An underflow with bytes left is a multi-byte sequence cut by the sample end
+        return in.remaining() < 4;
+    }
+
+    /**
+     * Decodes bytes read from the start of a file, dropping the byte order mark.
+     */
+    public String decode(byte[] bytes, int length) {
+        int from = Math.min(bomLength, length);
+        int to = from + (length - from) / unitSize() * unitSize();
+        return new String(bytes, from, to - from, charset);
+    }
+
+    @Override
+    public String toString() {
+        return bomLength > 0 ? charset.name() + " (BOM)" : charset.name();
+    }
+}
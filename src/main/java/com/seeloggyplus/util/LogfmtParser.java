@@ -0,0 +1,174 @@
+package com.seeloggyplus.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass tokenizer for logfmt lines ({@code ts=... level=info msg="a \"quoted\" text" dur=12ms}).
+ * <p>
+ * A line is a logfmt record when its first token is a {@code key=value} pair; anything else
+ * (stack frames, banners) is left to the caller as a continuation line. Values are either bare
+ * (up to the next space) or double-quoted with backslash escapes. A key without {@code =} is a
+ * flag and gets an empty value. Like the regex path, {@link #parse} reports each column as
+ * {@code start, end} offsets into the line; quoted values are reported without their quotes and
+ * still escaped, and {@link #decode} unescapes them when they are read.
+ */
+public final class LogfmtParser {
+
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final int columnCount;
+
+    /**
+     * @param keys the keys to extract, in column order
+     */
+    public LogfmtParser(List<String> keys) {
+        for (int i = 0; i < keys.size(); i++) {
+            columns.putIfAbsent(keys.get(i), i);
+        }
+        this.columnCount = keys.size();
+    }
+
+    /**
+     * @return {@code start, end} offsets for each column (-1 for a missing key),
+     * or null if the line is not a logfmt record
+     */
+    public int[] parse(String line) {
+        if (!startsWithPair(line)) {
+            return null;
+        }
+        int[] bounds = new int[columnCount * 2];
+        Arrays.fill(bounds, -1);
+        int[] token = new int[4];
+        int pos = 0;
+        while ((pos = next(line, pos, token)) >= 0) {
+            Integer column = columns.get(line.substring(token[0], token[1]));
+            if (column != null && bounds[column * 2] < 0) {
+                bounds[column * 2] = token[2];
+                bounds[column * 2 + 1] = token[3];
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * The keys of a line, for column discovery.
+     *
+     * @return the keys in line order, or null if the line is not a logfmt record
+     */
+    public static List<String> keys(String line) {
+        if (!startsWithPair(line)) {
+            return null;
+        }
+        List<String> keys = new ArrayList<>();
+        int[] token = new int[4];
+        int pos = 0;
+        while ((pos = next(line, pos, token)) >= 0) {
+            keys.add(line.substring(token[0], token[1]));
+        }
+        return keys;
+    }
+
+    /**
+     * Unescapes a quoted value reported by {@link #parse}. Only {@code \"}, {@code \\},
+     * {@code \n}, {@code \t} and {@code \r} are escapes; any other backslash is kept, so bare
+     * values such as Windows paths are shown as they are.
+     */
+    public static String decode(String value) {
+        if (value == null || value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder decoded = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            char escaped = c == '\\' && i + 1 < value.length() ? value.charAt(i + 1) : 0;
+            switch (escaped) {
+                case '"', '\\' -> decoded.append(escaped);
+                case 'n' -> decoded.append('\n');
+                case 't' -> decoded.append('\t');
+                case 'r' -> decoded.append('\r');
+                default -> {
+                    decoded.append(c);
+                    continue;
+                }
+            }
+            i++;
+        }
+        return decoded.toString();
+    }
+
+    /**
+     * Reads the pair starting at or after {@code pos} into {@code token} as key start, key end,
+     * value start and value end.
+     *
+     * @return the position after the pair, or -1 at the end of the line
+     */
+    private static int next(String line, int pos, int[] token) {
+        int length = line.length();
+        int keyStart;
+        while (true) {
+            while (pos < length && line.charAt(pos) <= ' ') {
+                pos++;
+            }
+            if (pos >= length) {
+                return -1;
+            }
+            keyStart = pos;
+            while (pos < length && line.charAt(pos) > ' ' && line.charAt(pos) != '=' && line.charAt(pos) != '"') {
+                pos++;
+            }
+            if (pos > keyStart) {
+                break;
+            }
+            // Stray '=' or quote: skip the token so one malformed pair does not end the line
+            while (pos < length && line.charAt(pos) > ' ') {
+                pos++;
+            }
+        }
+        token[0] = keyStart;
+        token[1] = pos;
+        if (pos >= length || line.charAt(pos) != '=') {
+            token[2] = pos;
+            token[3] = pos;
+            return pos;
+        }
+
+        pos++;
+        if (pos < length && line.charAt(pos) == '"') {
+            int valueStart = ++pos;
+            while (pos < length && line.charAt(pos) != '"') {
+                pos += line.charAt(pos) == '\\' ? 2 : 1;
+            }
+            // An unterminated quote runs to the end of the line
+            pos = Math.min(pos, length);
+            token[2] = valueStart;
+            token[3] = pos;
+            return Math.min(pos + 1, length);
+        }
+        int valueStart = pos;
+        while (pos < length && line.charAt(pos) > ' ') {
+            pos++;
+        }
+        token[2] = valueStart;
+        token[3] = pos;
+        return pos;
+    }
+
+    /**
+     * Whether the line starts, without indentation, with {@code key=}.
+     */
+    private static boolean startsWithPair(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '=') {
+                return i > 0;
+            }
+            if (c <= ' ' || c == '"') {
+                return false;
+            }
+        }
+        return false;
+    }
+}
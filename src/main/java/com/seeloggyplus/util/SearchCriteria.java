@@ -0,0 +1,138 @@
+package com.seeloggyplus.util;
+
+import com.seeloggyplus.model.LogEntry;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * The search settings of the main window at the time a search ran: text, mode, level, the
+ * unparsed toggle and the date range as epoch milliseconds ({@link Long#MIN_VALUE} and
+ * {@link Long#MAX_VALUE} when open).
+ * <p>
+ * {@link #narrows(SearchCriteria)} lets a search that only tightens the previous one (a longer
+ * literal, an added {@code AND} term, a shorter date range) filter the previous result instead
+ * of the whole file. {@link #toPredicate()} is the filter the criteria stand for.
+ */
+public record SearchCriteria(String text, boolean regex, boolean caseSensitive, boolean hideUnparsed, String level,
+                             long fromMillis, long toMillis) {
+
+    private static final String ALL_LEVELS = "ALL";
+    private static final String UNPARSED_LEVEL = "UNPARSED";
+
+    public boolean hasText() {
+        return text != null && !text.trim().isEmpty();
+    }
+
+    public boolean hasLevel() {
+        return level != null && !level.equals(ALL_LEVELS);
+    }
+
+    public boolean hasDateRange() {
+        return fromMillis != Long.MIN_VALUE || toMillis != Long.MAX_VALUE;
+    }
+
+    public boolean isEmpty() {
+        return !hasText() && !hasLevel() && !hideUnparsed && !hasDateRange();
+    }
+
+    /**
+     * Builds the entry filter for these criteria; the query or pattern is compiled once here,
+     * not per entry. The UNPARSED level keeps exactly the unparsed entries, regardless of the
+     * text and date filters.
+     *
+     * @throws IllegalArgumentException if the text is an invalid regex
+     */
+    public Predicate<LogEntry> toPredicate() {
+        final boolean hasTextSearch = hasText();
+        final Pattern compiledPattern;
+        if (regex && hasTextSearch) {
+            try {
+                compiledPattern = Pattern.compile(text, caseSensitive ? 0 : Pattern.CASE_INSENSITIVE);
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Invalid regex pattern: " + e.getMessage(), e);
+            }
+        } else {
+            compiledPattern = null;
+        }
+        final SearchQuery booleanQuery = !regex && hasTextSearch ? SearchQuery.compile(text, caseSensitive) : null;
+        final boolean hasLevelFilter = hasLevel();
+        final boolean filterUnparsedOnly = UNPARSED_LEVEL.equals(level);
+        final boolean hasDateFilter = hasDateRange();
+
+        return entry -> {
+            if (hideUnparsed && !entry.isParsed()) {
+                return false;
+            }
+
+            if (hasLevelFilter) {
+                if (filterUnparsedOnly) {
+                    return !entry.isParsed();
+                }
+                if (!entry.isParsed()) {
+                    return false;
+                }
+                String entryLevel = entry.getLevel();
+                if (entryLevel == null || !entryLevel.equalsIgnoreCase(level)) {
+                    return false;
+                }
+            }
+
+            // On the timestamp the parser converted at ingest
+            if (hasDateFilter) {
+                long entryTime = entry.getEpochMillis();
+                if (entryTime == TimestampParser.NO_TIMESTAMP || entryTime < fromMillis || entryTime > toMillis) {
+                    return false;
+                }
+            }
+
+            if (hasTextSearch) {
+                String raw = entry.getRawLog();
+                if (raw == null) {
+                    return false;
+                }
+                // Boolean search (AND, OR, NOT, parentheses, phrases) unless it is a regex
+                return compiledPattern != null ? compiledPattern.matcher(raw).find() : booleanQuery.matches(raw);
+            }
+            return true;
+        };
+    }
+
+    /**
+     * Whether every entry matching these criteria also matches {@code previous}. Answers false
+     * when unsure, which only costs a full scan.
+     */
+    public boolean narrows(SearchCriteria previous) {
+        if (previous.hideUnparsed && !hideUnparsed) {
+            return false;
+        }
+        // The UNPARSED level ignores the text and date filters, so it only narrows itself
+        if (UNPARSED_LEVEL.equals(level) || UNPARSED_LEVEL.equals(previous.level)) {
+            return Objects.equals(level, previous.level);
+        }
+        if (previous.hasLevel() && !Objects.equals(level, previous.level)) {
+            return false;
+        }
+        // Entries without a timestamp pass only when there is no date range
+        if (previous.hasDateRange() && (!hasDateRange() || fromMillis < previous.fromMillis
+                || toMillis > previous.toMillis)) {
+            return false;
+        }
+        return textNarrows(previous);
+    }
+
+    private boolean textNarrows(SearchCriteria previous) {
+        if (!previous.hasText()) {
+            return true;
+        }
+        if (!hasText() || regex != previous.regex) {
+            return false;
+        }
+        if (regex) {
+            return caseSensitive == previous.caseSensitive && text.equals(previous.text);
+        }
+        return SearchQuery.compile(text, caseSensitive).implies(SearchQuery.compile(previous.text,
+                previous.caseSensitive));
+    }
+}
@@ -0,0 +1,400 @@
+package com.seeloggyplus.util;
+
+import com.seeloggyplus.util.SearchQueryParser.SearchToken;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * A boolean text query compiled once and then evaluated against many log lines.
+ * <p>
+ * The tokens of {@link SearchQueryParser} are parsed into a tree with the usual precedence,
+ * {@code NOT} over {@code AND} over {@code OR}, and parentheses to override it. Terms written
+ * next to each other without an operator form one literal phrase, as they always did
+ * ({@code connection refused} matches that text), while a quoted phrase or a group next to
+ * another term is an implicit {@code AND}. Unbalanced parentheses and dangling operators are
+ * tolerated rather than rejected, since the query is typed live.
+ * <p>
+ * Compilation flattens nested {@code AND}/{@code OR} nodes and orders their children cheapest
+ * first: single terms before groups, and among terms the likely deciding one first (the longest
+ * under {@code AND}, the shortest under {@code OR}), so short-circuiting skips most of the work.
+ * A case-insensitive query lowercases its terms once and each line at most once.
+ */
+public final class SearchQuery {
+
+    private static final SearchQuery MATCH_ALL = new SearchQuery(null, true);
+
+    private final Node root;
+    private final boolean caseSensitive;
+
+    private SearchQuery(Node root, boolean caseSensitive) {
+        this.root = root;
+        this.caseSensitive = caseSensitive;
+    }
+
+    /**
+     * Compiles a query; an empty query matches every line.
+     */
+    public static SearchQuery compile(String query, boolean caseSensitive) {
+        List<SearchToken> tokens = new SearchQueryParser().parse(query);
+        Node root = new Compiler(query, tokens, caseSensitive).compile();
+        return root == null ? MATCH_ALL : new SearchQuery(optimize(root), caseSensitive);
+    }
+
+    public boolean matches(String text) {
+        if (root == null) {
+            return true;
+        }
+        if (text == null) {
+            return false;
+        }
+        return root.matches(caseSensitive ? text : text.toLowerCase(Locale.ROOT));
+    }
+
+    public boolean isMatchAll() {
+        return root == null;
+    }
+
+    /**
+     * Whether every line this query matches is also matched by {@code other}, so a search for
+     * this query only needs to look at the result of {@code other}. The check is structural and
+     * conservative: a longer literal implies a shorter one it contains, {@code a AND b} implies
+     * {@code a}, {@code a} implies {@code a OR b}, and {@code NOT} reverses the direction. When it
+     * cannot tell, it answers false.
+     */
+    public boolean implies(SearchQuery other) {
+        if (other.root == null) {
+            return true;
+        }
+        if (root == null || caseSensitive != other.caseSensitive) {
+            return false;
+        }
+        return implies(root, other.root);
+    }
+
+    private static boolean implies(Node node, Node other) {
+        if (other instanceof And and) {
+            return Arrays.stream(and.operands()).allMatch(operand -> implies(node, operand));
+        }
+        if (node instanceof Or or) {
+            return Arrays.stream(or.operands()).allMatch(operand -> implies(operand, other));
+        }
+        if (node instanceof And and) {
+            if (Arrays.stream(and.operands()).anyMatch(operand -> implies(operand, other))) {
+                return true;
+            }
+        }
+        if (other instanceof Or or) {
+            return Arrays.stream(or.operands()).anyMatch(operand -> implies(node, operand));
+        }
+        if (node instanceof Term term && other instanceof Term otherTerm) {
+            return term.needle().contains(otherTerm.needle());
+        }
+        if (node instanceof Not not && other instanceof Not otherNot) {
+            return implies(otherNot.operand(), not.operand());
+        }
+        return false;
+    }
+
+    /**
+     * Evaluates the compiled tree bottom-up with other semantics than matching a line, e.g. as
+     * sets of candidate rows from an index. Terms are passed as matched: lowercased unless the
+     * query is case sensitive.
+     */
+    public interface Algebra<R> {
+        R term(String needle);
+
+        R not(R operand);
+
+        R and(List<R> operands);
+
+        R or(List<R> operands);
+    }
+
+    /**
+     * @throws IllegalStateException if the query matches everything and so has no tree
+     */
+    public <R> R fold(Algebra<R> algebra) {
+        if (root == null) {
+            throw new IllegalStateException("Query matches everything");
+        }
+        return root.fold(algebra);
+    }
+
+    @Override
+    public String toString() {
+        return root == null ? "*" : root.toString();
+    }
+
+    private sealed interface Node permits Term, Not, And, Or {
+        boolean matches(String text);
+
+        int cost();
+
+        <R> R fold(Algebra<R> algebra);
+    }
+
+    private record Term(String needle) implements Node {
+        @Override
+        public boolean matches(String text) {
+            return text.contains(needle);
+        }
+
+        @Override
+        public int cost() {
+            return 1;
+        }
+
+        @Override
+        public <R> R fold(Algebra<R> algebra) {
+            return algebra.term(needle);
+        }
+
+        @Override
+        public String toString() {
+            return '"' + needle + '"';
+        }
+    }
+
+    private record Not(Node operand) implements Node {
+        @Override
+        public boolean matches(String text) {
+            return !operand.matches(text);
+        }
+
+        @Override
+        public int cost() {
+            return operand.cost();
+        }
+
+        @Override
+        public <R> R fold(Algebra<R> algebra) {
+            return algebra.not(operand.fold(algebra));
+        }
+
+        @Override
+        public String toString() {
+            return "NOT " + operand;
+        }
+    }
+
+    private record And(Node[] operands) implements Node {
+        @Override
+        public boolean matches(String text) {
+            for (Node operand : operands) {
+                if (!operand.matches(text)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int cost() {
+            return Arrays.stream(operands).mapToInt(Node::cost).sum() + 1;
+        }
+
+        @Override
+        public <R> R fold(Algebra<R> algebra) {
+            return algebra.and(Arrays.stream(operands).map(operand -> operand.fold(algebra)).toList());
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.stream(operands).map(Node::toString).collect(Collectors.joining(" AND ", "(", ")"));
+        }
+    }
+
+    private record Or(Node[] operands) implements Node {
+        @Override
+        public boolean matches(String text) {
+            for (Node operand : operands) {
+                if (operand.matches(text)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int cost() {
+            return Arrays.stream(operands).mapToInt(Node::cost).sum() + 1;
+        }
+
+        @Override
+        public <R> R fold(Algebra<R> algebra) {
+            return algebra.or(Arrays.stream(operands).map(operand -> operand.fold(algebra)).toList());
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.stream(operands).map(Node::toString).collect(Collectors.joining(" OR ", "(", ")"));
+        }
+    }
+
+    private static Node optimize(Node node) {
+        if (node instanceof Not not) {
+            Node operand = optimize(not.operand());
+            return operand instanceof Not inner ? inner.operand() : new Not(operand);
+        }
+        if (node instanceof And and) {
+            List<Node> operands = new ArrayList<>();
+            for (Node operand : and.operands()) {
+                Node optimized = optimize(operand);
+                if (optimized instanceof And nested) {
+                    operands.addAll(List.of(nested.operands()));
+                } else {
+                    operands.add(optimized);
+                }
+            }
+            // Under AND the longest term is the likeliest to fail
+            operands.sort(Comparator.comparingInt(Node::cost).thenComparing(SearchQuery::termLength,
+                    Comparator.reverseOrder()));
+            return operands.size() == 1 ? operands.get(0) : new And(operands.toArray(Node[]::new));
+        }
+        if (node instanceof Or or) {
+            List<Node> operands = new ArrayList<>();
+            for (Node operand : or.operands()) {
+                Node optimized = optimize(operand);
+                if (optimized instanceof Or nested) {
+                    operands.addAll(List.of(nested.operands()));
+                } else {
+                    operands.add(optimized);
+                }
+            }
+            // Under OR the shortest term is the likeliest to match
+            operands.sort(Comparator.comparingInt(Node::cost).thenComparing(SearchQuery::termLength));
+            return operands.size() == 1 ? operands.get(0) : new Or(operands.toArray(Node[]::new));
+        }
+        return node;
+    }
+
+    private static int termLength(Node node) {
+        if (node instanceof Term term) {
+            return term.needle().length();
+        }
+        return node instanceof Not not ? termLength(not.operand()) : 0;
+    }
+
+    /**
+     * Recursive descent over the tokens: or := and (OR and)*, and := not ([AND] not)*,
+     * not := NOT not | primary, primary := ( or ) | phrase | keyword+.
+     */
+    private static final class Compiler {
+        private final String query;
+        private final List<SearchToken> tokens;
+        private final boolean caseSensitive;
+        private int pos;
+
+        Compiler(String query, List<SearchToken> tokens, boolean caseSensitive) {
+            this.query = query;
+            this.tokens = tokens;
+            this.caseSensitive = caseSensitive;
+        }
+
+        Node compile() {
+            Node root = parseOr();
+            // A stray closing parenthesis ends nothing; keep reading after it
+            while (pos < tokens.size()) {
+                pos++;
+                root = combineAnd(root, parseOr());
+            }
+            return root;
+        }
+
+        private Node parseOr() {
+            Node left = parseAnd();
+            while (peek(SearchToken.Type.OPERATOR_OR)) {
+                pos++;
+                Node right = parseAnd();
+                if (left == null) {
+                    left = right;
+                } else if (right != null) {
+                    left = new Or(new Node[]{left, right});
+                }
+            }
+            return left;
+        }
+
+        private Node parseAnd() {
+            Node left = parseNot();
+            while (pos < tokens.size()) {
+                if (peek(SearchToken.Type.OPERATOR_AND)) {
+                    pos++;
+                } else if (!startsOperand()) {
+                    break;
+                }
+                left = combineAnd(left, parseNot());
+            }
+            return left;
+        }
+
+        private Node parseNot() {
+            if (peek(SearchToken.Type.OPERATOR_NOT)) {
+                pos++;
+                Node operand = parseNot();
+                return operand == null ? null : new Not(operand);
+            }
+            return parsePrimary();
+        }
+
+        private Node parsePrimary() {
+            if (pos >= tokens.size()) {
+                return null;
+            }
+            SearchToken token = tokens.get(pos);
+            switch (token.type) {
+                case LPAREN -> {
+                    pos++;
+                    Node inner = parseOr();
+                    if (peek(SearchToken.Type.RPAREN)) {
+                        pos++;
+                    }
+                    return inner;
+                }
+                case PHRASE -> {
+                    pos++;
+                    return token.value.isEmpty() ? null : term(token.value);
+                }
+                case KEYWORD -> {
+                    // Adjacent keywords are one literal phrase, spacing included
+                    int start = token.start;
+                    int end = token.end;
+                    pos++;
+                    while (peek(SearchToken.Type.KEYWORD)) {
+                        end = tokens.get(pos++).end;
+                    }
+                    return term(query.substring(start, end));
+                }
+                default -> {
+                    // An operator without a left operand
+                    return null;
+                }
+            }
+        }
+
+        private boolean startsOperand() {
+            return peek(SearchToken.Type.KEYWORD) || peek(SearchToken.Type.PHRASE)
+                    || peek(SearchToken.Type.LPAREN) || peek(SearchToken.Type.OPERATOR_NOT);
+        }
+
+        private boolean peek(SearchToken.Type type) {
+            return pos < tokens.size() && tokens.get(pos).type == type;
+        }
+
+        private Term term(String text) {
+            return new Term(caseSensitive ? text : text.toLowerCase(Locale.ROOT));
+        }
+
+        private static Node combineAnd(Node left, Node right) {
+            if (left == null) {
+                return right;
+            }
+            return right == null ? left : new And(new Node[]{left, right});
+        }
+    }
+}
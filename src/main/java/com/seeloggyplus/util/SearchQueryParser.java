@@ -1,32 +1,22 @@
 package com.seeloggyplus.util;
 
-import com.seeloggyplus.model.LogEntry;
-
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Predicate;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+/**
+ * Tokenizer for boolean search queries, e.g. {@code error AND ("database connection" OR timeout) AND NOT debug}.
+ * <p>
+ * Tokens are {@code "quoted"} or {@code 'quoted'} phrases, the operators {@code AND}, {@code OR}
+ * and {@code NOT} (upper case only, so {@code and}/{@code or} are searched as words), parentheses,
+ * and keywords: any other run of non-blank characters, so {@code 10.0.0.1}, {@code key="value"} or
+ * {@code foo(bar)} are single keywords. A parenthesis only groups at the start of a token, or at
+ * the end of one while a group is open. {@link SearchQuery} compiles the tokens.
+ */
 public class SearchQueryParser {
 
-    private static final Logger logger = LoggerFactory.getLogger(SearchQueryParser.class);
-
-    // Regex untuk memecah query: mendukung "phrase search", (keyword), AND/OR/NOT
-    // Memisahkan berdasarkan spasi, kecuali di dalam tanda kutip atau kurung
-    private static final Pattern TOKEN_PATTERN = Pattern.compile(
-            "\"([^\"]*)\"|" +    // Group 1: Double quoted phrase
-            "'([^']*)'|" +     // Group 2: Single quoted phrase
-            "(AND|OR|NOT)|" +  // Group 3: Operators
-            "(\\w+)",          // Group 4: Regular words
-            Pattern.CASE_INSENSITIVE
-    );
-
     /**
      * Parses a search query string and returns a list of SearchTokens.
-     * Supports AND, OR, NOT operators and "phrase search".
+     * Supports AND, OR, NOT operators, parentheses and "phrase search".
      * Example: "error AND \"database connection\" OR NOT warning"
      *
      * @param query The search query string.
@@ -38,51 +28,107 @@ public class SearchQueryParser {
             return tokens;
         }
 
-        Matcher matcher = TOKEN_PATTERN.matcher(query);
-        while (matcher.find()) {
-            String tokenValue = null;
-            if (matcher.group(1) != null) { // Double quoted phrase
-                tokenValue = matcher.group(1);
-                tokens.add(new SearchToken(tokenValue, SearchToken.Type.PHRASE));
-            } else if (matcher.group(2) != null) { // Single quoted phrase
-                tokenValue = matcher.group(2);
-                tokens.add(new SearchToken(tokenValue, SearchToken.Type.PHRASE));
-            } else if (matcher.group(3) != null) { // Operator (AND, OR, NOT)
-                tokenValue = matcher.group(3);
-                if (tokenValue.equalsIgnoreCase("AND")) {
-                    tokens.add(new SearchToken(tokenValue, SearchToken.Type.OPERATOR_AND));
-                } else if (tokenValue.equalsIgnoreCase("OR")) {
-                    tokens.add(new SearchToken(tokenValue, SearchToken.Type.OPERATOR_OR));
-                } else if (tokenValue.equalsIgnoreCase("NOT")) {
-                    tokens.add(new SearchToken(tokenValue, SearchToken.Type.OPERATOR_NOT));
+        int depth = 0;
+        int pos = 0;
+        int length = query.length();
+        while (pos < length) {
+            char c = query.charAt(pos);
+            if (Character.isWhitespace(c)) {
+                pos++;
+                continue;
+            }
+            if (c == '(') {
+                tokens.add(new SearchToken("(", SearchToken.Type.LPAREN, pos, pos + 1));
+                depth++;
+                pos++;
+                continue;
+            }
+            if (c == ')') {
+                tokens.add(new SearchToken(")", SearchToken.Type.RPAREN, pos, pos + 1));
+                depth = Math.max(0, depth - 1);
+                pos++;
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                int close = query.indexOf(c, pos + 1);
+                if (close > pos) {
+                    tokens.add(new SearchToken(query.substring(pos + 1, close), SearchToken.Type.PHRASE, pos, close + 1));
+                    pos = close + 1;
+                    continue;
                 }
-            } else if (matcher.group(4) != null) { // Regular keyword
-                tokenValue = matcher.group(4);
-                tokens.add(new SearchToken(tokenValue, SearchToken.Type.KEYWORD));
+                // An unmatched quote is part of a keyword
+            }
+
+            int start = pos;
+            while (pos < length && !Character.isWhitespace(query.charAt(pos))) {
+                pos++;
+            }
+            int end = pos;
+            // Closing parentheses of open groups are split off; those of the word itself stay
+            int unbalanced = count(query, start, end, ')') - count(query, start, end, '(');
+            int closing = 0;
+            while (closing < Math.min(depth, unbalanced) && end - closing - 1 > start
+                    && query.charAt(end - closing - 1) == ')') {
+                closing++;
+            }
+            end -= closing;
+            tokens.add(keyword(query.substring(start, end), start, end));
+            for (int i = 0; i < closing; i++) {
+                tokens.add(new SearchToken(")", SearchToken.Type.RPAREN, end + i, end + i + 1));
             }
+            depth -= closing;
         }
         return tokens;
     }
 
+    private static SearchToken keyword(String value, int start, int end) {
+        SearchToken.Type type = switch (value) {
+            case "AND" -> SearchToken.Type.OPERATOR_AND;
+            case "OR" -> SearchToken.Type.OPERATOR_OR;
+            case "NOT" -> SearchToken.Type.OPERATOR_NOT;
+            default -> SearchToken.Type.KEYWORD;
+        };
+        return new SearchToken(value, type, start, end);
+    }
+
+    private static int count(String text, int from, int to, char c) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == c) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * Represents a token in the parsed search query.
      */
     public static class SearchToken {
-        public enum Type { KEYWORD, PHRASE, OPERATOR_AND, OPERATOR_OR, OPERATOR_NOT }
-        
+        public enum Type { KEYWORD, PHRASE, OPERATOR_AND, OPERATOR_OR, OPERATOR_NOT, LPAREN, RPAREN }
+
         public String value;
         public Type type;
+        // Position of the token in the query, quotes included
+        public int start;
+        public int end;
 
         public SearchToken(String value, Type type) {
+            this(value, type, -1, -1);
+        }
+
+        public SearchToken(String value, Type type, int start, int end) {
             this.value = value;
             this.type = type;
+            this.start = start;
+            this.end = end;
         }
 
         @Override
         public String toString() {
             return "SearchToken{"
                     + "value='" + value + "'"
-                    + ", type=" + type + 
+                    + ", type=" + type +
                     '}';
         }
     }
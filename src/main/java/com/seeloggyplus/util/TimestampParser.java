@@ -0,0 +1,487 @@
+package com.seeloggyplus.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.time.zone.ZoneRules;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Converts timestamp field values to epoch milliseconds in the system time zone, compiled once
+ * per timestamp format of a parsing config.
+ * <p>
+ * Formats made only of fixed-width numeric fields ({@code yyyy yy MM dd HH mm ss} and
+ * {@code S...}) and literals, which covers most log layouts, are read digit by digit without a
+ * DateTimeFormatter or any allocation. A blank format accepts ISO-like values
+ * ({@code yyyy-MM-dd[ T]HH:mm[:ss[.fraction]][Z|+HH:MM]}, or just the date) and Unix times in
+ * seconds or milliseconds. Any other format goes through {@link DateTimeFormatter}.
+ * <p>
+ * A configured format is not a hard filter: a fixed-width value followed by a fraction the format
+ * leaves out is still read, and a value that does not match the format at all is read as an
+ * ISO-like or Unix time before giving up, as it would be without a format. Such misses are
+ * counted, and the first one after {@link #resetMissWarning()} is logged.
+ */
+public final class TimestampParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimestampParser.class);
+
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private static final byte LITERAL = 0;
+    private static final byte YEAR = 1;
+    private static final byte YEAR_OF_CENTURY = 2;
+    private static final byte MONTH = 3;
+    private static final byte DAY = 4;
+    private static final byte HOUR = 5;
+    private static final byte MINUTE = 6;
+    private static final byte SECOND = 7;
+    private static final byte FRACTION = 8;
+
+    private static final int OFFSET_BUCKET_SECONDS = 15 * 60;
+    private static final int OFFSET_CACHE_SIZE = 256;
+    private static final int OFFSET_BIAS = 18 * 3600;
+    private static final int NO_OFFSET = Integer.MAX_VALUE;
+
+    private final String format;
+    private final byte[] layout;
+    private final char[] literals;
+    private final int yearBase;
+    private final DateTimeFormatter formatter;
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    // Offset per quarter hour of local time: (bucket << 20 | offset + bias) + 1, 0 when empty
+    private final AtomicLongArray offsetCache = new AtomicLongArray(OFFSET_CACHE_SIZE);
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicBoolean missLogged = new AtomicBoolean();
+
+    private TimestampParser(String format, byte[] layout, char[] literals, DateTimeFormatter formatter) {
+        this.format = format;
+        this.layout = layout;
+        this.literals = literals;
+        // Two-digit years are in 2000-2099, as DateTimeFormatter reads "yy"
+        this.yearBase = layout != null && !contains(layout, YEAR) ? 2000 : 0;
+        this.formatter = formatter;
+        this.zone = ZoneId.systemDefault();
+        this.rules = zone.getRules();
+    }
+
+    /**
+     * Compiles the timestamp format of a parsing config. An invalid format is logged and
+     * treated like a blank one.
+     */
+    public static TimestampParser forFormat(String format) {
+        if (format == null || format.isBlank()) {
+            return new TimestampParser(null, null, null, null);
+        }
+        TimestampParser fixedWidth = compileFixedWidth(format);
+        if (fixedWidth != null) {
+            return fixedWidth;
+        }
+        try {
+            return new TimestampParser(format, null, null, DateTimeFormatter.ofPattern(format));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid timestamp format '{}', falling back to ISO: {}", format, e.getMessage());
+            return new TimestampParser(null, null, null, null);
+        }
+    }
+
+    public long parse(String value) {
+        return value == null ? NO_TIMESTAMP : parse(value, 0, value.length());
+    }
+
+    /**
+     * Parses {@code text[start, end)}.
+     *
+     * @return epoch milliseconds, or {@link #NO_TIMESTAMP} if the value does not fit the format
+     */
+    public long parse(CharSequence text, int start, int end) {
+        if (start < 0 || start >= end) {
+            return NO_TIMESTAMP;
+        }
+        if (layout == null && formatter == null) {
+            return parseIsoLike(text, start, end);
+        }
+        long millis = layout != null ? parseFixedWidth(text, start, end) : parseWithFormatter(text.subSequence(start, end));
+        if (millis != NO_TIMESTAMP) {
+            return millis;
+        }
+        millis = parseIsoLike(text, start, end);
+        recordMiss(text, start, end, millis);
+        return millis;
+    }
+
+    /**
+     * Number of values that did not match the configured format since this parser was compiled.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Lets the next value that does not match the format be logged again, e.g. at the start of a parse.
+     */
+    public void resetMissWarning() {
+        missLogged.set(false);
+    }
+
+    private void recordMiss(CharSequence text, int start, int end, long fallback) {
+        misses.incrementAndGet();
+        if (missLogged.compareAndSet(false, true)) {
+            logger.warn("Timestamp '{}' does not match the format '{}', {}; further mismatches are only counted",
+                    text.subSequence(start, end), format,
+                    fallback == NO_TIMESTAMP ? "leaving the entry without a timestamp" : "read as an ISO or Unix time");
+        }
+    }
+
+    /**
+     * Reads a format into one kind per character, or returns null if any part of it is not a
+     * fixed-width numeric field or a literal.
+     */
+    private static TimestampParser compileFixedWidth(String format) {
+        StringBuilder literals = new StringBuilder();
+        StringBuilder kinds = new StringBuilder();
+        boolean[] seen = new boolean[FRACTION + 1];
+        int pos = 0;
+        while (pos < format.length()) {
+            char c = format.charAt(pos);
+            if (c == '\'') {
+                int close = format.indexOf('\'', pos + 1);
+                if (close < 0 || close == pos + 1) {
+                    // Unterminated quote or an escaped quote
+                    return null;
+                }
+                for (int i = pos + 1; i < close; i++) {
+                    kinds.append((char) LITERAL);
+                    literals.append(format.charAt(i));
+                }
+                pos = close + 1;
+                continue;
+            }
+            if (!Character.isLetter(c)) {
+                if (c == '[' || c == ']' || c == '{' || c == '}' || c == '#') {
+                    return null;
+                }
+                kinds.append((char) LITERAL);
+                literals.append(c);
+                pos++;
+                continue;
+            }
+
+            int count = 1;
+            while (pos + count < format.length() && format.charAt(pos + count) == c) {
+                count++;
+            }
+            byte kind = switch (c) {
+                case 'y', 'u' -> count == 4 ? YEAR : count == 2 ? YEAR_OF_CENTURY : LITERAL;
+                case 'M' -> count == 2 ? MONTH : LITERAL;
+                case 'd' -> count == 2 ? DAY : LITERAL;
+                case 'H' -> count == 2 ? HOUR : LITERAL;
+                case 'm' -> count == 2 ? MINUTE : LITERAL;
+                case 's' -> count == 2 ? SECOND : LITERAL;
+                case 'S' -> count <= 9 ? FRACTION : LITERAL;
+                default -> LITERAL;
+            };
+            if (kind == LITERAL || seen[kind]) {
+                return null;
+            }
+            seen[kind] = true;
+            for (int i = 0; i < count; i++) {
+                kinds.append((char) kind);
+                literals.append(c);
+            }
+            pos += count;
+        }
+        if (!(seen[YEAR] || seen[YEAR_OF_CENTURY]) || !seen[MONTH] || !seen[DAY]) {
+            return null;
+        }
+        if ((seen[MINUTE] && !seen[HOUR]) || (seen[SECOND] && !seen[MINUTE]) || (seen[FRACTION] && !seen[SECOND])) {
+            return null;
+        }
+
+        byte[] layout = new byte[kinds.length()];
+        for (int i = 0; i < layout.length; i++) {
+            layout[i] = (byte) kinds.charAt(i);
+        }
+        return new TimestampParser(format, layout, literals.toString().toCharArray(), null);
+    }
+
+    private long parseFixedWidth(CharSequence text, int start, int end) {
+        // A fraction of a second the format leaves out, e.g. ",123" after "HH:mm:ss"
+        int extraMillis = 0;
+        if (end - start != layout.length) {
+            int pointAt = start + layout.length;
+            int extraDigits = end - pointAt - 1;
+            if (extraDigits < 1 || extraDigits > 9 || layout[layout.length - 1] != SECOND
+                    || (text.charAt(pointAt) != '.' && text.charAt(pointAt) != ',')) {
+                return NO_TIMESTAMP;
+            }
+            int extra = digits(text, pointAt + 1, extraDigits);
+            if (extra < 0) {
+                return NO_TIMESTAMP;
+            }
+            extraMillis = fractionToMillis(extra, extraDigits);
+        }
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int fraction = 0;
+        int fractionDigits = 0;
+        for (int i = 0; i < layout.length; i++) {
+            char c = text.charAt(start + i);
+            byte kind = layout[i];
+            if (kind == LITERAL) {
+                if (c != literals[i]) {
+                    return NO_TIMESTAMP;
+                }
+                continue;
+            }
+            int digit = c - '0';
+            if (digit < 0 || digit > 9) {
+                return NO_TIMESTAMP;
+            }
+            switch (kind) {
+                case YEAR, YEAR_OF_CENTURY -> year = year * 10 + digit;
+                case MONTH -> month = month * 10 + digit;
+                case DAY -> day = day * 10 + digit;
+                case HOUR -> hour = hour * 10 + digit;
+                case MINUTE -> minute = minute * 10 + digit;
+                case SECOND -> second = second * 10 + digit;
+                default -> {
+                    fraction = fraction * 10 + digit;
+                    fractionDigits++;
+                }
+            }
+        }
+        return toEpochMillis(yearBase + year, month, day, hour, minute, second,
+                fractionToMillis(fraction, fractionDigits) + extraMillis);
+    }
+
+    private long parseIsoLike(CharSequence text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        int length = end - start;
+        if (length < 10 || text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-') {
+            return parseEpochNumber(text, start, end);
+        }
+        int year = digits(text, start, 4);
+        int month = digits(text, start + 5, 2);
+        int day = digits(text, start + 8, 2);
+        if (length == 10) {
+            return toEpochMillis(year, month, day, 0, 0, 0, 0);
+        }
+
+        char separator = text.charAt(start + 10);
+        if (length < 16 || (separator != 'T' && separator != ' ') || text.charAt(start + 13) != ':') {
+            return NO_TIMESTAMP;
+        }
+        // Structured logs usually carry an explicit offset, which replaces the system zone
+        int offset = Integer.MIN_VALUE;
+        if (text.charAt(end - 1) == 'Z') {
+            offset = 0;
+            end--;
+        } else if (end - start >= 22 && isSign(text.charAt(end - 6)) && text.charAt(end - 3) == ':') {
+            offset = offsetSeconds(text, end - 6, digits(text, end - 5, 2), digits(text, end - 2, 2));
+            end -= 6;
+        } else if (end - start >= 21 && isSign(text.charAt(end - 5))) {
+            offset = offsetSeconds(text, end - 5, digits(text, end - 4, 2), digits(text, end - 2, 2));
+            end -= 5;
+        }
+        int hour = digits(text, start + 11, 2);
+        int minute = digits(text, start + 14, 2);
+        int second = 0;
+        int millis = 0;
+        int pos = start + 16;
+        if (pos < end) {
+            if (end - pos < 3 || text.charAt(pos) != ':') {
+                return NO_TIMESTAMP;
+            }
+            second = digits(text, pos + 1, 2);
+            pos += 3;
+            if (pos < end) {
+                char point = text.charAt(pos);
+                int fractionDigits = end - pos - 1;
+                if ((point != '.' && point != ',') || fractionDigits < 1 || fractionDigits > 9) {
+                    return NO_TIMESTAMP;
+                }
+                int fraction = digits(text, pos + 1, fractionDigits);
+                if (fraction < 0) {
+                    return NO_TIMESTAMP;
+                }
+                millis = fractionToMillis(fraction, fractionDigits);
+            }
+        }
+        if (offset == Integer.MIN_VALUE) {
+            return toEpochMillis(year, month, day, hour, minute, second, millis);
+        }
+        long localSeconds = localSeconds(year, month, day, hour, minute, second);
+        return localSeconds == NO_TIMESTAMP || offset == NO_OFFSET
+                ? NO_TIMESTAMP
+                : (localSeconds - offset) * 1000 + millis;
+    }
+
+    /**
+     * Reads a Unix time: seconds (up to 10 digits, optionally with a fraction) or milliseconds
+     * (13 digits), as written by most JSON and logfmt loggers.
+     */
+    private static long parseEpochNumber(CharSequence text, int start, int end) {
+        int point = end;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && point == end) {
+                point = i;
+            } else if (c < '0' || c > '9') {
+                return NO_TIMESTAMP;
+            }
+        }
+        int integerDigits = point - start;
+        int fractionDigits = Math.min(end - point - 1, 9);
+        if (integerDigits == 0 || (point < end && fractionDigits < 1)) {
+            return NO_TIMESTAMP;
+        }
+        if (integerDigits == 13 && point == end) {
+            return Long.parseLong(text, start, end, 10);
+        }
+        if (integerDigits > 10) {
+            return NO_TIMESTAMP;
+        }
+        long seconds = Long.parseLong(text, start, point, 10);
+        int millis = point < end ? fractionToMillis(digits(text, point + 1, fractionDigits), fractionDigits) : 0;
+        return seconds * 1000 + millis;
+    }
+
+    private static boolean isSign(char c) {
+        return c == '+' || c == '-';
+    }
+
+    private static int offsetSeconds(CharSequence text, int sign, int hours, int minutes) {
+        if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59) {
+            return NO_OFFSET;
+        }
+        int seconds = hours * 3600 + minutes * 60;
+        return text.charAt(sign) == '-' ? -seconds : seconds;
+    }
+
+    private long parseWithFormatter(CharSequence value) {
+        try {
+            TemporalAccessor parsed = formatter.parseBest(value, ZonedDateTime::from, LocalDateTime::from, LocalDate::from);
+            if (parsed instanceof ZonedDateTime zoned) {
+                return zoned.toInstant().toEpochMilli();
+            }
+            if (parsed instanceof LocalDateTime local) {
+                return local.atZone(zone).toInstant().toEpochMilli();
+            }
+            return ((LocalDate) parsed).atStartOfDay(zone).toInstant().toEpochMilli();
+        } catch (DateTimeException e) {
+            return NO_TIMESTAMP;
+        }
+    }
+
+    private static boolean contains(byte[] layout, byte kind) {
+        for (byte k : layout) {
+            if (k == kind) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the value of {@code count} decimal digits, or -1 if any of them is not a digit
+     */
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int fractionToMillis(int fraction, int digits) {
+        for (int i = digits; i < 3; i++) {
+            fraction *= 10;
+        }
+        for (int i = 3; i < digits; i++) {
+            fraction /= 10;
+        }
+        return fraction;
+    }
+
+    private long toEpochMillis(int year, int month, int day, int hour, int minute, int second, int millis) {
+        long localSeconds = localSeconds(year, month, day, hour, minute, second);
+        if (localSeconds == NO_TIMESTAMP) {
+            return NO_TIMESTAMP;
+        }
+        return (localSeconds - offsetSeconds(localSeconds)) * 1000 + millis;
+    }
+
+    /**
+     * Seconds since the epoch of a local date and time as if it were UTC, or {@link #NO_TIMESTAMP}
+     * if a field is out of range.
+     */
+    private static long localSeconds(int year, int month, int day, int hour, int minute, int second) {
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return NO_TIMESTAMP;
+        }
+        return epochDay(year, month, day) * 86400 + hour * 3600L + minute * 60L + second;
+    }
+
+    /**
+     * Zone offset in effect at a local time, with the same choice in gaps and overlaps as
+     * {@code LocalDateTime.atZone}. Offsets only change on quarter hours, so they are cached per
+     * quarter hour; entries are written racily but atomically, a lost update only costs a lookup.
+     */
+    private int offsetSeconds(long localSeconds) {
+        long bucket = Math.floorDiv(localSeconds, OFFSET_BUCKET_SECONDS);
+        int slot = (int) (bucket & (OFFSET_CACHE_SIZE - 1));
+        long cached = offsetCache.get(slot);
+        if (cached != 0 && (cached - 1) >>> 20 == bucket) {
+            return (int) (((cached - 1) & 0xFFFFF) - OFFSET_BIAS);
+        }
+        LocalDateTime local = LocalDateTime.ofEpochSecond(localSeconds, 0, ZoneOffset.UTC);
+        int offset = rules.getOffset(local).getTotalSeconds();
+        offsetCache.set(slot, (bucket << 20 | (offset + OFFSET_BIAS)) + 1);
+        return offset;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date.
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+}
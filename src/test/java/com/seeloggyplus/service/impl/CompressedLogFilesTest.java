@@ -0,0 +1,91 @@
+package com.seeloggyplus.service.impl;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedLogFilesTest {
+
+    private static final byte[] CONTENT = "2024-03-01 12:00:00 INFO started\n".repeat(10_000)
+            .getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void gzipDecompressesToTheOriginalContent() throws IOException {
+        Path gz = directory.resolve("app.log.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gz))) {
+            out.write(CONTENT);
+        }
+
+        Path spill = CompressedLogFiles.decompress(gz.toFile(), null).toPath();
+        try {
+            assertTrue(CompressedLogFiles.isSpillFile(spill.toFile()));
+            assertArrayEquals(CONTENT, Files.readAllBytes(spill));
+        } finally {
+            Files.deleteIfExists(spill);
+        }
+    }
+
+    @Test
+    void recordedSizesAreUsedAsEstimate() throws IOException {
+        Path gz = directory.resolve("app.log.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gz))) {
+            out.write(CONTENT);
+        }
+        assertEquals(CONTENT.length,
+                CompressedLogFiles.estimateDecompressedSize(gz.toFile(), CompressedLogFiles.Format.GZIP));
+
+        Path zst = directory.resolve("app.log.zst");
+        Files.write(zst, Zstd.compress(CONTENT));
+        assertEquals(CONTENT.length,
+                CompressedLogFiles.estimateDecompressedSize(zst.toFile(), CompressedLogFiles.Format.ZSTD));
+    }
+
+    @Test
+    void streamedZstdFallsBackToTheAssumedRatio() throws IOException {
+        Path zst = directory.resolve("app.log.zst");
+        try (OutputStream out = new ZstdOutputStream(Files.newOutputStream(zst))) {
+            out.write(CONTENT);
+        }
+        long estimate = CompressedLogFiles.estimateDecompressedSize(zst.toFile(), CompressedLogFiles.Format.ZSTD);
+        assertTrue(estimate >= Files.size(zst), "an estimate below the compressed size is never used");
+    }
+
+    @Test
+    void staleSpillFilesAreDeletedAndRecentOnesKept() throws IOException {
+        Path stale = Files.createFile(directory.resolve("seeloggyplus-stale.log"));
+        Path stalePartial = Files.createFile(directory.resolve("seeloggyplus-stale.part"));
+        Path recent = Files.createFile(directory.resolve("seeloggyplus-recent.log"));
+        Path unrelated = Files.createFile(directory.resolve("seeloggyplus-other.txt"));
+        Path foreign = Files.createFile(directory.resolve("other-stale.log"));
+        FileTime old = FileTime.fromMillis(System.currentTimeMillis() - Duration.ofDays(2).toMillis());
+        for (Path path : new Path[]{stale, stalePartial, unrelated, foreign}) {
+            Files.setLastModifiedTime(path, old);
+        }
+
+        CompressedLogFiles.deleteStaleSpillFiles(directory);
+
+        assertFalse(Files.exists(stale));
+        assertFalse(Files.exists(stalePartial));
+        assertTrue(Files.exists(recent), "another running instance may be using it");
+        assertTrue(Files.exists(unrelated));
+        assertTrue(Files.exists(foreign));
+    }
+}
@@ -0,0 +1,70 @@
+package com.seeloggyplus.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirectBufferArenaTest {
+
+    private static final long SLAB_SIZE = 64L * 1024 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void smallFilesFitInDirectMemory() {
+        assertTrue(DirectBufferArena.fitsInDirectMemory(1024));
+    }
+
+    @Test
+    void filesLargerThanTheDirectMemoryLimitDoNotFit() {
+        assertFalse(DirectBufferArena.fitsInDirectMemory(Runtime.getRuntime().maxMemory() * 64));
+    }
+
+    @Test
+    void linesRoundTripAcrossTheSlabBoundary() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; text.length() < 3_000_000; i++) {
+            text.append(String.format("line %07d é\n", i));
+        }
+        Path log = Files.writeString(directory.resolve("app.log"), text, StandardCharsets.UTF_8);
+
+        try (MappedLogFile source = MappedLogFile.open(log.toFile())) {
+            DirectBufferArena arena = new DirectBufferArena(StandardCharsets.UTF_8);
+            int chunk = 1_000_000;
+            long[] offsets = new long[67];
+            for (int i = 0; i < offsets.length; i++) {
+                long start = (long) i * 31 % 1_000_000;
+                offsets[i] = arena.append(source, start, start + chunk);
+                assertEquals((long) i * chunk, offsets[i]);
+            }
+            long left = SLAB_SIZE - (long) offsets.length * chunk;
+
+            // Longer than what is left of the first slab, so it starts the second one
+            long longStart = 1_500_000;
+            int longLength = (int) left + 1;
+            long longOffset = arena.append(source, longStart, longStart + longLength);
+            assertEquals(SLAB_SIZE, longOffset);
+
+            // Later lines go on in the second slab, the rest of the first stays unused
+            long shortOffset = arena.append(source, 7, 20);
+            assertEquals(SLAB_SIZE + longLength, shortOffset);
+
+            for (int i = 0; i < offsets.length; i++) {
+                long start = (long) i * 31 % 1_000_000;
+                assertEquals(source.decode(start, chunk), arena.decode(offsets[i], chunk), "line " + i);
+            }
+            assertEquals(source.decode(longStart, longLength), arena.decode(longOffset, longLength));
+            assertEquals(source.decode(7, 13), arena.decode(shortOffset, 13));
+            assertEquals("", arena.decode(shortOffset, 0));
+        }
+    }
+}
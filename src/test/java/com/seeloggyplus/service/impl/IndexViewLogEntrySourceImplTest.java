@@ -0,0 +1,52 @@
+package com.seeloggyplus.service.impl;
+
+import com.seeloggyplus.model.LogEntry;
+import com.seeloggyplus.service.LogEntrySource;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IndexViewLogEntrySourceImplTest {
+
+    // Entries start at lines 1, 3, 5, ... 19
+    private final LogEntrySource base = new ListLogEntrySourceImpl(entries(10));
+
+    @Test
+    void lineIsFoundInTheLastRowAtOrBeforeIt() {
+        LogEntrySource view = base.select(new int[]{2, 4, 7});
+
+        assertEquals(0, view.indexOfLine(5));
+        assertEquals(0, view.indexOfLine(6));
+        assertEquals(0, view.indexOfLine(8));
+        assertEquals(1, view.indexOfLine(9));
+        assertEquals(2, view.indexOfLine(15));
+        assertEquals(2, view.indexOfLine(1_000));
+    }
+
+    @Test
+    void lineBeforeTheFirstRowIsNotFound() {
+        LogEntrySource view = base.select(new int[]{2, 4, 7});
+
+        assertEquals(-1, view.indexOfLine(1));
+        assertEquals(-1, view.indexOfLine(4));
+    }
+
+    @Test
+    void emptyViewFindsNothing() {
+        LogEntrySource view = base.select(new int[0]);
+
+        assertEquals(-1, view.indexOfLine(1));
+        assertEquals(-1, view.indexOfLine(10));
+    }
+
+    private static List<LogEntry> entries(int size) {
+        List<LogEntry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new LogEntry(2L * i + 1, 2L * i + 2, "entry " + i));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,136 @@
+package com.seeloggyplus.service.impl;
+
+import com.seeloggyplus.model.LineIndex;
+import com.seeloggyplus.model.LogCacheKey;
+import com.seeloggyplus.model.LogIndex;
+import com.seeloggyplus.model.ParsingConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogIndexStoreTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void savedSidecarIsLoadedAgain() throws IOException {
+        Path log = directory.resolve("app.log");
+        Files.writeString(log, "first\nsecond\n", StandardCharsets.UTF_8);
+        LogIndexStore store = new LogIndexStore(directory.resolve("index"));
+        LogCacheKey key = key(log.toFile());
+
+        store.save(key, config(), twoLineIndex());
+
+        Optional<LogIndex> loaded = store.load(key, config());
+        assertTrue(loaded.isPresent());
+        assertEquals(2, loaded.get().getEntryCount());
+        assertEquals(2, loaded.get().getLineIndex().size());
+    }
+
+    @Test
+    void spillFilesGetNoSidecar() throws IOException {
+        Path spill = Files.createTempFile(Path.of(System.getProperty("java.io.tmpdir")), "seeloggyplus-test-", ".log");
+        try {
+            Files.writeString(spill, "first\nsecond\n", StandardCharsets.UTF_8);
+            assertTrue(CompressedLogFiles.isSpillFile(spill.toFile()));
+            Path indexDirectory = directory.resolve("index");
+            LogIndexStore store = new LogIndexStore(indexDirectory);
+
+            store.save(key(spill.toFile()), config(), twoLineIndex());
+
+            assertFalse(Files.exists(indexDirectory) && sidecarCount(indexDirectory) > 0);
+            assertTrue(store.load(key(spill.toFile()), config()).isEmpty());
+        } finally {
+            Files.deleteIfExists(spill);
+        }
+    }
+
+    @Test
+    void pruneDropsExpiredThenLeastRecentlyUsedSidecars() throws IOException {
+        long now = System.currentTimeMillis();
+        Path newest = sidecar("newest.idx", 400, now);
+        Path recent = sidecar("recent.idx", 400, now - HOUR);
+        Path older = sidecar("older.idx", 400, now - 2 * HOUR);
+        Path expired = sidecar("expired.idx", 10, now - 48 * HOUR);
+        Path justSaved = sidecar("saved.idx", 400, now - 72 * HOUR);
+        Path abandonedTemp = sidecar("index-1.tmp", 10, now - 2 * HOUR);
+        Path activeTemp = sidecar("index-2.tmp", 10, now);
+
+        new LogIndexStore(directory, 1_000, Duration.ofDays(1)).prune(justSaved);
+
+        assertTrue(Files.exists(justSaved), "the sidecar just written is always kept");
+        assertTrue(Files.exists(newest));
+        assertFalse(Files.exists(recent), "over the budget once the kept sidecars are counted");
+        assertFalse(Files.exists(older));
+        assertFalse(Files.exists(expired), "unused for longer than the maximum age");
+        assertFalse(Files.exists(abandonedTemp));
+        assertTrue(Files.exists(activeTemp), "a save may still be writing it");
+    }
+
+    @Test
+    void loadingMarksASidecarAsUsed() throws IOException {
+        Path log = directory.resolve("app.log");
+        Files.writeString(log, "first\nsecond\n", StandardCharsets.UTF_8);
+        Path indexDirectory = directory.resolve("index");
+        LogIndexStore store = new LogIndexStore(indexDirectory);
+        LogCacheKey key = key(log.toFile());
+        store.save(key, config(), twoLineIndex());
+        Path saved;
+        try (Stream<Path> files = Files.list(indexDirectory)) {
+            saved = files.filter(file -> file.toString().endsWith(".idx")).findFirst().orElseThrow();
+        }
+        Files.setLastModifiedTime(saved, FileTime.fromMillis(System.currentTimeMillis() - 10 * HOUR));
+
+        assertTrue(store.load(key, config()).isPresent());
+
+        assertTrue(System.currentTimeMillis() - Files.getLastModifiedTime(saved).toMillis() < HOUR);
+    }
+
+    private Path sidecar(String name, int size, long lastUsed) throws IOException {
+        Path file = directory.resolve(name);
+        Files.write(file, new byte[size]);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastUsed));
+        return file;
+    }
+
+    private static long sidecarCount(Path indexDirectory) throws IOException {
+        try (Stream<Path> files = Files.list(indexDirectory)) {
+            return files.filter(file -> file.toString().endsWith(".idx")).count();
+        }
+    }
+
+    private static LogCacheKey key(File file) {
+        return new LogCacheKey(file.getAbsolutePath(), file.lastModified(), file.length(), "config-1");
+    }
+
+    private static ParsingConfig config() {
+        return new ParsingConfig("test", "^(?<message>.*)$");
+    }
+
+    private static LogIndex twoLineIndex() {
+        LineIndex lineIndex = new LineIndex();
+        lineIndex.add(0);
+        lineIndex.add(6);
+        lineIndex.setEndOffset(13);
+        LogIndex logIndex = new LogIndex(lineIndex);
+        logIndex.addEntry(0, true, (byte) 0, 1_000);
+        logIndex.addEntry(1, true, (byte) 0, 2_000);
+        return logIndex;
+    }
+}
@@ -0,0 +1,158 @@
+package com.seeloggyplus.service.impl;
+
+import com.seeloggyplus.model.LogEntry;
+import com.seeloggyplus.model.ParsingConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogParserServiceTest {
+
+    private static final ParsingConfig CONFIG = new ParsingConfig("test",
+            "^(?<timestamp>\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}) (?<level>[A-Z]+) (?<message>.*)$");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void savedFullTextIsTheWholeEntryByteForByte() throws IOException {
+        StringBuilder entry = new StringBuilder("2024-03-01 12:00:00 ERROR boom é");
+        for (int i = 0; i < 20_000; i++) {
+            entry.append("\n    at com.example.Frame").append(i).append(".call(Frame.java:").append(i).append(')');
+        }
+        String text = "2024-03-01 11:59:59 INFO before\n" + entry + "\n2024-03-01 12:00:01 INFO after\n";
+        File file = write(text.getBytes(StandardCharsets.UTF_8));
+
+        StreamingLogEntrySourceImpl source = new StreamingLogEntrySourceImpl();
+        new LogParserService().parseFileStreaming(file, CONFIG, source, null);
+        LogEntry dump = source.getEntries(1, 1).get(0);
+        assertEquals(2, dump.getLineNumber());
+        assertTrue(dump.getRawLog().length() < entry.length(), "the entry itself only keeps the first lines");
+
+        Path saved = directory.resolve("saved.log");
+        source.saveFullText(dump, saved);
+
+        assertArrayEquals(entry.toString().getBytes(StandardCharsets.UTF_8), Files.readAllBytes(saved));
+    }
+
+    @Test
+    void savedFullTextKeepsTheEncodingOfTheFile() throws IOException {
+        String text = "2024-03-01 12:00:00 ERROR café\n  détail\n2024-03-01 12:00:01 INFO after\n";
+        byte[] bom = {(byte) 0xFF, (byte) 0xFE};
+        byte[] body = text.getBytes(StandardCharsets.UTF_16LE);
+        byte[] bytes = new byte[bom.length + body.length];
+        System.arraycopy(bom, 0, bytes, 0, bom.length);
+        System.arraycopy(body, 0, bytes, bom.length, body.length);
+        File file = write(bytes);
+
+        StreamingLogEntrySourceImpl source = new StreamingLogEntrySourceImpl();
+        new LogParserService().parseFileStreaming(file, CONFIG, source, null);
+        List<LogEntry> entries = source.getEntries(0, 2);
+        Path saved = directory.resolve("saved.log");
+        source.saveFullText(entries.get(0), saved);
+
+        String expected = "2024-03-01 12:00:00 ERROR café\n  détail";
+        byte[] expectedBody = expected.getBytes(StandardCharsets.UTF_16LE);
+        byte[] expectedBytes = new byte[bom.length + expectedBody.length];
+        System.arraycopy(bom, 0, expectedBytes, 0, bom.length);
+        System.arraycopy(expectedBody, 0, expectedBytes, bom.length, expectedBody.length);
+        assertArrayEquals(expectedBytes, Files.readAllBytes(saved));
+    }
+
+    @Test
+    void longUnparsedRunReadsBackLikeTheEagerParse() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5_000; i++) {
+            text.append("banner line ").append(i).append(" without a timestamp\n");
+        }
+        text.append("2024-03-01 12:00:00 INFO started\n");
+        File file = write(text.toString().getBytes(StandardCharsets.UTF_8));
+
+        LogParserService parser = new LogParserService();
+        StreamingLogEntrySourceImpl eager = new StreamingLogEntrySourceImpl();
+        parser.parseFileStreaming(file, CONFIG, eager, null);
+        LogEntry expected = eager.getEntries(0, 1).get(0);
+
+        try (FileBackedLogEntrySourceImpl lazy = new FileBackedLogEntrySourceImpl(file,
+                parser.buildLogIndex(file, CONFIG, null), CONFIG, parser)) {
+            LogEntry run = lazy.getEntries(0, 1).get(0);
+            assertEquals(1, run.getLineNumber());
+            assertEquals(5_000, run.getEndLineNumber());
+            assertEquals(expected.getEndLineNumber(), run.getEndLineNumber());
+            assertEquals(expected.getRawLog(), run.getRawLog());
+            assertTrue(run.getRawLog().length() < 20_000, "only the start of the run is kept");
+            assertEquals(2, lazy.getTotalEntries());
+        }
+    }
+
+    @Test
+    void tinyChunksGiveTheSameEntriesAsOneChunk() throws IOException {
+        StringBuilder text = new StringBuilder("banner\r\n\r\nsecond banner line\r\n");
+        for (int i = 0; i < 40; i++) {
+            text.append("2024-03-01 12:00:").append(String.format("%02d", i)).append(i % 3 == 0 ? " ERROR " : " INFO ")
+                    .append("event ").append(i).append(" é\r\n");
+            for (int j = 0; j < i % 4; j++) {
+                text.append("    at Frame").append(j).append(j % 2 == 0 ? "\r\n" : "\n");
+            }
+        }
+        text.append("2024-03-01 12:01:00 INFO no line break at the end");
+        File file = write(text.toString().getBytes(StandardCharsets.UTF_8));
+
+        LogParserService parser = new LogParserService();
+        List<LogEntry> expected = parseStreaming(parser, file);
+        List<LogEntry> expectedLazy = parseLazy(parser, file);
+        assertEquals(42, expected.size());
+        assertEquals("banner\n\nsecond banner line".replace("\n", System.lineSeparator()), expected.get(0).getRawLog());
+        assertEquals("2024-03-01 12:00:02 INFO event 2 é\r\n    at Frame0\r\n    at Frame1", expected.get(3).getRawLog());
+        assertEquals(7, expected.get(3).getLineNumber());
+        assertEquals(9, expected.get(3).getEndLineNumber());
+        assertSameEntries(expected, expectedLazy, "lazy, one chunk");
+
+        for (long chunkBytes : new long[]{1, 2, 3, 7, 16, 61, 200}) {
+            parser.setFixedChunkBytes(chunkBytes);
+            assertSameEntries(expected, parseStreaming(parser, file), "streaming, " + chunkBytes + "-byte chunks");
+            assertSameEntries(expected, parseLazy(parser, file), "lazy, " + chunkBytes + "-byte chunks");
+        }
+    }
+
+    private static List<LogEntry> parseStreaming(LogParserService parser, File file) throws IOException {
+        StreamingLogEntrySourceImpl source = new StreamingLogEntrySourceImpl();
+        parser.parseFileStreaming(file, CONFIG, source, null);
+        return source.getEntries(0, source.getTotalEntries());
+    }
+
+    private static List<LogEntry> parseLazy(LogParserService parser, File file) throws IOException {
+        try (FileBackedLogEntrySourceImpl source = new FileBackedLogEntrySourceImpl(file,
+                parser.buildLogIndex(file, CONFIG, null), CONFIG, parser)) {
+            return source.getEntries(0, source.getTotalEntries());
+        }
+    }
+
+    private static void assertSameEntries(List<LogEntry> expected, List<LogEntry> actual, String what) {
+        assertEquals(expected.size(), actual.size(), what);
+        for (int i = 0; i < expected.size(); i++) {
+            LogEntry want = expected.get(i);
+            LogEntry got = actual.get(i);
+            String where = what + ", entry " + i;
+            assertEquals(want.getLineNumber(), got.getLineNumber(), where);
+            assertEquals(want.getEndLineNumber(), got.getEndLineNumber(), where);
+            assertEquals(want.getRawLog(), got.getRawLog(), where);
+            assertEquals(want.getParsedFields(), got.getParsedFields(), where);
+            assertEquals(want.getEpochMillis(), got.getEpochMillis(), where);
+        }
+    }
+
+    private File write(byte[] bytes) throws IOException {
+        return Files.write(directory.resolve("app.log"), bytes).toFile();
+    }
+}
@@ -0,0 +1,73 @@
+package com.seeloggyplus.service.impl;
+
+import com.seeloggyplus.exceptions.LogFileChangedException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedLogFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void truncatedFileIsReportedInsteadOfRead() throws IOException, InterruptedException {
+        Path log = Files.writeString(directory.resolve("app.log"),
+                "2024-03-01 12:00:00 INFO started\n".repeat(1_000), StandardCharsets.UTF_8);
+
+        try (MappedLogFile mapped = MappedLogFile.open(log.toFile())) {
+            byte[] line = new byte[32];
+            mapped.read(0, line, 0, line.length);
+            assertEquals("2024-03-01 12:00:00 INFO started", new String(line, StandardCharsets.UTF_8));
+
+            try (RandomAccessFile file = new RandomAccessFile(log.toFile(), "rw")) {
+                file.setLength(10);
+            }
+
+            assertThrows(LogFileChangedException.class, mapped::checkNotTruncated);
+            // Reads stat the file at most every 50 ms
+            Thread.sleep(60);
+            assertThrows(LogFileChangedException.class, () -> mapped.read(0, line, 0, line.length));
+        }
+    }
+
+    @Test
+    void hugeLinesAreDecodedWithoutGrowingTheCachedBuffer() throws IOException {
+        String huge = "x".repeat(3 * MappedLogFile.MAX_SCRATCH_BYTES) + "é";
+        Path log = Files.writeString(directory.resolve("app.log"), "short\n" + huge + "\n", StandardCharsets.UTF_8);
+
+        try (MappedLogFile mapped = MappedLogFile.open(log.toFile())) {
+            assertEquals(huge, mapped.decode(6, mapped.size() - 1, StandardCharsets.UTF_8));
+            assertEquals("short", mapped.decode(0, 5));
+
+            byte[] cached = MappedLogFile.scratch(MappedLogFile.MAX_SCRATCH_BYTES);
+            assertEquals(MappedLogFile.MAX_SCRATCH_BYTES, cached.length);
+            assertSame(cached, MappedLogFile.scratch(16));
+            assertNotSame(MappedLogFile.scratch(MappedLogFile.MAX_SCRATCH_BYTES + 1),
+                    MappedLogFile.scratch(MappedLogFile.MAX_SCRATCH_BYTES + 1));
+        }
+    }
+
+    @Test
+    void grownFileIsStillReadable() throws IOException {
+        Path log = Files.writeString(directory.resolve("app.log"), "first\n", StandardCharsets.UTF_8);
+
+        try (MappedLogFile mapped = MappedLogFile.open(log.toFile())) {
+            Files.writeString(log, "first\nsecond\n", StandardCharsets.UTF_8);
+
+            assertDoesNotThrow(mapped::checkNotTruncated);
+            assertEquals("first", mapped.decode(0, 5));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.seeloggyplus.service.impl;
+
+import com.seeloggyplus.model.LogEntry;
+import com.seeloggyplus.service.LogEntrySource;
+import com.seeloggyplus.util.CancellationToken;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link ParallelFilter} gives exactly the rows of a sequential scan, in order, for
+ * sizes around the block boundaries, and that a cancelled filter throws instead of returning
+ * the blocks it got through.
+ */
+class ParallelFilterTest {
+
+    private static final int BLOCK = ParallelFilter.BLOCK_SIZE;
+    private static final int[] SIZES = {
+            0, 1, 2, BLOCK - 1, BLOCK, BLOCK + 1, 2 * BLOCK - 1, 2 * BLOCK, 2 * BLOCK + 1, 5 * BLOCK + 17
+    };
+
+    private static final List<Predicate<LogEntry>> PREDICATES = List.of(
+            entry -> true,
+            entry -> false,
+            entry -> entry.getLineNumber() % 7 == 3,
+            // Only the rows next to a block boundary
+            entry -> {
+                long row = entry.getLineNumber() - 1;
+                return row % BLOCK == 0 || row % BLOCK == BLOCK - 1;
+            },
+            entry -> entry.getRawLog().contains("ERROR")
+    );
+
+    @Test
+    void matchesSequentialScanAroundBlockBoundaries() {
+        for (int size : SIZES) {
+            List<LogEntry> entries = entries(size);
+            LogEntrySource source = new ListLogEntrySourceImpl(entries);
+            for (int p = 0; p < PREDICATES.size(); p++) {
+                Predicate<LogEntry> predicate = PREDICATES.get(p);
+                DoubleAccumulator progress = new DoubleAccumulator(Math::max, 0);
+
+                LogEntrySource result = source.filter(predicate, new CancellationToken(), progress::accumulate);
+
+                String what = "size " + size + ", predicate " + p;
+                assertArrayEquals(sequentialScan(entries, predicate), lineNumbers(result), what);
+                if (size > 0) {
+                    assertEquals(1.0, progress.get(), what);
+                }
+            }
+        }
+    }
+
+    @Test
+    void filterReturnsAscendingIndices() {
+        List<LogEntry> entries = entries(3 * BLOCK + 5);
+        int[] rows = ParallelFilter.filter(entries.size(), entries::subList, entry -> entry.getLineNumber() % 2 == 0,
+                new CancellationToken(), null);
+
+        assertEquals(entries.size() / 2, rows.length);
+        for (int i = 0; i < rows.length; i++) {
+            assertEquals(2 * i + 1, rows[i]);
+        }
+    }
+
+    @Test
+    void cancelledBeforeStartThrows() {
+        LogEntrySource source = new ListLogEntrySourceImpl(entries(2 * BLOCK + 1));
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+
+        assertThrows(CancellationException.class, () -> source.filter(entry -> true, token, null));
+    }
+
+    @Test
+    void cancelledWhileRunningThrowsAndStopsTheBlocks() throws InterruptedException {
+        int size = 8 * BLOCK;
+        LogEntrySource source = new ListLogEntrySourceImpl(entries(size));
+        CancellationToken token = new CancellationToken();
+        AtomicInteger tested = new AtomicInteger();
+        Predicate<LogEntry> cancelMidway = entry -> {
+            if (tested.incrementAndGet() == BLOCK + BLOCK / 2) {
+                token.cancel();
+            }
+            return true;
+        };
+
+        AtomicReference<LogEntrySource> result = new AtomicReference<>();
+        assertThrows(CancellationException.class, () -> result.set(source.filter(cancelMidway, token, null)));
+        assertNull(result.get(), "no partial result may be returned");
+
+        // Blocks already running stop at their next cancellation check, queued ones never start
+        int afterThrow = tested.get();
+        Thread.sleep(200);
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        assertTrue(tested.get() - afterThrow <= parallelism * 256,
+                "blocks kept testing entries after the filter was cancelled");
+        assertTrue(tested.get() < size, "every entry was tested although the filter was cancelled");
+    }
+
+    @Test
+    void failingPredicateFailsTheWholeFilter() {
+        LogEntrySource source = new ListLogEntrySourceImpl(entries(3 * BLOCK));
+        CancellationToken token = new CancellationToken();
+        Predicate<LogEntry> failing = entry -> {
+            if (entry.getLineNumber() == 2L * BLOCK + 10) {
+                throw new IllegalArgumentException("bad entry");
+            }
+            return true;
+        };
+
+        assertThrows(IllegalStateException.class, () -> source.filter(failing, token, null));
+        assertTrue(token.isCancelled(), "the other blocks are cancelled when one fails");
+    }
+
+    private static long[] sequentialScan(List<LogEntry> entries, Predicate<LogEntry> predicate) {
+        return entries.stream().filter(predicate).mapToLong(LogEntry::getLineNumber).toArray();
+    }
+
+    private static long[] lineNumbers(LogEntrySource source) {
+        return source.getEntries(0, source.getTotalEntries()).stream().mapToLong(LogEntry::getLineNumber).toArray();
+    }
+
+    private static List<LogEntry> entries(int size) {
+        String[] levels = {"INFO", "WARN", "ERROR", "DEBUG"};
+        List<LogEntry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new LogEntry(i + 1, levels[(i * 31) % levels.length] + " message " + i));
+        }
+        return entries;
+    }
+}
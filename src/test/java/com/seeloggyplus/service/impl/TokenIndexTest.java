@@ -0,0 +1,178 @@
+package com.seeloggyplus.service.impl;
+
+import com.seeloggyplus.model.LogEntry;
+import com.seeloggyplus.service.LogEntrySource;
+import com.seeloggyplus.util.CancellationToken;
+import com.seeloggyplus.util.SearchQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link TokenIndex#candidates} never drops a row a full scan matches.
+ */
+class TokenIndexTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final String[] WORDS = {
+            "INFO", "WARN", "ERROR", "DEBUG", "connection", "refused", "timeout", "timed", "out", "user_id",
+            "OrderService", "payment", "failed", "retry", "Café", "Über", "db-01", "10.0.0.1", "GET",
+            "/api/v1/orders", "latency=12ms", "NullPointerException", "at", "com.example", "x", "_", "42"
+    };
+    private static final String[] SEPARATORS = {" ", " ", " ", ", ", ": ", " - ", "\t", "=", "(", ")", "\""};
+
+    /**
+     * Plain terms, phrases across word boundaries, substrings inside words, boolean operators
+     * and case-sensitive variants.
+     */
+    private static final List<String> QUERIES = List.of(
+            "error",
+            "ERROR",
+            "connection refused",
+            "\"connection refused\"",
+            "time",
+            "imeou",
+            "timed out",
+            "user_id",
+            "ser_i",
+            "café",
+            "über",
+            "db-01",
+            "10.0.0",
+            "/api/v1",
+            "latency=12",
+            "NullPointer",
+            "com.example",
+            "error AND timeout",
+            "error OR warn",
+            "(payment OR retry) AND failed",
+            "error AND NOT timeout",
+            "NOT debug",
+            "payment failed OR connection",
+            "orderservice AND (get OR 42)",
+            "x",
+            "_",
+            "e",
+            "missingword",
+            "refused AND missingword",
+            "missingword OR refused",
+            "\"ms, \"",
+            "Error"
+    );
+
+    @Test
+    void candidatesContainEveryMatchingRow() {
+        LogEntrySource source = generate(ROWS, 1);
+        TokenIndex index = TokenIndex.build(source, Long.MAX_VALUE, new CancellationToken(), null);
+        assertTrue(index.isComplete());
+        assertEquals(32, QUERIES.size());
+
+        int narrowed = 0;
+        for (String text : QUERIES) {
+            for (boolean caseSensitive : new boolean[]{false, true}) {
+                SearchQuery query = SearchQuery.compile(text, caseSensitive);
+                if (assertSuperset(source, index, query, text)) {
+                    narrowed++;
+                }
+            }
+        }
+        // Otherwise the check above would pass without the index doing anything
+        assertTrue(narrowed >= QUERIES.size(), "only " + narrowed + " queries were narrowed");
+        assertEquals(0, index.candidates(SearchQuery.compile("missingword", false), ROWS).length);
+    }
+
+    @Test
+    void rowsPastTheMemoryBudgetAreAlwaysCandidates() {
+        LogEntrySource source = generate(100_000, 2);
+        TokenIndex index = TokenIndex.build(source, 64 * 1024, new CancellationToken(), null);
+        assertFalse(index.isComplete());
+        assertTrue(index.getIndexedRows() > 0 && index.getIndexedRows() < source.getTotalEntries());
+
+        for (String text : QUERIES) {
+            assertSuperset(source, index, SearchQuery.compile(text, false), text);
+        }
+    }
+
+    @Test
+    void rowsAppendedAfterTheBuildAreAlwaysCandidates() {
+        List<LogEntry> entries = new ArrayList<>(generateEntries(50_000, 3));
+        LogEntrySource source = new ListLogEntrySourceImpl(entries);
+        TokenIndex index = TokenIndex.build(source, Long.MAX_VALUE, new CancellationToken(), null);
+        entries.addAll(generateEntries(10_000, 4));
+
+        for (String text : QUERIES) {
+            assertSuperset(source, index, SearchQuery.compile(text, false), text);
+        }
+    }
+
+    @Test
+    void matchAllQueriesAreNotNarrowed() {
+        LogEntrySource source = generate(1_000, 5);
+        TokenIndex index = TokenIndex.build(source, Long.MAX_VALUE, new CancellationToken(), null);
+        assertNull(index.candidates(SearchQuery.compile("", false), source.getTotalEntries()));
+    }
+
+    @Test
+    void cancelledBuildThrows() {
+        LogEntrySource source = generate(100_000, 6);
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        assertThrows(CancellationException.class, () -> TokenIndex.build(source, Long.MAX_VALUE, token, null));
+    }
+
+    /**
+     * @return whether the index narrowed the query at all
+     */
+    private static boolean assertSuperset(LogEntrySource source, TokenIndex index, SearchQuery query, String text) {
+        int total = source.getTotalEntries();
+        int[] candidates = index.candidates(query, total);
+        if (candidates == null) {
+            return false;
+        }
+        for (int i = 1; i < candidates.length; i++) {
+            assertTrue(candidates[i - 1] < candidates[i], "candidates must be ascending and distinct: " + text);
+        }
+        List<LogEntry> entries = source.getEntries(0, total);
+        for (int row = 0; row < total; row++) {
+            if (query.matches(entries.get(row).getRawLog())) {
+                int row1 = row;
+                assertTrue(Arrays.binarySearch(candidates, row) >= 0,
+                        () -> "row " + row1 + " matches " + query + " for '" + text + "' but is no candidate: "
+                                + entries.get(row1).getRawLog());
+            }
+        }
+        return true;
+    }
+
+    private static LogEntrySource generate(int rows, long seed) {
+        return new ListLogEntrySourceImpl(generateEntries(rows, seed));
+    }
+
+    private static List<LogEntry> generateEntries(int rows, long seed) {
+        Random random = new Random(seed);
+        List<LogEntry> entries = new ArrayList<>(rows);
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            line.setLength(0);
+            int words = 1 + random.nextInt(10);
+            for (int w = 0; w < words; w++) {
+                if (w > 0) {
+                    line.append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+                }
+                line.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            entries.add(new LogEntry(i + 1, line.toString()));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,71 @@
+package com.seeloggyplus.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ColumnDiscoveryTest {
+
+    @Test
+    void wellKnownColumnsComeFirstAndMessageLast() {
+        ColumnDiscovery discovery = new ColumnDiscovery();
+        discovery.addLine(List.of("request_id", "msg", "Level", "@timestamp", "user"));
+        discovery.addLine(List.of("duration", "logger_name", "msg", "request_id"));
+
+        ColumnDiscovery.Columns columns = discovery.result();
+
+        assertEquals(List.of("timestamp", "level", "logger", "request_id", "user", "duration", "message"),
+                columns.names());
+        assertEquals(List.of("@timestamp", "Level", "logger_name", "request_id", "user", "duration", "msg"),
+                columns.keys());
+        assertEquals(2, discovery.getLineCount());
+    }
+
+    @Test
+    void earlierAliasWinsAndTheOtherStaysAColumn() {
+        ColumnDiscovery discovery = new ColumnDiscovery();
+        discovery.addLine(List.of("time", "timestamp", "log", "message"));
+
+        ColumnDiscovery.Columns columns = discovery.result();
+
+        assertEquals(List.of("timestamp", "time", "log", "message"), columns.names());
+        assertEquals(List.of("timestamp", "time", "log", "message"), columns.keys());
+    }
+
+    @Test
+    void columnsAreCappedWithMessageKept() {
+        List<String> keys = new ArrayList<>(List.of("ts"));
+        for (int i = 0; i < 30; i++) {
+            keys.add("field" + i);
+        }
+        keys.add("msg");
+        ColumnDiscovery discovery = new ColumnDiscovery();
+        discovery.addLine(keys);
+
+        List<String> names = discovery.result().names();
+
+        assertEquals(ColumnDiscovery.MAX_COLUMNS, names.size());
+        assertEquals("timestamp", names.get(0));
+        assertEquals("field0", names.get(1));
+        assertEquals("field" + (ColumnDiscovery.MAX_COLUMNS - 3), names.get(ColumnDiscovery.MAX_COLUMNS - 2));
+        assertEquals("message", names.get(ColumnDiscovery.MAX_COLUMNS - 1));
+    }
+
+    @Test
+    void withoutMessageTheCapIsAllOtherKeys() {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            keys.add("field" + i);
+        }
+        ColumnDiscovery discovery = new ColumnDiscovery();
+        discovery.addLine(keys);
+
+        List<String> names = discovery.result().names();
+
+        assertEquals(ColumnDiscovery.MAX_COLUMNS, names.size());
+        assertEquals("field" + (ColumnDiscovery.MAX_COLUMNS - 1), names.get(ColumnDiscovery.MAX_COLUMNS - 1));
+    }
+}
@@ -0,0 +1,100 @@
+package com.seeloggyplus.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Times {@link FastPathParser} against {@code Matcher.find()} on a standard logback layout.
+ * Run with {@code gradle benchmarkFastPath}; the optional argument is the number of lines.
+ */
+public final class FastPathParserBenchmark {
+
+    private static final String LOGBACK_LAYOUT =
+            "^(?<timestamp>\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}[.,]\\d{3}) \\[(?<thread>[^\\]]+)\\] "
+                    + "(?<level>\\w+)\\s+(?<logger>\\S+) - (?<message>.*)$";
+    private static final List<String> GROUP_NAMES = List.of("timestamp", "thread", "level", "logger", "message");
+    private static final String[] LEVELS = {"TRACE", "DEBUG", "INFO", "WARN", "ERROR"};
+    private static final int ROUNDS = 5;
+
+    private FastPathParserBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int lineCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<String> lines = generateLines(lineCount);
+        Pattern pattern = Pattern.compile(LOGBACK_LAYOUT);
+        FastPathParser fastPath = FastPathParser.compile(LOGBACK_LAYOUT, GROUP_NAMES);
+        if (fastPath == null) {
+            throw new IllegalStateException("The logback layout no longer takes the fast path");
+        }
+
+        long checksum = 0;
+        for (int round = 1; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            checksum += runRegex(pattern, lines);
+            long regexNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            checksum += runFastPath(fastPath, pattern, lines);
+            long fastNanos = System.nanoTime() - start;
+
+            System.out.printf("round %d: regex %,d ms, fast path %,d ms, %.1fx%n", round, regexNanos / 1_000_000,
+                    fastNanos / 1_000_000, (double) regexNanos / fastNanos);
+        }
+        System.out.println("checksum " + checksum);
+    }
+
+    private static long runRegex(Pattern pattern, List<String> lines) {
+        long sum = 0;
+        for (String line : lines) {
+            Matcher matcher = pattern.matcher(line);
+            if (matcher.find()) {
+                for (String name : GROUP_NAMES) {
+                    sum += matcher.end(name) - matcher.start(name);
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Does what the parser does: the fast path first, the regex for lines it hands back.
+     */
+    private static long runFastPath(FastPathParser fastPath, Pattern pattern, List<String> lines) {
+        long sum = 0;
+        for (String line : lines) {
+            int[] bounds = fastPath.parse(line);
+            if (bounds == FastPathParser.FALLBACK) {
+                sum += runRegex(pattern, List.of(line));
+            } else if (bounds != null) {
+                for (int g = 0; g < bounds.length; g += 2) {
+                    sum += bounds[g + 1] - bounds[g];
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Mostly matching lines, with the occasional stack trace line a real log interleaves.
+     */
+    private static List<String> generateLines(int count) {
+        Random random = new Random(42);
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(20) == 0) {
+                lines.add("\tat com.example.service.OrderService.process(OrderService.java:" + random.nextInt(500) + ")");
+                continue;
+            }
+            lines.add(String.format("2024-03-%02d %02d:%02d:%02d.%03d [worker-%d] %-5s com.example.service.Component%d"
+                            + " - Processed request %d for user %d in %d ms",
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60),
+                    random.nextInt(1000), random.nextInt(16), LEVELS[random.nextInt(LEVELS.length)],
+                    random.nextInt(40), i, random.nextInt(100_000), random.nextInt(2_000)));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,252 @@
+package com.seeloggyplus.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Differential test of {@link FastPathParser} against {@code Matcher.find()}: every pattern the
+ * fast path accepts must report the same group bounds as the regex engine for every line, or
+ * hand the line back with {@link FastPathParser#FALLBACK}.
+ */
+class FastPathParserTest {
+
+    private static final Pattern GROUP_NAME = Pattern.compile("\\(\\?<([a-zA-Z][a-zA-Z0-9]*)>");
+
+    /**
+     * Patterns the fast path must take, shaped like the layouts users configure.
+     */
+    private static final List<String> ACCEPTED = List.of(
+            "^(?<timestamp>\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}[.,]\\d{3}) \\[(?<thread>[^\\]]+)\\] "
+                    + "(?<level>\\w+)\\s+(?<logger>\\S+) - (?<message>.*)$",
+            "(?<timestamp>\\d{4}-\\d{2}-\\d{2} \\S+) \\[(?<thread>[^\\]]+)\\] (?<level>\\w+) (?<message>.*)",
+            "^(?<level>[A-Z]+): (?<message>.*)",
+            "(?<ip>\\d+\\.\\d+\\.\\d+\\.\\d+) - - \\[(?<timestamp>[^\\]]+)\\] \"(?<request>[^\"]*)\" "
+                    + "(?<status>\\d{3}) (?<size>\\S+)",
+            "^(?<timestamp>\\S+)\\t(?<level>\\w+)\\t(?<message>.*)$",
+            "^(?<level>\\w+) \u00bb (?<message>.*)",
+            "^(?<prefix>.{3})(?<message>.*)",
+            "(?<user>[^@\\s]+)@(?<host>[\\w.-]+)",
+            "^\\[(?<level>[A-Z ]{5})\\] (?<message>.+)$",
+            "^(?<level>\\w+):? (?<message>.*)",
+            "(?<code>[A-Z]{2,4}-\\d{1,5})",
+            "^(?<time>\\d\\d:\\d\\d)(?<message>.*)$"
+    );
+
+    /**
+     * Patterns whose greedy scan could differ from the regex, or that use unsupported syntax.
+     */
+    private static final List<String> REJECTED = List.of(
+            "^(?<level>ERROR|WARN) (?<message>.*)",
+            "^(?<word>\\w+)(?<rest>\\w*)$",
+            "^(?<any>.*) (?<last>\\S+)$",
+            "^(?<code>\\d{1,3})x?(?<rest>[a-z]*)$",
+            "^(?<message>.*?)$",
+            "^(?<level>\\w++) (?<message>.*)",
+            "^(?<outer>(?<inner>\\w+))",
+            "^(\\w+) (?<message>.*)",
+            "(?i)(?<level>error)",
+            "^(?<word>\\w+)\\1",
+            "^(?<level>\\w+)(?= )",
+            "^(?<level>[\\w&&[^_]]+)",
+            "^(?<level>\\p{Upper}+)"
+    );
+
+    private static final String[] FIXTURES = {
+            "2024-03-01 12:00:00.123 [main] INFO  com.example.App - Started in 1.2 s",
+            "2024-03-01 12:00:00,123 [pool-1-thread-3] ERROR c.e.Service - Failed: [x] y",
+            "2024-03-01 12:00:00.123 [main] INFO com.example.App - trailing newline\n",
+            "2024-03-01 12:00:00.123 [main] INFO com.example.App - crlf\r\n",
+            "2024-03-01 12:00:00.123 [main] INFO com.example.App - \u2028 separator",
+            "2024-03-01 12:00:00.123 [m\u00e4in] WARN com.example.\u00c4pp - caf\u00e9 \uD83D\uDE00",
+            "2024-03-01T12:00:00Z\tINFO\tmessage with\ttabs",
+            "WARN: disk almost full",
+            "WARN \u00bb something happened",
+            "\uD83D\uDE00ab rest of line",
+            "a\uD83D\uDE00b",
+            "contact admin@example.com or root@host-1.local",
+            "127.0.0.1 - - [01/Mar/2024:12:00:00 +0000] \"GET / HTTP/1.1\" 200 512",
+            "[ERROR] broken",
+            "[WARN ] fine",
+            "INFO: colon",
+            "INFO no colon",
+            "see JIRA-1234 and AB-7",
+            "12:34 lunch\n",
+            "12:34\r",
+            "12:34\u0085",
+            "12:3",
+            "",
+            " ",
+            "\n",
+            "    at com.example.App.main(App.java:10)",
+    };
+
+    private static final String NOISE_ALPHABET =
+            "0123456789-:., []@\t\"_abcXYZ\u00e4\u00bb\u00e9\r\n\u0085\u2028\uD83D\uDE00\uD83D";
+
+    @Test
+    void acceptsCommonLayouts() {
+        for (String regex : ACCEPTED) {
+            assertNotNull(FastPathParser.compile(regex, groupNames(regex)), () -> "should take the fast path: " + regex);
+        }
+    }
+
+    @Test
+    void rejectsPatternsItCannotDecide() {
+        for (String regex : REJECTED) {
+            assertNull(FastPathParser.compile(regex, groupNames(regex)), () -> "should be left to the regex: " + regex);
+        }
+    }
+
+    @Test
+    void matchesRegexOnFixtureLines() {
+        for (String regex : ACCEPTED) {
+            for (String line : FIXTURES) {
+                assertSameAsRegex(regex, line);
+            }
+        }
+    }
+
+    @Test
+    void matchesRegexOnMutatedAndRandomLines() {
+        Random random = new Random(9);
+        for (String regex : ACCEPTED) {
+            for (String fixture : FIXTURES) {
+                for (int i = 0; i < 200; i++) {
+                    assertSameAsRegex(regex, mutate(fixture, random));
+                }
+            }
+            for (int i = 0; i < 2_000; i++) {
+                assertSameAsRegex(regex, noise(random, random.nextInt(40)));
+            }
+        }
+    }
+
+    @Test
+    void reportsGroupsInRequestedOrder() {
+        String regex = "^(?<level>[A-Z]+): (?<message>.*)";
+        FastPathParser parser = FastPathParser.compile(regex, List.of("message", "level", "missing"));
+        assertNull(parser, "every requested group has to exist in the pattern");
+
+        parser = FastPathParser.compile(regex, List.of("message", "level"));
+        assertNotNull(parser);
+        assertArrayEquals(new int[]{6, 10, 0, 4}, parser.parse("WARN: full"));
+    }
+
+    @Test
+    void fallsBackOnSurrogatesInCountedElements() {
+        String regex = "^(?<prefix>.{3})(?<message>.*)";
+        FastPathParser parser = FastPathParser.compile(regex, groupNames(regex));
+        assertNotNull(parser);
+        assertSame(FastPathParser.FALLBACK, parser.parse("\uD83D\uDE00ab rest"));
+        assertSameAsRegex(regex, "\uD83D\uDE00ab rest");
+    }
+
+    @Test
+    void fallsBackWhenDollarMayMatchBeforeLineTerminator() {
+        String regex = "^(?<time>\\d\\d:\\d\\d)(?<message>.*)$";
+        FastPathParser parser = FastPathParser.compile(regex, groupNames(regex));
+        assertNotNull(parser);
+        for (String line : new String[]{"12:34\n", "12:34\r\n", "12:34\u2028"}) {
+            assertSame(FastPathParser.FALLBACK, parser.parse(line));
+            assertSameAsRegex(regex, line);
+        }
+        assertNull(parser.parse("12:34\n\n\n"));
+    }
+
+    /**
+     * Runs one line through both paths. A fallback is only acceptable where the regex engine's
+     * code point and line terminator rules come into play.
+     */
+    private static void assertSameAsRegex(String regex, String line) {
+        List<String> names = groupNames(regex);
+        int[] fast = FastPathParser.compile(regex, names).parse(line);
+        if (fast == FastPathParser.FALLBACK) {
+            assertTrue(hasSurrogate(line) || hasLineTerminatorNearEnd(line),
+                    () -> "unexpected fallback for " + describe(regex, line));
+            return;
+        }
+        assertArrayEquals(regexBounds(regex, names, line), fast, () -> describe(regex, line));
+    }
+
+    private static int[] regexBounds(String regex, List<String> names, String line) {
+        Matcher matcher = Pattern.compile(regex).matcher(line);
+        if (!matcher.find()) {
+            return null;
+        }
+        int[] bounds = new int[names.size() * 2];
+        for (int i = 0; i < names.size(); i++) {
+            bounds[i * 2] = matcher.start(names.get(i));
+            bounds[i * 2 + 1] = matcher.end(names.get(i));
+        }
+        return bounds;
+    }
+
+    private static List<String> groupNames(String regex) {
+        List<String> names = new ArrayList<>();
+        Matcher matcher = GROUP_NAME.matcher(regex);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        return names;
+    }
+
+    private static String mutate(String line, Random random) {
+        StringBuilder mutated = new StringBuilder(line);
+        int edits = 1 + random.nextInt(3);
+        for (int i = 0; i < edits; i++) {
+            int at = mutated.length() == 0 ? 0 : random.nextInt(mutated.length());
+            char c = NOISE_ALPHABET.charAt(random.nextInt(NOISE_ALPHABET.length()));
+            switch (random.nextInt(3)) {
+                case 0 -> mutated.insert(at, c);
+                case 1 -> {
+                    if (at < mutated.length()) {
+                        mutated.deleteCharAt(at);
+                    }
+                }
+                default -> {
+                    if (at < mutated.length()) {
+                        mutated.setCharAt(at, c);
+                    }
+                }
+            }
+        }
+        return mutated.toString();
+    }
+
+    private static String noise(Random random, int length) {
+        StringBuilder line = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            line.append(NOISE_ALPHABET.charAt(random.nextInt(NOISE_ALPHABET.length())));
+        }
+        return line.toString();
+    }
+
+    private static boolean hasSurrogate(String line) {
+        return line.chars().anyMatch(c -> Character.isSurrogate((char) c));
+    }
+
+    private static boolean hasLineTerminatorNearEnd(String line) {
+        for (int i = Math.max(0, line.length() - 2); i < line.length(); i++) {
+            if ("\n\r\u0085\u2028\u2029".indexOf(line.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String describe(String regex, String line) {
+        return regex + " on " + Arrays.toString(line.chars().toArray());
+    }
+}
@@ -0,0 +1,97 @@
+package com.seeloggyplus.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JsonLinesParserTest {
+
+    private final JsonLinesParser parser = new JsonLinesParser(List.of("level", "msg", "ctx", "tags", "count"));
+
+    @Test
+    void valuesAreReportedByTheirBounds() {
+        String line = "{\"level\":\"INFO\",\"msg\":\"started\",\"count\":42,\"other\":true}";
+        int[] bounds = parser.parse(line);
+
+        assertArrayEquals(new int[]{10, 14, 23, 30, -1, -1, -1, -1, 40, 42}, bounds);
+        assertEquals("INFO", value(line, bounds, 0));
+        assertEquals("started", value(line, bounds, 1));
+        assertEquals("42", value(line, bounds, 4));
+    }
+
+    @Test
+    void escapedQuotesStayInsideTheValue() {
+        String line = "{\"msg\":\"say \\\"hi\\\" and \\\\ go\",\"level\":\"WARN\"}";
+        int[] bounds = parser.parse(line);
+
+        assertEquals("say \\\"hi\\\" and \\\\ go", value(line, bounds, 1));
+        assertEquals("say \"hi\" and \\ go", JsonLinesParser.decode(value(line, bounds, 1)));
+        assertEquals("WARN", value(line, bounds, 0));
+    }
+
+    @Test
+    void unicodeEscapesAreDecoded() {
+        String line = "{\"msg\":\"caf\\u00e9 \\ud83d\\ude00\\ttab\\nline\"}";
+        int[] bounds = parser.parse(line);
+
+        assertEquals("caf\\u00e9 \\ud83d\\ude00\\ttab\\nline", value(line, bounds, 1));
+        assertEquals("café 😀\ttab\nline", JsonLinesParser.decode(value(line, bounds, 1)));
+        assertEquals("bad \\uZZ", JsonLinesParser.decode("bad \\uZZ"));
+    }
+
+    @Test
+    void nestedObjectsAndArraysAreReportedAsRawJson() {
+        String line = "{\"ctx\":{\"user\":{\"id\":7},\"msg\":\"inner \\\"q\\\"\"},\"tags\":[1,[2,3],{\"a\":\"]\"}],"
+                + "\"msg\":\"outer\"}";
+        int[] bounds = parser.parse(line);
+
+        assertEquals("{\"user\":{\"id\":7},\"msg\":\"inner \\\"q\\\"\"}", value(line, bounds, 2));
+        assertEquals("[1,[2,3],{\"a\":\"]\"}]", value(line, bounds, 3));
+        assertEquals("outer", value(line, bounds, 1), "keys of nested objects are not columns");
+        // Raw JSON has quotes that are not escaped, so decoding leaves it as it is
+        assertEquals(value(line, bounds, 2), JsonLinesParser.decode(value(line, bounds, 2)));
+    }
+
+    @Test
+    void nullAndMissingKeysHaveNoBounds() {
+        String line = "  {\"level\":null, \"msg\":\"\"}";
+        int[] bounds = parser.parse(line);
+
+        assertNotNull(bounds);
+        assertNull(value(line, bounds, 0));
+        assertEquals("", value(line, bounds, 1));
+        assertNull(value(line, bounds, 4));
+    }
+
+    @Test
+    void brokenOrNonObjectLinesAreNotParsed() {
+        assertNull(parser.parse("{\"msg\":\"unterminated"));
+        assertNull(parser.parse("{\"msg\":\"ok\",\"level\":"));
+        assertNull(parser.parse("{\"msg\":\"ok\""));
+        assertNull(parser.parse("[{\"msg\":\"in an array\"}]"));
+        assertNull(parser.parse("\"msg\""));
+        assertNull(parser.parse("2024-03-01 12:00:00 INFO {\"msg\":\"later\"}"));
+        assertNull(parser.parse(""));
+        assertNull(parser.parse("   "));
+
+        assertNull(JsonLinesParser.keys("{\"msg\":\"unterminated"));
+        assertNull(JsonLinesParser.keys("plain text"));
+    }
+
+    @Test
+    void keysAreListedInLineOrder() {
+        assertEquals(List.of("ts", "level", "ctx", "msg"),
+                JsonLinesParser.keys("{\"ts\":1,\"level\":\"INFO\",\"ctx\":{\"nested\":1},\"msg\":\"x\"}"));
+        assertEquals(List.of(), JsonLinesParser.keys("{}"));
+    }
+
+    private static String value(String line, int[] bounds, int column) {
+        int start = bounds[column * 2];
+        return start < 0 ? null : line.substring(start, bounds[column * 2 + 1]);
+    }
+}
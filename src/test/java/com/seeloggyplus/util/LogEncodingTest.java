@@ -0,0 +1,72 @@
+package com.seeloggyplus.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LogEncodingTest {
+
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void windows1252PastTheFirstSampleIsDetected() throws IOException {
+        Path log = write(asciiLines(LogEncoding.SAMPLE_BYTES * 4), "user café logged in\n".getBytes(WINDOWS_1252));
+
+        assertEquals(WINDOWS_1252, LogEncoding.detect(log.toFile()).charset());
+    }
+
+    @Test
+    void windows1252AtTheVeryEndIsDetected() throws IOException {
+        Path log = write(asciiLines(LogEncoding.SAMPLE_BYTES * 40), new byte[]{'r', 'e', 's', 'u', 'm', 0xE9 - 256, '\n'});
+
+        assertEquals(WINDOWS_1252, LogEncoding.detect(log.toFile()).charset());
+    }
+
+    @Test
+    void utf8ThroughoutStaysUtf8() throws IOException {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < LogEncoding.SAMPLE_BYTES * 8) {
+            text.append("2024-03-01 INFO Über café ✓ 😀 done\n");
+        }
+        Path log = write(text.toString().getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(LogEncoding.UTF_8, LogEncoding.detect(log.toFile()));
+    }
+
+    @Test
+    void byteOrderMarkDecidesOutright() throws IOException {
+        Path log = write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}, asciiLines(LogEncoding.SAMPLE_BYTES * 2),
+                new byte[]{(byte) 0xE9, '\n'});
+
+        LogEncoding encoding = LogEncoding.detect(log.toFile());
+        assertEquals(StandardCharsets.UTF_8, encoding.charset());
+        assertEquals(3, encoding.bomLength());
+    }
+
+    private Path write(byte[]... parts) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            bytes.write(part);
+        }
+        return Files.write(directory.resolve("app.log"), bytes.toByteArray());
+    }
+
+    private static byte[] asciiLines(int size) {
+        StringBuilder text = new StringBuilder(size + 64);
+        for (int i = 0; text.length() < size; i++) {
+            text.append("2024-03-01 12:00:00 INFO started worker ").append(i).append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,96 @@
+package com.seeloggyplus.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LogfmtParserTest {
+
+    private final LogfmtParser parser = new LogfmtParser(List.of("level", "msg", "debug", "dur"));
+
+    @Test
+    void valuesAreReportedByTheirBounds() {
+        String line = "ts=2024-03-01T12:00:00Z level=info msg=started dur=12ms";
+        int[] bounds = parser.parse(line);
+
+        assertArrayEquals(new int[]{30, 34, 39, 46, -1, -1, 51, 55}, bounds);
+        assertEquals("info", value(line, bounds, 0));
+        assertEquals("started", value(line, bounds, 1));
+        assertEquals("12ms", value(line, bounds, 3));
+    }
+
+    @Test
+    void quotedValuesKeepEscapedQuotesInside() {
+        String line = "level=warn msg=\"say \\\"hi\\\" to C:\\\\temp\" dur=1s";
+        int[] bounds = parser.parse(line);
+
+        assertEquals("say \\\"hi\\\" to C:\\\\temp", value(line, bounds, 1));
+        assertEquals("say \"hi\" to C:\\temp", LogfmtParser.decode(value(line, bounds, 1)));
+        assertEquals("1s", value(line, bounds, 3));
+    }
+
+    @Test
+    void bareKeysAndEmptyValuesAreEmpty() {
+        String line = "level= debug msg=\"\" dur=5";
+        int[] bounds = parser.parse(line);
+
+        assertEquals("", value(line, bounds, 0));
+        assertEquals("", value(line, bounds, 2), "a key without '=' is a flag");
+        assertEquals("", value(line, bounds, 1));
+        assertEquals("5", value(line, bounds, 3));
+    }
+
+    @Test
+    void firstOfDuplicateKeysWins() {
+        String line = "level=info msg=first level=warn msg=second";
+        int[] bounds = parser.parse(line);
+
+        assertEquals("info", value(line, bounds, 0));
+        assertEquals("first", value(line, bounds, 1));
+        assertEquals(List.of("level", "msg", "level", "msg"), LogfmtParser.keys(line));
+    }
+
+    @Test
+    void unterminatedQuoteRunsToTheEndOfTheLine() {
+        String line = "level=error msg=\"no closing quote dur=3";
+        int[] bounds = parser.parse(line);
+
+        assertEquals("no closing quote dur=3", value(line, bounds, 1));
+        assertNull(value(line, bounds, 3));
+    }
+
+    @Test
+    void strayTokensAreSkipped() {
+        String line = "level=info =oops \"quoted\" msg=after";
+        int[] bounds = parser.parse(line);
+
+        assertEquals("info", value(line, bounds, 0));
+        assertEquals("after", value(line, bounds, 1));
+    }
+
+    @Test
+    void linesNotStartingWithAPairAreNotParsed() {
+        assertNull(parser.parse("    at com.example.Main.run(Main.java:12)"));
+        assertNull(parser.parse("=value level=info"));
+        assertNull(parser.parse("\"key\"=value"));
+        assertNull(parser.parse("plain text without pairs"));
+        assertNull(parser.parse(""));
+        assertNull(LogfmtParser.keys(" level=info"));
+    }
+
+    @Test
+    void decodeOnlyUnescapesKnownEscapes() {
+        assertEquals("C:\\Users\\app", LogfmtParser.decode("C:\\Users\\app"));
+        assertEquals("a\tb\nc\"", LogfmtParser.decode("a\\tb\\nc\\\""));
+        assertEquals("trailing\\", LogfmtParser.decode("trailing\\"));
+    }
+
+    private static String value(String line, int[] bounds, int column) {
+        int start = bounds[column * 2];
+        return start < 0 ? null : line.substring(start, bounds[column * 2 + 1]);
+    }
+}
@@ -0,0 +1,244 @@
+package com.seeloggyplus.util;
+
+import com.seeloggyplus.model.LogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link SearchCriteria#narrows} decides whether a search may only look at the previous result,
+ * so a false positive silently drops matches. Every case checks the answer and, where it is yes,
+ * that the new result is a subset of the previous one on the fixtures; every case that must be no
+ * has a fixture that proves it.
+ */
+class SearchCriteriaTest {
+
+    private static final long MIN = Long.MIN_VALUE;
+    private static final long MAX = Long.MAX_VALUE;
+
+    private static final List<LogEntry> FIXTURES = List.of(
+            parsed(1, "2024 ERROR connection refused by db-01", "ERROR", 1_000),
+            parsed(2, "2024 ERROR connection timeout", "ERROR", 2_000),
+            parsed(3, "2024 WARN Connection Refused, retrying", "WARN", 3_000),
+            parsed(4, "2024 INFO user logged in", "INFO", 4_000),
+            parsed(5, "INFO connection pool started", "INFO", TimestampParser.NO_TIMESTAMP),
+            parsed(6, "2024 DEBUG refused nothing", "DEBUG", 5_000),
+            parsed(7, "2024 error: disk full", "error", 2_500),
+            new LogEntry(8, "    at com.example.Db.connect(Db.java:10) connection refused"),
+            new LogEntry(9, "Caused by: java.net.ConnectException: timeout")
+    );
+
+    private enum Expect {
+        /** narrows() must say yes */
+        NARROWS,
+        /** narrows() must say no, and a fixture shows the new result is not a subset */
+        WIDENS,
+        /** narrows() says no although it would be safe: a conservative miss, not a bug */
+        UNKNOWN
+    }
+
+    private record Case(SearchCriteria previous, SearchCriteria next, Expect expect) {
+    }
+
+    private static final List<Case> TEXT_CASES = List.of(
+            new Case(text("connection"), text("connection refused"), Expect.NARROWS),
+            new Case(text("connection refused"), text("connection"), Expect.WIDENS),
+            new Case(text("refused"), text("connection refused"), Expect.NARROWS),
+            new Case(text("refused"), text("\"connection refused\""), Expect.NARROWS),
+            new Case(text("error"), text("error AND timeout"), Expect.NARROWS),
+            new Case(text("error AND timeout"), text("error"), Expect.WIDENS),
+            new Case(text("error AND timeout"), text("timeout AND error AND db"), Expect.NARROWS),
+            new Case(text("error OR warn"), text("error"), Expect.NARROWS),
+            new Case(text("error"), text("error OR warn"), Expect.WIDENS),
+            new Case(text("error OR warn"), text("warn OR error"), Expect.NARROWS),
+            new Case(text("timeout OR refused"), text("(timeout OR refused) AND error"), Expect.NARROWS),
+            new Case(text("(connection OR disk) AND error"), text("connection AND error"), Expect.NARROWS),
+            new Case(text("connection AND (refused OR timeout)"), text("connection refused"), Expect.NARROWS),
+            // Distribution: equal sets, but only one direction is seen structurally
+            new Case(text("(error AND connection) OR (error AND timeout)"), text("error AND (connection OR timeout)"),
+                    Expect.UNKNOWN),
+            new Case(text("error AND (connection OR timeout)"), text("(error AND connection) OR (error AND timeout)"),
+                    Expect.NARROWS),
+            new Case(text("error AND (connection OR timeout)"), text("error OR timeout"), Expect.WIDENS),
+            // NOT reverses the direction of containment
+            new Case(text("NOT connection"), text("NOT conn"), Expect.NARROWS),
+            new Case(text("NOT conn"), text("NOT connection"), Expect.WIDENS),
+            new Case(text("NOT error"), text("NOT error AND refused"), Expect.NARROWS),
+            new Case(text("NOT error"), text("refused"), Expect.WIDENS),
+            new Case(text("refused"), text("NOT error"), Expect.WIDENS),
+            new Case(text("NOT (error OR warn)"), text("NOT error"), Expect.WIDENS),
+            new Case(text("NOT error"), text("NOT (error OR warn)"), Expect.NARROWS),
+            new Case(text("NOT NOT error"), text("error AND timeout"), Expect.NARROWS),
+            // Case sensitivity
+            new Case(text("Connection", true), text("Connection Refused", true), Expect.NARROWS),
+            new Case(text("Connection", true), text("connection"), Expect.WIDENS),
+            new Case(text("connection"), text("Connection Refused", true), Expect.UNKNOWN),
+            new Case(text("connection", true), text("CONNECTION refused"), Expect.WIDENS),
+            // Regex searches only narrow themselves
+            new Case(regex("conn\\w+ refused"), regex("conn\\w+ refused"), Expect.NARROWS),
+            new Case(regex("refused"), regex("connection refused"), Expect.UNKNOWN),
+            new Case(regex("connection refused"), regex("refused"), Expect.WIDENS),
+            new Case(text("refused"), regex("refused"), Expect.UNKNOWN),
+            new Case(regex("refused"), text("connection"), Expect.WIDENS),
+            // Adding or removing the text
+            new Case(text(""), text("refused"), Expect.NARROWS),
+            new Case(text("refused"), text(""), Expect.WIDENS),
+            new Case(text("refused"), text("   "), Expect.WIDENS)
+    );
+
+    private static final List<Case> FILTER_CASES = List.of(
+            // Levels
+            new Case(level("ALL"), level("ERROR"), Expect.NARROWS),
+            new Case(level("ERROR"), level("ALL"), Expect.WIDENS),
+            new Case(level("ERROR"), level("WARN"), Expect.WIDENS),
+            new Case(level("ERROR"), criteria("timeout", false, "ERROR", MIN, MAX), Expect.NARROWS),
+            new Case(criteria("timeout", false, "ALL", MIN, MAX), criteria("timeout", false, "ERROR", MIN, MAX),
+                    Expect.NARROWS),
+            // The UNPARSED level ignores text and dates, so it only narrows itself
+            new Case(level("UNPARSED"), criteria("connection", false, "UNPARSED", 0, 1), Expect.NARROWS),
+            new Case(criteria("connection", false, "UNPARSED", MIN, MAX), level("UNPARSED"), Expect.NARROWS),
+            new Case(text("connection"), level("UNPARSED"), Expect.WIDENS),
+            new Case(criteria("connection", false, "ALL", 0, 10_000), level("UNPARSED"), Expect.WIDENS),
+            new Case(level("UNPARSED"), text("connection"), Expect.WIDENS),
+            new Case(level("UNPARSED"), level("ERROR"), Expect.WIDENS),
+            new Case(level("ERROR"), level("UNPARSED"), Expect.WIDENS),
+            // Hiding unparsed entries
+            new Case(text("refused"), hidden("refused", "ALL"), Expect.NARROWS),
+            new Case(hidden("refused", "ALL"), text("refused"), Expect.WIDENS),
+            new Case(hidden("", "UNPARSED"), level("UNPARSED"), Expect.WIDENS),
+            new Case(level("UNPARSED"), hidden("", "UNPARSED"), Expect.NARROWS),
+            // Date ranges; entries without a timestamp only pass when there is no range
+            new Case(text(""), dates(1_000, 3_000), Expect.NARROWS),
+            new Case(dates(1_000, 3_000), dates(1_500, 2_500), Expect.NARROWS),
+            new Case(dates(1_500, 2_500), dates(1_000, 3_000), Expect.WIDENS),
+            new Case(dates(1_000, MAX), dates(2_000, MAX), Expect.NARROWS),
+            new Case(dates(MIN, 5_000), dates(MIN, 4_000), Expect.NARROWS),
+            new Case(dates(MIN, 4_000), dates(MIN, 5_000), Expect.WIDENS),
+            new Case(dates(0, MAX), text(""), Expect.WIDENS),
+            new Case(dates(MIN, 10_000), level("INFO"), Expect.WIDENS),
+            new Case(dates(1_000, 3_000), criteria("error", false, "ERROR", 1_000, 3_000), Expect.NARROWS)
+    );
+
+    @Test
+    void textImplicationMatchesTheTable() {
+        for (Case c : TEXT_CASES) {
+            check(c);
+        }
+    }
+
+    @Test
+    void levelUnparsedAndDateFiltersMatchTheTable() {
+        for (Case c : FILTER_CASES) {
+            check(c);
+        }
+    }
+
+    /**
+     * Soundness over every pair of criteria from both tables, not only the listed ones.
+     */
+    @Test
+    void narrowingNeverDropsAMatch() {
+        Set<SearchCriteria> all = new LinkedHashSet<>();
+        for (List<Case> cases : List.of(TEXT_CASES, FILTER_CASES)) {
+            for (Case c : cases) {
+                all.add(c.previous());
+                all.add(c.next());
+            }
+        }
+        for (SearchCriteria previous : all) {
+            for (SearchCriteria next : all) {
+                if (next.narrows(previous)) {
+                    assertSubset(previous, next);
+                }
+            }
+        }
+    }
+
+    @Test
+    void criteriaNarrowThemselves() {
+        for (List<Case> cases : List.of(TEXT_CASES, FILTER_CASES)) {
+            for (Case c : cases) {
+                assertTrue(c.previous().narrows(c.previous()), () -> "should narrow itself: " + c.previous());
+            }
+        }
+    }
+
+    @Test
+    void fixturesCoverEveryKindOfEntry() {
+        assertEquals(2, FIXTURES.stream().filter(entry -> !entry.isParsed()).count());
+        assertEquals(1, FIXTURES.stream().filter(entry -> entry.isParsed()
+                && entry.getEpochMillis() == TimestampParser.NO_TIMESTAMP).count());
+    }
+
+    private static void check(Case c) {
+        boolean narrows = c.next().narrows(c.previous());
+        if (c.expect() == Expect.NARROWS) {
+            assertTrue(narrows, () -> "should narrow: " + c);
+            assertSubset(c.previous(), c.next());
+        } else {
+            assertFalse(narrows, () -> "should not narrow: " + c);
+        }
+        if (c.expect() == Expect.WIDENS) {
+            assertFalse(matches(c.previous()).containsAll(matches(c.next())),
+                    () -> "the fixtures do not show why this must not narrow: " + c);
+        }
+    }
+
+    private static void assertSubset(SearchCriteria previous, SearchCriteria next) {
+        List<Long> previousLines = matches(previous);
+        for (Long line : matches(next)) {
+            assertTrue(previousLines.contains(line),
+                    () -> "line " + line + " matches " + next + " but not " + previous + ", which it narrows");
+        }
+    }
+
+    private static List<Long> matches(SearchCriteria criteria) {
+        List<Long> lines = new ArrayList<>();
+        for (LogEntry entry : FIXTURES) {
+            if (criteria.toPredicate().test(entry)) {
+                lines.add(entry.getLineNumber());
+            }
+        }
+        return lines;
+    }
+
+    private static LogEntry parsed(long line, String raw, String level, long epochMillis) {
+        return new LogEntry(line, raw, Map.of("level", level), epochMillis);
+    }
+
+    private static SearchCriteria criteria(String text, boolean caseSensitive, String level, long from, long to) {
+        return new SearchCriteria(text, false, caseSensitive, false, level, from, to);
+    }
+
+    private static SearchCriteria text(String text) {
+        return text(text, false);
+    }
+
+    private static SearchCriteria text(String text, boolean caseSensitive) {
+        return criteria(text, caseSensitive, "ALL", MIN, MAX);
+    }
+
+    private static SearchCriteria regex(String pattern) {
+        return new SearchCriteria(pattern, true, false, false, "ALL", MIN, MAX);
+    }
+
+    private static SearchCriteria level(String level) {
+        return criteria("", false, level, MIN, MAX);
+    }
+
+    private static SearchCriteria hidden(String text, String level) {
+        return new SearchCriteria(text, false, false, true, level, MIN, MAX);
+    }
+
+    private static SearchCriteria dates(long from, long to) {
+        return criteria("", false, "ALL", from, to);
+    }
+}
@@ -0,0 +1,145 @@
+package com.seeloggyplus.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TimestampParserTest {
+
+    private static final long NO = TimestampParser.NO_TIMESTAMP;
+
+    private TimeZone defaultZone;
+
+    @BeforeEach
+    void useZoneWithDaylightSaving() {
+        defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
+    }
+
+    @AfterEach
+    void restoreZone() {
+        TimeZone.setDefault(defaultZone);
+    }
+
+    @Test
+    void fixedWidthFormatsAreReadDigitByDigit() {
+        TimestampParser parser = TimestampParser.forFormat("yyyy-MM-dd HH:mm:ss.SSS");
+        assertEquals(local(2024, 3, 1, 12, 34, 56, 789), parser.parse("2024-03-01 12:34:56.789"));
+        assertEquals(local(2024, 2, 29, 0, 0, 0, 0), parser.parse("2024-02-29 00:00:00.000"));
+
+        assertEquals(local(2024, 3, 1, 12, 34, 56, 0),
+                TimestampParser.forFormat("dd/MM/yyyy HH:mm:ss").parse("01/03/2024 12:34:56"));
+        assertEquals(local(2024, 3, 1, 12, 34, 0, 0),
+                TimestampParser.forFormat("yyMMdd'T'HHmm").parse("240301T1234"));
+        assertEquals(local(2024, 3, 1, 12, 34, 56, 120),
+                TimestampParser.forFormat("yyyy-MM-dd HH:mm:ss.SS").parse("2024-03-01 12:34:56.12"));
+        assertEquals(local(2024, 3, 1, 12, 34, 56, 123),
+                TimestampParser.forFormat("yyyy-MM-dd HH:mm:ss.SSSSSS").parse("2024-03-01 12:34:56.123456"));
+    }
+
+    @Test
+    void fixedWidthRejectsValuesThatAreNoTimestamp() {
+        TimestampParser parser = TimestampParser.forFormat("yyyy-MM-dd HH:mm:ss");
+        assertEquals(NO, parser.parse("2023-02-29 12:00:00"));
+        assertEquals(NO, parser.parse("2024-13-01 12:00:00"));
+        assertEquals(NO, parser.parse("2024-03-01 24:00:00"));
+        assertEquals(NO, parser.parse("2024-03-01 12:60:00"));
+        assertEquals(NO, parser.parse("not a timestamp at all"));
+        assertEquals(NO, parser.parse(""));
+        assertEquals(NO, parser.parse(null));
+    }
+
+    @Test
+    void fractionLeftOutOfTheFormatIsStillRead() {
+        TimestampParser parser = TimestampParser.forFormat("dd/MM/yyyy HH:mm:ss");
+        assertEquals(local(2024, 3, 1, 12, 34, 56, 123), parser.parse("01/03/2024 12:34:56,123"));
+        assertEquals(local(2024, 3, 1, 12, 34, 56, 500), parser.parse("01/03/2024 12:34:56.5"));
+        assertEquals(0, parser.getMissCount());
+    }
+
+    @Test
+    void valuesNotMatchingTheFormatFallBackToIsoAndEpoch() {
+        TimestampParser parser = TimestampParser.forFormat("dd.MM.yyyy HH:mm");
+        assertEquals(local(2024, 3, 1, 12, 34, 56, 123), parser.parse("2024-03-01 12:34:56,123"));
+        assertEquals(1_709_296_496_000L, parser.parse("1709296496"));
+        assertEquals(NO, parser.parse("yesterday"));
+        assertEquals(3, parser.getMissCount());
+
+        TimestampParser formatter = TimestampParser.forFormat("d/M/yyyy H:mm");
+        assertEquals(local(2024, 3, 1, 9, 5, 0, 0), formatter.parse("1/3/2024 9:05"));
+        assertEquals(local(2024, 3, 1, 9, 5, 0, 0), formatter.parse("2024-03-01T09:05"));
+        assertEquals(1, formatter.getMissCount());
+    }
+
+    @Test
+    void isoLikeVariantsWithoutAFormat() {
+        TimestampParser parser = TimestampParser.forFormat("");
+        assertEquals(local(2024, 3, 1, 0, 0, 0, 0), parser.parse("2024-03-01"));
+        assertEquals(local(2024, 3, 1, 12, 34, 0, 0), parser.parse("2024-03-01T12:34"));
+        assertEquals(local(2024, 3, 1, 12, 34, 56, 0), parser.parse("2024-03-01 12:34:56"));
+        assertEquals(local(2024, 3, 1, 12, 34, 56, 100), parser.parse(" 2024-03-01T12:34:56.1 "));
+        assertEquals(local(2024, 3, 1, 12, 34, 56, 123), parser.parse("2024-03-01T12:34:56,123456789"));
+        assertEquals(utc("2024-03-01T12:34:56.789Z"), parser.parse("2024-03-01T12:34:56.789Z"));
+        assertEquals(utc("2024-03-01T12:34:56+05:30"), parser.parse("2024-03-01T12:34:56+05:30"));
+        assertEquals(utc("2024-03-01T12:34:56-08:00"), parser.parse("2024-03-01 12:34:56-0800"));
+        assertEquals(utc("2024-03-01T12:34:56.5+01:00"), parser.parse("2024-03-01T12:34:56.5+01:00"));
+
+        assertEquals(NO, parser.parse("2024-03-01X12:34"));
+        assertEquals(NO, parser.parse("2024-03-01T12:34:5"));
+        assertEquals(NO, parser.parse("2024-03-01T12:34:56.1234567890"));
+        assertEquals(NO, parser.parse("2024-03-01T12:34:56+19:00"));
+    }
+
+    @Test
+    void epochSecondsAndMillis() {
+        TimestampParser parser = TimestampParser.forFormat(null);
+        assertEquals(1_709_296_496_000L, parser.parse("1709296496"));
+        assertEquals(1_709_296_496_250L, parser.parse("1709296496.25"));
+        assertEquals(1_709_296_496_123L, parser.parse("1709296496.123456"));
+        assertEquals(1_709_296_496_789L, parser.parse("1709296496789"));
+        assertEquals(0L, parser.parse("0"));
+
+        assertEquals(NO, parser.parse("17092964961"));
+        assertEquals(NO, parser.parse("1709296496."));
+        assertEquals(NO, parser.parse("1709296496789.5"));
+        assertEquals(NO, parser.parse("12ab"));
+    }
+
+    @Test
+    void offsetCacheFollowsDaylightSavingTransitions() {
+        for (String zone : new String[]{"Europe/Berlin", "America/New_York", "Australia/Lord_Howe", "Asia/Kolkata"}) {
+            TimeZone.setDefault(TimeZone.getTimeZone(zone));
+            TimestampParser parser = TimestampParser.forFormat("yyyy-MM-dd HH:mm:ss");
+            DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+            // Both 2024 transitions of each zone, in 7-minute steps so every quarter hour is hit
+            // in several places and the cache wraps around between them
+            for (LocalDateTime start : new LocalDateTime[]{LocalDateTime.of(2024, 3, 8, 0, 0),
+                    LocalDateTime.of(2024, 3, 29, 0, 0), LocalDateTime.of(2024, 4, 5, 0, 0),
+                    LocalDateTime.of(2024, 10, 5, 0, 0), LocalDateTime.of(2024, 10, 26, 0, 0),
+                    LocalDateTime.of(2024, 11, 2, 0, 0)}) {
+                for (LocalDateTime time = start; time.isBefore(start.plusDays(2)); time = time.plusMinutes(7)) {
+                    long expected = time.atZone(ZoneId.of(zone)).toInstant().toEpochMilli();
+                    assertEquals(expected, parser.parse(time.format(format)), zone + " " + time);
+                }
+            }
+        }
+    }
+
+    private static long local(int year, int month, int day, int hour, int minute, int second, int millis) {
+        return LocalDateTime.of(year, month, day, hour, minute, second, millis * 1_000_000)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long utc(String isoWithOffset) {
+        return OffsetDateTime.parse(isoWithOffset).withOffsetSameInstant(ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+}